@@ -16,12 +16,14 @@ package com.google.dart.command.analyze;
 import com.google.dart.engine.AnalysisEngine;
 import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.context.AnalysisException;
+import com.google.dart.engine.context.ChangeSet;
 import com.google.dart.engine.element.CompilationUnitElement;
 import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.error.AnalysisError;
 import com.google.dart.engine.error.ErrorSeverity;
 import com.google.dart.engine.error.ErrorType;
 import com.google.dart.engine.internal.context.AnalysisOptionsImpl;
+import com.google.dart.engine.internal.context.ParallelAnalysisDriver;
 import com.google.dart.engine.sdk.DartSdk;
 import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
 import com.google.dart.engine.source.DartUriResolver;
@@ -111,6 +113,11 @@ public class AnalyzerImpl {
     contextOptions.setEnableAsync(options.getEnableAsync());
     contextOptions.setEnableEnum(options.getEnableEnum());
     contextOptions.setHint(!options.getDisableHints());
+    if (options.getWorkerCount() > 1) {
+      contextOptions.setParseThreadCount(options.getWorkerCount());
+      contextOptions.setResolutionThreadCount(options.getWorkerCount());
+      contextOptions.setVerificationThreadCount(options.getWorkerCount());
+    }
 
     // prepare AnalysisContext
     AnalysisContext context = AnalysisEngine.getInstance().createAnalysisContext();
@@ -146,6 +153,11 @@ public class AnalyzerImpl {
       return ErrorSeverity.NONE;
     }
 
+    // optionally analyze the library and its dependencies on several threads first
+    if (options.getWorkerCount() > 1) {
+      performParallelAnalysis(context, librarySource);
+    }
+
     // analyze Source
     LibraryElement library = context.computeLibraryElement(librarySource);
     context.resolveCompilationUnit(librarySource, library);
@@ -378,4 +390,24 @@ public class AnalyzerImpl {
     // some generic file
     return file.toURI();
   }
+
+  /**
+   * Add the given library to the context and perform all of the analysis of it and its
+   * dependencies using several worker threads, so that the results computed afterwards on the
+   * calling thread are already cached.
+   * 
+   * @param context the context in which the library is to be analyzed
+   * @param librarySource the source of the library to be analyzed
+   */
+  private void performParallelAnalysis(AnalysisContext context, Source librarySource) {
+    ChangeSet changeSet = new ChangeSet();
+    changeSet.addedSource(librarySource);
+    context.applyChanges(changeSet);
+    try {
+      new ParallelAnalysisDriver(context, options.getWorkerCount()).performAllTasks();
+    } catch (InterruptedException exception) {
+      // Any remaining analysis is performed on the calling thread.
+      Thread.currentThread().interrupt();
+    }
+  }
 }
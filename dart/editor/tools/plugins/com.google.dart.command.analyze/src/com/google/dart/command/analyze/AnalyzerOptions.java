@@ -204,6 +204,11 @@ public class AnalyzerOptions {
   // usage = "Print both cold and warm performance statistics") // don't show in help
   private boolean warmPerf = false;
 
+  @Option(name = "--worker-threads", //
+  metaVar = "<count>", //
+  usage = "The number of threads used to perform analysis")
+  private int workerCount = 1;
+
   @Argument
   private final String sourceFile = null;
 
@@ -330,6 +335,16 @@ public class AnalyzerOptions {
     return warningsAreFatal;
   }
 
+  /**
+   * Return the number of threads used to perform analysis. Analysis is performed on the calling
+   * thread if the count is less than two.
+   * 
+   * @return the number of threads used to perform analysis
+   */
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
   /**
    * Initialize the SDK path.
    */
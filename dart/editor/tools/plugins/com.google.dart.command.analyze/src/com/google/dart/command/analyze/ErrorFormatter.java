@@ -95,36 +95,7 @@ public class ErrorFormatter {
   }
 
   public void formatError(AnalysisError error) {
-    Source source = error.getSource();
-    Location location = getLocation(source, error.getOffset());
-    int length = error.getLength();
-
-    if (options.getMachineFormat()) {
-      out.println(String.format(
-          "%s|%s|%s|%s|%d|%d|%d|%s",
-          getMachineCode(computeSeverity(error), options.getWarningsAreFatal()),
-          escapePipe(error.getErrorCode().getType().toString()),
-          escapePipe(error.getErrorCode().toString()),
-          escapePipe(source.getFullName()),
-          location.getLineNumber(),
-          location.getColumnNumber(),
-          length,
-          escapePipe(error.getMessage())));
-    } else {
-      String errorType = computeSeverity(error).getDisplayName();
-
-      if (error.getErrorCode().getType() == ErrorType.HINT) {
-        errorType = error.getErrorCode().getType().getDisplayName();
-      }
-
-      // [warning] 'foo' is not a method or function (/Users/devoncarew/tmp/foo.dart, line 1, col 2)
-      out.println(String.format("[%s] %s (%s, line %d, col %d)", //
-          errorType,
-          error.getMessage(),
-          source.getFullName(),
-          location.getLineNumber(),
-          location.getColumnNumber()));
-    }
+    formatError(error, getLocation(error.getSource(), error.getOffset()));
   }
 
   public void formatErrors(List<AnalysisError> errors) {
@@ -135,6 +106,8 @@ public class ErrorFormatter {
     int warnCount = 0;
     int hintCount = 0;
 
+    Location[] locations = getLocations(errors);
+    int errorIndex = 0;
     for (AnalysisError error : errors) {
       ErrorSeverity severity = computeSeverity(error);
       if (severity.equals(ErrorSeverity.ERROR)) {
@@ -153,7 +126,7 @@ public class ErrorFormatter {
         hintCount++;
       }
 
-      formatError(error);
+      formatError(error, locations[errorIndex++]);
     }
 
     if (!options.getMachineFormat()) {
@@ -206,10 +179,73 @@ public class ErrorFormatter {
     }
   }
 
+  /**
+   * Return the locations of the given sorted errors, computing the locations of each run of errors
+   * in the same source in a single pass over the lines of that source.
+   */
+  Location[] getLocations(List<AnalysisError> errors) {
+    int errorCount = errors.size();
+    Location[] locations = new Location[errorCount];
+    int runStart = 0;
+    while (runStart < errorCount) {
+      Source source = errors.get(runStart).getSource();
+      int runEnd = runStart + 1;
+      while (runEnd < errorCount && errors.get(runEnd).getSource().equals(source)) {
+        runEnd++;
+      }
+      LineInfo lineInfo = lineInfoMap.get(source);
+      if (lineInfo == null) {
+        for (int i = runStart; i < runEnd; i++) {
+          locations[i] = new Location(-1, -1);
+        }
+      } else {
+        int[] offsets = new int[runEnd - runStart];
+        for (int i = runStart; i < runEnd; i++) {
+          offsets[i - runStart] = errors.get(i).getOffset();
+        }
+        System.arraycopy(lineInfo.getLocations(offsets), 0, locations, runStart, offsets.length);
+      }
+      runStart = runEnd;
+    }
+    return locations;
+  }
+
   private ErrorSeverity computeSeverity(AnalysisError error) {
     return AnalyzerImpl.computeSeverity(error, options.getEnableTypeChecks());
   }
 
+  private void formatError(AnalysisError error, Location location) {
+    Source source = error.getSource();
+    int length = error.getLength();
+
+    if (options.getMachineFormat()) {
+      out.println(String.format(
+          "%s|%s|%s|%s|%d|%d|%d|%s",
+          getMachineCode(computeSeverity(error), options.getWarningsAreFatal()),
+          escapePipe(error.getErrorCode().getType().toString()),
+          escapePipe(error.getErrorCode().toString()),
+          escapePipe(source.getFullName()),
+          location.getLineNumber(),
+          location.getColumnNumber(),
+          length,
+          escapePipe(error.getMessage())));
+    } else {
+      String errorType = computeSeverity(error).getDisplayName();
+
+      if (error.getErrorCode().getType() == ErrorType.HINT) {
+        errorType = error.getErrorCode().getType().getDisplayName();
+      }
+
+      // [warning] 'foo' is not a method or function (/Users/devoncarew/tmp/foo.dart, line 1, col 2)
+      out.println(String.format("[%s] %s (%s, line %d, col %d)", //
+          errorType,
+          error.getMessage(),
+          source.getFullName(),
+          location.getLineNumber(),
+          location.getColumnNumber()));
+    }
+  }
+
   private String getMachineCode(ErrorSeverity severity, boolean warningsAreFatal) {
     if (severity.equals(ErrorSeverity.WARNING) && warningsAreFatal) {
       return ErrorSeverity.ERROR.name();
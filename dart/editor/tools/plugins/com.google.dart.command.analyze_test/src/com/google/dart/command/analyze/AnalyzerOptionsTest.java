@@ -25,6 +25,7 @@ public class AnalyzerOptionsTest extends TestCase {
     assertFalse(options.getMachineFormat());
     assertNull("foo", options.getPackageRootPath());
     assertFalse(options.getShowPackageWarnings());
+    assertEquals(1, options.getWorkerCount());
   }
 
   public void test_getMachineFormat() {
@@ -52,6 +53,13 @@ public class AnalyzerOptionsTest extends TestCase {
     assertTrue(options.getShowSdkWarnings());
   }
 
+  public void test_getWorkerCount() {
+    AnalyzerOptions options = AnalyzerOptions.createFromArgs(new String[] {
+        "--worker-threads",
+        "8"});
+    assertEquals(8, options.getWorkerCount());
+  }
+
   public void test_processArgs_17234() {
     // 17234 verifies that a NPE isn't encountered when there is no value after "="
     AnalyzerOptions options = AnalyzerOptions.createFromArgs(new String[] {"--format="});
@@ -15,6 +15,7 @@
 package com.google.dart.command.analyze;
 
 import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.parser.ParserErrorCode;
 import com.google.dart.engine.resolver.ResolverErrorCode;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.TestSource;
@@ -27,11 +28,38 @@ import junit.framework.TestCase;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ErrorFormatterTest extends TestCase {
 
+  public void test_formatErrors_locations() throws UnsupportedEncodingException {
+    AnalyzerOptions options = AnalyzerOptions.createFromArgs(new String[] {"--format=machine"});
+
+    Source source = new TestSource();
+    Source otherSource = new TestSource(createFile("/other.dart"), "");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Map<Source, LineInfo> lineInfoMap = new HashMap<Source, LineInfo>();
+    lineInfoMap.put(source, new LineInfo(new int[] {0, 10, 20}));
+    ErrorFormatter formatter = new ErrorFormatter(new PrintStream(out), options, lineInfoMap);
+
+    ArrayList<AnalysisError> errors = new ArrayList<AnalysisError>();
+    errors.add(new AnalysisError(source, 25, 1, ParserErrorCode.EXPECTED_TOKEN, ";"));
+    errors.add(new AnalysisError(otherSource, 3, 1, ParserErrorCode.EXPECTED_TOKEN, ";"));
+    errors.add(new AnalysisError(source, 2, 1, ParserErrorCode.EXPECTED_TOKEN, ";"));
+    errors.add(new AnalysisError(source, 12, 1, ParserErrorCode.EXPECTED_TOKEN, ";"));
+
+    formatter.formatErrors(errors);
+
+    String[] lines = out.toString("UTF-8").trim().split("\\r?\\n");
+    assertEquals(4, lines.length);
+    assertTrue(lines[0], lines[0].contains("|/other.dart|-1|-1|1|"));
+    assertTrue(lines[1], lines[1].contains("|/test.dart|1|3|1|"));
+    assertTrue(lines[2], lines[2].contains("|/test.dart|2|3|1|"));
+    assertTrue(lines[3], lines[3].contains("|/test.dart|3|6|1|"));
+  }
+
   public void test_format_machine() throws UnsupportedEncodingException {
     AnalyzerOptions options = AnalyzerOptions.createFromArgs(new String[] {"--format=machine"});
 
@@ -35,7 +35,7 @@ public abstract class AnnotatedNode extends AstNode {
   /**
    * The annotations associated with this node.
    */
-  private NodeList<Annotation> metadata = new NodeList<Annotation>(this);
+  private NodeList<Annotation> metadata;
 
   /**
    * Initialize a newly created node.
@@ -45,7 +45,7 @@ public abstract class AnnotatedNode extends AstNode {
    */
   public AnnotatedNode(Comment comment, List<Annotation> metadata) {
     this.comment = becomeParentOf(comment);
-    this.metadata.addAll(metadata);
+    this.metadata = NodeList.create(this, metadata);
   }
 
   @Override
@@ -101,8 +101,7 @@ public abstract class AnnotatedNode extends AstNode {
    * @param metadata the metadata to be associated with this node
    */
   public void setMetadata(List<Annotation> metadata) {
-    this.metadata.clear();
-    this.metadata.addAll(metadata);
+    this.metadata = NodeList.create(this, metadata);
   }
 
   @Override
@@ -18,8 +18,6 @@ import com.google.dart.engine.scanner.Token;
 import com.google.dart.engine.utilities.io.PrintStringWriter;
 
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The abstract class {@code AstNode} defines the behavior common to all nodes in the AST structure
@@ -39,10 +37,12 @@ public abstract class AstNode {
   private AstNode parent;
 
   /**
-   * A table mapping the names of properties to their values, or {@code null} if this node does not
-   * have any properties associated with it.
+   * The names of the properties associated with this node, each followed by its value, or
+   * {@code null} if this node does not have any properties associated with it. Very few nodes have
+   * properties, and those that do rarely have more than one, so a flat array is both smaller and
+   * faster than a map.
    */
-  private Map<String, Object> propertyMap;
+  private Object[] properties;
 
   /**
    * A comparator that can be used to sort AST nodes in lexical order. In other words,
@@ -155,10 +155,11 @@ public abstract class AstNode {
    * @return the value of the property with the given name
    */
   public Object getProperty(String propertyName) {
-    if (propertyMap == null) {
+    int index = indexOfProperty(propertyName);
+    if (index < 0) {
       return null;
     }
-    return propertyMap.get(propertyName);
+    return properties[index + 1];
   }
 
   /**
@@ -196,18 +197,30 @@ public abstract class AstNode {
    * @param propertyValue the new value of the property
    */
   public void setProperty(String propertyName, Object propertyValue) {
+    int index = indexOfProperty(propertyName);
     if (propertyValue == null) {
-      if (propertyMap != null) {
-        propertyMap.remove(propertyName);
-        if (propertyMap.isEmpty()) {
-          propertyMap = null;
+      if (index >= 0) {
+        int length = properties.length;
+        if (length == 2) {
+          properties = null;
+        } else {
+          Object[] newProperties = new Object[length - 2];
+          System.arraycopy(properties, 0, newProperties, 0, index);
+          System.arraycopy(properties, index + 2, newProperties, index, length - index - 2);
+          properties = newProperties;
         }
       }
+    } else if (index >= 0) {
+      properties[index + 1] = propertyValue;
+    } else if (properties == null) {
+      properties = new Object[] {propertyName, propertyValue};
     } else {
-      if (propertyMap == null) {
-        propertyMap = new HashMap<String, Object>();
-      }
-      propertyMap.put(propertyName, propertyValue);
+      int length = properties.length;
+      Object[] newProperties = new Object[length + 2];
+      System.arraycopy(properties, 0, newProperties, 0, length);
+      newProperties[length] = propertyName;
+      newProperties[length + 1] = propertyValue;
+      properties = newProperties;
     }
   }
 
@@ -262,6 +275,24 @@ public abstract class AstNode {
     }
   }
 
+  /**
+   * Return the index in the array of properties of the name of the property with the given name, or
+   * {@code -1} if this node does not have a property with the given name.
+   * 
+   * @param propertyName the name of the property being searched for
+   * @return the index of the name of the property with the given name
+   */
+  private int indexOfProperty(String propertyName) {
+    if (properties != null) {
+      for (int i = 0; i < properties.length; i += 2) {
+        if (properties[i].equals(propertyName)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
   /**
    * Set the parent of this node to the given node.
    * 
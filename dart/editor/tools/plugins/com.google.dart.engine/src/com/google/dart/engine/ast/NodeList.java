@@ -18,6 +18,7 @@ import com.google.dart.engine.utilities.translation.DartOmit;
 
 import java.util.AbstractList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Instances of the class {@code NodeList} represent a list of AST nodes that have a common parent.
@@ -38,6 +39,32 @@ public class NodeList<E extends AstNode> extends AbstractList<E> {
     return new NodeList<E>(owner);
   }
 
+  /**
+   * Return a list with the given owner containing the given nodes. Lists that are usually empty are
+   * not worth allocating for every node, so if there are no nodes the shared empty list is returned
+   * instead. The shared empty list cannot be modified.
+   * 
+   * @param owner the node that is the parent of each of the elements in the list
+   * @param nodes the nodes to be added to the list, or {@code null} if there are none
+   * @return the list that was created
+   */
+  @SuppressWarnings("unchecked")
+  public static <E extends AstNode> NodeList<E> create(AstNode owner, List<E> nodes) {
+    if (nodes == null || nodes.isEmpty()) {
+      return EMPTY_LIST;
+    }
+    NodeList<E> list = new NodeList<E>(owner);
+    list.addAll(nodes);
+    return list;
+  }
+
+  /**
+   * The empty list that is shared by all of the nodes that do not have any elements in a list that
+   * is usually empty.
+   */
+  @SuppressWarnings("rawtypes")
+  private static final NodeList EMPTY_LIST = new NodeList(null);
+
   /**
    * The node that is the parent of each of the elements in the list.
    */
@@ -74,6 +101,7 @@ public class NodeList<E extends AstNode> extends AbstractList<E> {
     if (index < 0 || index > length) {
       throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.length);
     }
+    checkModifiable();
     owner.becomeParentOf(node);
     if (length == 0) {
       elements = new AstNode[] {node};
@@ -89,6 +117,7 @@ public class NodeList<E extends AstNode> extends AbstractList<E> {
   @Override
   public boolean addAll(Collection<? extends E> nodes) {
     if (nodes != null && !nodes.isEmpty()) {
+      checkModifiable();
       int oldCount = elements.length;
       int newCount = nodes.size();
       AstNode[] newElements = new AstNode[oldCount + newCount];
@@ -182,6 +211,7 @@ public class NodeList<E extends AstNode> extends AbstractList<E> {
       throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.length);
     }
     E replacedNode = (E) elements[index];
+    checkModifiable();
     owner.becomeParentOf(node);
     elements[index] = node;
     return replacedNode;
@@ -191,4 +221,15 @@ public class NodeList<E extends AstNode> extends AbstractList<E> {
   public int size() {
     return elements.length;
   }
+
+  /**
+   * Throw an exception if this list is the shared empty list, which cannot be modified.
+   * 
+   * @throws UnsupportedOperationException if this list cannot be modified
+   */
+  private void checkModifiable() {
+    if (owner == null) {
+      throw new UnsupportedOperationException("The shared empty list cannot be modified");
+    }
+  }
 }
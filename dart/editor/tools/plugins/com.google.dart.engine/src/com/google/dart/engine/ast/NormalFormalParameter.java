@@ -42,7 +42,7 @@ public abstract class NormalFormalParameter extends FormalParameter {
   /**
    * The annotations associated with this parameter.
    */
-  private NodeList<Annotation> metadata = new NodeList<Annotation>(this);
+  private NodeList<Annotation> metadata;
 
   /**
    * The name of the parameter being declared.
@@ -59,7 +59,7 @@ public abstract class NormalFormalParameter extends FormalParameter {
   public NormalFormalParameter(Comment comment, List<Annotation> metadata,
       SimpleIdentifier identifier) {
     this.comment = becomeParentOf(comment);
-    this.metadata.addAll(metadata);
+    this.metadata = NodeList.create(this, metadata);
     this.identifier = becomeParentOf(identifier);
   }
 
@@ -120,8 +120,7 @@ public abstract class NormalFormalParameter extends FormalParameter {
    * @param metadata the metadata to be associated with this node
    */
   public void setMetadata(List<Annotation> metadata) {
-    this.metadata.clear();
-    this.metadata.addAll(metadata);
+    this.metadata = NodeList.create(this, metadata);
   }
 
   @Override
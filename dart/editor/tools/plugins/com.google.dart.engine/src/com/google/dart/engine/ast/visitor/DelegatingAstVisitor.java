@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.ast.visitor;
+
+import com.google.dart.engine.ast.AstNode;
+import com.google.dart.engine.ast.AstVisitor;
+
+/**
+ * Instances of the class {@code DelegatingAstVisitor} implement an AST visitor that will
+ * recursively visit all of the nodes in an AST structure and pass each node to each of a list of
+ * delegate visitors. This allows several independent checks to be performed in a single traversal
+ * of the structure.
+ * <p>
+ * The delegates are visited in the order in which they were given, so a delegate will always see a
+ * node after every delegate that precedes it has seen that node. All of the delegates see a node
+ * before any of them sees the node's children.
+ * <p>
+ * Delegates should <b>not</b> visit the children of the nodes passed to them (for example, they
+ * should extend {@link SimpleAstVisitor} rather than {@link RecursiveAstVisitor}); doing so will
+ * cause those children to be visited more than once. As a result, delegates that need to skip parts
+ * of the structure, or that need to do work after the children of a node have been visited, cannot
+ * be used with this visitor.
+ * 
+ * @coverage dart.engine.ast
+ */
+public class DelegatingAstVisitor<R> extends UnifyingAstVisitor<R> {
+  /**
+   * The delegates whose visit methods will be invoked for each node in the structure.
+   */
+  private final AstVisitor<?>[] delegates;
+
+  /**
+   * Initialize a newly created visitor to pass each node that it visits to each of the given
+   * delegates, in order.
+   * 
+   * @param delegates the delegates that will be given each node
+   */
+  public DelegatingAstVisitor(AstVisitor<?>... delegates) {
+    this.delegates = delegates;
+  }
+
+  @Override
+  public R visitNode(AstNode node) {
+    for (AstVisitor<?> delegate : delegates) {
+      node.accept(delegate);
+    }
+    node.visitChildren(this);
+    return null;
+  }
+}
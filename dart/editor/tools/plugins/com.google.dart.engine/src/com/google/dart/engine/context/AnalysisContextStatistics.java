@@ -67,6 +67,11 @@ public interface AnalysisContextStatistics {
      */
     public int getAstCount();
 
+    /**
+     * Return an estimate of the number of bytes retained by the AST structures in the partition.
+     */
+    public long getEstimatedAstSize();
+
     /**
      * Return the total number of entries in the partition.
      */
@@ -25,6 +25,16 @@ public interface AnalysisOptions {
    */
   public boolean getAnalyzeAngular();
 
+  /**
+   * Return {@code true} if the contents of function bodies in sources from the SDK and from packages
+   * are to be parsed and analyzed along with the declarations, or {@code false} if they are parsed
+   * only for sources that need them, such as priority sources and sources whose errors are computed
+   * explicitly. This has no effect if function bodies are not analyzed.
+   * 
+   * @return {@code true} if the function bodies of dependencies are always analyzed
+   */
+  public boolean getAnalyzeDependencyFunctionBodies();
+
   /**
    * Return {@code true} if analysis is to parse and analyze function bodies.
    * 
@@ -46,6 +56,17 @@ public interface AnalysisOptions {
    */
   public int getCacheSize();
 
+  /**
+   * Return the maximum estimated number of bytes that should be retained by the AST structures kept
+   * in the cache, or zero if the number of AST structures is limited by {@link #getCacheSize()}
+   * instead. The limit applies separately to each context, and only to the sources that are private
+   * to that context. The AST structures of SDK sources are kept in a partition that is shared by
+   * all of the contexts using the same SDK, and are not counted against this limit.
+   * 
+   * @return the maximum estimated number of bytes retained by the AST structures in the cache
+   */
+  public long getCacheMemorySize();
+
   /**
    * Return {@code true} if analysis is to generate dart2js related hint results.
    * 
@@ -100,10 +121,45 @@ public interface AnalysisOptions {
    */
   public boolean getIncremental();
 
+  /**
+   * Return the maximum number of Dart sources that can be scanned and parsed at the same time when
+   * analysis tasks are being performed by multiple threads, or {@code 1} if sources are to be
+   * scanned and parsed one at a time.
+   * 
+   * @return the maximum number of sources that are scanned and parsed concurrently
+   */
+  public int getParseThreadCount();
+
   /**
    * Return {@code true} if analysis is to parse comments.
    * 
    * @return {@code true} if analysis is to parse comments
    */
   public boolean getPreserveComments();
+
+  /**
+   * Return the maximum number of cycles of Dart libraries that can be resolved at the same time
+   * when analysis tasks are being performed by multiple threads, or {@code 1} if library cycles are
+   * to be resolved one at a time.
+   * 
+   * @return the maximum number of library cycles that are resolved concurrently
+   */
+  public int getResolutionThreadCount();
+
+  /**
+   * Return {@code true} if the token streams and unresolved compilation units produced for Dart
+   * sources are to be shared with other contexts that analyze the same contents.
+   * 
+   * @return {@code true} if scanning and parsing results are to be shared with other contexts
+   */
+  public boolean getShareParsedUnits();
+
+  /**
+   * Return the maximum number of compilation units for which errors or hints can be generated at
+   * the same time when analysis tasks are being performed by multiple threads, or {@code 1} if they
+   * are to be generated for one compilation unit at a time.
+   * 
+   * @return the maximum number of compilation units that are verified concurrently
+   */
+  public int getVerificationThreadCount();
 }
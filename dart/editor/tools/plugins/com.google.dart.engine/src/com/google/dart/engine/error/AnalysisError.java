@@ -137,6 +137,28 @@ public class AnalysisError {
     }
   }
 
+  /**
+   * Initialize a newly created analysis error for the specified source at the given location whose
+   * message and correction have already been computed. This is used to re-create errors that were
+   * computed earlier, such as errors that were read from a persistent cache.
+   * 
+   * @param errorCode the error code to be associated with this error
+   * @param source the source for which the exception occurred
+   * @param offset the offset of the location of the error
+   * @param length the length of the location of the error
+   * @param message the message associated with the error
+   * @param correction the correction associated with the error, or {@code null} if there is none
+   */
+  public AnalysisError(ErrorCode errorCode, Source source, int offset, int length, String message,
+      String correction) {
+    this.source = source;
+    this.offset = offset;
+    this.length = length;
+    this.errorCode = errorCode;
+    this.message = message;
+    this.correction = correction;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -21,16 +21,20 @@ import com.google.dart.engine.internal.index.file.ContextCodec;
 import com.google.dart.engine.internal.index.file.ElementCodec;
 import com.google.dart.engine.internal.index.file.FileManager;
 import com.google.dart.engine.internal.index.file.FileNodeManager;
+import com.google.dart.engine.internal.index.file.MappedFileManager;
 import com.google.dart.engine.internal.index.file.NodeManager;
+import com.google.dart.engine.internal.index.file.PagedIndexStoreImpl;
 import com.google.dart.engine.internal.index.file.RelationshipCodec;
 import com.google.dart.engine.internal.index.file.SeparateFileManager;
 import com.google.dart.engine.internal.index.file.SplitIndexStoreImpl;
 import com.google.dart.engine.internal.index.file.StringCodec;
 import com.google.dart.engine.internal.index.operation.OperationProcessor;
 import com.google.dart.engine.internal.index.operation.OperationQueue;
+import com.google.dart.engine.internal.index.structure.btree.FilePageManager;
 import com.google.dart.engine.utilities.translation.DartOmit;
 
 import java.io.File;
+import java.io.IOException;
 
 /**
  * Factory for {@link Index} and {@link IndexStore}.
@@ -40,14 +44,15 @@ import java.io.File;
 @DartOmit
 public class IndexFactory {
   /**
-   * Returns an instance of {@link IndexStore} that stores data on disk in the given directory.
+   * Returns an instance of {@link IndexStore} that stores data on disk in the given directory. The
+   * data stored in this directory in the previous session is used if it is still valid.
    */
   public static IndexStore newFileIndexStore(File directory) {
     StringCodec stringCodec = new StringCodec();
     ContextCodec contextCodec = new ContextCodec();
     ElementCodec elementCodec = new ElementCodec(stringCodec);
     RelationshipCodec relationshipCodec = new RelationshipCodec(stringCodec);
-    FileManager fileManager = new SeparateFileManager(directory);
+    FileManager fileManager = newMappedFileManager(directory);
     NodeManager nodeManager = new FileNodeManager(
         fileManager,
         AnalysisEngine.getInstance().getLogger(),
@@ -56,7 +61,9 @@ public class IndexFactory {
         elementCodec,
         relationshipCodec);
     nodeManager = new CachingNodeManager(nodeManager);
-    return newSplitIndexStore(nodeManager);
+    SplitIndexStoreImpl store = new SplitIndexStoreImpl(nodeManager, fileManager);
+    store.restore();
+    return store;
   }
 
   /**
@@ -75,10 +82,52 @@ public class IndexFactory {
     return new MemoryIndexStoreImpl();
   }
 
+  /**
+   * Returns an instance of {@link IndexStore} that stores data on disk in the given directory, in a
+   * single paged B+ tree with a bounded page cache, so that its memory use does not grow with the
+   * number of locations. The data is not kept between sessions.
+   */
+  public static IndexStore newPagedIndexStore(File directory) throws IOException {
+    File keysDirectory = new File(directory, "keys");
+    keysDirectory.mkdirs();
+    FileManager fileManager = new SeparateFileManager(keysDirectory);
+    fileManager.clear();
+    // 4 KB pages, at most 4 MB of them in memory
+    FilePageManager pageManager = new FilePageManager(new File(directory, "index.pages"), 4096, 1024);
+    StringCodec stringCodec = new StringCodec();
+    return new PagedIndexStoreImpl(
+        pageManager,
+        fileManager,
+        stringCodec,
+        new ContextCodec(),
+        new ElementCodec(stringCodec),
+        new RelationshipCodec(stringCodec));
+  }
+
   /**
    * Returns an instance of {@link IndexStore} that stores data in the given {@link NodeManager}.
    */
   public static IndexStore newSplitIndexStore(NodeManager nodeManager) {
     return new SplitIndexStoreImpl(nodeManager);
   }
+
+  /**
+   * Returns the {@link MappedFileManager} that keeps files in the given directory, or the
+   * {@link SeparateFileManager} if the mapped file cannot be opened.
+   */
+  private static FileManager newMappedFileManager(File directory) {
+    File file = new File(directory, "index.data");
+    if (!file.exists()) {
+      // remove files of the separate file manager
+      new SeparateFileManager(directory).clear();
+    }
+    try {
+      return new MappedFileManager(file);
+    } catch (IOException exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Cannot open index file " + file,
+          exception);
+      return new SeparateFileManager(directory);
+    }
+  }
 }
@@ -132,6 +132,7 @@ public class AnalysisCache {
       CachePartition partition = partitions[i];
       data[i] = new AnalysisContextStatisticsImpl.PartitionDataImpl(
           partition.getAstSize(),
+          partition.getEstimatedAstSize(),
           partition.getMap().size());
     }
     return data;
@@ -18,13 +18,23 @@ import com.google.dart.engine.source.Source;
 import com.google.dart.engine.utilities.collection.MapIterator;
 import com.google.dart.engine.utilities.collection.SingleMapIterator;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Instances of the class {@code CachePartition} implement a single partition in an LRU cache of
  * information related to analysis.
+ * <p>
+ * A partition can be shared by multiple contexts, each of which synchronizes on its own lock, so
+ * partitions guard their own state. Entries can be read without locking, while updates and the list
+ * of recently used sources are guarded by the partition itself. Contexts update an entry by storing
+ * a modified copy of it, so readers never observe a partially updated entry.
+ * <p>
+ * The number of AST structures kept in the partition is limited either by the number of sources
+ * whose structures are cached or, if a maximum AST size has been set, by the estimated number of
+ * bytes retained by those structures.
  */
 public abstract class CachePartition {
   /**
@@ -34,10 +44,17 @@ public abstract class CachePartition {
   private InternalAnalysisContext context;
 
   /**
-   * The maximum number of sources for which AST structures should be kept in the cache.
+   * The maximum number of sources for which AST structures should be kept in the cache. This limit
+   * is ignored if {@link #maxAstSize} is positive.
    */
   private int maxCacheSize;
 
+  /**
+   * The maximum estimated number of bytes that should be retained by the AST structures in the
+   * cache, or zero if the cache is limited by the number of sources instead.
+   */
+  private long maxAstSize = 0L;
+
   /**
    * The policy used to determine which pieces of data to remove from the cache.
    */
@@ -47,14 +64,23 @@ public abstract class CachePartition {
    * A table mapping the sources belonging to this partition to the information known about those
    * sources.
    */
-  private final HashMap<Source, SourceEntry> sourceMap = new HashMap<Source, SourceEntry>();
+  private final ConcurrentHashMap<Source, SourceEntry> sourceMap = new ConcurrentHashMap<Source, SourceEntry>();
+
+  /**
+   * A table mapping the most recently accessed sources to the estimated number of bytes retained by
+   * their AST structures, iterated in order of access with the most recently used last. When more
+   * sources are added than the maximum allowed then the least recently used source will be removed
+   * and will have it's cached AST structure flushed. A linked table is used so that recording an
+   * access does not require a scan of the sources. Synchronize against this partition before
+   * accessing this field.
+   */
+  private LinkedHashMap<Source, Long> recentlyUsed;
 
   /**
-   * A list containing the most recently accessed sources with the most recently used at the end of
-   * the list. When more sources are added than the maximum allowed then the least recently used
-   * source will be removed and will have it's cached AST structure flushed.
+   * The sum of the estimated sizes in {@link #recentlyUsed}. Synchronize against this partition
+   * before accessing this field.
    */
-  private ArrayList<Source> recentlyUsed;
+  private long estimatedAstSize = 0L;
 
   /**
    * Initialize a newly created cache to maintain at most the given number of AST structures in the
@@ -71,7 +97,7 @@ public abstract class CachePartition {
     this.context = context;
     this.maxCacheSize = maxCacheSize;
     this.retentionPolicy = retentionPolicy;
-    recentlyUsed = new ArrayList<Source>(maxCacheSize);
+    recentlyUsed = new LinkedHashMap<Source, Long>();
   }
 
   /**
@@ -79,17 +105,15 @@ public abstract class CachePartition {
    * 
    * @param source the source whose AST was accessed
    */
-  public void accessedAst(Source source) {
-    if (recentlyUsed.remove(source)) {
-      recentlyUsed.add(source);
-      return;
-    }
-    while (recentlyUsed.size() >= maxCacheSize) {
-      if (!flushAstFromCache()) {
-        break;
+  public synchronized void accessedAst(Source source) {
+    if (removeRecentlyUsed(source)) {
+      addRecentlyUsed(source);
+      if (maxAstSize > 0L) {
+        flushExcessAsts(source);
       }
+      return;
     }
-    recentlyUsed.add(source);
+    addAst(source);
   }
 
   /**
@@ -107,6 +131,9 @@ public abstract class CachePartition {
    * @return the entry associated with the given source
    */
   public SourceEntry get(Source source) {
+    if (source == null) {
+      return null;
+    }
     return sourceMap.get(source);
   }
 
@@ -115,11 +142,9 @@ public abstract class CachePartition {
    * 
    * @return the number of entries in this partition that have an AST associated with them
    */
-  public int getAstSize() {
+  public synchronized int getAstSize() {
     int astSize = 0;
-    int count = recentlyUsed.size();
-    for (int i = 0; i < count; i++) {
-      Source source = recentlyUsed.get(i);
+    for (Source source : recentlyUsed.keySet()) {
       SourceEntry sourceEntry = sourceMap.get(source);
       if (sourceEntry instanceof DartEntry) {
         if (((DartEntry) sourceEntry).getAnyParsedCompilationUnit() != null) {
@@ -143,6 +168,16 @@ public abstract class CachePartition {
     return context;
   }
 
+  /**
+   * Return an estimate of the number of bytes retained by the AST structures in this partition.
+   * 
+   * @return an estimate of the number of bytes retained by the AST structures in this partition
+   * @see SourceEntry#getEstimatedAstSize()
+   */
+  public synchronized long getEstimatedAstSize() {
+    return estimatedAstSize;
+  }
+
   /**
    * Return a table mapping the sources known to the context to the information known about the
    * source.
@@ -172,9 +207,16 @@ public abstract class CachePartition {
    * @param source the source with which the entry is to be associated
    * @param entry the entry to be associated with the source
    */
-  public void put(Source source, SourceEntry entry) {
+  public synchronized void put(Source source, SourceEntry entry) {
     ((SourceEntryImpl) entry).fixExceptionState();
+    ((SourceEntryImpl) entry).clearCopiedFrom();
     sourceMap.put(source, entry);
+    Long oldSize = recentlyUsed.get(source);
+    if (oldSize != null) {
+      long newSize = entry.getEstimatedAstSize();
+      recentlyUsed.put(source, newSize);
+      estimatedAstSize += newSize - oldSize.longValue();
+    }
   }
 
   /**
@@ -182,8 +224,11 @@ public abstract class CachePartition {
    * 
    * @param source the source to be removed
    */
-  public void remove(Source source) {
-    recentlyUsed.remove(source);
+  public synchronized void remove(Source source) {
+    if (source == null) {
+      return;
+    }
+    removeRecentlyUsed(source);
     sourceMap.remove(source);
   }
 
@@ -192,8 +237,21 @@ public abstract class CachePartition {
    * 
    * @param source the source whose AST was removed
    */
-  public void removedAst(Source source) {
-    recentlyUsed.remove(source);
+  public synchronized void removedAst(Source source) {
+    removeRecentlyUsed(source);
+  }
+
+  /**
+   * Set the maximum estimated number of bytes that should be retained by the AST structures in the
+   * cache to the given size. If the size is positive then it replaces the maximum number of sources
+   * as the limit on the number of AST structures kept in the cache.
+   * 
+   * @param size the maximum estimated number of bytes that should be retained by the AST structures
+   *          in the cache, or zero if the number of sources should be limited instead
+   */
+  public synchronized void setMaxAstSize(long size) {
+    maxAstSize = size;
+    flushExcessAsts(null);
   }
 
   /**
@@ -201,13 +259,9 @@ public abstract class CachePartition {
    * 
    * @param size the maximum number of sources for which AST structures should be kept in the cache
    */
-  public void setMaxCacheSize(int size) {
+  public synchronized void setMaxCacheSize(int size) {
     maxCacheSize = size;
-    while (recentlyUsed.size() > maxCacheSize) {
-      if (!flushAstFromCache()) {
-        break;
-      }
-    }
+    flushExcessAsts(null);
   }
 
   /**
@@ -224,25 +278,67 @@ public abstract class CachePartition {
    * 
    * @param source the source whose AST was stored
    */
-  public void storedAst(Source source) {
-    if (recentlyUsed.contains(source)) {
+  public synchronized void storedAst(Source source) {
+    Long oldSize = recentlyUsed.get(source);
+    if (oldSize != null) {
+      long newSize = getEstimatedAstSize(source);
+      recentlyUsed.put(source, newSize);
+      estimatedAstSize += newSize - oldSize.longValue();
+      if (maxAstSize > 0L) {
+        flushExcessAsts(source);
+      }
+      return;
+    }
+    addAst(source);
+  }
+
+  /**
+   * Record that the AST associated with the given source, which is not in the list of recently
+   * used sources, was just stored or accessed, flushing other AST structures as necessary to stay
+   * within the limits of this partition.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on this partition.
+   * 
+   * @param source the source whose AST was stored or accessed
+   */
+  private void addAst(Source source) {
+    if (maxAstSize > 0L) {
+      addRecentlyUsed(source);
+      flushExcessAsts(source);
       return;
     }
     while (recentlyUsed.size() >= maxCacheSize) {
-      if (!flushAstFromCache()) {
+      if (!flushAstFromCache(null)) {
         break;
       }
     }
-    recentlyUsed.add(source);
+    addRecentlyUsed(source);
+  }
+
+  /**
+   * Add the given source to the end of the list of recently used sources.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on this partition.
+   * 
+   * @param source the source to be added
+   */
+  private void addRecentlyUsed(Source source) {
+    long size = getEstimatedAstSize(source);
+    recentlyUsed.put(source, size);
+    estimatedAstSize += size;
   }
 
   /**
    * Attempt to flush one AST structure from the cache.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on this partition.
    * 
+   * @param sourceToKeep the source whose AST structure must not be flushed, or {@code null} if any
+   *          structure can be flushed
    * @return {@code true} if a structure was flushed
    */
-  private boolean flushAstFromCache() {
-    Source removedSource = removeAstToFlush();
+  private boolean flushAstFromCache(Source sourceToKeep) {
+    Source removedSource = removeAstToFlush(sourceToKeep);
     if (removedSource == null) {
       return false;
     }
@@ -259,30 +355,99 @@ public abstract class CachePartition {
     return true;
   }
 
+  /**
+   * Flush AST structures from the cache until it is within the limits of this partition, or until
+   * no more structures can be flushed.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on this partition.
+   * 
+   * @param sourceToKeep the source whose AST structure must not be flushed, or {@code null} if any
+   *          structure can be flushed
+   */
+  private void flushExcessAsts(Source sourceToKeep) {
+    if (maxAstSize > 0L) {
+      while (estimatedAstSize > maxAstSize) {
+        if (!flushAstFromCache(sourceToKeep)) {
+          break;
+        }
+      }
+    } else {
+      while (recentlyUsed.size() > maxCacheSize) {
+        if (!flushAstFromCache(sourceToKeep)) {
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return an estimate of the number of bytes retained by the AST structures associated with the
+   * given source.
+   * 
+   * @param source the source whose AST structures are being estimated
+   * @return an estimate of the number of bytes retained by the AST structures of the source
+   */
+  private long getEstimatedAstSize(Source source) {
+    SourceEntry sourceEntry = sourceMap.get(source);
+    if (sourceEntry == null) {
+      return 0L;
+    }
+    return sourceEntry.getEstimatedAstSize();
+  }
+
   /**
    * Remove and return one source from the list of recently used sources whose AST structure can be
    * flushed from the cache. The source that will be returned will be the source that has been
    * unreferenced for the longest period of time but that is not a priority for analysis.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on this partition.
    * 
+   * @param sourceToKeep the source that must not be returned, or {@code null} if any source can be
+   *          returned
    * @return the source that was removed
    */
-  private Source removeAstToFlush() {
-    int sourceToRemove = -1;
-    for (int i = 0; i < recentlyUsed.size(); i++) {
-      Source source = recentlyUsed.get(i);
+  private Source removeAstToFlush(Source sourceToKeep) {
+    Source sourceToRemove = null;
+    Iterator<Map.Entry<Source, Long>> iterator = recentlyUsed.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Source, Long> entry = iterator.next();
+      Source source = entry.getKey();
+      if (source == sourceToKeep) {
+        continue;
+      }
       RetentionPriority priority = retentionPolicy.getAstPriority(source, sourceMap.get(source));
       if (priority == RetentionPriority.LOW) {
-        return recentlyUsed.remove(i);
-      } else if (priority == RetentionPriority.MEDIUM && sourceToRemove < 0) {
-        sourceToRemove = i;
+        iterator.remove();
+        estimatedAstSize -= entry.getValue().longValue();
+        return source;
+      } else if (priority == RetentionPriority.MEDIUM && sourceToRemove == null) {
+        sourceToRemove = source;
       }
     }
-    if (sourceToRemove < 0) {
+    if (sourceToRemove == null) {
       // This happens if the retention policy returns a priority of HIGH for all of the sources that
       // have been recently used. This is the case, for example, when the list of priority sources
       // is bigger than the current cache size.
       return null;
     }
-    return recentlyUsed.remove(sourceToRemove);
+    removeRecentlyUsed(sourceToRemove);
+    return sourceToRemove;
+  }
+
+  /**
+   * Remove the given source from the list of recently used sources.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on this partition.
+   * 
+   * @param source the source to be removed
+   * @return {@code true} if the source was in the list of recently used sources
+   */
+  private boolean removeRecentlyUsed(Source source) {
+    Long size = recentlyUsed.remove(source);
+    if (size == null) {
+      return false;
+    }
+    estimatedAstSize -= size.longValue();
+    return true;
   }
 }
@@ -211,6 +211,14 @@ public interface DartEntry extends SourceEntry {
    */
   public boolean hasResolvableCompilationUnit();
 
+  /**
+   * Return {@code true} if the compilation unit was parsed without the contents of its function
+   * bodies, so that the parsed and resolved compilation units only contain the declarations.
+   * 
+   * @return {@code true} if the compilation unit was parsed without the contents of function bodies
+   */
+  public boolean isDeclarationsOnly();
+
   /**
    * Return {@code true} if this data is safe to use in refactoring.
    */
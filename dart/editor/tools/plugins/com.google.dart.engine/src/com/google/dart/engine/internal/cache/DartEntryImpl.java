@@ -19,6 +19,7 @@ import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.error.AnalysisError;
 import com.google.dart.engine.internal.scope.Namespace;
 import com.google.dart.engine.scanner.Token;
+import com.google.dart.engine.scanner.TokenType;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.SourceKind;
 import com.google.dart.engine.utilities.ast.AstCloner;
@@ -207,6 +208,70 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
       hints = AnalysisError.NO_ERRORS;
     }
 
+    /**
+     * Copy into this state the information from the current state that was not changed by the update
+     * of this state.
+     * 
+     * @param base the state from which this state was copied
+     * @param current the state that replaced the base state while this state was being updated
+     */
+    public void mergeFrom(ResolutionState base, ResolutionState current) {
+      if (isConcurrentValuePreferred(
+          builtUnitState,
+          builtUnit,
+          base.builtUnitState,
+          base.builtUnit,
+          current.builtUnitState)) {
+        builtUnitState = current.builtUnitState;
+        builtUnit = current.builtUnit;
+      }
+      if (isConcurrentValuePreferred(
+          buildElementErrorsState,
+          buildElementErrors,
+          base.buildElementErrorsState,
+          base.buildElementErrors,
+          current.buildElementErrorsState)) {
+        buildElementErrorsState = current.buildElementErrorsState;
+        buildElementErrors = current.buildElementErrors;
+      }
+      if (isConcurrentValuePreferred(
+          resolvedUnitState,
+          resolvedUnit,
+          base.resolvedUnitState,
+          base.resolvedUnit,
+          current.resolvedUnitState)) {
+        resolvedUnitState = current.resolvedUnitState;
+        resolvedUnit = current.resolvedUnit;
+      }
+      if (isConcurrentValuePreferred(
+          resolutionErrorsState,
+          resolutionErrors,
+          base.resolutionErrorsState,
+          base.resolutionErrors,
+          current.resolutionErrorsState)) {
+        resolutionErrorsState = current.resolutionErrorsState;
+        resolutionErrors = current.resolutionErrors;
+      }
+      if (isConcurrentValuePreferred(
+          verificationErrorsState,
+          verificationErrors,
+          base.verificationErrorsState,
+          base.verificationErrors,
+          current.verificationErrorsState)) {
+        verificationErrorsState = current.verificationErrorsState;
+        verificationErrors = current.verificationErrors;
+      }
+      if (isConcurrentValuePreferred(
+          hintsState,
+          hints,
+          base.hintsState,
+          base.hints,
+          current.hintsState)) {
+        hintsState = current.hintsState;
+        hints = current.hints;
+      }
+    }
+
     /**
      * Record that an error occurred while attempting to build the element model for the source
      * represented by this state.
@@ -551,6 +616,12 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
    */
   private static final int CLIENT_CODE_INDEX = 2;
 
+  /**
+   * The index of the flag indicating whether the compilation unit was parsed without the contents
+   * of its function bodies.
+   */
+  private static final int DECLARATIONS_ONLY_INDEX = 3;
+
   /**
    * Initialize a newly created cache entry to be empty.
    */
@@ -641,6 +712,26 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     return containingLibraries;
   }
 
+  @Override
+  public long getEstimatedAstSize() {
+    //
+    // The same structure can be cached in more than one place (for example, a unit that is both
+    // built and resolved), so we keep track of the structures that have already been counted.
+    //
+    ArrayList<Object> countedStructures = new ArrayList<Object>();
+    long size = estimateUnitSize(parsedUnit, countedStructures);
+    ResolutionState state = resolutionState;
+    while (state != null) {
+      size += estimateUnitSize(state.builtUnit, countedStructures);
+      size += estimateUnitSize(state.resolvedUnit, countedStructures);
+      state = state.nextState;
+    }
+    if (tokenStream != null && !containsIdentical(countedStructures, tokenStream)) {
+      size += TOKEN_BYTES_PER_CHARACTER * getTokenStreamLength();
+    }
+    return size;
+  }
+
   @Override
   public SourceKind getKind() {
     return sourceKind;
@@ -903,6 +994,7 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     parsedUnit = null;
     parsedUnitAccessed = false;
     parsedUnitState = CacheState.INVALID;
+    setFlag(DECLARATIONS_ONLY_INDEX, false);
 
     discardCachedResolutionInformation(true);
   }
@@ -934,6 +1026,11 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     discardCachedResolutionInformation(invalidateUris);
   }
 
+  @Override
+  public boolean isDeclarationsOnly() {
+    return getFlag(DECLARATIONS_ONLY_INDEX);
+  }
+
   @Override
   public boolean isRefactoringSafe() {
     ResolutionState state = resolutionState;
@@ -1022,6 +1119,7 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     parsedUnit = null;
     parsedUnitAccessed = false;
     parsedUnitState = CacheState.ERROR;
+    setFlag(DECLARATIONS_ONLY_INDEX, false);
 
     exportedLibraries = Source.EMPTY_ARRAY;
     exportedLibrariesState = CacheState.ERROR;
@@ -1280,6 +1378,16 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     containingLibraries.add(librarySource);
   }
 
+  /**
+   * Set whether the compilation unit was parsed without the contents of its function bodies.
+   * 
+   * @param declarationsOnly {@code true} if the compilation unit was parsed without the contents of
+   *          its function bodies
+   */
+  public void setDeclarationsOnly(boolean declarationsOnly) {
+    setFlag(DECLARATIONS_ONLY_INDEX, declarationsOnly);
+  }
+
   @Override
   public void setState(DataDescriptor<?> descriptor, CacheState state) {
     if (descriptor == ELEMENT) {
@@ -1493,6 +1601,145 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
         || launchableState == CacheState.ERROR || resolutionState.hasErrorState();
   }
 
+  @Override
+  protected void mergeFrom(SourceEntryImpl baseEntry, SourceEntryImpl currentEntry) {
+    super.mergeFrom(baseEntry, currentEntry);
+    DartEntryImpl base = (DartEntryImpl) baseEntry;
+    DartEntryImpl current = (DartEntryImpl) currentEntry;
+    if (isConcurrentValuePreferred(
+        scanErrorsState,
+        scanErrors,
+        base.scanErrorsState,
+        base.scanErrors,
+        current.scanErrorsState)) {
+      scanErrorsState = current.scanErrorsState;
+      scanErrors = current.scanErrors;
+    }
+    if (isConcurrentValuePreferred(
+        tokenStreamState,
+        tokenStream,
+        base.tokenStreamState,
+        base.tokenStream,
+        current.tokenStreamState)) {
+      tokenStreamState = current.tokenStreamState;
+      tokenStream = current.tokenStream;
+    }
+    if (isConcurrentValuePreferred(
+        sourceKindState,
+        sourceKind,
+        base.sourceKindState,
+        base.sourceKind,
+        current.sourceKindState)) {
+      sourceKindState = current.sourceKindState;
+      sourceKind = current.sourceKind;
+    }
+    if (isConcurrentValuePreferred(
+        parsedUnitState,
+        parsedUnit,
+        base.parsedUnitState,
+        base.parsedUnit,
+        current.parsedUnitState)) {
+      parsedUnitState = current.parsedUnitState;
+      parsedUnit = current.parsedUnit;
+      parsedUnitAccessed = current.parsedUnitAccessed;
+      setFlag(DECLARATIONS_ONLY_INDEX, current.getFlag(DECLARATIONS_ONLY_INDEX));
+    }
+    if (isConcurrentValuePreferred(
+        parseErrorsState,
+        parseErrors,
+        base.parseErrorsState,
+        base.parseErrors,
+        current.parseErrorsState)) {
+      parseErrorsState = current.parseErrorsState;
+      parseErrors = current.parseErrors;
+    }
+    if (isConcurrentValuePreferred(
+        includedPartsState,
+        includedParts,
+        base.includedPartsState,
+        base.includedParts,
+        current.includedPartsState)) {
+      includedPartsState = current.includedPartsState;
+      includedParts = current.includedParts;
+    }
+    if (isConcurrentValuePreferred(
+        exportedLibrariesState,
+        exportedLibraries,
+        base.exportedLibrariesState,
+        base.exportedLibraries,
+        current.exportedLibrariesState)) {
+      exportedLibrariesState = current.exportedLibrariesState;
+      exportedLibraries = current.exportedLibraries;
+    }
+    if (isConcurrentValuePreferred(
+        importedLibrariesState,
+        importedLibraries,
+        base.importedLibrariesState,
+        base.importedLibraries,
+        current.importedLibrariesState)) {
+      importedLibrariesState = current.importedLibrariesState;
+      importedLibraries = current.importedLibraries;
+    }
+    if (containingLibraries.equals(base.containingLibraries)) {
+      containingLibraries = new ArrayList<Source>(current.containingLibraries);
+    }
+    if (isConcurrentValuePreferred(
+        elementState,
+        element,
+        base.elementState,
+        base.element,
+        current.elementState)) {
+      elementState = current.elementState;
+      element = current.element;
+    }
+    if (isConcurrentValuePreferred(
+        publicNamespaceState,
+        publicNamespace,
+        base.publicNamespaceState,
+        base.publicNamespace,
+        current.publicNamespaceState)) {
+      publicNamespaceState = current.publicNamespaceState;
+      publicNamespace = current.publicNamespace;
+    }
+    if (isConcurrentValuePreferred(
+        clientServerState,
+        null,
+        base.clientServerState,
+        null,
+        current.clientServerState)) {
+      clientServerState = current.clientServerState;
+      setFlag(CLIENT_CODE_INDEX, current.getFlag(CLIENT_CODE_INDEX));
+    }
+    if (isConcurrentValuePreferred(
+        launchableState,
+        null,
+        base.launchableState,
+        null,
+        current.launchableState)) {
+      launchableState = current.launchableState;
+      setFlag(LAUNCHABLE_INDEX, current.getFlag(LAUNCHABLE_INDEX));
+    }
+    if (angularErrors == base.angularErrors) {
+      angularErrors = current.angularErrors;
+    }
+    //
+    // Merge the resolution information for each library. Libraries whose information was removed by
+    // the update of this entry are not added back.
+    //
+    ResolutionState currentState = current.resolutionState;
+    while (currentState != null && currentState.librarySource != null) {
+      Source librarySource = currentState.librarySource;
+      ResolutionState state = findResolutionState(librarySource);
+      ResolutionState baseState = base.findResolutionState(librarySource);
+      if (state != null) {
+        state.mergeFrom(baseState == null ? new ResolutionState() : baseState, currentState);
+      } else if (baseState == null) {
+        getOrCreateResolutionState(librarySource).mergeFrom(new ResolutionState(), currentState);
+      }
+      currentState = currentState.nextState;
+    }
+  }
+
   @Override
   protected boolean writeDiffOn(StringBuilder builder, SourceEntry oldEntry) {
     boolean needsSeparator = super.writeDiffOn(builder, oldEntry);
@@ -1639,6 +1886,22 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     resolutionState.writeOn(builder);
   }
 
+  /**
+   * Return {@code true} if the given list contains the given object, compared by identity.
+   * 
+   * @param list the list being searched
+   * @param object the object being searched for
+   * @return {@code true} if the list contains the object
+   */
+  private boolean containsIdentical(ArrayList<Object> list, Object object) {
+    for (Object element : list) {
+      if (element == object) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Invalidate all of the resolution information associated with the compilation unit.
    * 
@@ -1670,6 +1933,48 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     }
   }
 
+  /**
+   * Return an estimate of the number of bytes retained by the given compilation unit, including its
+   * tokens, or zero if the unit is {@code null} or has already been counted. The unit and its token
+   * stream are added to the list of counted structures.
+   * 
+   * @param unit the compilation unit whose size is to be estimated
+   * @param countedStructures the structures whose size has already been estimated
+   * @return an estimate of the number of bytes retained by the unit that have not yet been counted
+   */
+  private long estimateUnitSize(CompilationUnit unit, ArrayList<Object> countedStructures) {
+    if (unit == null || containsIdentical(countedStructures, unit)) {
+      return 0L;
+    }
+    countedStructures.add(unit);
+    long length = unit.getLength();
+    long size = NODE_BYTES_PER_CHARACTER * length;
+    Token beginToken = unit.getBeginToken();
+    if (beginToken != null && !containsIdentical(countedStructures, beginToken)) {
+      countedStructures.add(beginToken);
+      size += TOKEN_BYTES_PER_CHARACTER * length;
+    }
+    return size;
+  }
+
+  /**
+   * Return the resolution state for the specified library, or {@code null} if there is no
+   * resolution state for the library.
+   * 
+   * @param librarySource the library source (not {@code null})
+   * @return the resolution state for the library
+   */
+  private ResolutionState findResolutionState(Source librarySource) {
+    ResolutionState state = resolutionState;
+    while (state != null && state.librarySource != null) {
+      if (state.librarySource.equals(librarySource)) {
+        return state;
+      }
+      state = state.nextState;
+    }
+    return null;
+  }
+
   /**
    * Return a resolution state for the specified library, creating one as necessary.
    * 
@@ -1694,6 +1999,20 @@ public class DartEntryImpl extends SourceEntryImpl implements DartEntry {
     return state;
   }
 
+  /**
+   * Return the number of characters covered by the cached token stream, which is the offset of the
+   * end-of-file token.
+   * 
+   * @return the number of characters covered by the cached token stream
+   */
+  private int getTokenStreamLength() {
+    Token token = tokenStream;
+    while (token.getType() != TokenType.EOF && token.getNext() != null) {
+      token = token.getNext();
+    }
+    return token.getOffset();
+  }
+
   /**
    * Given that the specified flag is being transitioned to the given state, set the value of the
    * flag to the value that should be kept in the cache.
@@ -246,6 +246,15 @@ public class HtmlEntryImpl extends SourceEntryImpl implements HtmlEntry {
     return null;
   }
 
+  @Override
+  public long getEstimatedAstSize() {
+    long size = estimateUnitSize(parsedUnit);
+    if (resolvedUnit != parsedUnit) {
+      size += estimateUnitSize(resolvedUnit);
+    }
+    return size;
+  }
+
   @Override
   public SourceKind getKind() {
     return SourceKind.HTML;
@@ -682,4 +691,18 @@ public class HtmlEntryImpl extends SourceEntryImpl implements HtmlEntry {
     builder.append("; polymerResolutionErrors = ");
     builder.append(polymerResolutionErrorsState);
   }
+
+  /**
+   * Return an estimate of the number of bytes retained by the given HTML unit, including its
+   * tokens, or zero if the unit is {@code null}.
+   * 
+   * @param unit the HTML unit whose size is to be estimated
+   * @return an estimate of the number of bytes retained by the unit
+   */
+  private long estimateUnitSize(HtmlUnit unit) {
+    if (unit == null) {
+      return 0L;
+    }
+    return (NODE_BYTES_PER_CHARACTER + TOKEN_BYTES_PER_CHARACTER) * Math.max(unit.getLength(), 0);
+  }
 }
@@ -26,7 +26,7 @@ public class PartitionManager {
   /**
    * A table mapping SDK's to the partitions used for those SDK's.
    */
-  private HashMap<DartSdk, SdkCachePartition> sdkPartitions = new HashMap<DartSdk, SdkCachePartition>();
+  private final HashMap<DartSdk, SdkCachePartition> sdkPartitions = new HashMap<DartSdk, SdkCachePartition>();
 
   /**
    * The default cache size for a Dart SDK partition.
@@ -44,7 +44,9 @@ public class PartitionManager {
    * Clear any cached data being maintained by this manager.
    */
   public void clearCache() {
-    sdkPartitions.clear();
+    synchronized (sdkPartitions) {
+      sdkPartitions.clear();
+    }
   }
 
   /**
@@ -54,13 +56,24 @@ public class PartitionManager {
    * @return the partition being used for the given SDK
    */
   public SdkCachePartition forSdk(DartSdk sdk) {
-    SdkCachePartition partition = sdkPartitions.get(sdk);
-    if (partition == null) {
-      partition = new SdkCachePartition(
-          (InternalAnalysisContext) sdk.getContext(),
-          DEFAULT_SDK_CACHE_SIZE);
-      sdkPartitions.put(sdk, partition);
+    synchronized (sdkPartitions) {
+      SdkCachePartition partition = sdkPartitions.get(sdk);
+      if (partition != null) {
+        return partition;
+      }
+    }
+    //
+    // The SDK's context must be accessed without holding the lock because creating the context will
+    // cause this method to be re-entered.
+    //
+    InternalAnalysisContext sdkContext = (InternalAnalysisContext) sdk.getContext();
+    synchronized (sdkPartitions) {
+      SdkCachePartition partition = sdkPartitions.get(sdk);
+      if (partition == null) {
+        partition = new SdkCachePartition(sdkContext, DEFAULT_SDK_CACHE_SIZE);
+        sdkPartitions.put(sdk, partition);
+      }
+      return partition;
     }
-    return partition;
   }
 }
@@ -0,0 +1,613 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.cache;
+
+import com.google.dart.engine.AnalysisEngine;
+import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.error.AngularCode;
+import com.google.dart.engine.error.CheckedModeCompileTimeErrorCode;
+import com.google.dart.engine.error.CompileTimeErrorCode;
+import com.google.dart.engine.error.ErrorCode;
+import com.google.dart.engine.error.HintCode;
+import com.google.dart.engine.error.HtmlWarningCode;
+import com.google.dart.engine.error.PolymerCode;
+import com.google.dart.engine.error.PubSuggestionCode;
+import com.google.dart.engine.error.StaticTypeWarningCode;
+import com.google.dart.engine.error.StaticWarningCode;
+import com.google.dart.engine.error.TodoCode;
+import com.google.dart.engine.parser.ParserErrorCode;
+import com.google.dart.engine.resolver.ResolverErrorCode;
+import com.google.dart.engine.scanner.ScannerErrorCode;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.SourceFactory;
+import com.google.dart.engine.source.SourceKind;
+import com.google.dart.engine.utilities.source.LineInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instances of the class {@code PersistentAnalysisCache} store the results of analyzing Dart
+ * sources in a directory so that they can be reused by a later session. The results for each
+ * source are stored in a separate file and are keyed by the URI of the source and a hash of its
+ * contents. Each record also contains the hashes of the contents of the sources on which the
+ * results depend, so that the results can be discarded when any of those sources has changed.
+ * <p>
+ * Only information that can be represented without an element model is stored: the kind of the
+ * source, its line information, the libraries and parts it references, and all of the errors that
+ * were reported for it. Element models and AST structures are recomputed on demand.
+ * 
+ * @coverage dart.engine
+ */
+public class PersistentAnalysisCache {
+  /**
+   * Instances of the class {@code CachedSource} represent the analysis results for a single source
+   * that were read from the cache.
+   */
+  public static class CachedSource {
+    /**
+     * The hash of the contents of the source at the time it was analyzed.
+     */
+    private final String contentHash;
+
+    /**
+     * A table mapping the encodings of the sources on which the results depend to the hashes of
+     * their contents at the time the source was analyzed.
+     */
+    private final Map<String, String> dependencyHashes;
+
+    /**
+     * The cache entry holding the results that were read.
+     */
+    private final DartEntryImpl entry;
+
+    /**
+     * Initialize a newly created cached source.
+     * 
+     * @param contentHash the hash of the contents of the source at the time it was analyzed
+     * @param dependencyHashes a table mapping the encodings of the sources on which the results
+     *          depend to the hashes of their contents
+     * @param entry the cache entry holding the results that were read
+     */
+    public CachedSource(String contentHash, Map<String, String> dependencyHashes,
+        DartEntryImpl entry) {
+      this.contentHash = contentHash;
+      this.dependencyHashes = dependencyHashes;
+      this.entry = entry;
+    }
+
+    /**
+     * Return the hash of the contents of the source at the time it was analyzed.
+     * 
+     * @return the hash of the contents of the source
+     */
+    public String getContentHash() {
+      return contentHash;
+    }
+
+    /**
+     * Return a table mapping the encodings of the sources on which the results depend to the hashes
+     * of their contents at the time the source was analyzed.
+     * 
+     * @return the hashes of the sources on which the results depend
+     */
+    public Map<String, String> getDependencyHashes() {
+      return dependencyHashes;
+    }
+
+    /**
+     * Return the cache entry holding the results that were read. The modification time of the
+     * entry has not been set.
+     * 
+     * @return the cache entry holding the results that were read
+     */
+    public DartEntryImpl getEntry() {
+      return entry;
+    }
+  }
+
+  /**
+   * The version of the format used to write the cache files. The version must be incremented
+   * whenever the format changes.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * The suffix of the names of the files written by this cache.
+   */
+  private static final String FILE_SUFFIX = ".analysis";
+
+  /**
+   * The digits used to write hashes in hexadecimal.
+   */
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /**
+   * A table mapping the unique names of all of the known error codes to the error codes.
+   */
+  private static final HashMap<String, ErrorCode> ERROR_CODE_MAP = new HashMap<String, ErrorCode>();
+
+  static {
+    addErrorCodes(AngularCode.values());
+    addErrorCodes(CheckedModeCompileTimeErrorCode.values());
+    addErrorCodes(CompileTimeErrorCode.values());
+    addErrorCodes(HintCode.values());
+    addErrorCodes(HtmlWarningCode.values());
+    addErrorCodes(ParserErrorCode.values());
+    addErrorCodes(PolymerCode.values());
+    addErrorCodes(PubSuggestionCode.values());
+    addErrorCodes(ResolverErrorCode.values());
+    addErrorCodes(ScannerErrorCode.values());
+    addErrorCodes(StaticTypeWarningCode.values());
+    addErrorCodes(StaticWarningCode.values());
+    addErrorCodes(TodoCode.values());
+  }
+
+  /**
+   * Return a hash of the given contents that can be used to determine whether the contents of a
+   * source have changed.
+   * 
+   * @param contents the contents to be hashed
+   * @return a hash of the given contents
+   */
+  public static String computeHash(CharSequence contents) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("MD5");
+      byte[] bytes = digest.digest(contents.toString().getBytes("UTF-8"));
+      StringBuilder builder = new StringBuilder(bytes.length * 2);
+      for (byte b : bytes) {
+        builder.append(HEX_DIGITS[(b >> 4) & 0xF]);
+        builder.append(HEX_DIGITS[b & 0xF]);
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException exception) {
+      // Every implementation of the Java platform is required to support MD5.
+      throw new IllegalStateException(exception);
+    } catch (UnsupportedEncodingException exception) {
+      // Every implementation of the Java platform is required to support UTF-8.
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  /**
+   * Add the given error codes to the table of known error codes.
+   * 
+   * @param errorCodes the error codes to be added
+   */
+  private static void addErrorCodes(ErrorCode[] errorCodes) {
+    for (ErrorCode errorCode : errorCodes) {
+      ERROR_CODE_MAP.put(errorCode.getUniqueName(), errorCode);
+    }
+  }
+
+  /**
+   * The directory containing the cache files.
+   */
+  private final File directory;
+
+  /**
+   * Initialize a newly created cache to store its files in the given directory. The directory will
+   * be created if it does not already exist.
+   * 
+   * @param directory the directory containing the cache files
+   */
+  public PersistentAnalysisCache(File directory) {
+    this.directory = directory;
+    directory.mkdirs();
+  }
+
+  /**
+   * Remove all of the results from this cache.
+   */
+  public void clear() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().endsWith(FILE_SUFFIX)) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the results that were stored for the given source, or {@code null} if there are no
+   * results, if the results were written by a different version of the cache, or if they were
+   * computed in an environment with a different signature.
+   * 
+   * @param source the source whose results are to be returned
+   * @param signature the signature of the environment in which the results are to be used
+   * @param sourceFactory the source factory used to re-create the sources referenced by the
+   *          results
+   * @return the results that were stored for the given source
+   */
+  public CachedSource read(Source source, String signature, SourceFactory sourceFactory) {
+    File file = getFile(source);
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(
+          file)));
+      try {
+        if (stream.readInt() != VERSION || !stream.readUTF().equals(signature)
+            || !stream.readUTF().equals(source.getEncoding())) {
+          return null;
+        }
+        String contentHash = stream.readUTF();
+        // dependencies
+        int dependencyCount = stream.readInt();
+        HashMap<String, String> dependencyHashes = new HashMap<String, String>(dependencyCount);
+        for (int i = 0; i < dependencyCount; i++) {
+          String encoding = stream.readUTF();
+          dependencyHashes.put(encoding, stream.readUTF());
+        }
+        // entry
+        DartEntryImpl entry = readEntry(stream, source, sourceFactory);
+        return new CachedSource(contentHash, dependencyHashes, entry);
+      } finally {
+        stream.close();
+      }
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not read cached analysis results for " + source.getFullName(),
+          exception);
+      file.delete();
+    }
+    return null;
+  }
+
+  /**
+   * Remove the results for the given source from this cache.
+   * 
+   * @param source the source whose results are to be removed
+   */
+  public void remove(Source source) {
+    getFile(source).delete();
+  }
+
+  /**
+   * Write the results stored in the given entry for the given source to this cache. The results
+   * are only written if all of the information that can be stored is valid.
+   * 
+   * @param source the source whose results are to be written
+   * @param signature the signature of the environment in which the results were computed
+   * @param contentHash the hash of the contents of the source that was analyzed
+   * @param dependencyHashes a table mapping the sources on which the results depend to the hashes
+   *          of their contents
+   * @param dartEntry the entry containing the results to be written
+   * @return {@code true} if the results were written
+   */
+  public boolean write(Source source, String signature, String contentHash,
+      Map<Source, String> dependencyHashes, DartEntry dartEntry) {
+    if (!isComplete(dartEntry)) {
+      return false;
+    }
+    File file = getFile(source);
+    try {
+      DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(file)));
+      try {
+        stream.writeInt(VERSION);
+        stream.writeUTF(signature);
+        stream.writeUTF(source.getEncoding());
+        stream.writeUTF(contentHash);
+        // dependencies
+        stream.writeInt(dependencyHashes.size());
+        for (Map.Entry<Source, String> entry : dependencyHashes.entrySet()) {
+          stream.writeUTF(entry.getKey().getEncoding());
+          stream.writeUTF(entry.getValue());
+        }
+        // entry
+        writeEntry(stream, source, dartEntry);
+      } finally {
+        stream.close();
+      }
+      return true;
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not write cached analysis results for " + source.getFullName(),
+          exception);
+      file.delete();
+    }
+    return false;
+  }
+
+  /**
+   * Return the file in which the results for the given source are stored.
+   * 
+   * @param source the source whose results are stored in the file
+   * @return the file in which the results for the given source are stored
+   */
+  private File getFile(Source source) {
+    return new File(directory, computeHash(source.getEncoding()) + FILE_SUFFIX);
+  }
+
+  /**
+   * Return {@code true} if all of the information in the given entry that can be written to this
+   * cache is valid.
+   * 
+   * @param dartEntry the entry being tested
+   * @return {@code true} if all of the information that can be written is valid
+   */
+  private boolean isComplete(DartEntry dartEntry) {
+    if (dartEntry.getState(SourceEntry.LINE_INFO) != CacheState.VALID
+        || dartEntry.getState(DartEntry.SOURCE_KIND) != CacheState.VALID
+        || dartEntry.getState(DartEntry.SCAN_ERRORS) != CacheState.VALID
+        || dartEntry.getState(DartEntry.PARSE_ERRORS) != CacheState.VALID
+        || dartEntry.getState(DartEntry.IMPORTED_LIBRARIES) != CacheState.VALID
+        || dartEntry.getState(DartEntry.EXPORTED_LIBRARIES) != CacheState.VALID
+        || dartEntry.getState(DartEntry.INCLUDED_PARTS) != CacheState.VALID) {
+      return false;
+    }
+    SourceKind kind = dartEntry.getValue(DartEntry.SOURCE_KIND);
+    if (kind == SourceKind.LIBRARY) {
+      if (dartEntry.getState(DartEntry.IS_CLIENT) != CacheState.VALID
+          || dartEntry.getState(DartEntry.IS_LAUNCHABLE) != CacheState.VALID) {
+        return false;
+      }
+    } else if (kind != SourceKind.PART) {
+      return false;
+    }
+    Source[] containingLibraries = dartEntry.getValue(DartEntry.CONTAINING_LIBRARIES);
+    if (containingLibraries.length == 0) {
+      return false;
+    }
+    for (Source librarySource : containingLibraries) {
+      if (dartEntry.getStateInLibrary(DartEntry.RESOLUTION_ERRORS, librarySource) != CacheState.VALID
+          || dartEntry.getStateInLibrary(DartEntry.VERIFICATION_ERRORS, librarySource) != CacheState.VALID) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read an entry for the given source from the given stream.
+   * 
+   * @param stream the stream from which the entry is to be read
+   * @param source the source with which the entry is associated
+   * @param sourceFactory the source factory used to re-create referenced sources
+   * @return the entry that was read
+   * @throws IOException if the entry could not be read
+   */
+  private DartEntryImpl readEntry(DataInputStream stream, Source source, SourceFactory sourceFactory)
+      throws IOException {
+    DartEntryImpl dartEntry = new DartEntryImpl();
+    SourceKind kind = SourceKind.valueOf(stream.readUTF());
+    dartEntry.setState(SourceEntry.CONTENT, CacheState.FLUSHED);
+    dartEntry.setValue(SourceEntry.LINE_INFO, new LineInfo(readIntArray(stream)));
+    dartEntry.setValue(DartEntry.SOURCE_KIND, kind);
+    dartEntry.setState(DartEntry.TOKEN_STREAM, CacheState.FLUSHED);
+    dartEntry.setValue(DartEntry.SCAN_ERRORS, readErrors(stream, source));
+    dartEntry.setState(DartEntry.PARSED_UNIT, CacheState.FLUSHED);
+    dartEntry.setValue(DartEntry.PARSE_ERRORS, readErrors(stream, source));
+    dartEntry.setValue(DartEntry.IMPORTED_LIBRARIES, readSources(stream, sourceFactory));
+    dartEntry.setValue(DartEntry.EXPORTED_LIBRARIES, readSources(stream, sourceFactory));
+    dartEntry.setValue(DartEntry.INCLUDED_PARTS, readSources(stream, sourceFactory));
+    if (kind == SourceKind.LIBRARY) {
+      dartEntry.setValue(DartEntry.IS_CLIENT, stream.readBoolean());
+      dartEntry.setValue(DartEntry.IS_LAUNCHABLE, stream.readBoolean());
+      dartEntry.setState(DartEntry.ELEMENT, CacheState.FLUSHED);
+      dartEntry.setState(DartEntry.PUBLIC_NAMESPACE, CacheState.FLUSHED);
+    }
+    int libraryCount = stream.readInt();
+    for (int i = 0; i < libraryCount; i++) {
+      Source librarySource = sourceFactory.fromEncoding(stream.readUTF());
+      dartEntry.addContainingLibrary(librarySource);
+      dartEntry.setValueInLibrary(
+          DartEntry.RESOLUTION_ERRORS,
+          librarySource,
+          readErrors(stream, source));
+      dartEntry.setStateInLibrary(DartEntry.RESOLVED_UNIT, librarySource, CacheState.FLUSHED);
+      dartEntry.setValueInLibrary(
+          DartEntry.VERIFICATION_ERRORS,
+          librarySource,
+          readErrors(stream, source));
+      if (stream.readBoolean()) {
+        dartEntry.setValueInLibrary(DartEntry.HINTS, librarySource, readErrors(stream, source));
+      }
+    }
+    return dartEntry;
+  }
+
+  /**
+   * Read a list of errors associated with the given source from the given stream.
+   * 
+   * @param stream the stream from which the errors are to be read
+   * @param source the source with which the errors are associated
+   * @return the errors that were read
+   * @throws IOException if the errors could not be read
+   */
+  private AnalysisError[] readErrors(DataInputStream stream, Source source) throws IOException {
+    int count = stream.readInt();
+    if (count == 0) {
+      return AnalysisError.NO_ERRORS;
+    }
+    AnalysisError[] errors = new AnalysisError[count];
+    for (int i = 0; i < count; i++) {
+      String uniqueName = stream.readUTF();
+      ErrorCode errorCode = ERROR_CODE_MAP.get(uniqueName);
+      if (errorCode == null) {
+        throw new IOException("Unknown error code: " + uniqueName);
+      }
+      int offset = stream.readInt();
+      int length = stream.readInt();
+      String message = stream.readUTF();
+      String correction = stream.readBoolean() ? stream.readUTF() : null;
+      AnalysisError error = new AnalysisError(
+          errorCode,
+          source,
+          offset,
+          length,
+          message,
+          correction);
+      error.setIsStaticOnly(stream.readBoolean());
+      errors[i] = error;
+    }
+    return errors;
+  }
+
+  /**
+   * Read an array of integers from the given stream.
+   * 
+   * @param stream the stream from which the array is to be read
+   * @return the array that was read
+   * @throws IOException if the array could not be read
+   */
+  private int[] readIntArray(DataInputStream stream) throws IOException {
+    int count = stream.readInt();
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = stream.readInt();
+    }
+    return values;
+  }
+
+  /**
+   * Read a list of sources from the given stream.
+   * 
+   * @param stream the stream from which the sources are to be read
+   * @param sourceFactory the source factory used to re-create the sources
+   * @return the sources that were read
+   * @throws IOException if the sources could not be read
+   */
+  private Source[] readSources(DataInputStream stream, SourceFactory sourceFactory)
+      throws IOException {
+    int count = stream.readInt();
+    if (count == 0) {
+      return Source.EMPTY_ARRAY;
+    }
+    Source[] sources = new Source[count];
+    for (int i = 0; i < count; i++) {
+      sources[i] = sourceFactory.fromEncoding(stream.readUTF());
+    }
+    return sources;
+  }
+
+  /**
+   * Write the given entry to the given stream.
+   * 
+   * @param stream the stream to which the entry is to be written
+   * @param source the source with which the entry is associated
+   * @param dartEntry the entry to be written
+   * @throws IOException if the entry could not be written
+   */
+  private void writeEntry(DataOutputStream stream, Source source, DartEntry dartEntry)
+      throws IOException {
+    SourceKind kind = dartEntry.getValue(DartEntry.SOURCE_KIND);
+    stream.writeUTF(kind.name());
+    writeIntArray(stream, dartEntry.getValue(SourceEntry.LINE_INFO).getLineStarts());
+    writeErrors(stream, source, dartEntry.getValue(DartEntry.SCAN_ERRORS));
+    writeErrors(stream, source, dartEntry.getValue(DartEntry.PARSE_ERRORS));
+    writeSources(stream, dartEntry.getValue(DartEntry.IMPORTED_LIBRARIES));
+    writeSources(stream, dartEntry.getValue(DartEntry.EXPORTED_LIBRARIES));
+    writeSources(stream, dartEntry.getValue(DartEntry.INCLUDED_PARTS));
+    if (kind == SourceKind.LIBRARY) {
+      stream.writeBoolean(dartEntry.getValue(DartEntry.IS_CLIENT));
+      stream.writeBoolean(dartEntry.getValue(DartEntry.IS_LAUNCHABLE));
+    }
+    Source[] containingLibraries = dartEntry.getValue(DartEntry.CONTAINING_LIBRARIES);
+    stream.writeInt(containingLibraries.length);
+    for (Source librarySource : containingLibraries) {
+      stream.writeUTF(librarySource.getEncoding());
+      writeErrors(
+          stream,
+          source,
+          dartEntry.getValueInLibrary(DartEntry.RESOLUTION_ERRORS, librarySource));
+      writeErrors(
+          stream,
+          source,
+          dartEntry.getValueInLibrary(DartEntry.VERIFICATION_ERRORS, librarySource));
+      boolean hintsValid = dartEntry.getStateInLibrary(DartEntry.HINTS, librarySource) == CacheState.VALID;
+      stream.writeBoolean(hintsValid);
+      if (hintsValid) {
+        writeErrors(stream, source, dartEntry.getValueInLibrary(DartEntry.HINTS, librarySource));
+      }
+    }
+  }
+
+  /**
+   * Write the given errors to the given stream. Errors that are associated with a source other than
+   * the given source cannot be written and are skipped.
+   * 
+   * @param stream the stream to which the errors are to be written
+   * @param source the source with which the errors are associated
+   * @param errors the errors to be written
+   * @throws IOException if the errors could not be written
+   */
+  private void writeErrors(DataOutputStream stream, Source source, AnalysisError[] errors)
+      throws IOException {
+    int count = 0;
+    for (AnalysisError error : errors) {
+      if (source.equals(error.getSource())) {
+        count++;
+      }
+    }
+    stream.writeInt(count);
+    for (AnalysisError error : errors) {
+      if (source.equals(error.getSource())) {
+        stream.writeUTF(error.getErrorCode().getUniqueName());
+        stream.writeInt(error.getOffset());
+        stream.writeInt(error.getLength());
+        stream.writeUTF(error.getMessage());
+        String correction = error.getCorrection();
+        stream.writeBoolean(correction != null);
+        if (correction != null) {
+          stream.writeUTF(correction);
+        }
+        stream.writeBoolean(error.isStaticOnly());
+      }
+    }
+  }
+
+  /**
+   * Write the given array of integers to the given stream.
+   * 
+   * @param stream the stream to which the array is to be written
+   * @param values the array to be written
+   * @throws IOException if the array could not be written
+   */
+  private void writeIntArray(DataOutputStream stream, int[] values) throws IOException {
+    stream.writeInt(values.length);
+    for (int value : values) {
+      stream.writeInt(value);
+    }
+  }
+
+  /**
+   * Write the given sources to the given stream.
+   * 
+   * @param stream the stream to which the sources are to be written
+   * @param sources the sources to be written
+   * @throws IOException if the sources could not be written
+   */
+  private void writeSources(DataOutputStream stream, Source[] sources) throws IOException {
+    stream.writeInt(sources.length);
+    for (Source source : sources) {
+      stream.writeUTF(source.getEncoding());
+    }
+  }
+}
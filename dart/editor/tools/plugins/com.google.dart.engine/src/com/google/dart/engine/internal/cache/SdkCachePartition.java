@@ -36,4 +36,19 @@ public class SdkCachePartition extends CachePartition {
   public boolean contains(Source source) {
     return source.isInSystemLibrary();
   }
+
+  /**
+   * Associate the given entry with the given source. Contexts update entries in this partition
+   * while holding only their own lock, so the entry that the given entry was copied from might have
+   * been replaced by another context in the meantime. In that case the changes made by the other
+   * context are merged into the given entry before it is stored, so that they are not lost.
+   */
+  @Override
+  public synchronized void put(Source source, SourceEntry entry) {
+    SourceEntry current = get(source);
+    if (current instanceof SourceEntryImpl) {
+      ((SourceEntryImpl) entry).mergeConcurrentChanges((SourceEntryImpl) current);
+    }
+    super.put(source, entry);
+  }
 }
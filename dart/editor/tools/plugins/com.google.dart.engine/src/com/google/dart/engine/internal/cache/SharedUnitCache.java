@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.cache;
+
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.context.AnalysisOptions;
+import com.google.dart.engine.scanner.BeginToken;
+import com.google.dart.engine.scanner.Token;
+import com.google.dart.engine.scanner.TokenType;
+import com.google.dart.engine.utilities.ast.AstCloner;
+import com.google.dart.engine.utilities.source.LineInfo;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Instances of the class {@code SharedUnitCache} hold the token streams and the unresolved
+ * compilation units produced by scanning and parsing Dart sources so that they can be shared by all
+ * of the analysis contexts in the process. Results are keyed by a digest of the contents of the
+ * source and by the options that affect scanning and parsing, so the same library analyzed by
+ * several contexts is only scanned and parsed once.
+ * <p>
+ * Only results that were produced without any errors are shared, because errors are associated
+ * with the source for which they were produced. The compilation units held by the cache are never
+ * handed out: each context is given its own copy because resolution modifies the structure. The
+ * tokens are shared by all of the copies and must not be modified once they are in the cache.
+ * 
+ * @coverage dart.engine
+ */
+public class SharedUnitCache {
+  /**
+   * Instances of the class {@code UnitKey} identify the results of scanning and parsing some
+   * contents with a particular set of options.
+   */
+  public static final class UnitKey {
+    /**
+     * The digest of the contents that were scanned.
+     */
+    private final byte[] digest;
+
+    /**
+     * The number of characters in the contents that were scanned.
+     */
+    private final int length;
+
+    /**
+     * The options that affect scanning and parsing, encoded as a set of bits.
+     */
+    private final int optionBits;
+
+    /**
+     * Initialize a newly created key.
+     * 
+     * @param digest the digest of the contents that were scanned
+     * @param length the number of characters in the contents that were scanned
+     * @param optionBits the options that affect scanning and parsing
+     */
+    private UnitKey(byte[] digest, int length, int optionBits) {
+      this.digest = digest;
+      this.length = length;
+      this.optionBits = optionBits;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof UnitKey)) {
+        return false;
+      }
+      UnitKey other = (UnitKey) object;
+      return length == other.length && optionBits == other.optionBits
+          && Arrays.equals(digest, other.digest);
+    }
+
+    @Override
+    public int hashCode() {
+      return (Arrays.hashCode(digest) * 31 + length) * 31 + optionBits;
+    }
+  }
+
+  /**
+   * Instances of the class {@code SharedUnit} hold the results of scanning and parsing some
+   * contents.
+   */
+  public static final class SharedUnit {
+    /**
+     * The key identifying the contents and options that produced these results.
+     */
+    private final UnitKey key;
+
+    /**
+     * The head of the token stream.
+     */
+    private final Token tokenStream;
+
+    /**
+     * The line information for the contents.
+     */
+    private final LineInfo lineInfo;
+
+    /**
+     * The compilation unit, which is never modified.
+     */
+    private final CompilationUnit unit;
+
+    /**
+     * Initialize a newly created result.
+     * 
+     * @param key the key identifying the contents and options that produced these results
+     * @param tokenStream the head of the token stream
+     * @param lineInfo the line information for the contents
+     * @param unit the compilation unit, which will never be modified
+     */
+    private SharedUnit(UnitKey key, Token tokenStream, LineInfo lineInfo, CompilationUnit unit) {
+      this.key = key;
+      this.tokenStream = tokenStream;
+      this.lineInfo = lineInfo;
+      this.unit = unit;
+    }
+
+    /**
+     * Return the line information for the contents.
+     * 
+     * @return the line information for the contents
+     */
+    public LineInfo getLineInfo() {
+      return lineInfo;
+    }
+
+    /**
+     * Return the head of the token stream. The tokens must not be modified.
+     * 
+     * @return the head of the token stream
+     */
+    public Token getTokenStream() {
+      return tokenStream;
+    }
+  }
+
+  /**
+   * The default maximum number of compilation units held by the shared instance.
+   */
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
+  /**
+   * The option bit used when comments are preserved.
+   */
+  private static final int PRESERVE_COMMENTS = 1 << 0;
+
+  /**
+   * The option bit used when function bodies are parsed.
+   */
+  private static final int ANALYZE_FUNCTION_BODIES = 1 << 1;
+
+  /**
+   * The option bit used when only declarations are parsed.
+   */
+  private static final int DECLARATIONS_ONLY = 1 << 2;
+
+  /**
+   * The option bit used when async support is enabled.
+   */
+  private static final int ENABLE_ASYNC = 1 << 3;
+
+  /**
+   * The option bit used when deferred loading is enabled.
+   */
+  private static final int ENABLE_DEFERRED_LOADING = 1 << 4;
+
+  /**
+   * The option bit used when enums are enabled.
+   */
+  private static final int ENABLE_ENUM = 1 << 5;
+
+  /**
+   * The number of characters that are added to the digest at a time.
+   */
+  private static final int DIGEST_CHUNK_SIZE = 4096;
+
+  /**
+   * The unique instance of this class that is shared by all of the contexts.
+   */
+  private static final SharedUnitCache UniqueInstance = new SharedUnitCache(DEFAULT_MAX_SIZE);
+
+  /**
+   * Return a copy of the given token stream that can be modified without affecting the original
+   * stream.
+   * 
+   * @param tokenStream the head of the token stream to be copied
+   * @return the head of the copy of the token stream
+   */
+  public static Token copyTokenStream(Token tokenStream) {
+    IdentityHashMap<Token, Token> copies = new IdentityHashMap<Token, Token>();
+    ArrayList<BeginToken> beginTokens = new ArrayList<BeginToken>();
+    Token head = new Token(TokenType.EOF, -1);
+    Token tail = head;
+    Token token = tokenStream;
+    while (true) {
+      Token copy = token.copy();
+      copies.put(token, copy);
+      if (token instanceof BeginToken) {
+        beginTokens.add((BeginToken) token);
+      }
+      tail = tail.setNext(copy);
+      if (token.getType() == TokenType.EOF) {
+        copy.setNext(copy);
+        break;
+      }
+      token = token.getNext();
+    }
+    for (BeginToken beginToken : beginTokens) {
+      Token endToken = copies.get(beginToken.getEndToken());
+      if (endToken != null) {
+        ((BeginToken) copies.get(beginToken)).setEndToken(endToken);
+      }
+    }
+    return head.getNext();
+  }
+
+  /**
+   * Return a key identifying the results of scanning and parsing the given contents with the given
+   * options, or {@code null} if the contents cannot be shared.
+   * 
+   * @param content the contents to be scanned
+   * @param options the options controlling scanning and parsing
+   * @param declarationsOnly {@code true} if the contents of function bodies are to be replaced by
+   *          empty blocks
+   * @return a key identifying the results of scanning and parsing the contents
+   */
+  public static UnitKey createKey(CharSequence content, AnalysisOptions options,
+      boolean declarationsOnly) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException exception) {
+      return null;
+    }
+    int length = content.length();
+    byte[] bytes = new byte[DIGEST_CHUNK_SIZE * 2];
+    int index = 0;
+    while (index < length) {
+      int end = Math.min(index + DIGEST_CHUNK_SIZE, length);
+      int byteCount = 0;
+      for (int i = index; i < end; i++) {
+        char character = content.charAt(i);
+        bytes[byteCount++] = (byte) (character >> 8);
+        bytes[byteCount++] = (byte) character;
+      }
+      digest.update(bytes, 0, byteCount);
+      index = end;
+    }
+    return new UnitKey(digest.digest(), length, getOptionBits(options, declarationsOnly));
+  }
+
+  /**
+   * Return the unique instance of this class that is shared by all of the contexts.
+   * 
+   * @return the unique instance of this class
+   */
+  public static SharedUnitCache getInstance() {
+    return UniqueInstance;
+  }
+
+  /**
+   * Return the options that affect scanning and parsing, encoded as a set of bits.
+   * 
+   * @param options the options controlling scanning and parsing
+   * @param declarationsOnly {@code true} if the contents of function bodies are to be replaced by
+   *          empty blocks
+   * @return the options that affect scanning and parsing
+   */
+  @SuppressWarnings("deprecation")
+  public static int getOptionBits(AnalysisOptions options, boolean declarationsOnly) {
+    int bits = 0;
+    if (options.getPreserveComments()) {
+      bits |= PRESERVE_COMMENTS;
+    }
+    if (options.getAnalyzeFunctionBodies()) {
+      bits |= ANALYZE_FUNCTION_BODIES;
+    }
+    if (declarationsOnly) {
+      bits |= DECLARATIONS_ONLY;
+    }
+    //
+    // ParseDartTask still passes these deprecated flags to the parser, so units parsed with
+    // different values cannot be shared.
+    //
+    if (options.getEnableAsync()) {
+      bits |= ENABLE_ASYNC;
+    }
+    if (options.getEnableDeferredLoading()) {
+      bits |= ENABLE_DEFERRED_LOADING;
+    }
+    if (options.getEnableEnum()) {
+      bits |= ENABLE_ENUM;
+    }
+    return bits;
+  }
+
+  /**
+   * The maximum number of compilation units held by this cache.
+   */
+  private final int maxSize;
+
+  /**
+   * A table mapping keys to the results identified by those keys, in the order in which they were
+   * last used.
+   */
+  private final LinkedHashMap<UnitKey, SharedUnit> units;
+
+  /**
+   * A table mapping the heads of the shared token streams to the results containing them.
+   */
+  private final IdentityHashMap<Token, SharedUnit> unitsByToken = new IdentityHashMap<Token, SharedUnit>();
+
+  /**
+   * A table mapping the heads of token streams that were scanned without errors, but have not yet
+   * been parsed, to the keys identifying them. The token streams are weakly referenced so that
+   * streams that are never parsed do not accumulate.
+   */
+  private final WeakHashMap<Token, UnitKey> scannedKeys = new WeakHashMap<Token, UnitKey>();
+
+  /**
+   * The number of times a token stream was found in this cache.
+   */
+  private int hitCount = 0;
+
+  /**
+   * The number of times a token stream was not found in this cache.
+   */
+  private int missCount = 0;
+
+  /**
+   * Initialize a newly created cache to hold at most the given number of compilation units.
+   * 
+   * @param maxSize the maximum number of compilation units held by the cache
+   */
+  public SharedUnitCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.units = new LinkedHashMap<UnitKey, SharedUnit>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UnitKey, SharedUnit> eldest) {
+        if (size() > SharedUnitCache.this.maxSize) {
+          unitsByToken.remove(eldest.getValue().tokenStream);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Remove all of the results from this cache.
+   */
+  public synchronized void clear() {
+    units.clear();
+    unitsByToken.clear();
+    scannedKeys.clear();
+  }
+
+  /**
+   * Return the results identified by the given key, or {@code null} if the contents have not been
+   * scanned and parsed with the same options.
+   * 
+   * @param key the key identifying the results
+   * @return the results identified by the given key
+   */
+  public synchronized SharedUnit get(UnitKey key) {
+    SharedUnit unit = units.get(key);
+    if (unit == null) {
+      missCount++;
+    } else {
+      hitCount++;
+    }
+    return unit;
+  }
+
+  /**
+   * Return the number of times a token stream was found in this cache.
+   * 
+   * @return the number of times a token stream was found in this cache
+   */
+  public synchronized int getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Return the number of times a token stream was not found in this cache.
+   * 
+   * @return the number of times a token stream was not found in this cache
+   */
+  public synchronized int getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Return the number of compilation units held by this cache.
+   * 
+   * @return the number of compilation units held by this cache
+   */
+  public synchronized int getSize() {
+    return units.size();
+  }
+
+  /**
+   * Return a copy of the compilation unit that was produced by parsing the given shared token
+   * stream with the given options, or {@code null} if the token stream is not shared or was parsed
+   * with different options.
+   * 
+   * @param tokenStream the head of the token stream to be parsed
+   * @param optionBits the options that affect scanning and parsing
+   * @return a copy of the compilation unit produced by parsing the token stream
+   */
+  public CompilationUnit getUnit(Token tokenStream, int optionBits) {
+    SharedUnit sharedUnit;
+    synchronized (this) {
+      sharedUnit = unitsByToken.get(tokenStream);
+    }
+    if (sharedUnit == null || sharedUnit.key.optionBits != optionBits) {
+      return null;
+    }
+    return (CompilationUnit) sharedUnit.unit.accept(new AstCloner());
+  }
+
+  /**
+   * Return {@code true} if the given token stream is shared, and hence must not be modified.
+   * 
+   * @param tokenStream the head of the token stream being tested
+   * @return {@code true} if the given token stream is shared
+   */
+  public synchronized boolean isShared(Token tokenStream) {
+    return unitsByToken.containsKey(tokenStream);
+  }
+
+  /**
+   * Record that the given token stream was parsed without errors to produce the given compilation
+   * unit. The compilation unit is copied before any context-specific information is added to it.
+   * Nothing is recorded unless the token stream was scanned without errors using the same options.
+   * 
+   * @param tokenStream the head of the token stream that was parsed
+   * @param lineInfo the line information associated with the token stream
+   * @param optionBits the options that were used when parsing
+   * @param unit the compilation unit that was produced
+   */
+  public void parsed(Token tokenStream, LineInfo lineInfo, int optionBits, CompilationUnit unit) {
+    UnitKey key;
+    synchronized (this) {
+      key = scannedKeys.remove(tokenStream);
+    }
+    if (key == null || key.optionBits != optionBits) {
+      return;
+    }
+    CompilationUnit sharedUnit = (CompilationUnit) unit.accept(new AstCloner());
+    synchronized (this) {
+      if (!units.containsKey(key)) {
+        SharedUnit result = new SharedUnit(key, tokenStream, lineInfo, sharedUnit);
+        units.put(key, result);
+        unitsByToken.put(tokenStream, result);
+      }
+    }
+  }
+
+  /**
+   * Record that the given token stream was produced, without errors, by scanning the contents
+   * identified by the given key, so that the results can be shared once it has been parsed.
+   * 
+   * @param key the key identifying the contents that were scanned
+   * @param tokenStream the head of the token stream that was produced
+   */
+  public synchronized void scanned(UnitKey key, Token tokenStream) {
+    scannedKeys.put(tokenStream, key);
+  }
+}
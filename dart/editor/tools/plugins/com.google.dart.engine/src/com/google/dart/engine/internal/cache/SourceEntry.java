@@ -39,6 +39,16 @@ public interface SourceEntry {
   public static final DataDescriptor<LineInfo> LINE_INFO = new DataDescriptor<LineInfo>(
       "SourceEntry.LINE_INFO");
 
+  /**
+   * Return an estimate of the number of bytes of memory retained by the AST structures (token
+   * streams and compilation units) currently held by this entry. The estimate is based on the
+   * number of characters covered by the structures, so it is only useful for comparing entries and
+   * for budgeting the cache, not as an exact measure.
+   * 
+   * @return an estimate of the number of bytes retained by the AST structures in this entry
+   */
+  public long getEstimatedAstSize();
+
   /**
    * Return the exception that caused one or more values to have a state of {@link CacheState#ERROR}
    * .
@@ -66,6 +66,14 @@ public abstract class SourceEntryImpl implements SourceEntry {
    */
   private LineInfo lineInfo;
 
+  /**
+   * The entry from which this entry was copied, or {@code null} if this entry was not created by
+   * copying another entry or has been stored in a cache since it was copied. This is used to detect
+   * that an entry in a partition shared by several contexts was replaced by another context while
+   * this copy was being updated.
+   */
+  private SourceEntryImpl copiedFrom;
+
   /**
    * A table mapping data descriptors to a count of the number of times a value of that kind was
    * transitioned from some {@link CacheState} to {@link CacheState#VALID}.
@@ -78,6 +86,18 @@ public abstract class SourceEntryImpl implements SourceEntry {
    */
   private static final int EXPLICITLY_ADDED_FLAG = 0;
 
+  /**
+   * The estimated number of bytes retained by the nodes of an AST structure for each character of
+   * the source it represents, not including the tokens.
+   */
+  protected static final long NODE_BYTES_PER_CHARACTER = 8L;
+
+  /**
+   * The estimated number of bytes retained by a token stream for each character of the source it
+   * represents.
+   */
+  protected static final long TOKEN_BYTES_PER_CHARACTER = 6L;
+
   /**
    * Initialize a newly created cache entry to be empty.
    */
@@ -85,6 +105,14 @@ public abstract class SourceEntryImpl implements SourceEntry {
     super();
   }
 
+  /**
+   * Record that this entry has been stored in a cache, so that the entry from which it was copied no
+   * longer needs to be retained.
+   */
+  public void clearCopiedFrom() {
+    copiedFrom = null;
+  }
+
   /**
    * Fix the state of the {@link #exception} to match the current state of the entry.
    */
@@ -176,6 +204,23 @@ public abstract class SourceEntryImpl implements SourceEntry {
     lineInfoState = CacheState.INVALID;
   }
 
+  /**
+   * Given that the entry from which this entry was copied has been replaced by the given entry while
+   * this entry was being updated, copy into this entry the information from the given entry that
+   * was not changed by the update of this entry, so that neither update is lost. Nothing is merged
+   * if this entry was not copied from another entry, if the given entry is the one from which it was
+   * copied, or if the two entries represent different versions of the source.
+   * 
+   * @param current the entry that replaced the entry from which this entry was copied
+   */
+  public void mergeConcurrentChanges(SourceEntryImpl current) {
+    if (copiedFrom == null || current == copiedFrom || current == this
+        || current.getClass() != getClass() || current.modificationTime != modificationTime) {
+      return;
+    }
+    mergeFrom(copiedFrom, current);
+  }
+
   /**
    * Record that an error occurred while attempting to get the contents of the source represented by
    * this entry. This will set the state of all information, including any resolution-based
@@ -285,6 +330,7 @@ public abstract class SourceEntryImpl implements SourceEntry {
    * @param entry the cache entry from which information will be copied
    */
   protected void copyFrom(SourceEntryImpl entry) {
+    copiedFrom = entry;
     modificationTime = entry.modificationTime;
     flags = entry.flags;
     exception = entry.exception;
@@ -327,6 +373,58 @@ public abstract class SourceEntryImpl implements SourceEntry {
     return contentState == CacheState.ERROR || lineInfoState == CacheState.ERROR;
   }
 
+  /**
+   * Return {@code true} if a value of this entry should be replaced by the value of an entry that
+   * was stored concurrently. That is the case if the update of this entry did not change the value,
+   * or if both updates produced a valid value, in which case the value that was stored first is kept
+   * so that every context sharing the entry sees the same value.
+   * 
+   * @param state the state of the value in this entry
+   * @param value the value in this entry
+   * @param baseState the state of the value in the entry from which this entry was copied
+   * @param baseValue the value in the entry from which this entry was copied
+   * @param currentState the state of the value in the entry that was stored concurrently
+   * @return {@code true} if the concurrently stored value should be used
+   */
+  protected static boolean isConcurrentValuePreferred(CacheState state, Object value,
+      CacheState baseState, Object baseValue, CacheState currentState) {
+    return (state == baseState && value == baseValue)
+        || (state == CacheState.VALID && currentState == CacheState.VALID);
+  }
+
+  /**
+   * Copy into this entry the information from the current entry that was not changed by the update
+   * of this entry. Subclasses must merge their own information after invoking this method.
+   * 
+   * @param base the entry from which this entry was copied
+   * @param current the entry that replaced the base entry while this entry was being updated
+   */
+  protected void mergeFrom(SourceEntryImpl base, SourceEntryImpl current) {
+    int changedFlags = flags ^ base.flags;
+    flags = (flags & changedFlags) | (current.flags & ~changedFlags);
+    if (exception == base.exception) {
+      exception = current.exception;
+    }
+    if (isConcurrentValuePreferred(
+        contentState,
+        content,
+        base.contentState,
+        base.content,
+        current.contentState)) {
+      contentState = current.contentState;
+      content = current.content;
+    }
+    if (isConcurrentValuePreferred(
+        lineInfoState,
+        lineInfo,
+        base.lineInfoState,
+        base.lineInfo,
+        current.lineInfoState)) {
+      lineInfoState = current.lineInfoState;
+      lineInfo = current.lineInfo;
+    }
+  }
+
   /**
    * Set the exception that caused one or more values to have a state of {@link CacheState#ERROR} to
    * the given exception.
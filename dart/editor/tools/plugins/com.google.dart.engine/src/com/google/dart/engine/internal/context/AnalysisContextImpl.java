@@ -38,7 +38,9 @@ import com.google.dart.engine.context.ObsoleteSourceAnalysisException;
 import com.google.dart.engine.element.CompilationUnitElement;
 import com.google.dart.engine.element.Element;
 import com.google.dart.engine.element.ElementLocation;
+import com.google.dart.engine.element.ExportElement;
 import com.google.dart.engine.element.HtmlElement;
+import com.google.dart.engine.element.ImportElement;
 import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.element.angular.AngularComponentElement;
 import com.google.dart.engine.element.angular.AngularElement;
@@ -54,7 +56,10 @@ import com.google.dart.engine.internal.cache.DartEntryImpl;
 import com.google.dart.engine.internal.cache.DataDescriptor;
 import com.google.dart.engine.internal.cache.HtmlEntry;
 import com.google.dart.engine.internal.cache.HtmlEntryImpl;
+import com.google.dart.engine.internal.cache.PersistentAnalysisCache;
+import com.google.dart.engine.internal.cache.PersistentAnalysisCache.CachedSource;
 import com.google.dart.engine.internal.cache.RetentionPriority;
+import com.google.dart.engine.internal.cache.SdkCachePartition;
 import com.google.dart.engine.internal.cache.SourceEntry;
 import com.google.dart.engine.internal.cache.SourceEntryImpl;
 import com.google.dart.engine.internal.cache.UniversalCachePartition;
@@ -91,6 +96,7 @@ import com.google.dart.engine.scanner.Token;
 import com.google.dart.engine.sdk.DartSdk;
 import com.google.dart.engine.source.ContentCache;
 import com.google.dart.engine.source.FileBasedSource;
+import com.google.dart.engine.source.PackageUriResolver;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.Source.ContentReceiver;
 import com.google.dart.engine.source.SourceContainer;
@@ -106,9 +112,11 @@ import com.google.dart.engine.utilities.translation.DartOmit;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -185,7 +193,11 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     @Override
     public DartEntry visitResolveDartLibraryCycleTask(ResolveDartLibraryCycleTask task)
         throws AnalysisException {
-      return recordResolveDartLibraryCycleTaskResults(task);
+      try {
+        return recordResolveDartLibraryCycleTaskResults(task);
+      } finally {
+        releaseLibrariesInCycle(task.getLibrariesInCycle());
+      }
     }
 
     @Override
@@ -232,6 +244,10 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     }
 
     private boolean astIsNeeded(DartEntry dartEntry) {
+      if (dartEntry.isDeclarationsOnly()) {
+        // Neither hints nor verification errors are generated for such units.
+        return dartEntry.hasInvalidData(DartEntry.RESOLUTION_ERRORS);
+      }
       return dartEntry.hasInvalidData(DartEntry.HINTS)
           || dartEntry.hasInvalidData(DartEntry.VERIFICATION_ERRORS)
           || dartEntry.hasInvalidData(DartEntry.RESOLUTION_ERRORS);
@@ -580,6 +596,7 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
      */
     private ResolvableLibrary createLibrary(Source librarySource) {
       ResolvableLibrary library = new ResolvableLibrary(librarySource);
+      loadSdkLibraryFromSummary(librarySource);
       SourceEntry sourceEntry = cache.get(librarySource);
       if (sourceEntry instanceof DartEntry) {
         LibraryElementImpl libraryElement = (LibraryElementImpl) sourceEntry.getValue(DartEntry.ELEMENT);
@@ -600,6 +617,7 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
      */
     private ResolvableLibrary createLibraryOrNull(Source librarySource) {
       ResolvableLibrary library = new ResolvableLibrary(librarySource);
+      loadSdkLibraryFromSummary(librarySource);
       SourceEntry sourceEntry = cache.get(librarySource);
       if (sourceEntry instanceof DartEntry) {
         LibraryElementImpl libraryElement = (LibraryElementImpl) sourceEntry.getValue(DartEntry.ELEMENT);
@@ -622,8 +640,11 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
       DartEntry libraryEntry = getReadableDartEntry(librarySource);
       if (libraryEntry != null && libraryEntry.getState(DartEntry.PARSED_UNIT) != CacheState.ERROR) {
         workManager.addFirst(librarySource, SourcePriority.LIBRARY);
-        if (taskData == null) {
-          taskData = createResolveDartLibraryTask(librarySource, libraryEntry);
+        if (taskData == null || taskData.isBlocked()) {
+          TaskData dependencyTaskData = createResolveDartLibraryTask(librarySource, libraryEntry);
+          if (taskData == null || dependencyTaskData.getTask() != null) {
+            taskData = dependencyTaskData;
+          }
         }
       }
     }
@@ -647,7 +668,7 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
           } else {
             ensureExports(dependency, visitedLibraries);
           }
-          if (taskData != null) {
+          if (hasTaskData()) {
             return;
           }
         }
@@ -668,7 +689,7 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
         ResolvableLibrary dependency = dependencies[i];
         if (!librariesInCycle.contains(dependency) && dependency.getLibraryElement() == null) {
           ensureElementModel(dependency);
-          if (taskData != null) {
+          if (hasTaskData()) {
             return;
           }
         }
@@ -685,11 +706,11 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
       for (int i = 0; i < libraryCount; i++) {
         ResolvableLibrary library = librariesInCycle.get(i);
         ensureImports(library);
-        if (taskData != null) {
+        if (hasTaskData()) {
           return;
         }
         ensureExports(library, visitedLibraries);
-        if (taskData != null) {
+        if (hasTaskData()) {
           return;
         }
       }
@@ -760,6 +781,18 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
       return sources;
     }
 
+    /**
+     * Return {@code true} if a task that needs to be performed before the cycle can be resolved has
+     * been found, or if it has been found that the cycle cannot be resolved. A dependency that is
+     * blocked, such as one that is being resolved by another thread, does not end the search for a
+     * dependency that can be resolved now.
+     * 
+     * @return {@code true} if there is no need to look at any more dependencies
+     */
+    private boolean hasTaskData() {
+      return taskData != null && !taskData.isBlocked();
+    }
+
     /**
      * Return the sources described by the given descriptor.
      * 
@@ -918,12 +951,50 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
    */
   private Source[] priorityOrder = Source.EMPTY_ARRAY;
 
+  /**
+   * A set containing the dependency sources whose function bodies have been explicitly requested,
+   * such as by computing the errors for the source.
+   */
+  private HashSet<Source> functionBodySources = new HashSet<Source>();
+
   /**
    * An array containing sources whose AST structure is needed in order to resolve the next library
    * to be resolved.
    */
   private HashSet<Source> neededForResolution = null;
 
+  /**
+   * The sources of the libraries that are currently being resolved by a
+   * {@link ResolveDartLibraryCycleTask}. Used to prevent the same cycle of libraries from being
+   * handed out more than once when tasks are being performed by multiple threads. Synchronize
+   * against {@link #cacheLock} before accessing this field.
+   */
+  private HashSet<Source> librariesBeingResolved = new HashSet<Source>();
+
+  /**
+   * The number of {@link ScanDartTask}s and {@link ParseDartTask}s that have been handed out by
+   * {@link #getNextAnalysisTask()} and have not yet been completed. Used to bound the number of
+   * sources that are scanned and parsed at the same time when tasks are being performed by multiple
+   * threads. Synchronize against {@link #cacheLock} before accessing this field.
+   */
+  private int parseTaskCount = 0;
+
+  /**
+   * The number of {@link ResolveDartLibraryCycleTask}s that have been handed out by
+   * {@link #getNextAnalysisTask()} and have not yet been completed. Used to bound the number of
+   * library cycles that are resolved at the same time when tasks are being performed by multiple
+   * threads. Synchronize against {@link #cacheLock} before accessing this field.
+   */
+  private int resolutionTaskCount = 0;
+
+  /**
+   * The number of {@link GenerateDartErrorsTask}s and {@link GenerateDartHintsTask}s that have been
+   * handed out by {@link #getNextAnalysisTask()} and have not yet been completed. Used to bound the
+   * number of compilation units that are verified at the same time when tasks are being performed by
+   * multiple threads. Synchronize against {@link #cacheLock} before accessing this field.
+   */
+  private int verificationTaskCount = 0;
+
   /**
    * A table mapping sources to the change notices that are waiting to be returned related to that
    * source.
@@ -931,16 +1002,20 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
   private HashMap<Source, ChangeNoticeImpl> pendingNotices = new HashMap<Source, ChangeNoticeImpl>();
 
   /**
-   * The object used to synchronize access to all of the caches. The rules related to the use of
-   * this lock object are
+   * The object used to synchronize access to the cache of this context. Each context has its own
+   * lock, so analysis in one context does not block analysis in any other context. The rules related
+   * to the use of this lock object are
    * <ul>
    * <li>no analysis work is done while holding the lock, and</li>
    * <li>no analysis results can be recorded unless we have obtained the lock and validated that the
    * results are for the same version (modification time) of the source as our current cache
    * content.</li>
    * </ul>
+   * Partitions that are shared with other contexts (such as the {@link SdkCachePartition}) guard
+   * their own internal state rather than relying on this lock, and merge the changes made by
+   * contexts that replace the same entry concurrently.
    */
-  private static Object cacheLock = new Object();
+  private final Object cacheLock = new Object();
 
   /**
    * The object used to record the results of performing an analysis task.
@@ -1134,7 +1209,13 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
 
   @Override
   public AnalysisError[] computeErrors(Source source) throws AnalysisException {
-    boolean enableHints = options.getHint();
+    boolean enableHints = options.getHint() && !isLazyDependency(source);
+    if (isLazyDependency(source)) {
+      synchronized (cacheLock) {
+        functionBodySources.add(source);
+        parseFunctionBodies(source);
+      }
+    }
     SourceEntry sourceEntry = getReadableSourceEntry(source);
     if (sourceEntry instanceof DartEntry) {
       ArrayList<AnalysisError> errors = new ArrayList<AnalysisError>();
@@ -1686,7 +1767,8 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
   public Source[] getRefactoringUnsafeSources() {
     ArrayList<Source> sources = new ArrayList<Source>();
     synchronized (cacheLock) {
-      MapIterator<Source, SourceEntry> iterator = cache.iterator();
+      // SDK sources cannot be refactored, and the SDK partition is shared with other contexts.
+      MapIterator<Source, SourceEntry> iterator = privatePartition.iterator();
       while (iterator.moveNext()) {
         SourceEntry sourceEntry = iterator.getValue();
         if (sourceEntry instanceof DartEntry) {
@@ -1799,7 +1881,7 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
                   dartEntry,
                   librarySource,
                   DartEntry.VERIFICATION_ERRORS);
-              if (hintsEnabled) {
+              if (hintsEnabled && !isLazyDependency(source)) {
                 statistics.putCacheItemInLibrary(dartEntry, librarySource, DartEntry.HINTS);
               }
             }
@@ -1925,6 +2007,8 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
             "Internal error while performing the task: " + task,
             exception);
       }
+    } finally {
+      taskCompleted(task);
     }
     long performEnd = System.currentTimeMillis();
     ChangeNotice[] notices = getChangeNotices(false);
@@ -2018,10 +2102,119 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     return parseHtmlUnit(htmlSource);
   }
 
+  /**
+   * Restore the results of analysis that were written to the given persistent cache by
+   * {@link #saveAnalysisResults(PersistentAnalysisCache)} for the Dart sources in this context
+   * whose contents, and the contents of all of the sources on which their results depend, have not
+   * changed. Neither element models nor AST structures are restored; they will be recomputed when
+   * they are requested, but the restored sources will not otherwise be analyzed again. In
+   * particular, the element model of a restored library will be rebuilt, by resolving the library
+   * again, when a library that depends on it needs to be resolved.
+   * <p>
+   * This method should be invoked after the sources have been added to the context and before any
+   * analysis has been performed. Results are not restored for sources that have been scanned or
+   * parsed.
+   * 
+   * @param persistentCache the cache from which the results are to be read
+   * @return the number of sources whose results were restored
+   */
+  public int restoreAnalysisResults(PersistentAnalysisCache persistentCache) {
+    HashMap<Source, DartEntry> entries = getLocalDartEntries();
+    String signature = getPersistentCacheSignature();
+    SourceFactory factory = getSourceFactory();
+    HashMap<Source, String> hashes = new HashMap<Source, String>();
+    HashMap<Source, DartEntryImpl> restoredEntries = new HashMap<Source, DartEntryImpl>();
+    for (Source source : entries.keySet()) {
+      CachedSource cachedSource = persistentCache.read(source, signature, factory);
+      if (cachedSource != null
+          && cachedSource.getContentHash().equals(computeContentHash(source, null, hashes))
+          && dependenciesUnchanged(cachedSource.getDependencyHashes(), hashes)) {
+        restoredEntries.put(source, cachedSource.getEntry());
+      }
+    }
+    removeIncompleteLibraries(restoredEntries);
+    int restoredCount = 0;
+    synchronized (cacheLock) {
+      for (Map.Entry<Source, DartEntryImpl> mapEntry : restoredEntries.entrySet()) {
+        Source source = mapEntry.getKey();
+        SourceEntry sourceEntry = cache.get(source);
+        if (!(sourceEntry instanceof DartEntry)
+            || sourceEntry.getState(DartEntry.SCAN_ERRORS) != CacheState.INVALID
+            || sourceEntry.getState(DartEntry.PARSE_ERRORS) != CacheState.INVALID) {
+          continue;
+        }
+        DartEntryImpl dartCopy = mapEntry.getValue();
+        dartCopy.setModificationTime(getModificationStamp(source));
+        dartCopy.setExplicitlyAdded(sourceEntry.getExplicitlyAdded());
+        cache.put(source, dartCopy);
+        ChangeNoticeImpl notice = getNotice(source);
+        notice.setErrors(dartCopy.getAllErrors(), dartCopy.getValue(SourceEntry.LINE_INFO));
+        restoredCount++;
+      }
+    }
+    return restoredCount;
+  }
+
+  /**
+   * Write the results of analyzing the Dart sources in this context to the given persistent cache
+   * so that they can be restored in a later session by
+   * {@link #restoreAnalysisResults(PersistentAnalysisCache)}. Results are only written for sources
+   * that are not in the SDK, whose analysis is complete, and whose contents have not changed since
+   * they were analyzed.
+   * 
+   * @param persistentCache the cache to which the results are to be written
+   * @return the number of sources whose results were written
+   */
+  public int saveAnalysisResults(PersistentAnalysisCache persistentCache) {
+    HashMap<Source, DartEntry> entries = getLocalDartEntries();
+    String signature = getPersistentCacheSignature();
+    HashMap<Source, String> hashes = new HashMap<Source, String>();
+    int savedCount = 0;
+    for (Map.Entry<Source, DartEntry> mapEntry : entries.entrySet()) {
+      Source source = mapEntry.getKey();
+      DartEntry dartEntry = mapEntry.getValue();
+      String contentHash = computeContentHash(source, dartEntry, hashes);
+      if (contentHash == null) {
+        continue;
+      }
+      //
+      // The results for a source depend on every source that can affect the resolution of the
+      // libraries containing it.
+      //
+      HashSet<Source> dependencies = new HashSet<Source>();
+      boolean complete = true;
+      for (Source librarySource : dartEntry.getValue(DartEntry.CONTAINING_LIBRARIES)) {
+        if (!computeSourcesAffecting(librarySource, entries, dependencies)) {
+          complete = false;
+          break;
+        }
+      }
+      dependencies.remove(source);
+      HashMap<Source, String> dependencyHashes = new HashMap<Source, String>();
+      for (Source dependency : dependencies) {
+        if (!complete) {
+          break;
+        }
+        String dependencyHash = computeContentHash(dependency, entries.get(dependency), hashes);
+        if (dependencyHash == null) {
+          complete = false;
+        }
+        dependencyHashes.put(dependency, dependencyHash);
+      }
+      if (complete
+          && persistentCache.write(source, signature, contentHash, dependencyHashes, dartEntry)) {
+        savedCount++;
+      }
+    }
+    return savedCount;
+  }
+
   @Override
   public void setAnalysisOptions(AnalysisOptions options) {
     synchronized (cacheLock) {
       boolean needsRecompute = this.options.getAnalyzeAngular() != options.getAnalyzeAngular()
+          || this.options.getAnalyzeDependencyFunctionBodies() != options
+              .getAnalyzeDependencyFunctionBodies()
           || this.options.getAnalyzeFunctionBodies() != options.getAnalyzeFunctionBodies()
           || this.options.getGenerateSdkErrors() != options.getGenerateSdkErrors()
           || this.options.getEnableAsync() != options.getEnableAsync()
@@ -2048,7 +2241,13 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
           priorityOrder = newPriorityOrder;
         }
       }
+      long cacheMemorySize = options.getCacheMemorySize();
+      if (this.options.getCacheMemorySize() != cacheMemorySize) {
+        this.options.setCacheMemorySize(cacheMemorySize);
+        privatePartition.setMaxAstSize(cacheMemorySize);
+      }
       this.options.setAnalyzeAngular(options.getAnalyzeAngular());
+      this.options.setAnalyzeDependencyFunctionBodies(options.getAnalyzeDependencyFunctionBodies());
       this.options.setAnalyzeFunctionBodies(options.getAnalyzeFunctionBodies());
       this.options.setGenerateSdkErrors(options.getGenerateSdkErrors());
       this.options.setEnableAsync(options.getEnableAsync());
@@ -2057,7 +2256,11 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
       this.options.setDart2jsHint(options.getDart2jsHint());
       this.options.setHint(options.getHint());
       this.options.setIncremental(options.getIncremental());
+      this.options.setParseThreadCount(options.getParseThreadCount());
       this.options.setPreserveComments(options.getPreserveComments());
+      this.options.setResolutionThreadCount(options.getResolutionThreadCount());
+      this.options.setShareParsedUnits(options.getShareParsedUnits());
+      this.options.setVerificationThreadCount(options.getVerificationThreadCount());
 
       generateSdkErrors = options.getGenerateSdkErrors();
 
@@ -2089,6 +2292,9 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
         for (int i = 0; i < count; i++) {
           priorityOrder[i] = sources.get(i);
         }
+        for (Source source : priorityOrder) {
+          parseFunctionBodies(source);
+        }
       }
     }
   }
@@ -2191,6 +2397,22 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
         AnalysisEngine.getInstance().getPartitionManager().forSdk(sdk), privatePartition});
   }
 
+  /**
+   * Create the element model for the library with the given source from a summary of the library's
+   * element model rather than by resolving the library. Return the library elements that were
+   * created, including the elements of any libraries referenced by the library that did not already
+   * have an element model, or {@code null} if the element model cannot be created from a summary.
+   * This implementation always returns {@code null}.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on {@link #cacheLock}.
+   * 
+   * @param librarySource the source of the library whose element model is to be created
+   * @return the library elements that were created
+   */
+  protected LibraryElement[] readLibraryFromSummary(Source librarySource) {
+    return null;
+  }
+
   /**
    * Record the results produced by performing a {@link ResolveDartLibraryCycleTask}. If the results
    * were computed from data that is now out-of-date, then the results will not be recorded.
@@ -2674,7 +2896,8 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
           source,
           dartEntry.getModificationTime(),
           dartEntry.getValue(DartEntry.TOKEN_STREAM),
-          dartEntry.getValue(SourceEntry.LINE_INFO)).perform(resultRecorder);
+          dartEntry.getValue(SourceEntry.LINE_INFO),
+          isDeclarationsOnly(source)).perform(resultRecorder);
       state = dartEntry.getState(descriptor);
     }
     return dartEntry;
@@ -2702,6 +2925,12 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     //
     CacheState state = (descriptor == DartEntry.ELEMENT) ? dartEntry.getState(descriptor)
         : dartEntry.getStateInLibrary(descriptor, librarySource);
+    if (state != CacheState.ERROR && state != CacheState.VALID
+        && loadSdkLibrariesFromSummary(librarySource)) {
+      dartEntry = getReadableDartEntry(unitSource);
+      state = (descriptor == DartEntry.ELEMENT) ? dartEntry.getState(descriptor)
+          : dartEntry.getStateInLibrary(descriptor, librarySource);
+    }
     while (state != CacheState.ERROR && state != CacheState.VALID) {
       //
       // If not, compute the information. Unless the modification date of the source continues to
@@ -2749,7 +2978,8 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
             this,
             source,
             dartEntry.getModificationTime(),
-            dartEntry.getValue(SourceEntry.CONTENT)).perform(resultRecorder);
+            dartEntry.getValue(SourceEntry.CONTENT),
+            isDeclarationsOnly(source)).perform(resultRecorder);
       } catch (AnalysisException exception) {
         throw exception;
       } catch (Exception exception) {
@@ -2906,6 +3136,34 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     }
   }
 
+  /**
+   * Return a hash of the current contents of the given source, or {@code null} if the contents
+   * cannot be read or have changed since the given entry was computed.
+   * 
+   * @param source the source whose contents are to be hashed
+   * @param dartEntry the entry whose modification time must match that of the contents, or
+   *          {@code null} if the modification time is not to be checked
+   * @param hashes a table mapping sources to the hashes that have already been computed
+   * @return a hash of the current contents of the given source
+   */
+  private String computeContentHash(Source source, DartEntry dartEntry,
+      HashMap<Source, String> hashes) {
+    if (hashes.containsKey(source)) {
+      return hashes.get(source);
+    }
+    String hash = null;
+    try {
+      TimestampedData<CharSequence> contents = getContents(source);
+      if (dartEntry == null || dartEntry.getModificationTime() == contents.getModificationTime()) {
+        hash = PersistentAnalysisCache.computeHash(contents.getData());
+      }
+    } catch (Exception exception) {
+      // The contents cannot be read, so the results associated with the source cannot be reused.
+    }
+    hashes.put(source, hash);
+    return hash;
+  }
+
   /**
    * Compute the priority that should be used when the source associated with the given entry is
    * added to the work manager.
@@ -2935,6 +3193,43 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     }
   }
 
+  /**
+   * Add to the given set the library with the given source, its parts and, recursively, all of the
+   * libraries it imports or exports, other than the libraries in the SDK.
+   * 
+   * @param librarySource the source of the library whose sources are to be added
+   * @param entries a table mapping the local Dart sources to their entries
+   * @param sources the set to which the sources are to be added
+   * @return {@code true} if the set of sources could be completely computed
+   */
+  private boolean computeSourcesAffecting(Source librarySource, HashMap<Source, DartEntry> entries,
+      HashSet<Source> sources) {
+    if (librarySource.isInSystemLibrary() || !sources.add(librarySource)) {
+      return true;
+    }
+    DartEntry libraryEntry = entries.get(librarySource);
+    if (libraryEntry == null
+        || libraryEntry.getState(DartEntry.IMPORTED_LIBRARIES) != CacheState.VALID
+        || libraryEntry.getState(DartEntry.EXPORTED_LIBRARIES) != CacheState.VALID
+        || libraryEntry.getState(DartEntry.INCLUDED_PARTS) != CacheState.VALID) {
+      return false;
+    }
+    for (Source partSource : libraryEntry.getValue(DartEntry.INCLUDED_PARTS)) {
+      sources.add(partSource);
+    }
+    for (Source importedSource : libraryEntry.getValue(DartEntry.IMPORTED_LIBRARIES)) {
+      if (!computeSourcesAffecting(importedSource, entries, sources)) {
+        return false;
+      }
+    }
+    for (Source exportedSource : libraryEntry.getValue(DartEntry.EXPORTED_LIBRARIES)) {
+      if (!computeSourcesAffecting(exportedSource, entries, sources)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Return {@code true} if the given array of sources contains the given source.
    * 
@@ -2995,6 +3290,11 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
       cache.put(unitSource, dartCopy);
       return new TaskData(null, false);
     }
+    if (verificationTaskCount >= options.getVerificationThreadCount()) {
+      // As many compilation units as allowed are already being verified by other threads.
+      return new TaskData(null, true);
+    }
+    verificationTaskCount++;
     LibraryElement libraryElement = libraryEntry.getValue(DartEntry.ELEMENT);
     DartEntryImpl dartCopy = unitEntry.getWritableCopy();
     dartCopy.setStateInLibrary(DartEntry.VERIFICATION_ERRORS, librarySource, CacheState.IN_PROCESS);
@@ -3041,7 +3341,11 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
         return createResolveDartLibraryTask(librarySource, libraryEntry);
       }
     }
-
+    if (verificationTaskCount >= options.getVerificationThreadCount()) {
+      // As many compilation units as allowed are already being verified by other threads.
+      return new TaskData(null, true);
+    }
+    verificationTaskCount++;
     DartEntryImpl dartCopy = dartEntry.getWritableCopy();
     dartCopy.setStateInLibrary(DartEntry.HINTS, librarySource, CacheState.IN_PROCESS);
     cache.put(source, dartCopy);
@@ -3071,10 +3375,19 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
    * @return task data representing the created task
    */
   private TaskData createParseDartTask(Source source, DartEntry dartEntry) {
+    if (dartEntry.getState(DartEntry.PARSE_ERRORS) == CacheState.IN_PROCESS) {
+      // Another thread is already parsing this source.
+      return new TaskData(null, true);
+    }
     if (dartEntry.getState(DartEntry.TOKEN_STREAM) != CacheState.VALID
         || dartEntry.getState(SourceEntry.LINE_INFO) != CacheState.VALID) {
       return createScanDartTask(source, dartEntry);
     }
+    if (parseTaskCount >= options.getParseThreadCount()) {
+      // As many sources as allowed are already being scanned or parsed by other threads.
+      return new TaskData(null, true);
+    }
+    parseTaskCount++;
     Token tokenStream = dartEntry.getValue(DartEntry.TOKEN_STREAM);
     DartEntryImpl dartCopy = dartEntry.getWritableCopy();
     dartCopy.setState(DartEntry.TOKEN_STREAM, CacheState.FLUSHED);
@@ -3085,7 +3398,8 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
         source,
         dartCopy.getModificationTime(),
         tokenStream,
-        dartEntry.getValue(SourceEntry.LINE_INFO)), false);
+        dartEntry.getValue(SourceEntry.LINE_INFO),
+        isDeclarationsOnly(source)), false);
   }
 
   /**
@@ -3205,13 +3519,18 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
   }
 
   /**
-   * Create a {@link ResolveDartLibraryTask} for the given source, marking ? as being in-process.
+   * Create a {@link ResolveDartLibraryCycleTask} for the given source, marking the libraries in the
+   * cycle containing the library as being in-process.
    * 
    * @param source the source whose content is to be resolved
    * @param dartEntry the entry for the source
    * @return task data representing the created task
    */
   private TaskData createResolveDartLibraryTask(Source source, DartEntry dartEntry) {
+    if (librariesBeingResolved.contains(source)) {
+      // Another thread is already resolving the cycle containing this library.
+      return new TaskData(null, true);
+    }
     try {
       CycleBuilder builder = new CycleBuilder();
       builder.computeCycleContaining(source);
@@ -3219,11 +3538,23 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
       if (taskData != null) {
         return taskData;
       }
-      return new TaskData(new ResolveDartLibraryCycleTask(
-          this,
-          source,
-          source,
-          builder.getLibrariesInCycle()), false);
+      List<ResolvableLibrary> librariesInCycle = builder.getLibrariesInCycle();
+      int libraryCount = librariesInCycle.size();
+      for (int i = 0; i < libraryCount; i++) {
+        if (librariesBeingResolved.contains(librariesInCycle.get(i).getLibrarySource())) {
+          return new TaskData(null, true);
+        }
+      }
+      if (resolutionTaskCount >= options.getResolutionThreadCount()) {
+        return new TaskData(null, true);
+      }
+      resolutionTaskCount++;
+      for (int i = 0; i < libraryCount; i++) {
+        librariesBeingResolved.add(librariesInCycle.get(i).getLibrarySource());
+      }
+      return new TaskData(
+          new ResolveDartLibraryCycleTask(this, source, source, librariesInCycle),
+          false);
     } catch (AnalysisException exception) {
       DartEntryImpl dartCopy = dartEntry.getWritableCopy();
       dartCopy.recordResolutionError(exception);
@@ -3266,16 +3597,31 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
    * @return task data representing the created task
    */
   private TaskData createScanDartTask(Source source, DartEntry dartEntry) {
-    if (dartEntry.getState(SourceEntry.CONTENT) != CacheState.VALID) {
+    CacheState contentState = dartEntry.getState(SourceEntry.CONTENT);
+    if (contentState == CacheState.IN_PROCESS
+        || dartEntry.getState(DartEntry.SCAN_ERRORS) == CacheState.IN_PROCESS) {
+      // Another thread is already getting the content of, or scanning, this source.
+      return new TaskData(null, true);
+    } else if (contentState != CacheState.VALID) {
       return createGetContentTask(source, dartEntry);
     }
+    if (parseTaskCount >= options.getParseThreadCount()) {
+      // As many sources as allowed are already being scanned or parsed by other threads.
+      return new TaskData(null, true);
+    }
+    parseTaskCount++;
     CharSequence content = dartEntry.getValue(SourceEntry.CONTENT);
     DartEntryImpl dartCopy = dartEntry.getWritableCopy();
     dartCopy.setState(SourceEntry.CONTENT, CacheState.FLUSHED);
     dartCopy.setState(DartEntry.SCAN_ERRORS, CacheState.IN_PROCESS);
     cache.put(source, dartCopy);
     return new TaskData(
-        new ScanDartTask(this, source, dartCopy.getModificationTime(), content),
+        new ScanDartTask(
+            this,
+            source,
+            dartCopy.getModificationTime(),
+            content,
+            isDeclarationsOnly(source)),
         false);
   }
 
@@ -3304,6 +3650,30 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     }
   }
 
+  /**
+   * Return {@code true} if the contents of the sources whose encodings are the keys in the given
+   * table still have the hashes that are the corresponding values.
+   * 
+   * @param dependencyHashes a table mapping the encodings of sources to the hashes of their contents
+   * @param hashes a table mapping sources to the hashes of their current contents
+   * @return {@code true} if none of the sources have changed
+   */
+  private boolean dependenciesUnchanged(Map<String, String> dependencyHashes,
+      HashMap<Source, String> hashes) {
+    for (Map.Entry<String, String> entry : dependencyHashes.entrySet()) {
+      Source source;
+      try {
+        source = computeSourceFromEncoding(entry.getKey());
+      } catch (IllegalArgumentException exception) {
+        return false;
+      }
+      if (!entry.getValue().equals(computeContentHash(source, null, hashes))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Return a string with debugging information about the given source (the full name and
    * modification stamp of the source).
@@ -3625,6 +3995,27 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     return htmlEntry.getValue(descriptor);
   }
 
+  /**
+   * Return a table mapping the sources that are not in the SDK to the entries associated with them,
+   * for all of the Dart sources known to this context.
+   * 
+   * @return a table mapping the local Dart sources to their entries
+   */
+  private HashMap<Source, DartEntry> getLocalDartEntries() {
+    synchronized (cacheLock) {
+      HashMap<Source, DartEntry> entries = new HashMap<Source, DartEntry>();
+      MapIterator<Source, SourceEntry> iterator = privatePartition.iterator();
+      while (iterator.moveNext()) {
+        Source source = iterator.getKey();
+        SourceEntry sourceEntry = iterator.getValue();
+        if (sourceEntry instanceof DartEntry && !source.isInSystemLibrary()) {
+          entries.put(source, (DartEntry) sourceEntry);
+        }
+      }
+      return entries;
+    }
+  }
+
   /**
    * Look through the cache for a task that needs to be performed. Return the task that was found,
    * or {@code null} if there is no more work to be done.
@@ -3830,11 +4221,12 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
             CacheState verificationErrorsState = dartEntry.getStateInLibrary(
                 DartEntry.VERIFICATION_ERRORS,
                 librarySource);
-            if (verificationErrorsState == CacheState.INVALID
-                || (isPriority && verificationErrorsState == CacheState.FLUSHED)) {
+            if ((verificationErrorsState == CacheState.INVALID
+                || (isPriority && verificationErrorsState == CacheState.FLUSHED))
+                && !dartEntry.isDeclarationsOnly()) {
               return createGenerateDartErrorsTask(source, dartEntry, librarySource, libraryEntry);
             }
-            if (hintsEnabled) {
+            if (hintsEnabled && !isLazyDependency(source)) {
               CacheState hintsState = dartEntry.getStateInLibrary(DartEntry.HINTS, librarySource);
               if (hintsState == CacheState.INVALID
                   || (isPriority && hintsState == CacheState.FLUSHED)) {
@@ -3917,6 +4309,36 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     return notice;
   }
 
+  /**
+   * Return a string describing the environment in which analysis is being performed, including the
+   * configuration used to resolve URI's and the analysis options. Analysis results written to a
+   * persistent cache can only be reused in an environment with the same signature.
+   * 
+   * @return a string describing the environment in which analysis is being performed
+   */
+  @SuppressWarnings("deprecation")
+  private String getPersistentCacheSignature() {
+    synchronized (cacheLock) {
+      StringBuilder builder = new StringBuilder();
+      builder.append(sourceFactory == null ? "" : sourceFactory.getSignature());
+      builder.append(options.getAnalyzeAngular() ? ";angular" : "");
+      builder.append(options.getAnalyzeDependencyFunctionBodies() ? ";dependencyBodies" : "");
+      builder.append(options.getAnalyzeFunctionBodies() ? ";bodies" : "");
+      builder.append(options.getAnalyzePolymer() ? ";polymer" : "");
+      builder.append(options.getDart2jsHint() ? ";dart2js" : "");
+      //
+      // The language feature flags are deprecated, but as long as they exist they change the way
+      // sources are parsed and resolved, so they must be part of the signature.
+      //
+      builder.append(options.getEnableAsync() ? ";async" : "");
+      builder.append(options.getEnableDeferredLoading() ? ";deferred" : "");
+      builder.append(options.getEnableEnum() ? ";enum" : "");
+      builder.append(options.getGenerateSdkErrors() ? ";sdkErrors" : "");
+      builder.append(options.getHint() ? ";hint" : "");
+      return builder.toString();
+    }
+  }
+
   /**
    * Return the cache entry associated with the given source, or {@code null} if the source is not a
    * Dart file.
@@ -4088,15 +4510,16 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
             CacheState verificationErrorsState = dartEntry.getStateInLibrary(
                 DartEntry.VERIFICATION_ERRORS,
                 librarySource);
-            if (verificationErrorsState == CacheState.INVALID
-                || (isPriority && verificationErrorsState == CacheState.FLUSHED)) {
+            if ((verificationErrorsState == CacheState.INVALID
+                || (isPriority && verificationErrorsState == CacheState.FLUSHED))
+                && !dartEntry.isDeclarationsOnly()) {
               LibraryElement libraryElement = libraryEntry.getValue(DartEntry.ELEMENT);
               if (libraryElement != null) {
                 sources.add(source);
                 return;
               }
             }
-            if (hintsEnabled) {
+            if (hintsEnabled && !isLazyDependency(source)) {
               CacheState hintsState = dartEntry.getStateInLibrary(DartEntry.HINTS, librarySource);
               if (hintsState == CacheState.INVALID
                   || (isPriority && hintsState == CacheState.FLUSHED)) {
@@ -4317,6 +4740,49 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     return false;
   }
 
+  /**
+   * Return {@code true} if the given source is to be parsed without the contents of its function
+   * bodies, which is the case for dependencies whose function bodies are not needed.
+   * 
+   * @param source the source to be parsed
+   * @return {@code true} if the source is to be parsed without the contents of its function bodies
+   */
+  private boolean isDeclarationsOnly(Source source) {
+    if (!options.getAnalyzeFunctionBodies() || !isLazyDependency(source)) {
+      return false;
+    }
+    synchronized (cacheLock) {
+      if (contentCache.getContents(source) != null || functionBodySources.contains(source)) {
+        return false;
+      }
+      for (Source prioritySource : priorityOrder) {
+        if (prioritySource.equals(source)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Return {@code true} if the given source is a dependency (a source from the SDK or from a
+   * package) whose function bodies are parsed only when they are needed. Hints are not generated
+   * for such sources.
+   * 
+   * @param source the source being tested
+   * @return {@code true} if the function bodies of the source are parsed only when needed
+   */
+  private boolean isLazyDependency(Source source) {
+    if (options.getAnalyzeDependencyFunctionBodies()) {
+      return false;
+    }
+    if (source.isInSystemLibrary()) {
+      return true;
+    }
+    URI uri = source.getUri();
+    return uri != null && PackageUriResolver.isPackageUri(uri);
+  }
+
   @DartExpressionBody("false")
   private boolean isTooBigHtmlSourceEntry(Source source, SourceEntry sourceEntry) {
     if (sourceEntry instanceof HtmlEntryImpl && source instanceof FileBasedSource) {
@@ -4326,6 +4792,65 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     return false;
   }
 
+  /**
+   * Create the element models of the SDK libraries that will be needed in order to resolve the
+   * library with the given source from a summary, if the context that owns the SDK is able to do
+   * so. This includes the library itself if it is an SDK library, the core library, and any SDK
+   * libraries that are already known to be imported by the library. Return {@code true} if any
+   * element models were created.
+   * 
+   * @param librarySource the source of the library that is about to be resolved
+   * @return {@code true} if any element models were created from a summary
+   */
+  private boolean loadSdkLibrariesFromSummary(Source librarySource) {
+    synchronized (cacheLock) {
+      boolean loaded = loadSdkLibraryFromSummary(librarySource);
+      if (coreLibrarySource != null) {
+        loaded |= loadSdkLibraryFromSummary(coreLibrarySource);
+      }
+      DartEntry dartEntry = getReadableDartEntry(librarySource);
+      if (dartEntry != null) {
+        for (Source importedSource : dartEntry.getValue(DartEntry.IMPORTED_LIBRARIES)) {
+          loaded |= loadSdkLibraryFromSummary(importedSource);
+        }
+      }
+      return loaded;
+    }
+  }
+
+  /**
+   * If the given source is the defining compilation unit of an SDK library that does not yet have
+   * an element model, and the context that owns the SDK can create the element model from a
+   * summary, then create and record the element model. Return {@code true} if the element model
+   * was created.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on {@link #cacheLock}.
+   * 
+   * @param librarySource the source of the library whose element model might be created
+   * @return {@code true} if the element model was created from a summary
+   */
+  private boolean loadSdkLibraryFromSummary(Source librarySource) {
+    if (!librarySource.isInSystemLibrary()) {
+      return false;
+    }
+    InternalAnalysisContext sdkContext = cache.getContextFor(librarySource);
+    if (!(sdkContext instanceof AnalysisContextImpl)) {
+      return false;
+    }
+    AnalysisContextImpl sdkContextImpl = (AnalysisContextImpl) sdkContext;
+    //
+    // The SDK context's lock is always acquired after our own, never the other way around.
+    //
+    synchronized (sdkContextImpl.cacheLock) {
+      LibraryElement[] libraries = sdkContextImpl.readLibraryFromSummary(librarySource);
+      if (libraries == null || libraries.length == 0) {
+        return false;
+      }
+      sdkContextImpl.recordSummarizedLibraries(libraries);
+      return true;
+    }
+  }
+
   /**
    * Log the given debugging information.
    * 
@@ -4454,6 +4979,32 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     }
   }
 
+  /**
+   * If the given source was parsed without the contents of its function bodies, invalidate it and
+   * the resolution of the libraries containing it so that it will be parsed again, this time with
+   * its function bodies, and the libraries will be resolved again. The libraries depending on them
+   * are not invalidated because the declarations, and hence the public namespaces, are the same.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on {@link #cacheLock}.
+   * 
+   * @param source the source whose function bodies are needed
+   */
+  private void parseFunctionBodies(Source source) {
+    SourceEntry sourceEntry = cache.get(source);
+    if (!(sourceEntry instanceof DartEntry) || !((DartEntry) sourceEntry).isDeclarationsOnly()) {
+      return;
+    }
+    for (Source containingLibrary : getLibrariesContaining(source)) {
+      invalidateLibraryResolution(containingLibrary);
+    }
+    removeFromParts(source, (DartEntry) cache.get(source));
+    DartEntryImpl dartCopy = ((DartEntry) cache.get(source)).getWritableCopy();
+    dartCopy.invalidateAllInformation();
+    cache.put(source, dartCopy);
+    cache.removedAst(source);
+    workManager.add(source, SourcePriority.UNKNOWN);
+  }
+
   /**
    * Updates {@link HtmlEntry}s that correspond to the previously known and new Angular application
    * information.
@@ -4845,6 +5396,7 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
             }
           }
           dartCopy.setValue(DartEntry.PARSED_UNIT, task.getCompilationUnit());
+          dartCopy.setDeclarationsOnly(task.isDeclarationsOnly());
           dartCopy.setValue(DartEntry.PARSE_ERRORS, task.getErrors());
           dartCopy.setValue(DartEntry.EXPORTED_LIBRARIES, task.getExportedSources());
           dartCopy.setValue(DartEntry.IMPORTED_LIBRARIES, task.getImportedSources());
@@ -5585,6 +6137,105 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     return dartEntry;
   }
 
+  /**
+   * Record the element models of the given libraries, which were created from a summary rather
+   * than by resolving the libraries. The libraries are recorded as if they had been resolved
+   * without producing any errors, but none of the intermediate results are cached.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on {@link #cacheLock}.
+   * 
+   * @param libraries the libraries whose element models are to be recorded
+   */
+  private void recordSummarizedLibraries(LibraryElement[] libraries) {
+    Source htmlSource = sourceFactory.forUri(DartSdk.DART_HTML);
+    for (LibraryElement library : libraries) {
+      Source librarySource = library.getSource();
+      CompilationUnitElement[] parts = library.getParts();
+      for (CompilationUnitElement unit : library.getUnits()) {
+        Source unitSource = unit.getSource();
+        DartEntry dartEntry = getReadableDartEntry(unitSource);
+        if (dartEntry == null) {
+          continue;
+        }
+        DartEntryImpl dartCopy = dartEntry.getWritableCopy();
+        dartCopy.setModificationTime(unitSource.getModificationStamp());
+        dartCopy.setState(SourceEntry.CONTENT, CacheState.FLUSHED);
+        dartCopy.setValue(SourceEntry.LINE_INFO, new LineInfo(new int[] {0}));
+        dartCopy.setValue(DartEntry.ANGULAR_ERRORS, AnalysisError.NO_ERRORS);
+        dartCopy.setValue(DartEntry.PARSE_ERRORS, AnalysisError.NO_ERRORS);
+        dartCopy.setState(DartEntry.PARSED_UNIT, CacheState.FLUSHED);
+        dartCopy.setValue(DartEntry.SCAN_ERRORS, AnalysisError.NO_ERRORS);
+        dartCopy.setState(DartEntry.TOKEN_STREAM, CacheState.FLUSHED);
+        if (unitSource.equals(librarySource)) {
+          recordElementData(dartCopy, library, librarySource, htmlSource);
+          ArrayList<Source> importedSources = new ArrayList<Source>();
+          for (ImportElement importElement : library.getImports()) {
+            LibraryElement importedLibrary = importElement.getImportedLibrary();
+            if (!importElement.isSynthetic() && importedLibrary != null
+                && !importedSources.contains(importedLibrary.getSource())) {
+              importedSources.add(importedLibrary.getSource());
+            }
+          }
+          ArrayList<Source> exportedSources = new ArrayList<Source>();
+          for (ExportElement exportElement : library.getExports()) {
+            LibraryElement exportedLibrary = exportElement.getExportedLibrary();
+            if (exportedLibrary != null && !exportedSources.contains(exportedLibrary.getSource())) {
+              exportedSources.add(exportedLibrary.getSource());
+            }
+          }
+          Source[] partSources = new Source[parts.length];
+          for (int i = 0; i < parts.length; i++) {
+            partSources[i] = parts[i].getSource();
+          }
+          dartCopy.setContainingLibrary(librarySource);
+          dartCopy.setValue(
+              DartEntry.EXPORTED_LIBRARIES,
+              exportedSources.toArray(new Source[exportedSources.size()]));
+          dartCopy.setValue(
+              DartEntry.IMPORTED_LIBRARIES,
+              importedSources.toArray(new Source[importedSources.size()]));
+          dartCopy.setValue(DartEntry.INCLUDED_PARTS, partSources);
+          dartCopy.setState(DartEntry.PUBLIC_NAMESPACE, CacheState.FLUSHED);
+          dartCopy.setValue(DartEntry.SOURCE_KIND, SourceKind.LIBRARY);
+        } else {
+          dartCopy.addContainingLibrary(librarySource);
+          dartCopy.setValue(DartEntry.EXPORTED_LIBRARIES, Source.EMPTY_ARRAY);
+          dartCopy.setValue(DartEntry.IMPORTED_LIBRARIES, Source.EMPTY_ARRAY);
+          dartCopy.setValue(DartEntry.INCLUDED_PARTS, Source.EMPTY_ARRAY);
+          dartCopy.setValue(DartEntry.SOURCE_KIND, SourceKind.PART);
+        }
+        dartCopy.setValueInLibrary(
+            DartEntry.RESOLUTION_ERRORS,
+            librarySource,
+            AnalysisError.NO_ERRORS);
+        dartCopy.setStateInLibrary(DartEntry.RESOLVED_UNIT, librarySource, CacheState.FLUSHED);
+        dartCopy.setValueInLibrary(
+            DartEntry.VERIFICATION_ERRORS,
+            librarySource,
+            AnalysisError.NO_ERRORS);
+        dartCopy.setValueInLibrary(DartEntry.HINTS, librarySource, AnalysisError.NO_ERRORS);
+        cache.put(unitSource, dartCopy);
+      }
+    }
+  }
+
+  /**
+   * Record that the libraries in the given cycle are no longer being resolved.
+   * 
+   * @param librariesInCycle the libraries that were resolved together
+   */
+  private void releaseLibrariesInCycle(List<ResolvableLibrary> librariesInCycle) {
+    if (librariesInCycle == null) {
+      return;
+    }
+    synchronized (cacheLock) {
+      int libraryCount = librariesInCycle.size();
+      for (int i = 0; i < libraryCount; i++) {
+        librariesBeingResolved.remove(librariesInCycle.get(i).getLibrarySource());
+      }
+    }
+  }
+
   /**
    * Remove the given library from the list of containing libraries for all of the parts referenced
    * by the given entry.
@@ -5641,6 +6292,39 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     }
   }
 
+  /**
+   * Remove from the given table the entries for libraries whose parts are not in the table and the
+   * entries for parts whose libraries are not in the table, so that the results for a library and
+   * its parts are either all restored or all recomputed.
+   * 
+   * @param restoredEntries a table mapping sources to the entries that are to be restored
+   */
+  private void removeIncompleteLibraries(HashMap<Source, DartEntryImpl> restoredEntries) {
+    boolean removedEntry = true;
+    while (removedEntry) {
+      removedEntry = false;
+      Iterator<Map.Entry<Source, DartEntryImpl>> iterator = restoredEntries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        DartEntryImpl dartEntry = iterator.next().getValue();
+        boolean complete = true;
+        for (Source partSource : dartEntry.getValue(DartEntry.INCLUDED_PARTS)) {
+          if (!partSource.isInSystemLibrary() && !restoredEntries.containsKey(partSource)) {
+            complete = false;
+          }
+        }
+        for (Source librarySource : dartEntry.getValue(DartEntry.CONTAINING_LIBRARIES)) {
+          if (!restoredEntries.containsKey(librarySource)) {
+            complete = false;
+          }
+        }
+        if (!complete) {
+          iterator.remove();
+          removedEntry = true;
+        }
+      }
+    }
+  }
+
   /**
    * Remove the given source from the priority order if it is in the list.
    * 
@@ -5781,6 +6465,25 @@ public class AnalysisContextImpl implements InternalAnalysisContext {
     cache.remove(source);
     workManager.remove(source);
     removeFromPriorityOrder(source);
+    functionBodySources.remove(source);
+  }
+
+  /**
+   * Record that the given task, which was returned by {@link #getNextAnalysisTask()}, has been
+   * completed, so that another task of the same kind can be handed out.
+   * 
+   * @param task the task that was completed
+   */
+  private void taskCompleted(AnalysisTask task) {
+    synchronized (cacheLock) {
+      if (task instanceof ScanDartTask || task instanceof ParseDartTask) {
+        parseTaskCount--;
+      } else if (task instanceof ResolveDartLibraryCycleTask) {
+        resolutionTaskCount--;
+      } else if (task instanceof GenerateDartErrorsTask || task instanceof GenerateDartHintsTask) {
+        verificationTaskCount--;
+      }
+    }
   }
 
   /**
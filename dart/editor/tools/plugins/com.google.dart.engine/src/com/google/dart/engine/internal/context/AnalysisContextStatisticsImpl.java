@@ -35,10 +35,13 @@ public class AnalysisContextStatisticsImpl implements AnalysisContextStatistics
   public static class PartitionDataImpl implements PartitionData {
     private int astCount;
 
+    private long estimatedAstSize;
+
     private int totalCount;
 
-    public PartitionDataImpl(int astCount, int totalCount) {
+    public PartitionDataImpl(int astCount, long estimatedAstSize, int totalCount) {
       this.astCount = astCount;
+      this.estimatedAstSize = estimatedAstSize;
       this.totalCount = totalCount;
     }
 
@@ -47,6 +50,11 @@ public class AnalysisContextStatisticsImpl implements AnalysisContextStatistics
       return astCount;
     }
 
+    @Override
+    public long getEstimatedAstSize() {
+      return estimatedAstSize;
+    }
+
     @Override
     public int getTotalCount() {
       return totalCount;
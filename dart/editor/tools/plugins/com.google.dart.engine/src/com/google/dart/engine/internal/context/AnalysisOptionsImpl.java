@@ -49,6 +49,12 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
    */
   private boolean analyzeAngular = false;
 
+  /**
+   * A flag indicating whether the contents of function bodies in sources from the SDK and from
+   * packages are always to be parsed and analyzed.
+   */
+  private boolean analyzeDependencyFunctionBodies = true;
+
   /**
    * A flag indicating whether analysis is to parse and analyze function bodies.
    */
@@ -64,6 +70,13 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
    */
   private int cacheSize = DEFAULT_CACHE_SIZE;
 
+  /**
+   * The maximum estimated number of bytes that should be retained by the AST structures kept in the
+   * private partition of the cache, or zero if the number of AST structures is limited by the cache
+   * size instead.
+   */
+  private long cacheMemorySize = 0L;
+
   /**
    * A flag indicating whether analysis is to generate dart2js related hint results.
    */
@@ -101,11 +114,32 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
    */
   private boolean incremental = false;
 
+  /**
+   * The maximum number of Dart sources that can be scanned and parsed at the same time.
+   */
+  private int parseThreadCount = 1;
+
   /**
    * A flag indicating whether analysis is to parse comments.
    */
   private boolean preserveComments = true;
 
+  /**
+   * The maximum number of cycles of Dart libraries that can be resolved at the same time.
+   */
+  private int resolutionThreadCount = 1;
+
+  /**
+   * A flag indicating whether scanning and parsing results are to be shared with other contexts.
+   */
+  private boolean shareParsedUnits = false;
+
+  /**
+   * The maximum number of compilation units for which errors or hints can be generated at the same
+   * time.
+   */
+  private int verificationThreadCount = 1;
+
   /**
    * Initialize a newly created set of analysis options to have their default values.
    */
@@ -120,9 +154,11 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
    */
   public AnalysisOptionsImpl(AnalysisOptions options) {
     analyzeAngular = options.getAnalyzeAngular();
+    analyzeDependencyFunctionBodies = options.getAnalyzeDependencyFunctionBodies();
     analyzeFunctionBodies = options.getAnalyzeFunctionBodies();
     analyzePolymer = options.getAnalyzePolymer();
     cacheSize = options.getCacheSize();
+    cacheMemorySize = options.getCacheMemorySize();
     dart2jsHint = options.getDart2jsHint();
     enableAsync = options.getEnableAsync();
     enableDeferredLoading = options.getEnableDeferredLoading();
@@ -130,7 +166,11 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     generateSdkErrors = options.getGenerateSdkErrors();
     hint = options.getHint();
     incremental = options.getIncremental();
+    parseThreadCount = options.getParseThreadCount();
     preserveComments = options.getPreserveComments();
+    resolutionThreadCount = options.getResolutionThreadCount();
+    shareParsedUnits = options.getShareParsedUnits();
+    verificationThreadCount = options.getVerificationThreadCount();
   }
 
   @Override
@@ -138,6 +178,11 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     return analyzeAngular;
   }
 
+  @Override
+  public boolean getAnalyzeDependencyFunctionBodies() {
+    return analyzeDependencyFunctionBodies;
+  }
+
   @Override
   public boolean getAnalyzeFunctionBodies() {
     return analyzeFunctionBodies;
@@ -148,6 +193,11 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     return analyzePolymer;
   }
 
+  @Override
+  public long getCacheMemorySize() {
+    return cacheMemorySize;
+  }
+
   @Override
   public int getCacheSize() {
     return cacheSize;
@@ -191,11 +241,31 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     return incremental;
   }
 
+  @Override
+  public int getParseThreadCount() {
+    return parseThreadCount;
+  }
+
   @Override
   public boolean getPreserveComments() {
     return preserveComments;
   }
 
+  @Override
+  public int getResolutionThreadCount() {
+    return resolutionThreadCount;
+  }
+
+  @Override
+  public boolean getShareParsedUnits() {
+    return shareParsedUnits;
+  }
+
+  @Override
+  public int getVerificationThreadCount() {
+    return verificationThreadCount;
+  }
+
   /**
    * Set whether analysis is to analyze Angular.
    * 
@@ -205,6 +275,17 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     this.analyzeAngular = analyzeAngular;
   }
 
+  /**
+   * Set whether the contents of function bodies in sources from the SDK and from packages are always
+   * to be parsed and analyzed.
+   * 
+   * @param analyzeDependencyFunctionBodies {@code true} if the function bodies of dependencies are
+   *          always to be analyzed, {@code false} if they are to be analyzed only when needed
+   */
+  public void setAnalyzeDependencyFunctionBodies(boolean analyzeDependencyFunctionBodies) {
+    this.analyzeDependencyFunctionBodies = analyzeDependencyFunctionBodies;
+  }
+
   /**
    * Set whether analysis is to parse and analyze function bodies.
    * 
@@ -223,6 +304,19 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     this.analyzePolymer = analyzePolymer;
   }
 
+  /**
+   * Set the maximum estimated number of bytes that should be retained by the AST structures kept in
+   * the cache to the given size. If the size is positive then it replaces the cache size as the
+   * limit on the number of AST structures kept in the cache. The limit only applies to the sources
+   * that are private to a context, not to the SDK sources in the shared SDK partition.
+   * 
+   * @param cacheMemorySize the maximum estimated number of bytes retained by the AST structures in
+   *          the cache, or zero if the number of structures should be limited by the cache size
+   */
+  public void setCacheMemorySize(long cacheMemorySize) {
+    this.cacheMemorySize = cacheMemorySize;
+  }
+
   /**
    * Set the maximum number of sources for which AST structures should be kept in the cache to the
    * given size.
@@ -303,6 +397,17 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
     this.incremental = incremental;
   }
 
+  /**
+   * Set the maximum number of Dart sources that can be scanned and parsed at the same time when
+   * analysis tasks are being performed by multiple threads. A value of {@code 1} causes the sources
+   * to be scanned and parsed one at a time.
+   * 
+   * @param parseThreadCount the maximum number of sources that are scanned and parsed concurrently
+   */
+  public void setParseThreadCount(int parseThreadCount) {
+    this.parseThreadCount = parseThreadCount;
+  }
+
   /**
    * Set whether analysis is to parse comments.
    * 
@@ -311,4 +416,40 @@ public class AnalysisOptionsImpl implements AnalysisOptions {
   public void setPreserveComments(boolean preserveComments) {
     this.preserveComments = preserveComments;
   }
+
+  /**
+   * Set the maximum number of cycles of Dart libraries that can be resolved at the same time when
+   * analysis tasks are being performed by multiple threads. Only cycles whose dependencies have
+   * been resolved are resolved concurrently. A value of {@code 1} causes the library cycles to be
+   * resolved one at a time.
+   * 
+   * @param resolutionThreadCount the maximum number of library cycles that are resolved
+   *          concurrently
+   */
+  public void setResolutionThreadCount(int resolutionThreadCount) {
+    this.resolutionThreadCount = resolutionThreadCount;
+  }
+
+  /**
+   * Set whether the token streams and unresolved compilation units produced for Dart sources are to
+   * be shared with other contexts that analyze the same contents.
+   * 
+   * @param shareParsedUnits {@code true} if scanning and parsing results are to be shared with
+   *          other contexts
+   */
+  public void setShareParsedUnits(boolean shareParsedUnits) {
+    this.shareParsedUnits = shareParsedUnits;
+  }
+
+  /**
+   * Set the maximum number of compilation units for which errors or hints can be generated at the
+   * same time when analysis tasks are being performed by multiple threads. A value of {@code 1}
+   * causes them to be generated for one compilation unit at a time.
+   * 
+   * @param verificationThreadCount the maximum number of compilation units that are verified
+   *          concurrently
+   */
+  public void setVerificationThreadCount(int verificationThreadCount) {
+    this.verificationThreadCount = verificationThreadCount;
+  }
 }
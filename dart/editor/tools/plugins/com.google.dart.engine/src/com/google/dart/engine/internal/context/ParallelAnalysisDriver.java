@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.context;
+
+import com.google.dart.engine.AnalysisEngine;
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.context.AnalysisResult;
+import com.google.dart.engine.context.ChangeNotice;
+import com.google.dart.engine.internal.task.WaitForAsyncTask;
+
+import java.util.ArrayList;
+
+/**
+ * Instances of the class {@code ParallelAnalysisDriver} perform all of the analysis work that is
+ * available in a single analysis context using multiple worker threads. Each worker repeatedly
+ * invokes {@link AnalysisContext#performAnalysisTask()}; the context is responsible for never
+ * handing out the same piece of work to more than one worker and for validating the results of
+ * each task before recording them.
+ * <p>
+ * A worker that finds no work to be done does not stop immediately, because the tasks being
+ * performed by the other workers can make new work available. Analysis is complete when no worker
+ * is performing a task and a worker has found that there is no more work to be done.
+ * 
+ * @coverage dart.engine
+ */
+public class ParallelAnalysisDriver {
+  /**
+   * Instances of the class {@code Worker} repeatedly perform analysis tasks until there is no more
+   * work to be done.
+   */
+  private class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (true) {
+        long observedGeneration;
+        synchronized (lock) {
+          if (done) {
+            return;
+          }
+          observedGeneration = generation;
+          activeWorkerCount++;
+        }
+        AnalysisResult result = null;
+        try {
+          result = context.performAnalysisTask();
+        } catch (RuntimeException exception) {
+          AnalysisEngine.getInstance().getLogger().logError(
+              "Internal error while performing analysis on a worker thread",
+              exception);
+        }
+        String taskClassName = result == null ? null : result.getTaskClassName();
+        boolean performedTask = taskClassName != null && !taskClassName.equals(WAIT_TASK_NAME);
+        synchronized (lock) {
+          activeWorkerCount--;
+          if (result != null) {
+            addNotices(result.getChangeNotices());
+          }
+          if (performedTask) {
+            taskCount++;
+            generation++;
+            lock.notifyAll();
+            continue;
+          }
+          if (taskClassName == null && activeWorkerCount == 0 && generation == observedGeneration) {
+            //
+            // No other worker is performing a task and no task has completed since we started
+            // looking for work, so there is nothing left to do.
+            //
+            done = true;
+            lock.notifyAll();
+            return;
+          }
+          //
+          // Either the remaining work is blocked or the other workers might still produce more
+          // work. Wait until some other worker completes a task before looking again.
+          //
+          if (generation == observedGeneration) {
+            try {
+              lock.wait(WAIT_MILLIS);
+            } catch (InterruptedException exception) {
+              done = true;
+              lock.notifyAll();
+              return;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The name of the class of the task that is returned when all of the remaining work is blocked.
+   */
+  private static final String WAIT_TASK_NAME = WaitForAsyncTask.class.getName();
+
+  /**
+   * The maximum number of milliseconds that an idle worker will wait before looking for more work.
+   */
+  private static final long WAIT_MILLIS = 10L;
+
+  /**
+   * The context in which analysis is to be performed.
+   */
+  private AnalysisContext context;
+
+  /**
+   * The number of worker threads used to perform analysis.
+   */
+  private int workerCount;
+
+  /**
+   * The object used to synchronize access to the state shared by the workers.
+   */
+  private Object lock = new Object();
+
+  /**
+   * The number of workers that are currently looking for, or performing, an analysis task.
+   * Synchronize against {@link #lock} before accessing this field.
+   */
+  private int activeWorkerCount = 0;
+
+  /**
+   * A counter that is incremented every time a worker completes a task. Synchronize against
+   * {@link #lock} before accessing this field.
+   */
+  private long generation = 0L;
+
+  /**
+   * A flag indicating whether all of the analysis work has been completed. Synchronize against
+   * {@link #lock} before accessing this field.
+   */
+  private boolean done = false;
+
+  /**
+   * The number of tasks that were performed. Synchronize against {@link #lock} before accessing
+   * this field.
+   */
+  private int taskCount = 0;
+
+  /**
+   * The change notices that were produced while performing analysis. Synchronize against
+   * {@link #lock} before accessing this field.
+   */
+  private ArrayList<ChangeNotice> notices = new ArrayList<ChangeNotice>();
+
+  /**
+   * The threads on which the workers are running, or {@code null} if the workers have not been
+   * started.
+   */
+  private Thread[] threads;
+
+  /**
+   * Initialize a newly created driver to perform analysis in the given context.
+   * 
+   * @param context the context in which analysis is to be performed
+   * @param workerCount the number of worker threads used to perform analysis
+   */
+  public ParallelAnalysisDriver(AnalysisContext context, int workerCount) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("workerCount must be positive: " + workerCount);
+    }
+    this.context = context;
+    this.workerCount = workerCount;
+  }
+
+  /**
+   * Return the number of analysis tasks that were performed by the last invocation of
+   * {@link #performAllTasks()}.
+   * 
+   * @return the number of analysis tasks that were performed
+   */
+  public int getTaskCount() {
+    synchronized (lock) {
+      return taskCount;
+    }
+  }
+
+  /**
+   * Perform analysis tasks on the worker threads until there is no more work to be done, and
+   * return the change notices that were produced, in the order in which they were produced.
+   * 
+   * @return the change notices that were produced while performing analysis
+   * @throws InterruptedException if the current thread is interrupted while waiting for the
+   *           workers to complete
+   */
+  public ChangeNotice[] performAllTasks() throws InterruptedException {
+    start();
+    try {
+      for (int i = 0; i < workerCount; i++) {
+        threads[i].join();
+      }
+    } catch (InterruptedException exception) {
+      stop();
+      throw exception;
+    }
+    synchronized (lock) {
+      return notices.toArray(new ChangeNotice[notices.size()]);
+    }
+  }
+
+  /**
+   * Start the workers performing analysis tasks on their own threads and return without waiting
+   * for them. The change notices that are produced can be retrieved using
+   * {@link #takeChangeNotices(long)}.
+   */
+  public void start() {
+    synchronized (lock) {
+      activeWorkerCount = 0;
+      generation = 0L;
+      done = false;
+      taskCount = 0;
+      notices.clear();
+    }
+    threads = new Thread[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      threads[i] = new Thread(new Worker(), "Analysis worker " + i);
+      threads[i].setDaemon(true);
+      threads[i].start();
+    }
+  }
+
+  /**
+   * Signal the workers to stop once they have completed the tasks they are currently performing.
+   */
+  public void stop() {
+    synchronized (lock) {
+      done = true;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Remove and return the change notices that have been produced since the last time this method
+   * was invoked, waiting up to the given number of milliseconds for some to be produced. Return an
+   * empty array if none were produced in that time, or {@code null} if all of the analysis work has
+   * been completed and all of the notices have been returned.
+   * 
+   * @param timeout the maximum number of milliseconds to wait for a change notice
+   * @return the change notices that were produced, or {@code null} if analysis is complete
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  public ChangeNotice[] takeChangeNotices(long timeout) throws InterruptedException {
+    synchronized (lock) {
+      if (notices.isEmpty() && !done) {
+        lock.wait(timeout);
+      }
+      if (notices.isEmpty()) {
+        return done ? null : ChangeNoticeImpl.EMPTY_ARRAY;
+      }
+      ChangeNotice[] result = notices.toArray(new ChangeNotice[notices.size()]);
+      notices.clear();
+      return result;
+    }
+  }
+
+  /**
+   * Add the given change notices to the list of notices that have been produced.
+   * <p>
+   * <b>Note:</b> This method must only be invoked while we are synchronized on {@link #lock}.
+   * 
+   * @param changeNotices the change notices to be added, or {@code null} if there are none
+   */
+  private void addNotices(ChangeNotice[] changeNotices) {
+    if (changeNotices != null) {
+      for (ChangeNotice notice : changeNotices) {
+        notices.add(notice);
+      }
+    }
+  }
+}
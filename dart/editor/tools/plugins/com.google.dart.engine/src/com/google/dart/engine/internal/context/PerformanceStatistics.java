@@ -17,6 +17,8 @@ package com.google.dart.engine.internal.context;
 import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.utilities.general.TimeCounter;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Container with global {@link AnalysisContext} performance statistics.
  */
@@ -67,9 +69,110 @@ public class PerformanceStatistics {
   public static TimeCounter pubList = new TimeCounter();
 
   /**
-   * Reset all of the time counters to zero.
+   * The {@link TimeCounter} for time spent in incremental analysis. The count of this counter is the
+   * number of incremental analysis tasks that were performed.
+   */
+  public static TimeCounter incremental = new TimeCounter();
+
+  /**
+   * The number of incremental analysis tasks that could not update the existing AST structure, so
+   * that the results had to be produced by re-parsing and re-resolving the whole compilation unit.
+   */
+  private static int incrementalFallbackCount = 0;
+
+  /**
+   * The number of times the answer to a subtype question was found in a subtype cache.
+   */
+  private static final AtomicLong subtypeCacheHitCount = new AtomicLong();
+
+  /**
+   * The number of times the answer to a subtype question was not found in a subtype cache.
+   */
+  private static final AtomicLong subtypeCacheMissCount = new AtomicLong();
+
+  /**
+   * Return the number of incremental analysis tasks that could not update the existing AST
+   * structure.
+   * 
+   * @return the number of incremental analysis tasks that fell back to full analysis
+   */
+  public static synchronized int getIncrementalFallbackCount() {
+    return incrementalFallbackCount;
+  }
+
+  /**
+   * Return the fraction of the incremental analysis tasks that could not update the existing AST
+   * structure, or {@code 0} if no incremental analysis tasks have been performed.
+   * 
+   * @return the fraction of incremental analysis tasks that fell back to full analysis
+   */
+  public static synchronized double getIncrementalFallbackRate() {
+    int count = incremental.getCount();
+    if (count == 0) {
+      return 0.0;
+    }
+    return (double) incrementalFallbackCount / count;
+  }
+
+  /**
+   * Return the number of times the answer to a subtype question was found in a subtype cache.
+   * 
+   * @return the number of subtype cache hits
+   */
+  public static long getSubtypeCacheHitCount() {
+    return subtypeCacheHitCount.get();
+  }
+
+  /**
+   * Return the fraction of the subtype questions whose answer was found in a subtype cache, or
+   * {@code 0} if no questions have been asked.
+   * 
+   * @return the subtype cache hit rate
+   */
+  public static double getSubtypeCacheHitRate() {
+    long hitCount = subtypeCacheHitCount.get();
+    long total = hitCount + subtypeCacheMissCount.get();
+    if (total == 0L) {
+      return 0.0;
+    }
+    return (double) hitCount / total;
+  }
+
+  /**
+   * Return the number of times the answer to a subtype question was not found in a subtype cache.
+   * 
+   * @return the number of subtype cache misses
+   */
+  public static long getSubtypeCacheMissCount() {
+    return subtypeCacheMissCount.get();
+  }
+
+  /**
+   * Record that an incremental analysis task could not update the existing AST structure.
+   */
+  public static synchronized void recordIncrementalFallback() {
+    incrementalFallbackCount++;
+  }
+
+  /**
+   * Record that the answer to a subtype question was found in a subtype cache.
+   */
+  public static void recordSubtypeCacheHit() {
+    subtypeCacheHitCount.incrementAndGet();
+  }
+
+  /**
+   * Record that the answer to a subtype question was not found in a subtype cache.
+   */
+  public static void recordSubtypeCacheMiss() {
+    subtypeCacheMissCount.incrementAndGet();
+  }
+
+  /**
+   * Reset all of the time counters, the incremental fallback count and the subtype cache counts to
+   * zero.
    */
-  public static void reset() {
+  public static synchronized void reset() {
     io = new TimeCounter();
     scan = new TimeCounter();
     parse = new TimeCounter();
@@ -79,5 +182,9 @@ public class PerformanceStatistics {
     errors = new TimeCounter();
     hints = new TimeCounter();
     pubList = new TimeCounter();
+    incremental = new TimeCounter();
+    incrementalFallbackCount = 0;
+    subtypeCacheHitCount.set(0L);
+    subtypeCacheMissCount.set(0L);
   }
 }
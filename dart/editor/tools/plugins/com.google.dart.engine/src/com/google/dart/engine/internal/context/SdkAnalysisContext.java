@@ -15,16 +15,107 @@ package com.google.dart.engine.internal.context;
 
 import com.google.dart.engine.AnalysisEngine;
 import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.context.AnalysisException;
+import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.internal.cache.AnalysisCache;
 import com.google.dart.engine.internal.cache.CachePartition;
+import com.google.dart.engine.internal.sdk.SdkSummaryReader;
+import com.google.dart.engine.internal.sdk.SdkSummaryWriter;
 import com.google.dart.engine.sdk.DartSdk;
+import com.google.dart.engine.sdk.SdkLibrary;
+import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.SourceFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
 /**
  * Instances of the class {@code SdkAnalysisContext} implement an {@link AnalysisContext} that only
  * contains sources for a Dart SDK.
  */
 public class SdkAnalysisContext extends AnalysisContextImpl {
+  /**
+   * The file containing a summary of the element models of the SDK libraries, or {@code null} if
+   * the element models are always to be computed by resolving the libraries.
+   */
+  private File summaryFile;
+
+  /**
+   * The reader used to create element models from the summary, or {@code null} if the summary has
+   * not yet been opened, or if it could not be used.
+   */
+  private SdkSummaryReader summaryReader;
+
+  /**
+   * A flag indicating whether an attempt has already been made to open the summary.
+   */
+  private boolean summaryOpened = false;
+
+  /**
+   * Initialize a newly created SDK analysis context.
+   */
+  public SdkAnalysisContext() {
+    super();
+  }
+
+  /**
+   * Set the file containing a summary of the element models of the SDK libraries to the given file.
+   * If the file exists and was written for the same version of the SDK, then the element models of
+   * the SDK libraries will be created from the summary the first time they are needed rather than
+   * by parsing and resolving the libraries. This method should be invoked before any analysis has
+   * been performed.
+   * 
+   * @param summaryFile the file containing the summary, or {@code null} if no summary is to be used
+   */
+  public void setSummaryFile(File summaryFile) {
+    this.summaryFile = summaryFile;
+    summaryReader = null;
+    summaryOpened = false;
+  }
+
+  /**
+   * Write a summary of the element models of all of the non-internal libraries in the SDK, and of
+   * all of the libraries they depend on, to the given file. The libraries will be resolved if they
+   * have not already been resolved.
+   * 
+   * @param file the file to which the summary is to be written
+   * @return {@code true} if the summary was written
+   */
+  public boolean writeSummary(File file) {
+    DartSdk sdk = getSourceFactory().getDartSdk();
+    ArrayList<LibraryElement> libraries = new ArrayList<LibraryElement>();
+    try {
+      for (SdkLibrary sdkLibrary : sdk.getSdkLibraries()) {
+        if (sdkLibrary.isInternal()) {
+          continue;
+        }
+        Source source = sdk.mapDartUri(sdkLibrary.getShortName());
+        if (source != null && exists(source)) {
+          LibraryElement library = computeLibraryElement(source);
+          if (library != null) {
+            libraries.add(library);
+          }
+        }
+      }
+      new SdkSummaryWriter().write(
+          file,
+          sdk.getSdkVersion(),
+          libraries.toArray(new LibraryElement[libraries.size()]));
+      return true;
+    } catch (AnalysisException exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not resolve the SDK in order to write a summary",
+          exception);
+    } catch (IOException exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not write SDK summary to " + file.getAbsolutePath(),
+          exception);
+    }
+    file.delete();
+    return false;
+  }
+
   @Override
   protected AnalysisCache createCacheFromSourceFactory(SourceFactory factory) {
     if (factory == null) {
@@ -38,4 +129,38 @@ public class SdkAnalysisContext extends AnalysisContextImpl {
     return new AnalysisCache(
         new CachePartition[] {AnalysisEngine.getInstance().getPartitionManager().forSdk(sdk)});
   }
+
+  @Override
+  protected LibraryElement[] readLibraryFromSummary(Source librarySource) {
+    if (!summaryOpened) {
+      summaryOpened = true;
+      if (summaryFile != null && summaryFile.exists()) {
+        try {
+          summaryReader = new SdkSummaryReader(
+              this,
+              summaryFile,
+              getSourceFactory().getDartSdk().getSdkVersion());
+        } catch (IOException exception) {
+          AnalysisEngine.getInstance().getLogger().logInformation(
+              "Could not open SDK summary " + summaryFile.getAbsolutePath(),
+              exception);
+        }
+      }
+    }
+    if (summaryReader == null) {
+      return null;
+    }
+    try {
+      return summaryReader.readLibrary(librarySource);
+    } catch (IOException exception) {
+      //
+      // Stop using the summary so that any libraries that have not yet been read will be resolved.
+      //
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not read SDK summary " + summaryFile.getAbsolutePath(),
+          exception);
+      summaryReader = null;
+      return null;
+    }
+  }
 }
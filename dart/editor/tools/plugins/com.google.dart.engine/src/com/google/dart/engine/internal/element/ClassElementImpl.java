@@ -28,6 +28,8 @@ import com.google.dart.engine.element.MethodElement;
 import com.google.dart.engine.element.PropertyAccessorElement;
 import com.google.dart.engine.element.ToolkitObjectElement;
 import com.google.dart.engine.element.TypeParameterElement;
+import com.google.dart.engine.internal.resolver.SharedMemberMaps;
+import com.google.dart.engine.internal.type.SubtypeCache;
 import com.google.dart.engine.type.InterfaceType;
 import com.google.dart.engine.utilities.general.StringUtilities;
 import com.google.dart.engine.utilities.translation.DartName;
@@ -94,6 +96,18 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
    */
   private TypeParameterElement[] typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
 
+  /**
+   * The member maps computed for this class that can be shared by the inheritance managers of other
+   * libraries, or {@code null} if they have not been created.
+   */
+  private volatile SharedMemberMaps sharedMemberMaps;
+
+  /**
+   * The cache of the answers to subtype questions about the instantiations of this class, or
+   * {@code null} if no questions have been asked.
+   */
+  private volatile SubtypeCache subtypeCache;
+
   /**
    * An empty array of class elements.
    */
@@ -272,6 +286,36 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
     return null;
   }
 
+  /**
+   * Return the member maps computed for this class that can be shared by the inheritance managers
+   * of other libraries, or {@code null} if they have not been created.
+   * 
+   * @return the shared member maps computed for this class
+   */
+  public SharedMemberMaps getSharedMemberMaps() {
+    return sharedMemberMaps;
+  }
+
+  /**
+   * Return the cache of the answers to subtype questions about the instantiations of this class,
+   * creating it if necessary, or {@code null} if the answers cannot be cached because this class is
+   * not yet part of a library.
+   * 
+   * @return the cache of the answers to subtype questions about this class
+   */
+  public SubtypeCache getSubtypeCache() {
+    SubtypeCache cache = subtypeCache;
+    if (cache == null) {
+      LibraryElement library = getLibrary();
+      if (!(library instanceof LibraryElementImpl)) {
+        return null;
+      }
+      cache = new SubtypeCache(((LibraryElementImpl) library).getHierarchyVersion());
+      subtypeCache = cache;
+    }
+    return cache;
+  }
+
   @Override
   public InterfaceType getSupertype() {
     return supertype;
@@ -452,6 +496,7 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
       ((PropertyAccessorElementImpl) accessor).setEnclosingElement(this);
     }
     this.accessors = accessors;
+    sharedMemberMaps = null;
   }
 
   /**
@@ -503,6 +548,8 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
    */
   public void setInterfaces(InterfaceType[] interfaces) {
     this.interfaces = interfaces;
+    sharedMemberMaps = null;
+    hierarchyChanged();
   }
 
   /**
@@ -515,6 +562,7 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
       ((MethodElementImpl) method).setEnclosingElement(this);
     }
     this.methods = methods;
+    sharedMemberMaps = null;
   }
 
   /**
@@ -525,6 +573,18 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
    */
   public void setMixins(InterfaceType[] mixins) {
     this.mixins = mixins;
+    sharedMemberMaps = null;
+    hierarchyChanged();
+  }
+
+  /**
+   * Set the member maps computed for this class that can be shared by the inheritance managers of
+   * other libraries to the given maps.
+   *
+   * @param sharedMemberMaps the shared member maps computed for this class
+   */
+  public void setSharedMemberMaps(SharedMemberMaps sharedMemberMaps) {
+    this.sharedMemberMaps = sharedMemberMaps;
   }
 
   /**
@@ -534,6 +594,8 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
    */
   public void setSupertype(InterfaceType supertype) {
     this.supertype = supertype;
+    sharedMemberMaps = null;
+    hierarchyChanged();
   }
 
   /**
@@ -564,6 +626,7 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
       ((TypeParameterElementImpl) typeParameter).setEnclosingElement(this);
     }
     this.typeParameters = typeParameters;
+    hierarchyChanged();
   }
 
   /**
@@ -636,6 +699,16 @@ public class ClassElementImpl extends ElementImpl implements ClassElement {
     }
   }
 
+  /**
+   * Record that the part of the type hierarchy defined by this class has been modified.
+   */
+  private void hierarchyChanged() {
+    LibraryElement library = getLibrary();
+    if (library instanceof LibraryElementImpl) {
+      ((LibraryElementImpl) library).hierarchyChanged();
+    }
+  }
+
   private PropertyAccessorElement internalLookUpConcreteGetter(String getterName,
       LibraryElement library, boolean includeThisClass) {
     PropertyAccessorElement getter = internalLookUpGetter(getterName, library, includeThisClass);
@@ -37,6 +37,17 @@ public class DefaultParameterElementImpl extends ParameterElementImpl {
     super(name);
   }
 
+  /**
+   * Initialize a newly created parameter element to have the given name.
+   * 
+   * @param name the name of this element
+   * @param nameOffset the offset of the name of this element in the file that contains the
+   *          declaration of this element
+   */
+  public DefaultParameterElementImpl(String name, int nameOffset) {
+    super(name, nameOffset);
+  }
+
   @Override
   public EvaluationResultImpl getEvaluationResult() {
     return result;
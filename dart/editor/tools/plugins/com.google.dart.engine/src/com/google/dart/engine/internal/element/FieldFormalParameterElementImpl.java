@@ -41,6 +41,17 @@ public class FieldFormalParameterElementImpl extends ParameterElementImpl implem
     super(name);
   }
 
+  /**
+   * Initialize a newly created parameter element to have the given name.
+   * 
+   * @param name the name of this element
+   * @param nameOffset the offset of the name of this element in the file that contains the
+   *          declaration of this element
+   */
+  public FieldFormalParameterElementImpl(String name, int nameOffset) {
+    super(name, nameOffset);
+  }
+
   @Override
   public <R> R accept(ElementVisitor<R> visitor) {
     return visitor.visitFieldFormalParameterElement(this);
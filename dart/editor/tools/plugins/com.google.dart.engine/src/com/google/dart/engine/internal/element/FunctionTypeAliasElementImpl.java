@@ -69,6 +69,17 @@ public class FunctionTypeAliasElementImpl extends ElementImpl implements Functio
     super(name);
   }
 
+  /**
+   * Initialize a newly created type alias element to have the given name.
+   * 
+   * @param name the name of this element
+   * @param nameOffset the offset of the name of this element in the file that contains the
+   *          declaration of this element
+   */
+  public FunctionTypeAliasElementImpl(String name, int nameOffset) {
+    super(name, nameOffset);
+  }
+
   @Override
   public <R> R accept(ElementVisitor<R> visitor) {
     return visitor.visitFunctionTypeAliasElement(this);
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Instances of the class {@code LibraryElementImpl} implement a {@code LibraryElement}.
@@ -138,6 +139,12 @@ public class LibraryElementImpl extends ElementImpl implements LibraryElement {
    */
   private FunctionElement loadLibraryFunction;
 
+  /**
+   * The version of the type hierarchy defined by the library cycle containing this library, which
+   * is incremented every time any part of that hierarchy is modified.
+   */
+  private AtomicInteger hierarchyVersion = new AtomicInteger();
+
   /**
    * Initialize a newly created library element to have the given name.
    * 
@@ -230,6 +237,15 @@ public class LibraryElementImpl extends ElementImpl implements LibraryElement {
     return exports;
   }
 
+  /**
+   * Return the version of the type hierarchy defined by the library cycle containing this library.
+   * 
+   * @return the version of the type hierarchy defined by the library cycle containing this library
+   */
+  public AtomicInteger getHierarchyVersion() {
+    return hierarchyVersion;
+  }
+
   @Override
   public LibraryElement[] getImportedLibraries() {
     HashSet<LibraryElement> libraries = new HashSet<LibraryElement>(imports.length);
@@ -360,6 +376,15 @@ public class LibraryElementImpl extends ElementImpl implements LibraryElement {
     return false;
   }
 
+  /**
+   * Record that some part of the type hierarchy defined by the library cycle containing this
+   * library has been modified, so that the subtype answers computed from it can no longer be
+   * trusted.
+   */
+  public void hierarchyChanged() {
+    hierarchyVersion.incrementAndGet();
+  }
+
   @Override
   public boolean isAngularHtml() {
     return isAngularHtml;
@@ -434,6 +459,17 @@ public class LibraryElementImpl extends ElementImpl implements LibraryElement {
     setModifier(Modifier.HAS_EXT_URI, hasExtUri);
   }
 
+  /**
+   * Set the version of the type hierarchy defined by the library cycle containing this library to
+   * the given version. The libraries in a cycle share a single version because the classes in one
+   * of them can extend the classes in the others.
+   * 
+   * @param hierarchyVersion the version of the type hierarchy defined by the library cycle
+   */
+  public void setHierarchyVersion(AtomicInteger hierarchyVersion) {
+    this.hierarchyVersion = hierarchyVersion;
+  }
+
   /**
    * Set the specifications of all of the imports defined in this library to the given array.
    * 
@@ -16,6 +16,7 @@ package com.google.dart.engine.internal.element;
 import com.google.dart.engine.ast.Identifier;
 import com.google.dart.engine.element.ElementKind;
 import com.google.dart.engine.element.ElementVisitor;
+import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.element.TypeParameterElement;
 import com.google.dart.engine.type.Type;
 import com.google.dart.engine.type.TypeParameterType;
@@ -91,6 +92,10 @@ public class TypeParameterElementImpl extends ElementImpl implements TypeParamet
    */
   public void setBound(Type bound) {
     this.bound = bound;
+    LibraryElement library = getLibrary();
+    if (library instanceof LibraryElementImpl) {
+      ((LibraryElementImpl) library).hierarchyChanged();
+    }
   }
 
   /**
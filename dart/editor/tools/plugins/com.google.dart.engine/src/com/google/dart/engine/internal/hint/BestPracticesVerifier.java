@@ -41,7 +41,8 @@ import com.google.dart.engine.ast.SimpleIdentifier;
 import com.google.dart.engine.ast.SuperConstructorInvocation;
 import com.google.dart.engine.ast.TypeName;
 import com.google.dart.engine.ast.VariableDeclaration;
-import com.google.dart.engine.ast.visitor.RecursiveAstVisitor;
+import com.google.dart.engine.ast.visitor.DelegatingAstVisitor;
+import com.google.dart.engine.ast.visitor.SimpleAstVisitor;
 import com.google.dart.engine.element.ClassElement;
 import com.google.dart.engine.element.ConstructorElement;
 import com.google.dart.engine.element.Element;
@@ -63,12 +64,13 @@ import com.google.dart.engine.type.Type;
 import com.google.dart.engine.type.TypeParameterType;
 
 /**
- * Instances of the class {@code BestPracticesVerifier} traverse an AST structure looking for
- * violations of Dart best practices.
+ * Instances of the class {@code BestPracticesVerifier} look for violations of Dart best practices.
+ * The verifier does not visit the children of the nodes it is given, and is intended to be used
+ * with a {@link DelegatingAstVisitor}.
  * 
  * @coverage dart.engine.resolver
  */
-public class BestPracticesVerifier extends RecursiveAstVisitor<Void> {
+public class BestPracticesVerifier extends SimpleAstVisitor<Void> {
 
   private static final String HASHCODE_GETTER_NAME = "hashCode";
 
@@ -95,12 +97,6 @@ public class BestPracticesVerifier extends RecursiveAstVisitor<Void> {
     return parenthesizedExpression;
   }
 
-  /**
-   * The class containing the AST nodes being visited, or {@code null} if we are not in the scope of
-   * a class.
-   */
-  private ClassElement enclosingClass;
-
   /**
    * The error reporter by which errors will be reported.
    */
@@ -148,15 +144,9 @@ public class BestPracticesVerifier extends RecursiveAstVisitor<Void> {
 
   @Override
   public Void visitClassDeclaration(ClassDeclaration node) {
-    ClassElement outerClass = enclosingClass;
-    try {
-      enclosingClass = node.getElement();
-      // Commented out until we decide that we want this hint in the analyzer
-//    checkForOverrideEqualsButNotHashCode(node);
-      return super.visitClassDeclaration(node);
-    } finally {
-      enclosingClass = outerClass;
-    }
+    // Commented out until we decide that we want this hint in the analyzer
+//  checkForOverrideEqualsButNotHashCode(node);
+    return super.visitClassDeclaration(node);
   }
 
   @Override
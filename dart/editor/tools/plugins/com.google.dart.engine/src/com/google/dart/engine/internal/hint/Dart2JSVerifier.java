@@ -15,7 +15,8 @@ package com.google.dart.engine.internal.hint;
 
 import com.google.dart.engine.ast.IsExpression;
 import com.google.dart.engine.ast.TypeName;
-import com.google.dart.engine.ast.visitor.RecursiveAstVisitor;
+import com.google.dart.engine.ast.visitor.DelegatingAstVisitor;
+import com.google.dart.engine.ast.visitor.SimpleAstVisitor;
 import com.google.dart.engine.element.Element;
 import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.error.HintCode;
@@ -23,12 +24,13 @@ import com.google.dart.engine.internal.error.ErrorReporter;
 import com.google.dart.engine.type.Type;
 
 /**
- * Instances of the class {@code Dart2JSVerifier} traverse an AST structure looking for hints for
- * code that will be compiled to JS, such as {@link HintCode#IS_DOUBLE}.
+ * Instances of the class {@code Dart2JSVerifier} look for hints for code that will be compiled to
+ * JS, such as {@link HintCode#IS_DOUBLE}. The verifier does not visit the children of the nodes it
+ * is given, and is intended to be used with a {@link DelegatingAstVisitor}.
  * 
  * @coverage dart.engine.resolver
  */
-public class Dart2JSVerifier extends RecursiveAstVisitor<Void> {
+public class Dart2JSVerifier extends SimpleAstVisitor<Void> {
 
   /**
    * The error reporter by which errors will be reported.
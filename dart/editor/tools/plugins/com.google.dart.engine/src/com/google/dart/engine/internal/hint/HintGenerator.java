@@ -13,7 +13,9 @@
  */
 package com.google.dart.engine.internal.hint;
 
+import com.google.dart.engine.ast.AstVisitor;
 import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.ast.visitor.DelegatingAstVisitor;
 import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.context.AnalysisException;
 import com.google.dart.engine.element.CompilationUnitElement;
@@ -26,6 +28,8 @@ import com.google.dart.engine.internal.resolver.InheritanceManager;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.utilities.general.TimeCounter.TimeCounterHandle;
 
+import java.util.ArrayList;
+
 /**
  * Instances of the class {@code HintGenerator} traverse a library's worth of dart code at a time to
  * generate hints over the set of sources.
@@ -94,15 +98,25 @@ public class HintGenerator {
     // dead code analysis
     unit.accept(new DeadCodeVerifier(errorReporter));
 
+    //
+    // The remaining verifiers only look at one node at a time, so they can share a single traversal
+    // of the unit. The verifiers above need to control which parts of the unit they visit, so they
+    // cannot be included.
+    //
+    ArrayList<AstVisitor<Void>> verifiers = new ArrayList<AstVisitor<Void>>();
+
     // dart2js analysis
     if (enableDart2JSHints) {
-      unit.accept(new Dart2JSVerifier(errorReporter));
+      verifiers.add(new Dart2JSVerifier(errorReporter));
     }
 
     // Dart best practices
-    unit.accept(new BestPracticesVerifier(errorReporter));
+    verifiers.add(new BestPracticesVerifier(errorReporter));
+
+    verifiers.add(new OverrideVerifier(manager, errorReporter));
 
-    unit.accept(new OverrideVerifier(manager, errorReporter));
+    AstVisitor<?>[] delegates = verifiers.toArray(new AstVisitor<?>[verifiers.size()]);
+    unit.accept(new DelegatingAstVisitor<Void>(delegates));
 
     // Find to-do comments
     new ToDoFinder(errorReporter).findIn(unit);
@@ -14,7 +14,8 @@
 package com.google.dart.engine.internal.hint;
 
 import com.google.dart.engine.ast.MethodDeclaration;
-import com.google.dart.engine.ast.visitor.RecursiveAstVisitor;
+import com.google.dart.engine.ast.visitor.DelegatingAstVisitor;
+import com.google.dart.engine.ast.visitor.SimpleAstVisitor;
 import com.google.dart.engine.element.ClassElement;
 import com.google.dart.engine.element.Element;
 import com.google.dart.engine.element.ExecutableElement;
@@ -26,10 +27,11 @@ import com.google.dart.engine.internal.error.ErrorReporter;
 import com.google.dart.engine.internal.resolver.InheritanceManager;
 
 /**
- * Instances of the class {@code OverrideVerifier} visit all of the declarations in a compilation
- * unit to verify that if they have an override annotation it is being used correctly.
+ * Instances of the class {@code OverrideVerifier} visit declarations to verify that if they have an
+ * override annotation it is being used correctly. The verifier does not visit the children of the
+ * nodes it is given, and is intended to be used with a {@link DelegatingAstVisitor}.
  */
-public class OverrideVerifier extends RecursiveAstVisitor<Void> {
+public class OverrideVerifier extends SimpleAstVisitor<Void> {
   /**
    * The inheritance manager used to find overridden methods.
    */
@@ -16,6 +16,9 @@ package com.google.dart.engine.internal.index.file;
 import com.google.common.collect.Maps;
 import com.google.dart.engine.context.AnalysisContext;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -39,6 +42,31 @@ public class ContextCodec {
    */
   private int nextId;
 
+  /**
+   * Associates the given {@link AnalysisContext} with the given index, which must have been
+   * assigned in a previous session and not yet be associated with a context.
+   */
+  public void bind(int index, AnalysisContext context) {
+    contextToIndex.put(context, index);
+    indexToContext.put(index, context);
+  }
+
+  /**
+   * Removes all of the {@link AnalysisContext}s and restarts the assignment of indices.
+   */
+  public void clear() {
+    contextToIndex.clear();
+    indexToContext.clear();
+    nextId = 0;
+  }
+
+  /**
+   * Returns {@code true} if the given {@link AnalysisContext} has an index.
+   */
+  public boolean contains(AnalysisContext context) {
+    return contextToIndex.containsKey(context);
+  }
+
   /**
    * Returns the {@link AnalysisContext} that corresponds to the given index.
    */
@@ -59,6 +87,17 @@ public class ContextCodec {
     return index;
   }
 
+  /**
+   * Forgets all of the {@link AnalysisContext}s and continues assigning indices after the ones
+   * assigned in the session written by {@link #write}. Contexts are not persistent, so indices from
+   * that session have no context until they are bound using {@link #bind}.
+   */
+  public void read(DataInputStream stream) throws IOException {
+    contextToIndex.clear();
+    indexToContext.clear();
+    nextId = stream.readInt();
+  }
+
   /**
    * Removes the given {@link AnalysisContext}.
    */
@@ -68,4 +107,11 @@ public class ContextCodec {
       indexToContext.remove(id);
     }
   }
+
+  /**
+   * Writes the information needed to avoid reusing indices assigned in this session.
+   */
+  public void write(DataOutputStream stream) throws IOException {
+    stream.writeInt(nextId);
+  }
 }
@@ -24,6 +24,9 @@ import com.google.dart.engine.source.Source;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -48,6 +51,16 @@ public class ElementCodec {
     this.stringCodec = stringCodec;
   }
 
+  /**
+   * Removes all of the element encodings.
+   */
+  public void clear() {
+    for (int[] path : indexToPath) {
+      pathToIndex.remove(path, -1);
+    }
+    indexToPath.clear();
+  }
+
   /**
    * Returns an {@link Element} that corresponds to the given location.
    * 
@@ -93,6 +106,45 @@ public class ElementCodec {
     return index;
   }
 
+  /**
+   * Replaces the element encodings of this codec with the encodings written by {@link #write},
+   * keeping their indices. The strings referenced by the encodings are expected to be read into
+   * the {@link StringCodec} separately.
+   */
+  public void read(DataInputStream stream) throws IOException {
+    clear();
+    int count = stream.readInt();
+    for (int i = 0; i < count; i++) {
+      int length = stream.readInt();
+      int[] path = new int[length];
+      for (int j = 0; j < length; j++) {
+        path[j] = stream.readInt();
+      }
+      pathToIndex.put(path, i);
+      indexToPath.add(path);
+    }
+  }
+
+  /**
+   * Returns the number of encoded elements.
+   */
+  public int size() {
+    return indexToPath.size();
+  }
+
+  /**
+   * Writes all of the element encodings of this codec, in the order of their indices.
+   */
+  public void write(DataOutputStream stream) throws IOException {
+    stream.writeInt(indexToPath.size());
+    for (int[] path : indexToPath) {
+      stream.writeInt(path.length);
+      for (int component : path) {
+        stream.writeInt(component);
+      }
+    }
+  }
+
   private String[] getLocationComponents(int[] path) {
     int length = path.length;
     String[] components = new String[length];
@@ -22,18 +22,20 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 /**
  * A {@link FileManager} based {@link NodeManager}.
+ * <p>
+ * Integers are written as variable-length values, so that small values take one byte. The element
+ * ids and offsets of the locations of a relation are written as differences with the previous
+ * location, which are usually small because locations are recorded in the order of the source.
  * 
  * @coverage dart.engine.index
  */
 public class FileNodeManager implements NodeManager {
-  private static int VERSION = 1;
+  private static int VERSION = 2;
 
   private final FileManager fileManager;
   private final Logger logger;
@@ -90,26 +92,21 @@ public class FileNodeManager implements NodeManager {
             }
           }
           // context
-          int contextId = stream.readInt();
+          int contextId = readInt(stream);
           AnalysisContext context = contextCodec.decode(contextId);
           if (context == null) {
             return null;
           }
           // relations
-          Map<RelationKeyData, List<LocationData>> relations = Maps.newHashMap();
-          int numRelations = stream.readInt();
+          Map<RelationKeyData, LocationDataList> relations = Maps.newHashMap();
+          int numRelations = readInt(stream);
           for (int i = 0; i < numRelations; i++) {
             RelationKeyData key = readElementRelationKey(stream);
-            int numLocations = stream.readInt();
-            List<LocationData> locations = new ArrayList<LocationData>(numLocations);
-            for (int j = 0; j < numLocations; j++) {
-              locations.add(readLocationData(stream));
-            }
-            relations.put(key, locations);
+            relations.put(key, readLocations(stream));
           }
           // create IndexNode
           IndexNode node = new IndexNode(context, elementCodec, relationshipCodec);
-          node.setRelations(relations);
+          node.setRelationLocations(relations);
           return node;
         } finally {
           inputStream.close();
@@ -168,22 +165,81 @@ public class FileNodeManager implements NodeManager {
   }
 
   private RelationKeyData readElementRelationKey(DataInputStream stream) throws Exception {
-    int elementId = stream.readInt();
-    int relationshipId = stream.readInt();
+    int elementId = readInt(stream);
+    int relationshipId = readInt(stream);
     return new RelationKeyData(elementId, relationshipId);
   }
 
-  private LocationData readLocationData(DataInputStream stream) throws Exception {
-    int elementId = stream.readInt();
-    int offset = stream.readInt();
-    int length = stream.readInt();
-    return new LocationData(elementId, offset, length);
+  /**
+   * Reads a value written by {@link #writeInt(DataOutputStream, int)}.
+   */
+  private int readInt(DataInputStream stream) throws Exception {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = stream.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Malformed variable-length integer");
+  }
+
+  private LocationDataList readLocations(DataInputStream stream) throws Exception {
+    int numLocations = readInt(stream);
+    LocationDataList locations = new LocationDataList(numLocations);
+    int elementId = 0;
+    int offset = 0;
+    for (int i = 0; i < numLocations; i++) {
+      elementId += readSignedInt(stream);
+      offset += readSignedInt(stream);
+      int length = readInt(stream);
+      locations.add(elementId, offset, length);
+    }
+    return locations;
+  }
+
+  /**
+   * Reads a signed value written by {@link #writeSignedInt(DataOutputStream, int)}.
+   */
+  private int readSignedInt(DataInputStream stream) throws Exception {
+    int value = readInt(stream);
+    return (value >>> 1) ^ -(value & 1);
   }
 
   private void writeElementRelationKey(DataOutputStream stream, RelationKeyData key)
       throws Exception {
-    stream.writeInt(key.elementId);
-    stream.writeInt(key.relationshipId);
+    writeInt(stream, key.elementId);
+    writeInt(stream, key.relationshipId);
+  }
+
+  /**
+   * Writes the given value using 7 bits per byte, with the high bit set in all bytes except the
+   * last one. Negative values take five bytes.
+   */
+  private void writeInt(DataOutputStream stream, int value) throws Exception {
+    while ((value & ~0x7F) != 0) {
+      stream.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    stream.writeByte(value);
+  }
+
+  private void writeLocations(DataOutputStream stream, LocationDataList locations)
+      throws Exception {
+    int numLocations = locations.size();
+    writeInt(stream, numLocations);
+    int prevElementId = 0;
+    int prevOffset = 0;
+    for (int i = 0; i < numLocations; i++) {
+      int elementId = locations.getElementId(i);
+      int offset = locations.getOffset(i);
+      writeSignedInt(stream, elementId - prevElementId);
+      writeSignedInt(stream, offset - prevOffset);
+      writeInt(stream, locations.getLength(i));
+      prevElementId = elementId;
+      prevOffset = offset;
+    }
   }
 
   private void writeNode(IndexNode node, OutputStream outputStream) throws Exception {
@@ -194,21 +250,21 @@ public class FileNodeManager implements NodeManager {
     {
       AnalysisContext context = node.getContext();
       int contextId = contextCodec.encode(context);
-      stream.writeInt(contextId);
+      writeInt(stream, contextId);
     }
     // relations
-    Map<RelationKeyData, List<LocationData>> relations = node.getRelations();
-    stream.writeInt(relations.size());
-    for (Entry<RelationKeyData, List<LocationData>> entry : relations.entrySet()) {
-      RelationKeyData key = entry.getKey();
-      List<LocationData> locations = entry.getValue();
-      writeElementRelationKey(stream, key);
-      stream.writeInt(locations.size());
-      for (LocationData location : locations) {
-        stream.writeInt(location.elementId);
-        stream.writeInt(location.offset);
-        stream.writeInt(location.length);
-      }
+    Map<RelationKeyData, LocationDataList> relations = node.getRelationLocations();
+    writeInt(stream, relations.size());
+    for (Entry<RelationKeyData, LocationDataList> entry : relations.entrySet()) {
+      writeElementRelationKey(stream, entry.getKey());
+      writeLocations(stream, entry.getValue());
     }
   }
+
+  /**
+   * Writes the given signed value so that values with small absolute value take one byte.
+   */
+  private void writeSignedInt(DataOutputStream stream, int value) throws Exception {
+    writeInt(stream, (value << 1) ^ (value >> 31));
+  }
 }
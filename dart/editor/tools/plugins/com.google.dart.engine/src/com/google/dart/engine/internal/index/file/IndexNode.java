@@ -13,7 +13,6 @@
  */
 package com.google.dart.engine.internal.index.file;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.element.Element;
@@ -22,9 +21,13 @@ import com.google.dart.engine.index.Relationship;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * A single index file in-memory presentation.
+ * <p>
+ * The locations of each relation are kept in a {@link LocationDataList}, {@link Location} objects
+ * are created only for the results of {@link #getRelationships(Element, Relationship)}.
  * 
  * @coverage dart.engine.index
  */
@@ -32,7 +35,7 @@ public class IndexNode {
   private final AnalysisContext context;
   private final ElementCodec elementCodec;
   private final RelationshipCodec relationshipCodec;
-  private final Map<RelationKeyData, List<LocationData>> relations = Maps.newHashMap();
+  private final Map<RelationKeyData, LocationDataList> relations = Maps.newHashMap();
 
   public IndexNode(AnalysisContext context, ElementCodec elementCodec,
       RelationshipCodec relationshipCodec) {
@@ -53,19 +56,31 @@ public class IndexNode {
    */
   public int getLocationCount() {
     int locationCount = 0;
-    for (List<LocationData> locations : relations.values()) {
+    for (LocationDataList locations : relations.values()) {
       locationCount += locations.size();
     }
     return locationCount;
   }
 
   /**
-   * Returns the recorded relations.
+   * Returns the recorded relations, with the locations of each relation kept in a
+   * {@link LocationDataList}.
    */
-  public Map<RelationKeyData, List<LocationData>> getRelations() {
+  public Map<RelationKeyData, LocationDataList> getRelationLocations() {
     return relations;
   }
 
+  /**
+   * Returns a copy of the recorded relations, with a {@link LocationData} for each location.
+   */
+  public Map<RelationKeyData, List<LocationData>> getRelations() {
+    Map<RelationKeyData, List<LocationData>> result = Maps.newHashMap();
+    for (Entry<RelationKeyData, LocationDataList> entry : relations.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().toList());
+    }
+    return result;
+  }
+
   /**
    * Return the locations of the elements that have the given relationship with the given element.
    * 
@@ -80,20 +95,13 @@ public class IndexNode {
         relationshipCodec,
         element,
         relationship);
-    // find LocationData(s)
-    List<LocationData> locationDatas = relations.get(key);
-    if (locationDatas == null) {
+    // find locations
+    LocationDataList locations = relations.get(key);
+    if (locations == null) {
       return Location.EMPTY_ARRAY;
     }
     // convert to Location(s)
-    List<Location> locations = Lists.newArrayList();
-    for (LocationData locationData : locationDatas) {
-      Location location = locationData.getLocation(context, elementCodec);
-      if (location != null) {
-        locations.add(location);
-      }
-    }
-    return locations.toArray(new Location[locations.size()]);
+    return locations.getLocations(context, elementCodec);
   }
 
   /**
@@ -109,21 +117,38 @@ public class IndexNode {
         relationshipCodec,
         element,
         relationship);
-    // prepare LocationData(s)
-    List<LocationData> locationDatas = relations.get(key);
-    if (locationDatas == null) {
-      locationDatas = Lists.newArrayList();
-      relations.put(key, locationDatas);
+    // prepare locations
+    LocationDataList locations = relations.get(key);
+    if (locations == null) {
+      locations = new LocationDataList();
+      relations.put(key, locations);
     }
-    // add new LocationData
-    locationDatas.add(new LocationData(elementCodec, location));
+    // add new location
+    int elementId = elementCodec.encode(location.getElement(), false);
+    locations.add(elementId, location.getOffset(), location.getLength());
   }
 
   /**
-   * Sets relations data. This method is used during loading data from a storage.
+   * Sets relations data, with the locations of each relation kept in a {@link LocationDataList}.
+   * This method is used during loading data from a storage.
    */
-  public void setRelations(Map<RelationKeyData, List<LocationData>> relations) {
+  public void setRelationLocations(Map<RelationKeyData, LocationDataList> relations) {
     this.relations.clear();
     this.relations.putAll(relations);
   }
+
+  /**
+   * Sets relations data.
+   */
+  public void setRelations(Map<RelationKeyData, List<LocationData>> relations) {
+    this.relations.clear();
+    for (Entry<RelationKeyData, List<LocationData>> entry : relations.entrySet()) {
+      List<LocationData> locationDatas = entry.getValue();
+      LocationDataList locations = new LocationDataList(locationDatas.size());
+      for (LocationData locationData : locationDatas) {
+        locations.add(locationData);
+      }
+      this.relations.put(entry.getKey(), locations);
+    }
+  }
 }
@@ -2,6 +2,9 @@ package com.google.dart.engine.internal.index.file;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -132,6 +135,21 @@ public class IntToIntSetMap {
     return ArrayUtils.EMPTY_INT_ARRAY;
   }
 
+  /**
+   * Replaces the mappings of this map with the mappings written by {@link #write}.
+   */
+  public void read(DataInputStream stream) throws IOException {
+    clear();
+    int count = stream.readInt();
+    for (int i = 0; i < count; i++) {
+      int key = stream.readInt();
+      int valueCount = stream.readInt();
+      for (int j = 0; j < valueCount; j++) {
+        add(key, stream.readInt());
+      }
+    }
+  }
+
   /**
    * Returns the number of key-value mappings in this map.
    */
@@ -139,6 +157,26 @@ public class IntToIntSetMap {
     return size;
   }
 
+  /**
+   * Writes all of the mappings of this map.
+   */
+  public void write(DataOutputStream stream) throws IOException {
+    stream.writeInt(size);
+    for (int i = 0; i < keys.length; i++) {
+      int key = keys[i];
+      if (key != -1) {
+        writeValues(stream, key, values[i]);
+      }
+    }
+    for (int i = 0; i < entries.length; i++) {
+      Entry entry = entries[i];
+      while (entry != null) {
+        writeValues(stream, entry.key, entry.value);
+        entry = entry.next;
+      }
+    }
+  }
+
   private int[] addValue(int[] set, int value) {
     if (set == null) {
       return new int[] {value};
@@ -161,6 +199,14 @@ public class IntToIntSetMap {
     return h & 0x7FFFFFFF;
   }
 
+  private void writeValues(DataOutputStream stream, int key, int[] values) throws IOException {
+    stream.writeInt(key);
+    stream.writeInt(values.length);
+    for (int value : values) {
+      stream.writeInt(value);
+    }
+  }
+
   private void rehash() {
     IntToIntSetMap newMap = new IntToIntSetMap(capacity * 2 + 1, loadFactor);
     // put values
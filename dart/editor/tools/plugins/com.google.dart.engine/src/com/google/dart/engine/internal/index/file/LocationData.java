@@ -10,6 +10,19 @@ import com.google.dart.engine.index.Location;
  * @coverage dart.engine.index
  */
 public class LocationData {
+  /**
+   * Returns a {@link Location} with the given element id, offset and length, or {@code null} if the
+   * element cannot be decoded.
+   */
+  static Location getLocation(AnalysisContext context, ElementCodec elementCodec, int elementId,
+      int offset, int length) {
+    Element element = elementCodec.decode(context, elementId);
+    if (element == null) {
+      return null;
+    }
+    return new Location(element, offset, length);
+  }
+
   final int elementId;
   final int offset;
   final int length;
@@ -40,11 +53,7 @@ public class LocationData {
    * Returns a {@link Location} that is represented by this {@link LocationData}.
    */
   public Location getLocation(AnalysisContext context, ElementCodec elementCodec) {
-    Element element = elementCodec.decode(context, elementId);
-    if (element == null) {
-      return null;
-    }
-    return new Location(element, offset, length);
+    return getLocation(context, elementCodec, elementId, offset, length);
   }
 
   @Override
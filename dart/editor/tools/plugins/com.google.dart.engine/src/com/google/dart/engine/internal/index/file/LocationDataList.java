@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.file;
+
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.index.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of locations, which keeps element ids, offsets and lengths in parallel {@code int}
+ * arrays instead of keeping a {@link LocationData} object for each location.
+ * 
+ * @coverage dart.engine.index
+ */
+public class LocationDataList {
+  /**
+   * The ids of the elements of the locations.
+   */
+  private int[] elementIds;
+
+  /**
+   * The offsets of the locations.
+   */
+  private int[] offsets;
+
+  /**
+   * The lengths of the locations.
+   */
+  private int[] lengths;
+
+  /**
+   * The number of locations in this list.
+   */
+  private int size = 0;
+
+  /**
+   * Initialize a newly created list to have enough space for a few locations.
+   */
+  public LocationDataList() {
+    this(4);
+  }
+
+  /**
+   * Initialize a newly created list to have enough space for the given number of locations.
+   */
+  public LocationDataList(int capacity) {
+    elementIds = new int[capacity];
+    offsets = new int[capacity];
+    lengths = new int[capacity];
+  }
+
+  /**
+   * Adds a location with the given element id, offset and length.
+   */
+  public void add(int elementId, int offset, int length) {
+    if (size == elementIds.length) {
+      int capacity = Math.max(4, size + (size >> 1));
+      elementIds = Arrays.copyOf(elementIds, capacity);
+      offsets = Arrays.copyOf(offsets, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+    }
+    elementIds[size] = elementId;
+    offsets[size] = offset;
+    lengths[size] = length;
+    size++;
+  }
+
+  /**
+   * Adds the location represented by the given {@link LocationData}.
+   */
+  public void add(LocationData location) {
+    add(location.elementId, location.offset, location.length);
+  }
+
+  /**
+   * Returns the {@link LocationData} that represents the location at the given index.
+   */
+  public LocationData get(int index) {
+    return new LocationData(elementIds[index], offsets[index], lengths[index]);
+  }
+
+  /**
+   * Returns the id of the element of the location at the given index.
+   */
+  public int getElementId(int index) {
+    return elementIds[index];
+  }
+
+  /**
+   * Returns the length of the location at the given index.
+   */
+  public int getLength(int index) {
+    return lengths[index];
+  }
+
+  /**
+   * Returns the {@link Location}s in this list, skipping the ones whose elements cannot be
+   * decoded.
+   */
+  public Location[] getLocations(AnalysisContext context, ElementCodec elementCodec) {
+    Location[] locations = new Location[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      Location location = LocationData.getLocation(
+          context,
+          elementCodec,
+          elementIds[i],
+          offsets[i],
+          lengths[i]);
+      if (location != null) {
+        locations[count++] = location;
+      }
+    }
+    if (count != size) {
+      locations = Arrays.copyOf(locations, count);
+    }
+    return locations;
+  }
+
+  /**
+   * Returns the offset of the location at the given index.
+   */
+  public int getOffset(int index) {
+    return offsets[index];
+  }
+
+  /**
+   * Returns the number of locations in this list.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the {@link LocationData}s that represent the locations in this list.
+   */
+  public List<LocationData> toList() {
+    List<LocationData> locations = new ArrayList<LocationData>(size);
+    for (int i = 0; i < size; i++) {
+      locations.add(get(i));
+    }
+    return locations;
+  }
+
+  /**
+   * Releases the space reserved for locations that were not added.
+   */
+  public void trimToSize() {
+    if (size != elementIds.length) {
+      elementIds = Arrays.copyOf(elementIds, size);
+      offsets = Arrays.copyOf(offsets, size);
+      lengths = Arrays.copyOf(lengths, size);
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.file;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An implementation of {@link FileManager} that keeps all files in a single memory-mapped file.
+ * <p>
+ * Each file is kept as a record, which is appended to the end of the used part of the mapped file.
+ * A record consists of the status, the length of the name, the length of the content, the UTF-8
+ * encoded name and the content. When a file is deleted or written again, the status of its old
+ * record is changed to deleted. The table of the records is not stored, it is rebuilt by scanning
+ * the records when the manager is created. When the deleted records occupy more space than the live
+ * ones, the live records are moved to the beginning of the mapped file.
+ * <p>
+ * The streams returned by {@link #openInputStream(String)} read directly from the mapped file, so
+ * they must be read before the manager is modified.
+ */
+public class MappedFileManager implements FileManager {
+  /**
+   * An {@link InputStream} that reads from a {@link ByteBuffer}.
+   */
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+
+    @Override
+    public int read() {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      int remaining = buffer.remaining();
+      if (remaining == 0) {
+        return -1;
+      }
+      length = Math.min(length, remaining);
+      buffer.get(bytes, offset, length);
+      return length;
+    }
+  }
+
+  /**
+   * The location of a record in the mapped file.
+   */
+  private static class Record {
+    final String name;
+    int offset;
+    final int size;
+
+    public Record(String name, int offset, int size) {
+      this.name = name;
+      this.offset = offset;
+      this.size = size;
+    }
+  }
+
+  /**
+   * The status of the record after the last record.
+   */
+  private static final int STATUS_END = 0;
+
+  /**
+   * The status of a record of an existing file.
+   */
+  private static final int STATUS_LIVE = 1;
+
+  /**
+   * The status of a record of a deleted file.
+   */
+  private static final int STATUS_DELETED = 2;
+
+  /**
+   * The size of the record header: the status, the length of the name and the length of the
+   * content.
+   */
+  private static final int HEADER_SIZE = 12;
+
+  /**
+   * The minimal size of the mapped file.
+   */
+  private static final int MIN_CAPACITY = 1024 * 1024;
+
+  /**
+   * The minimal number of bytes in deleted records before the live records are compacted.
+   */
+  private static final int MIN_GARBAGE_SIZE = 1024 * 1024;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * The mapped file.
+   */
+  private final RandomAccessFile file;
+
+  /**
+   * The channel of the mapped file.
+   */
+  private final FileChannel channel;
+
+  /**
+   * The mapping of the whole file.
+   */
+  private MappedByteBuffer buffer;
+
+  /**
+   * A table mapping the names of the existing files to their records.
+   */
+  private final Map<String, Record> records = Maps.newHashMap();
+
+  /**
+   * The number of bytes used by the records, both live and deleted.
+   */
+  private int size;
+
+  /**
+   * The number of bytes used by the deleted records.
+   */
+  private int garbageSize;
+
+  /**
+   * Initialize a newly created manager to keep files in the given file, reading the records that
+   * are already in it.
+   */
+  public MappedFileManager(File file) throws IOException {
+    this.file = new RandomAccessFile(file, "rw");
+    this.channel = this.file.getChannel();
+    map((int) Math.max(this.file.length(), MIN_CAPACITY));
+    readRecords();
+  }
+
+  @Override
+  public synchronized void clear() {
+    records.clear();
+    size = 0;
+    garbageSize = 0;
+    buffer.putInt(0, STATUS_END);
+  }
+
+  /**
+   * Writes the changes to the storage device and closes the file. The manager cannot be used after
+   * it was closed.
+   */
+  public synchronized void close() throws IOException {
+    buffer.force();
+    channel.close();
+    file.close();
+  }
+
+  @Override
+  public synchronized void delete(String name) {
+    Record record = records.remove(name);
+    if (record != null) {
+      buffer.putInt(record.offset, STATUS_DELETED);
+      garbageSize += record.size;
+      compactIfNeeded();
+    }
+  }
+
+  /**
+   * Returns the number of bytes used by the deleted records.
+   */
+  public synchronized int getGarbageSize() {
+    return garbageSize;
+  }
+
+  /**
+   * Returns the number of bytes used by the records, both live and deleted.
+   */
+  public synchronized int getSize() {
+    return size;
+  }
+
+  @Override
+  public synchronized InputStream openInputStream(String name) {
+    Record record = records.get(name);
+    if (record == null) {
+      return null;
+    }
+    int nameLength = buffer.getInt(record.offset + 4);
+    int contentLength = buffer.getInt(record.offset + 8);
+    ByteBuffer content = buffer.duplicate();
+    content.position(record.offset + HEADER_SIZE + nameLength);
+    content.limit(record.offset + HEADER_SIZE + nameLength + contentLength);
+    return new ByteBufferInputStream(content.slice());
+  }
+
+  @Override
+  public OutputStream openOutputStream(final String name) {
+    return new ByteArrayOutputStream() {
+      private boolean closed = false;
+
+      @Override
+      public void close() throws IOException {
+        if (!closed) {
+          closed = true;
+          writeRecord(name, buf, count);
+        }
+      }
+    };
+  }
+
+  /**
+   * Moves the live records to the beginning of the mapped file if the deleted records use too much
+   * space.
+   */
+  private void compactIfNeeded() {
+    if (garbageSize < MIN_GARBAGE_SIZE || garbageSize < size - garbageSize) {
+      return;
+    }
+    List<Record> liveRecords = Lists.newArrayList(records.values());
+    Collections.sort(liveRecords, new Comparator<Record>() {
+      @Override
+      public int compare(Record a, Record b) {
+        return a.offset - b.offset;
+      }
+    });
+    int newSize = 0;
+    for (Record record : liveRecords) {
+      if (record.offset != newSize) {
+        ByteBuffer source = buffer.duplicate();
+        source.position(record.offset);
+        source.limit(record.offset + record.size);
+        ByteBuffer target = buffer.duplicate();
+        target.position(newSize);
+        target.put(source);
+        record.offset = newSize;
+      }
+      newSize += record.size;
+    }
+    size = newSize;
+    garbageSize = 0;
+    if (size + 4 <= buffer.capacity()) {
+      buffer.putInt(size, STATUS_END);
+    }
+  }
+
+  /**
+   * Ensures that the mapped file has at least the given number of bytes.
+   */
+  private void ensureCapacity(int capacity) throws IOException {
+    int currentCapacity = buffer.capacity();
+    if (capacity <= currentCapacity) {
+      return;
+    }
+    long newCapacity = currentCapacity;
+    while (newCapacity < capacity) {
+      newCapacity *= 2;
+    }
+    if (newCapacity > Integer.MAX_VALUE) {
+      throw new IOException("Index file is too large");
+    }
+    map((int) newCapacity);
+  }
+
+  /**
+   * Maps the given number of bytes of the file, extending it if necessary.
+   */
+  private void map(int capacity) throws IOException {
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+  }
+
+  /**
+   * Fills the table of records using the records in the mapped file. Stops at the first record that
+   * is not valid.
+   */
+  private void readRecords() {
+    int capacity = buffer.capacity();
+    int offset = 0;
+    while (offset + HEADER_SIZE <= capacity) {
+      int status = buffer.getInt(offset);
+      int nameLength = buffer.getInt(offset + 4);
+      int contentLength = buffer.getInt(offset + 8);
+      if (status != STATUS_LIVE && status != STATUS_DELETED || nameLength < 0
+          || contentLength < 0 || (long) offset + HEADER_SIZE + nameLength + contentLength > capacity) {
+        break;
+      }
+      int recordSize = HEADER_SIZE + nameLength + contentLength;
+      if (status == STATUS_LIVE) {
+        byte[] nameBytes = new byte[nameLength];
+        ByteBuffer nameBuffer = buffer.duplicate();
+        nameBuffer.position(offset + HEADER_SIZE);
+        nameBuffer.get(nameBytes);
+        String name = new String(nameBytes, UTF_8);
+        Record oldRecord = records.put(name, new Record(name, offset, recordSize));
+        if (oldRecord != null) {
+          buffer.putInt(oldRecord.offset, STATUS_DELETED);
+          garbageSize += oldRecord.size;
+        }
+      } else {
+        garbageSize += recordSize;
+      }
+      offset += recordSize;
+    }
+    size = offset;
+    if (size + 4 <= capacity) {
+      buffer.putInt(size, STATUS_END);
+    }
+  }
+
+  /**
+   * Appends a new record for the file with the given name and content, replacing the existing one.
+   */
+  private synchronized void writeRecord(String name, byte[] content, int contentLength)
+      throws IOException {
+    byte[] nameBytes = name.getBytes(UTF_8);
+    int recordSize = HEADER_SIZE + nameBytes.length + contentLength;
+    ensureCapacity(size + recordSize + 4);
+    int offset = size;
+    ByteBuffer target = buffer.duplicate();
+    target.position(offset + 4);
+    target.putInt(nameBytes.length);
+    target.putInt(contentLength);
+    target.put(nameBytes);
+    target.put(content, 0, contentLength);
+    target.putInt(STATUS_END);
+    // make the record live and replace the old one
+    buffer.putInt(offset, STATUS_LIVE);
+    size += recordSize;
+    Record oldRecord = records.put(name, new Record(name, offset, recordSize));
+    if (oldRecord != null) {
+      buffer.putInt(oldRecord.offset, STATUS_DELETED);
+      garbageSize += oldRecord.size;
+      compactIfNeeded();
+    }
+  }
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.dart.engine.internal.index.file;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.dart.engine.AnalysisEngine;
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.element.CompilationUnitElement;
+import com.google.dart.engine.element.Element;
+import com.google.dart.engine.element.ElementKind;
+import com.google.dart.engine.element.HtmlElement;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.index.IndexStore;
+import com.google.dart.engine.index.Location;
+import com.google.dart.engine.index.Relationship;
+import com.google.dart.engine.index.UniverseElement;
+import com.google.dart.engine.internal.context.AnalysisContextImpl;
+import com.google.dart.engine.internal.context.InstrumentedAnalysisContextImpl;
+import com.google.dart.engine.internal.index.structure.btree.BPlusTree;
+import com.google.dart.engine.internal.index.structure.btree.IntArrayCodec;
+import com.google.dart.engine.internal.index.structure.btree.PageManager;
+import com.google.dart.engine.internal.index.structure.btree.PageNodeManager;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.SourceContainer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * An {@link IndexStore} which keeps all of the relations in a single B+ tree whose nodes are kept
+ * in the pages of a {@link PageManager}.
+ * <p>
+ * A key of the tree is an element identifier, a relationship identifier, a node name identifier and
+ * the index of the location in the node. A value is a context identifier, the identifier of the
+ * element of the location, its offset and length. So, the locations of a relation are kept next to
+ * each other and {@link #getRelationships(Element, Relationship)} reads only the few pages that
+ * contain them. The keys recorded for each library/unit pair are kept in a file of the
+ * {@link FileManager}, so that they can be removed when the unit is indexed again.
+ * 
+ * @coverage dart.engine.index
+ */
+public class PagedIndexStoreImpl implements IndexStore {
+  /**
+   * The {@link Comparator} that compares the {@code int[]} keys of the tree lexicographically.
+   */
+  private static final Comparator<int[]> KEY_COMPARATOR = new Comparator<int[]>() {
+    @Override
+    public int compare(int[] a, int[] b) {
+      for (int i = 0; i < a.length; i++) {
+        if (a[i] != b[i]) {
+          return a[i] < b[i] ? -1 : 1;
+        }
+      }
+      return 0;
+    }
+  };
+
+  /**
+   * The identifier used for {@link UniverseElement#INSTANCE}.
+   */
+  private static final int UNIVERSE_ELEMENT_ID = -1;
+
+  /**
+   * The {@link FileManager} to keep the keys of each node.
+   */
+  private final FileManager fileManager;
+
+  /**
+   * The {@link ContextCodec} to encode/decode {@link AnalysisContext}s.
+   */
+  private final ContextCodec contextCodec;
+
+  /**
+   * The {@link ElementCodec} to encode/decode {@link Element}s.
+   */
+  private final ElementCodec elementCodec;
+
+  /**
+   * The {@link RelationshipCodec} to encode/decode {@link Relationship}s.
+   */
+  private final RelationshipCodec relationshipCodec;
+
+  /**
+   * The {@link StringCodec} to encode/decode {@link String}s.
+   */
+  private final StringCodec stringCodec;
+
+  /**
+   * The tree with all of the relations.
+   */
+  private final BPlusTree<int[], int[], Integer> tree;
+
+  /**
+   * The mapping of library {@link Source} to the {@link Source}s of part units.
+   */
+  final Map<AnalysisContext, Map<Source, Set<Source>>> contextToLibraryToUnits = Maps.newHashMap();
+
+  /**
+   * The mapping of unit {@link Source} to the {@link Source}s of libraries it is used in.
+   */
+  final Map<AnalysisContext, Map<Source, Set<Source>>> contextToUnitToLibraries = Maps.newHashMap();
+
+  /**
+   * The set of known {@link Source}s.
+   */
+  private final Set<Source> sources = Sets.newHashSet();
+
+  /**
+   * The number of locations in the tree.
+   */
+  private int locationCount = 0;
+
+  private int currentContextId;
+  private String currentNodeName;
+  private int currentNodeNameId;
+  private Map<RelationKeyData, List<LocationData>> currentRelations;
+
+  public PagedIndexStoreImpl(PageManager pageManager, FileManager fileManager,
+      StringCodec stringCodec, ContextCodec contextCodec, ElementCodec elementCodec,
+      RelationshipCodec relationshipCodec) {
+    this.fileManager = fileManager;
+    this.stringCodec = stringCodec;
+    this.contextCodec = contextCodec;
+    this.elementCodec = elementCodec;
+    this.relationshipCodec = relationshipCodec;
+    this.tree = new BPlusTree<int[], int[], Integer>(
+        KEY_COMPARATOR,
+        new PageNodeManager<int[], int[]>(pageManager, new IntArrayCodec(4), new IntArrayCodec(4)));
+  }
+
+  @Override
+  public boolean aboutToIndexDart(AnalysisContext context, CompilationUnitElement unitElement) {
+    context = unwrapContext(context);
+    // may be already disposed in other thread
+    if (context.isDisposed()) {
+      return false;
+    }
+    // validate unit
+    if (unitElement == null) {
+      return false;
+    }
+    LibraryElement libraryElement = unitElement.getLibrary();
+    if (libraryElement == null) {
+      return false;
+    }
+    CompilationUnitElement definingUnitElement = libraryElement.getDefiningCompilationUnit();
+    if (definingUnitElement == null) {
+      return false;
+    }
+    // prepare sources
+    Source library = definingUnitElement.getSource();
+    Source unit = unitElement.getSource();
+    // special handling for the defining library unit
+    if (unit.equals(library)) {
+      // prepare new parts
+      Set<Source> newParts = Sets.newHashSet();
+      for (CompilationUnitElement part : libraryElement.getParts()) {
+        newParts.add(part.getSource());
+      }
+      // prepare old parts
+      Map<Source, Set<Source>> libraryToUnits = contextToLibraryToUnits.get(context);
+      if (libraryToUnits == null) {
+        libraryToUnits = Maps.newHashMap();
+        contextToLibraryToUnits.put(context, libraryToUnits);
+      }
+      Set<Source> oldParts = libraryToUnits.get(library);
+      // check if some parts are not in the library now
+      if (oldParts != null) {
+        Set<Source> noParts = Sets.difference(oldParts, newParts);
+        for (Source noPart : noParts) {
+          removeLocations(context, library, noPart);
+        }
+      }
+      // remember new parts
+      libraryToUnits.put(library, newParts);
+    }
+    // remember library/unit relations
+    recordUnitInLibrary(context, library, unit);
+    recordLibraryWithUnit(context, library, unit);
+    sources.add(library);
+    sources.add(unit);
+    // prepare node
+    startNode(context, getNodeName(library, unit));
+    return true;
+  }
+
+  @Override
+  public boolean aboutToIndexHtml(AnalysisContext context, HtmlElement htmlElement) {
+    context = unwrapContext(context);
+    // may be already disposed in other thread
+    if (context.isDisposed()) {
+      return false;
+    }
+    // remember library/unit relations
+    Source source = htmlElement.getSource();
+    recordUnitInLibrary(context, null, source);
+    sources.add(source);
+    // prepare node
+    startNode(context, getNodeName(null, source));
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    for (AnalysisContext context : Lists.newArrayList(contextToUnitToLibraries.keySet())) {
+      removeSources(context, null);
+    }
+    contextToLibraryToUnits.clear();
+    contextToUnitToLibraries.clear();
+    sources.clear();
+    fileManager.clear();
+  }
+
+  @Override
+  public void doneIndex() {
+    if (currentRelations == null) {
+      return;
+    }
+    try {
+      OutputStream outputStream = fileManager.openOutputStream(currentNodeName);
+      try {
+        DataOutputStream stream = new DataOutputStream(outputStream);
+        stream.writeInt(currentRelations.size());
+        for (Entry<RelationKeyData, List<LocationData>> entry : currentRelations.entrySet()) {
+          RelationKeyData key = entry.getKey();
+          List<LocationData> locations = entry.getValue();
+          int count = locations.size();
+          stream.writeInt(key.elementId);
+          stream.writeInt(key.relationshipId);
+          stream.writeInt(count);
+          for (int i = 0; i < count; i++) {
+            LocationData location = locations.get(i);
+            tree.insert(
+                new int[] {key.elementId, key.relationshipId, currentNodeNameId, i},
+                new int[] {currentContextId, location.elementId, location.offset, location.length});
+          }
+          locationCount += count;
+        }
+      } finally {
+        outputStream.close();
+      }
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Exception during writing index keys " + currentNodeName,
+          exception);
+    }
+    currentContextId = -1;
+    currentNodeName = null;
+    currentNodeNameId = -1;
+    currentRelations = null;
+  }
+
+  @Override
+  public Location[] getRelationships(Element element, Relationship relationship) {
+    int elementId = getElementId(element);
+    int relationshipId = relationshipCodec.encode(relationship);
+    List<int[]> values = tree.findRange(
+        new int[] {elementId, relationshipId, Integer.MIN_VALUE, Integer.MIN_VALUE},
+        new int[] {elementId, relationshipId, Integer.MAX_VALUE, Integer.MAX_VALUE});
+    List<Location> locations = Lists.newArrayList();
+    for (int[] value : values) {
+      AnalysisContext context = contextCodec.decode(value[0]);
+      if (context != null) {
+        LocationData locationData = new LocationData(value[1], value[2], value[3]);
+        Location location = locationData.getLocation(context, elementCodec);
+        if (location != null) {
+          locations.add(location);
+        }
+      }
+    }
+    return locations.toArray(new Location[locations.size()]);
+  }
+
+  @Override
+  public String getStatistics() {
+    return "[" + locationCount + " locations, " + sources.size() + " sources, "
+        + elementCodec.size() + " elements]";
+  }
+
+  @Override
+  public void recordRelationship(Element element, Relationship relationship, Location location) {
+    if (element == null || element.getKind() == ElementKind.ERROR) {
+      return;
+    }
+    if (location == null) {
+      return;
+    }
+    RelationKeyData key = new RelationKeyData(
+        getElementId(element),
+        relationshipCodec.encode(relationship));
+    List<LocationData> locations = currentRelations.get(key);
+    if (locations == null) {
+      locations = Lists.newArrayList();
+      currentRelations.put(key, locations);
+    }
+    locations.add(new LocationData(elementCodec, location));
+  }
+
+  @Override
+  public void removeContext(AnalysisContext context) {
+    context = unwrapContext(context);
+    if (context == null) {
+      return;
+    }
+    // remove sources
+    removeSources(context, null);
+    // remove context information
+    contextToLibraryToUnits.remove(context);
+    contextToUnitToLibraries.remove(context);
+    // remove context from codec
+    contextCodec.removeContext(context);
+  }
+
+  @Override
+  public void removeSource(AnalysisContext context, Source source) {
+    context = unwrapContext(context);
+    if (context == null) {
+      return;
+    }
+    // remove nodes for unit/library pairs
+    Map<Source, Set<Source>> unitToLibraries = contextToUnitToLibraries.get(context);
+    if (unitToLibraries != null) {
+      Set<Source> libraries = unitToLibraries.remove(source);
+      if (libraries != null) {
+        for (Source library : libraries) {
+          removeLocations(context, library, source);
+        }
+      }
+    }
+    // remove nodes for library/unit pairs
+    Map<Source, Set<Source>> libraryToUnits = contextToLibraryToUnits.get(context);
+    if (libraryToUnits != null) {
+      Set<Source> units = libraryToUnits.remove(source);
+      if (units != null) {
+        for (Source unit : units) {
+          removeLocations(context, source, unit);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void removeSources(AnalysisContext context, SourceContainer container) {
+    context = unwrapContext(context);
+    if (context == null) {
+      return;
+    }
+    // remove nodes for unit/library pairs
+    Map<Source, Set<Source>> unitToLibraries = contextToUnitToLibraries.get(context);
+    if (unitToLibraries != null) {
+      List<Source> units = Lists.newArrayList(unitToLibraries.keySet());
+      for (Source source : units) {
+        if (container == null || container.contains(source)) {
+          removeSource(context, source);
+        }
+      }
+    }
+    // remove nodes for library/unit pairs
+    Map<Source, Set<Source>> libraryToUnits = contextToLibraryToUnits.get(context);
+    if (libraryToUnits != null) {
+      List<Source> libraries = Lists.newArrayList(libraryToUnits.keySet());
+      for (Source source : libraries) {
+        if (container == null || container.contains(source)) {
+          removeSource(context, source);
+        }
+      }
+    }
+  }
+
+  private int getElementId(Element element) {
+    if (element == UniverseElement.INSTANCE) {
+      return UNIVERSE_ELEMENT_ID;
+    }
+    return elementCodec.encode(element, true);
+  }
+
+  /**
+   * Returns the name of the node with the locations recorded in the given library/unit pair.
+   */
+  private String getNodeName(Source library, Source unit) {
+    String libraryName = library != null ? library.getFullName() : null;
+    int libraryNameIndex = stringCodec.encode(libraryName);
+    int unitNameIndex = stringCodec.encode(unit.getFullName());
+    return libraryNameIndex + "_" + unitNameIndex + ".keys";
+  }
+
+  private void recordLibraryWithUnit(AnalysisContext context, Source library, Source unit) {
+    Map<Source, Set<Source>> libraryToUnits = contextToLibraryToUnits.get(context);
+    if (libraryToUnits == null) {
+      libraryToUnits = Maps.newHashMap();
+      contextToLibraryToUnits.put(context, libraryToUnits);
+    }
+    Set<Source> units = libraryToUnits.get(library);
+    if (units == null) {
+      units = Sets.newHashSet();
+      libraryToUnits.put(library, units);
+    }
+    units.add(unit);
+  }
+
+  private void recordUnitInLibrary(AnalysisContext context, Source library, Source unit) {
+    Map<Source, Set<Source>> unitToLibraries = contextToUnitToLibraries.get(context);
+    if (unitToLibraries == null) {
+      unitToLibraries = Maps.newHashMap();
+      contextToUnitToLibraries.put(context, unitToLibraries);
+    }
+    Set<Source> libraries = unitToLibraries.get(unit);
+    if (libraries == null) {
+      libraries = Sets.newHashSet();
+      unitToLibraries.put(unit, libraries);
+    }
+    libraries.add(library);
+  }
+
+  /**
+   * Removes locations recorded in the given library/unit pair.
+   */
+  private void removeLocations(AnalysisContext context, Source library, Source unit) {
+    removeNode(getNodeName(library, unit));
+    sources.remove(library);
+    sources.remove(unit);
+  }
+
+  /**
+   * Removes the locations of the node with the given name from the tree.
+   */
+  private void removeNode(String nodeName) {
+    int nodeNameId = stringCodec.encode(nodeName);
+    try {
+      InputStream inputStream = fileManager.openInputStream(nodeName);
+      if (inputStream == null) {
+        return;
+      }
+      try {
+        DataInputStream stream = new DataInputStream(inputStream);
+        int keyCount = stream.readInt();
+        for (int i = 0; i < keyCount; i++) {
+          int elementId = stream.readInt();
+          int relationshipId = stream.readInt();
+          int count = stream.readInt();
+          for (int j = 0; j < count; j++) {
+            tree.remove(new int[] {elementId, relationshipId, nodeNameId, j});
+          }
+          locationCount -= count;
+        }
+      } finally {
+        inputStream.close();
+      }
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Exception during reading index keys " + nodeName,
+          exception);
+    }
+    fileManager.delete(nodeName);
+  }
+
+  /**
+   * Prepares to record the locations of the node with the given name, removing its old locations.
+   */
+  private void startNode(AnalysisContext context, String nodeName) {
+    removeNode(nodeName);
+    currentContextId = contextCodec.encode(context);
+    currentNodeName = nodeName;
+    currentNodeNameId = stringCodec.encode(nodeName);
+    currentRelations = Maps.newHashMap();
+  }
+
+  /**
+   * When logging is on, {@link AnalysisEngine} actually creates
+   * {@link InstrumentedAnalysisContextImpl}, which wraps {@link AnalysisContextImpl} used to create
+   * actual {@link Element}s. So, in index we have to unwrap {@link InstrumentedAnalysisContextImpl}
+   * when perform any operation.
+   */
+  private AnalysisContext unwrapContext(AnalysisContext context) {
+    if (context instanceof InstrumentedAnalysisContextImpl) {
+      context = ((InstrumentedAnalysisContextImpl) context).getBasis();
+    }
+    return context;
+  }
+}
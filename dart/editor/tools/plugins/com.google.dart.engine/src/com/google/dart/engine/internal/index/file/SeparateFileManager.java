@@ -30,7 +30,6 @@ public class SeparateFileManager implements FileManager {
 
   public SeparateFileManager(File base) {
     this.base = base;
-    clear();
   }
 
   @Override
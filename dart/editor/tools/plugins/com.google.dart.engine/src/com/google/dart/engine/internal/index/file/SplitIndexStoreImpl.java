@@ -32,10 +32,17 @@ import com.google.dart.engine.internal.context.AnalysisContextImpl;
 import com.google.dart.engine.internal.context.InstrumentedAnalysisContextImpl;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.SourceContainer;
+import com.google.dart.engine.source.SourceFactory;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -47,6 +54,94 @@ import java.util.Set;
  * @coverage dart.engine.index
  */
 public class SplitIndexStoreImpl implements IndexStore {
+  /**
+   * Information about a node that is needed to decide whether the node is still valid in a new
+   * session.
+   */
+  private static class NodeInfo {
+    /**
+     * The identifier of the context in which the node was indexed.
+     */
+    final int contextId;
+
+    /**
+     * The encoding of the library {@link Source}, or {@code null} for HTML units.
+     */
+    final String libraryEncoding;
+
+    /**
+     * The modification stamp of the library {@link Source} at the time the node was indexed.
+     */
+    final long libraryStamp;
+
+    /**
+     * The encoding of the unit {@link Source}.
+     */
+    final String unitEncoding;
+
+    /**
+     * The modification stamp of the unit {@link Source} at the time the node was indexed.
+     */
+    final long unitStamp;
+
+    public NodeInfo(int contextId, String libraryEncoding, long libraryStamp, String unitEncoding,
+        long unitStamp) {
+      this.contextId = contextId;
+      this.libraryEncoding = libraryEncoding;
+      this.libraryStamp = libraryStamp;
+      this.unitEncoding = unitEncoding;
+      this.unitStamp = unitStamp;
+    }
+  }
+
+  /**
+   * The name of the file in which the state of the store is saved.
+   */
+  static final String STATE_NAME = "split_index.state";
+
+  /**
+   * The name of the file in which the names of the nodes changed since the state was saved are
+   * kept.
+   */
+  static final String DIRTY_NAME = "split_index.dirty";
+
+  /**
+   * The version of the format of the state file.
+   */
+  private static final int STATE_VERSION = 3;
+
+  /**
+   * The minimal number of milliseconds between two automatic saves of the state.
+   */
+  private static final long SAVE_INTERVAL = 10000;
+
+  /**
+   * The {@link FileManager} used to save the state of the store, or {@code null} if the state
+   * should not be saved.
+   */
+  private final FileManager stateFileManager;
+
+  /**
+   * Information about the existing nodes, keyed by the identifiers of their names.
+   */
+  private final Map<Integer, NodeInfo> nodeInfos = Maps.newHashMap();
+
+  /**
+   * The identifiers of the contexts of the previous session that are not bound to contexts of this
+   * session yet.
+   */
+  private final Set<Integer> unboundContextIds = Sets.newHashSet();
+
+  /**
+   * The names of the nodes that were written or removed since the state was saved.
+   */
+  private final Set<String> dirtyNodeNames = Sets.newHashSet();
+
+  /**
+   * The time at which the state was saved or restored the last time.
+   */
+  private long lastSaveTime = System.currentTimeMillis();
+
   /**
    * The {@link NodeManager} to get/put {@link IndexNode}s.
    */
@@ -101,6 +196,16 @@ public class SplitIndexStoreImpl implements IndexStore {
   private IndexNode currentNode;
 
   public SplitIndexStoreImpl(NodeManager nodeManager) {
+    this(nodeManager, null);
+  }
+
+  /**
+   * Initialize a newly created store to keep nodes in the given {@link NodeManager} and to save its
+   * own state using the given {@link FileManager}, so that the nodes can be used in the next
+   * session.
+   */
+  public SplitIndexStoreImpl(NodeManager nodeManager, FileManager stateFileManager) {
+    this.stateFileManager = stateFileManager;
     this.nodeManager = nodeManager;
     this.contextCodec = nodeManager.getContextCodec();
     this.elementCodec = nodeManager.getElementCodec();
@@ -165,8 +270,15 @@ public class SplitIndexStoreImpl implements IndexStore {
     int unitNameIndex = stringCodec.encode(unitName);
     currentNodeName = libraryNameIndex + "_" + unitNameIndex + ".index";
     currentNodeNameId = stringCodec.encode(currentNodeName);
+    bindRestoredContext(context, currentNodeNameId);
     currentNode = nodeManager.newNode(context);
     currentContextId = contextCodec.encode(context);
+    nodeInfos.put(currentNodeNameId, new NodeInfo(
+        currentContextId,
+        library.getEncoding(),
+        context.getModificationStamp(library),
+        unit.getEncoding(),
+        context.getModificationStamp(unit)));
     // remove Universe information for the current node
     for (Map<Integer, ?> nodeRelations : contextNodeRelations.values()) {
       nodeRelations.remove(currentNodeNameId);
@@ -192,7 +304,14 @@ public class SplitIndexStoreImpl implements IndexStore {
     int sourceNameIndex = stringCodec.encode(sourceName);
     currentNodeName = sourceNameIndex + ".index";
     currentNodeNameId = stringCodec.encode(currentNodeName);
+    bindRestoredContext(context, currentNodeNameId);
     currentNode = nodeManager.newNode(context);
+    nodeInfos.put(currentNodeNameId, new NodeInfo(
+        contextCodec.encode(context),
+        null,
+        0L,
+        source.getEncoding(),
+        context.getModificationStamp(source)));
     return true;
   }
 
@@ -200,16 +319,21 @@ public class SplitIndexStoreImpl implements IndexStore {
   public void clear() {
     nodeManager.clear();
     elementToNodeNames.clear();
+    nodeInfos.clear();
+    unboundContextIds.clear();
+    dirtyNodeNames.clear();
   }
 
   @Override
   public void doneIndex() {
     if (currentNode != null) {
+      markDirty(currentNodeName);
       nodeManager.putNode(currentNodeName, currentNode);
       currentNodeName = null;
       currentNodeNameId = -1;
       currentNode = null;
       currentContextId = -1;
+      saveIfNeeded();
     }
   }
 
@@ -219,6 +343,8 @@ public class SplitIndexStoreImpl implements IndexStore {
     if (element == UniverseElement.INSTANCE) {
       return getRelationshipsUniverse(relationship);
     }
+    // the nodes of a context from the previous session can be used once it is bound
+    bindRestoredContext(element);
     // prepare node names
     int elementId = elementCodec.encodeHash(element);
     int[] nodeNameIds = elementToNodeNames.get(elementId);
@@ -277,6 +403,7 @@ public class SplitIndexStoreImpl implements IndexStore {
     contextNodeRelations.remove(contextCodec.encode(context));
     // remove context from codec
     contextCodec.removeContext(context);
+    saveIfNeeded();
   }
 
   @Override
@@ -305,6 +432,7 @@ public class SplitIndexStoreImpl implements IndexStore {
         }
       }
     }
+    saveIfNeeded();
   }
 
   @Override
@@ -333,6 +461,159 @@ public class SplitIndexStoreImpl implements IndexStore {
         }
       }
     }
+    saveIfNeeded();
+  }
+
+  /**
+   * Restores the state saved by {@link #save()} in a previous session. If there is no valid saved
+   * state, all of the nodes are removed.
+   * <p>
+   * The contexts of the previous session are not bound to the contexts of this session until a
+   * unit indexed in the previous session is indexed or an element of such unit is searched for.
+   * Then the nodes of the context are validated against the modification stamps of their sources.
+   * 
+   * @return {@code true} if the state was restored
+   */
+  public boolean restore() {
+    if (stateFileManager == null) {
+      return false;
+    }
+    try {
+      InputStream inputStream = stateFileManager.openInputStream(STATE_NAME);
+      if (inputStream != null) {
+        try {
+          readState(new DataInputStream(inputStream));
+        } finally {
+          inputStream.close();
+        }
+        removeDirtyNodes();
+        lastSaveTime = System.currentTimeMillis();
+        return true;
+      }
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not restore the state of the index",
+          exception);
+    }
+    stringCodec.clear();
+    elementCodec.clear();
+    contextCodec.clear();
+    contextNodeRelations.clear();
+    clear();
+    return false;
+  }
+
+  /**
+   * Saves the state of this store, so that its nodes can be used in the next session. If the state
+   * cannot be written, any partially written state is removed, so that the next session does not
+   * restore it.
+   * 
+   * @return {@code true} if the state was saved
+   */
+  public boolean save() {
+    if (stateFileManager == null) {
+      return false;
+    }
+    lastSaveTime = System.currentTimeMillis();
+    try {
+      OutputStream outputStream = stateFileManager.openOutputStream(STATE_NAME);
+      try {
+        writeState(new DataOutputStream(outputStream));
+      } finally {
+        outputStream.close();
+      }
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not save the state of the index",
+          exception);
+      stateFileManager.delete(STATE_NAME);
+      return false;
+    }
+    dirtyNodeNames.clear();
+    stateFileManager.delete(DIRTY_NAME);
+    return true;
+  }
+
+  /**
+   * If the given element belongs to a context that is not known yet, attempts to bind it to the
+   * context of the previous session in which the unit of the element was indexed.
+   */
+  private void bindRestoredContext(Element element) {
+    if (unboundContextIds.isEmpty()) {
+      return;
+    }
+    AnalysisContext context = unwrapContext(element.getContext());
+    if (context == null || contextCodec.contains(context)) {
+      return;
+    }
+    LibraryElement libraryElement = element.getLibrary();
+    if (libraryElement == null) {
+      return;
+    }
+    CompilationUnitElement definingUnitElement = libraryElement.getDefiningCompilationUnit();
+    Source unit = element.getSource();
+    if (definingUnitElement == null || unit == null) {
+      return;
+    }
+    Source library = definingUnitElement.getSource();
+    int libraryNameIndex = stringCodec.encode(library.getFullName());
+    int unitNameIndex = stringCodec.encode(unit.getFullName());
+    String nodeName = libraryNameIndex + "_" + unitNameIndex + ".index";
+    bindRestoredContext(context, stringCodec.encode(nodeName));
+  }
+
+  /**
+   * If the given context is not known yet and the node with the given name was indexed in a
+   * context of the previous session that is not bound yet, binds that context to the given one and
+   * removes the nodes of that context whose sources have been modified.
+   */
+  private void bindRestoredContext(AnalysisContext context, int nodeNameId) {
+    if (unboundContextIds.isEmpty() || contextCodec.contains(context)) {
+      return;
+    }
+    NodeInfo info = nodeInfos.get(nodeNameId);
+    if (info == null || !unboundContextIds.remove(info.contextId)) {
+      return;
+    }
+    int contextId = info.contextId;
+    contextCodec.bind(contextId, context);
+    Map<Integer, Map<Relationship, List<LocationData>>> nodeRelations = contextNodeRelations.get(contextId);
+    SourceFactory sourceFactory = context.getSourceFactory();
+    for (Iterator<Entry<Integer, NodeInfo>> iter = nodeInfos.entrySet().iterator(); iter.hasNext();) {
+      Entry<Integer, NodeInfo> entry = iter.next();
+      NodeInfo nodeInfo = entry.getValue();
+      if (nodeInfo.contextId != contextId) {
+        continue;
+      }
+      Source library = null;
+      Source unit = null;
+      if (sourceFactory != null) {
+        if (nodeInfo.libraryEncoding != null) {
+          library = sourceFactory.forUri(nodeInfo.libraryEncoding);
+        }
+        unit = sourceFactory.forUri(nodeInfo.unitEncoding);
+      }
+      boolean valid = unit != null && context.getModificationStamp(unit) == nodeInfo.unitStamp;
+      if (nodeInfo.libraryEncoding != null) {
+        valid &= library != null && context.getModificationStamp(library) == nodeInfo.libraryStamp;
+      }
+      if (valid) {
+        recordUnitInLibrary(context, library, unit);
+        if (library != null) {
+          recordLibraryWithUnit(context, library, unit);
+          sources.add(library);
+        }
+        sources.add(unit);
+      } else {
+        String nodeName = stringCodec.decode(entry.getKey());
+        markDirty(nodeName);
+        nodeManager.removeNode(nodeName);
+        if (nodeRelations != null) {
+          nodeRelations.remove(entry.getKey());
+        }
+        iter.remove();
+      }
+    }
   }
 
   private Location[] getRelationshipsUniverse(Relationship relationship) {
@@ -357,6 +638,88 @@ public class SplitIndexStoreImpl implements IndexStore {
     return locations.toArray(new Location[locations.size()]);
   }
 
+  /**
+   * Records that the node with the given name is about to be written or removed, so it cannot be
+   * used in the next session unless the state is saved.
+   */
+  private void markDirty(String nodeName) {
+    if (stateFileManager == null || !dirtyNodeNames.add(nodeName)) {
+      return;
+    }
+    try {
+      OutputStream outputStream = stateFileManager.openOutputStream(DIRTY_NAME);
+      try {
+        DataOutputStream stream = new DataOutputStream(outputStream);
+        stream.writeInt(dirtyNodeNames.size());
+        for (String dirtyNodeName : dirtyNodeNames) {
+          stream.writeUTF(dirtyNodeName);
+        }
+      } finally {
+        outputStream.close();
+      }
+    } catch (Throwable exception) {
+      AnalysisEngine.getInstance().getLogger().logError(
+          "Could not write the changed nodes of the index",
+          exception);
+    }
+  }
+
+  private void readState(DataInputStream stream) throws IOException {
+    int version = stream.readInt();
+    if (version != STATE_VERSION) {
+      throw new IOException("Version " + STATE_VERSION + " expected, but " + version + " found.");
+    }
+    stringCodec.read(stream);
+    elementCodec.read(stream);
+    contextCodec.read(stream);
+    elementToNodeNames.read(stream);
+    // nodes
+    nodeInfos.clear();
+    int nodeCount = stream.readInt();
+    for (int i = 0; i < nodeCount; i++) {
+      int nodeNameId = stream.readInt();
+      int contextId = stream.readInt();
+      String libraryEncoding = stream.readBoolean() ? stream.readUTF() : null;
+      long libraryStamp = stream.readLong();
+      String unitEncoding = stream.readUTF();
+      long unitStamp = stream.readLong();
+      nodeInfos.put(nodeNameId, new NodeInfo(
+          contextId,
+          libraryEncoding,
+          libraryStamp,
+          unitEncoding,
+          unitStamp));
+      unboundContextIds.add(contextId);
+    }
+    // universe relations
+    contextNodeRelations.clear();
+    int contextCount = stream.readInt();
+    for (int i = 0; i < contextCount; i++) {
+      int contextId = stream.readInt();
+      Map<Integer, Map<Relationship, List<LocationData>>> nodeRelations = Maps.newHashMap();
+      contextNodeRelations.put(contextId, nodeRelations);
+      int nodeRelationsCount = stream.readInt();
+      for (int j = 0; j < nodeRelationsCount; j++) {
+        int nodeNameId = stream.readInt();
+        Map<Relationship, List<LocationData>> relations = Maps.newHashMap();
+        nodeRelations.put(nodeNameId, relations);
+        int relationCount = stream.readInt();
+        for (int k = 0; k < relationCount; k++) {
+          Relationship relationship = Relationship.getRelationship(stream.readUTF());
+          int locationCount = stream.readInt();
+          List<LocationData> locations = Lists.newArrayListWithCapacity(locationCount);
+          for (int l = 0; l < locationCount; l++) {
+            int elementId = stream.readInt();
+            int offset = stream.readInt();
+            int length = stream.readInt();
+            locations.add(new LocationData(elementId, offset, length));
+          }
+          relations.put(relationship, locations);
+        }
+      }
+    }
+  }
+
   private void recordLibraryWithUnit(AnalysisContext context, Source library, Source unit) {
     Map<Source, Set<Source>> libraryToUnits = contextToLibraryToUnits.get(context);
     if (libraryToUnits == null) {
@@ -413,6 +776,35 @@ public class SplitIndexStoreImpl implements IndexStore {
     libraries.add(library);
   }
 
+  /**
+   * Removes the nodes that were changed after the state was saved, because they may use identifiers
+   * that were not saved.
+   */
+  private void removeDirtyNodes() throws Exception {
+    InputStream inputStream = stateFileManager.openInputStream(DIRTY_NAME);
+    if (inputStream == null) {
+      return;
+    }
+    try {
+      DataInputStream stream = new DataInputStream(inputStream);
+      int count = stream.readInt();
+      for (int i = 0; i < count; i++) {
+        String nodeName = stream.readUTF();
+        nodeManager.removeNode(nodeName);
+        Integer nodeNameId = stringCodec.getNameToIndex().get(nodeName);
+        if (nodeNameId != null) {
+          nodeInfos.remove(nodeNameId);
+          for (Map<Integer, ?> nodeRelations : contextNodeRelations.values()) {
+            nodeRelations.remove(nodeNameId);
+          }
+        }
+      }
+    } finally {
+      inputStream.close();
+    }
+    save();
+  }
+
   /**
    * Removes locations recorded in the given library/unit pair.
    */
@@ -423,12 +815,24 @@ public class SplitIndexStoreImpl implements IndexStore {
     int libraryNameIndex = stringCodec.encode(libraryName);
     int unitNameIndex = stringCodec.encode(unitName);
     String nodeName = libraryNameIndex + "_" + unitNameIndex + ".index";
+    markDirty(nodeName);
     nodeManager.removeNode(nodeName);
+    nodeInfos.remove(stringCodec.encode(nodeName));
     // remove source
     sources.remove(library);
     sources.remove(unit);
   }
 
+  /**
+   * Saves the state if it was changed and was not saved recently.
+   */
+  private void saveIfNeeded() {
+    if (!dirtyNodeNames.isEmpty()
+        && System.currentTimeMillis() - lastSaveTime >= SAVE_INTERVAL) {
+      save();
+    }
+  }
+
   /**
    * When logging is on, {@link AnalysisEngine} actually creates
    * {@link InstrumentedAnalysisContextImpl}, which wraps {@link AnalysisContextImpl} used to create
@@ -441,4 +845,46 @@ public class SplitIndexStoreImpl implements IndexStore {
     }
     return context;
   }
+
+  private void writeState(DataOutputStream stream) throws IOException {
+    stream.writeInt(STATE_VERSION);
+    stringCodec.write(stream);
+    elementCodec.write(stream);
+    contextCodec.write(stream);
+    elementToNodeNames.write(stream);
+    // nodes
+    stream.writeInt(nodeInfos.size());
+    for (Entry<Integer, NodeInfo> entry : nodeInfos.entrySet()) {
+      NodeInfo info = entry.getValue();
+      stream.writeInt(entry.getKey());
+      stream.writeInt(info.contextId);
+      stream.writeBoolean(info.libraryEncoding != null);
+      if (info.libraryEncoding != null) {
+        stream.writeUTF(info.libraryEncoding);
+      }
+      stream.writeLong(info.libraryStamp);
+      stream.writeUTF(info.unitEncoding);
+      stream.writeLong(info.unitStamp);
+    }
+    // universe relations
+    stream.writeInt(contextNodeRelations.size());
+    for (Entry<Integer, Map<Integer, Map<Relationship, List<LocationData>>>> contextEntry : contextNodeRelations.entrySet()) {
+      stream.writeInt(contextEntry.getKey());
+      stream.writeInt(contextEntry.getValue().size());
+      for (Entry<Integer, Map<Relationship, List<LocationData>>> nodeEntry : contextEntry.getValue().entrySet()) {
+        stream.writeInt(nodeEntry.getKey());
+        stream.writeInt(nodeEntry.getValue().size());
+        for (Entry<Relationship, List<LocationData>> relationEntry : nodeEntry.getValue().entrySet()) {
+          stream.writeUTF(relationEntry.getKey().getIdentifier());
+          List<LocationData> locations = relationEntry.getValue();
+          stream.writeInt(locations.size());
+          for (LocationData location : locations) {
+            stream.writeInt(location.elementId);
+            stream.writeInt(location.offset);
+            stream.writeInt(location.length);
+          }
+        }
+      }
+    }
+  }
 }
@@ -17,6 +17,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -36,6 +39,14 @@ public class StringCodec {
    */
   private final List<String> indexToName = Lists.newArrayList();
 
+  /**
+   * Removes all of the strings.
+   */
+  public void clear() {
+    nameToIndex.clear();
+    indexToName.clear();
+  }
+
   /**
    * Returns the {@link String} that corresponds to the given index.
    */
@@ -60,4 +71,38 @@ public class StringCodec {
   public Map<String, Integer> getNameToIndex() {
     return nameToIndex;
   }
+
+  /**
+   * Replaces the strings of this codec with the strings written by {@link #write}, keeping their
+   * indices.
+   */
+  public void read(DataInputStream stream) throws IOException {
+    clear();
+    int count = stream.readInt();
+    for (int i = 0; i < count; i++) {
+      encode(stream.readBoolean() ? stream.readUTF() : null);
+    }
+  }
+
+  /**
+   * Returns the number of encoded strings.
+   */
+  public int size() {
+    return indexToName.size();
+  }
+
+  /**
+   * Writes all of the strings of this codec, in the order of their indices. Because {@code null}
+   * can be encoded, for example as the display name of an unnamed element, each string is preceded
+   * by a flag indicating whether it is {@code null}.
+   */
+  public void write(DataOutputStream stream) throws IOException {
+    stream.writeInt(indexToName.size());
+    for (String name : indexToName) {
+      stream.writeBoolean(name != null);
+      if (name != null) {
+        stream.writeUTF(name);
+      }
+    }
+  }
 }
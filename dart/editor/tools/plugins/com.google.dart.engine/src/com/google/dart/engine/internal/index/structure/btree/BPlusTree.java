@@ -50,6 +50,16 @@ public class BPlusTree<K, V, N> {
       return child.find(key);
     }
 
+    @Override
+    void findRange(K from, K to, List<V> result) {
+      int fromIndex = findChildIndex(from);
+      int toIndex = findChildIndex(to);
+      for (int index = fromIndex; index <= toIndex; index++) {
+        Node child = readNode(children.get(index));
+        child.findRange(from, to, result);
+      }
+    }
+
     @Override
     Split insert(K key, V value) {
       // Early split.
@@ -270,6 +280,16 @@ public class BPlusTree<K, V, N> {
       return values.get(index);
     }
 
+    @Override
+    void findRange(K from, K to, List<V> result) {
+      for (int index = findKeyIndex(from); index < keys.size(); index++) {
+        if (comparator.compare(keys.get(index), to) > 0) {
+          break;
+        }
+        result.add(values.get(index));
+      }
+    }
+
     @Override
     Split insert(K key, V value) {
       int index = findKeyIndex(key);
@@ -300,8 +320,8 @@ public class BPlusTree<K, V, N> {
     @Override
     Remove remove(K key, Node left, K anchor, Node right) {
       // Find the key.
-      int index = keys.indexOf(key);
-      if (index == -1) {
+      int index = findKeyIndex(key);
+      if (index >= keys.size() || comparator.compare(keys.get(index), key) != 0) {
         return new Remove(null);
       }
       // Remove key / value.
@@ -431,6 +451,11 @@ public class BPlusTree<K, V, N> {
      */
     abstract V find(K key);
 
+    /**
+     * Adds the values associated with the keys from [from] to [to], inclusive, into [result].
+     */
+    abstract void findRange(K from, K to, List<V> result);
+
     /**
      * Inserts the [key] / [value] pair into this [Node]. Returns a [Split] object if split happens,
      * or `null` otherwise.
@@ -544,6 +569,15 @@ public class BPlusTree<K, V, N> {
     return root.find(key);
   }
 
+  /**
+   * Returns the values for the keys from [from] to [to], inclusive, in the order of their keys.
+   */
+  public List<V> findRange(K from, K to) {
+    List<V> result = new ArrayList<V>();
+    root.findRange(from, to, result);
+    return result;
+  }
+
   /**
    * Associates the [key] with the given [value]. If the key was already in the tree, its associated
    * value is changed. Otherwise the key-value pair is added to the
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.structure.btree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A codec that encodes and decodes values of the type [T] into a fixed number of bytes.
+ * 
+ * @coverage dart.engine.index.structure
+ */
+public interface DataCodec<T> {
+  /**
+   * Decodes a value starting at the current position of the given buffer.
+   */
+  T decode(ByteBuffer buffer);
+
+  /**
+   * Encodes the given value starting at the current position of the given buffer.
+   */
+  void encode(ByteBuffer buffer, T value);
+
+  /**
+   * The number of bytes used to encode a single value.
+   */
+  int getSizeInBytes();
+}
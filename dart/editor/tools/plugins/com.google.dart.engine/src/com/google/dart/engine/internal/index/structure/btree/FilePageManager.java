@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.structure.btree;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An implementation of [PageManager] that keeps pages in a single file and caches a limited number
+ * of the most recently used pages in memory. Changed pages are written into the file when they are
+ * evicted from the cache or when the manager is flushed.
+ * 
+ * @coverage dart.engine.index.structure
+ */
+public class FilePageManager implements PageManager {
+  /**
+   * The file in which pages are kept.
+   */
+  private final RandomAccessFile file;
+
+  /**
+   * The size of pages in bytes.
+   */
+  private final int pageSizeInBytes;
+
+  /**
+   * The maximum number of pages to keep in the cache.
+   */
+  private final int maxCachedPages;
+
+  /**
+   * The cached pages, in the order from the least recently used to the most recently used.
+   */
+  private final LinkedHashMap<Integer, ByteBuffer> cache;
+
+  /**
+   * The identifiers of the cached pages that were changed since they were read from the file.
+   */
+  private final Set<Integer> dirtyPages = Sets.newHashSet();
+
+  /**
+   * The identifiers of the freed pages that can be allocated again.
+   */
+  private final List<Integer> freePages = Lists.newArrayList();
+
+  /**
+   * The number of pages in the file, both used and free.
+   */
+  private int pageCount = 0;
+
+  /**
+   * The number of page reads that were served from the cache.
+   */
+  private int cacheHitCount = 0;
+
+  /**
+   * The number of page reads that required reading from the file.
+   */
+  private int cacheMissCount = 0;
+
+  /**
+   * Initialize a newly created manager to keep pages of the given size in the given file, which is
+   * truncated, and to keep at most the given number of pages in memory.
+   */
+  public FilePageManager(File file, int pageSizeInBytes, int maxCachedPages) throws IOException {
+    this.file = new RandomAccessFile(file, "rw");
+    this.file.setLength(0);
+    this.pageSizeInBytes = pageSizeInBytes;
+    this.maxCachedPages = maxCachedPages;
+    this.cache = new LinkedHashMap<Integer, ByteBuffer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer> eldest) {
+        if (size() > FilePageManager.this.maxCachedPages) {
+          writeIfDirty(eldest.getKey(), eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public int alloc() {
+    if (!freePages.isEmpty()) {
+      return freePages.remove(freePages.size() - 1);
+    }
+    return pageCount++;
+  }
+
+  /**
+   * Writes all of the changed pages and closes the file. The manager cannot be used after it was
+   * closed.
+   */
+  public void close() throws IOException {
+    flush();
+    cache.clear();
+    file.close();
+  }
+
+  /**
+   * Writes all of the changed pages into the file.
+   */
+  public void flush() {
+    for (Map.Entry<Integer, ByteBuffer> entry : cache.entrySet()) {
+      writeIfDirty(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public void free(int id) {
+    cache.remove(id);
+    dirtyPages.remove(id);
+    freePages.add(id);
+  }
+
+  /**
+   * Returns the number of page reads that were served from the cache.
+   */
+  public int getCacheHitCount() {
+    return cacheHitCount;
+  }
+
+  /**
+   * Returns the number of page reads that required reading from the file.
+   */
+  public int getCacheMissCount() {
+    return cacheMissCount;
+  }
+
+  /**
+   * Returns the number of pages in the file, both used and free.
+   */
+  public int getPageCount() {
+    return pageCount;
+  }
+
+  @Override
+  public int getPageSizeInBytes() {
+    return pageSizeInBytes;
+  }
+
+  @Override
+  public ByteBuffer read(int id) {
+    ByteBuffer page = cache.get(id);
+    if (page != null) {
+      cacheHitCount++;
+      return page;
+    }
+    cacheMissCount++;
+    byte[] bytes = new byte[pageSizeInBytes];
+    try {
+      long position = (long) id * pageSizeInBytes;
+      if (position < file.length()) {
+        file.seek(position);
+        file.readFully(bytes);
+      }
+    } catch (IOException exception) {
+      throw new IllegalStateException("Could not read page " + id, exception);
+    }
+    page = ByteBuffer.wrap(bytes);
+    cache.put(id, page);
+    return page;
+  }
+
+  @Override
+  public void write(int id, ByteBuffer page) {
+    cache.put(id, page);
+    dirtyPages.add(id);
+  }
+
+  /**
+   * Writes the given page into the file if it was changed since it was read.
+   */
+  private void writeIfDirty(int id, ByteBuffer page) {
+    if (!dirtyPages.remove(id)) {
+      return;
+    }
+    try {
+      file.seek((long) id * pageSizeInBytes);
+      file.write(page.array(), page.arrayOffset(), pageSizeInBytes);
+    } catch (IOException exception) {
+      throw new IllegalStateException("Could not write page " + id, exception);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.structure.btree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A [DataCodec] for {@code int} arrays of a fixed length.
+ * 
+ * @coverage dart.engine.index.structure
+ */
+public class IntArrayCodec implements DataCodec<int[]> {
+  /**
+   * The length of the arrays.
+   */
+  private final int length;
+
+  public IntArrayCodec(int length) {
+    this.length = length;
+  }
+
+  @Override
+  public int[] decode(ByteBuffer buffer) {
+    int[] value = new int[length];
+    for (int i = 0; i < length; i++) {
+      value[i] = buffer.getInt();
+    }
+    return value;
+  }
+
+  @Override
+  public void encode(ByteBuffer buffer, int[] value) {
+    for (int i = 0; i < length; i++) {
+      buffer.putInt(value[i]);
+    }
+  }
+
+  @Override
+  public int getSizeInBytes() {
+    return length * 4;
+  }
+}
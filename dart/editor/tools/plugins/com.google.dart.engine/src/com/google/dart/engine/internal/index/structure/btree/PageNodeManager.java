@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.structure.btree;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An implementation of [NodeManager] that keeps each node in a separate page of a [PageManager].
+ * <p>
+ * Node identifiers are page identifiers multiplied by two, plus one for leaf nodes. A page starts
+ * with the number of keys, followed by the keys and then either the children identifiers or the
+ * values.
+ * 
+ * @coverage dart.engine.index.structure
+ */
+public class PageNodeManager<K, V> implements NodeManager<K, V, Integer> {
+  private final PageManager pageManager;
+  private final DataCodec<K> keyCodec;
+  private final DataCodec<V> valueCodec;
+  private final int maxInternalKeys;
+  private final int maxLeafKeys;
+
+  public PageNodeManager(PageManager pageManager, DataCodec<K> keyCodec, DataCodec<V> valueCodec) {
+    this.pageManager = pageManager;
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    int pageSize = pageManager.getPageSizeInBytes();
+    int keySize = keyCodec.getSizeInBytes();
+    maxInternalKeys = (pageSize - 4 - 4) / (keySize + 4);
+    maxLeafKeys = (pageSize - 4) / (keySize + valueCodec.getSizeInBytes());
+  }
+
+  @Override
+  public Integer createInternal() {
+    return pageManager.alloc() * 2;
+  }
+
+  @Override
+  public Integer createLeaf() {
+    return pageManager.alloc() * 2 + 1;
+  }
+
+  @Override
+  public void delete(Integer id) {
+    pageManager.free(id / 2);
+  }
+
+  @Override
+  public int getMaxInternalKeys() {
+    return maxInternalKeys;
+  }
+
+  @Override
+  public int getMaxLeafKeys() {
+    return maxLeafKeys;
+  }
+
+  @Override
+  public boolean isInternal(Integer id) {
+    return (id % 2) == 0;
+  }
+
+  @Override
+  public InternalNodeData<K, Integer> readInternal(Integer id) {
+    ByteBuffer page = readPage(id);
+    int count = page.getInt();
+    List<K> keys = readKeys(page, count);
+    List<Integer> children = new ArrayList<Integer>(count + 1);
+    for (int i = 0; i <= count; i++) {
+      children.add(page.getInt());
+    }
+    return new InternalNodeData<K, Integer>(keys, children);
+  }
+
+  @Override
+  public LeafNodeData<K, V> readLeaf(Integer id) {
+    ByteBuffer page = readPage(id);
+    int count = page.getInt();
+    List<K> keys = readKeys(page, count);
+    List<V> values = new ArrayList<V>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(valueCodec.decode(page));
+    }
+    return new LeafNodeData<K, V>(keys, values);
+  }
+
+  @Override
+  public void writeInternal(Integer id, InternalNodeData<K, Integer> data) {
+    ByteBuffer page = newPage(data.keys);
+    for (Integer child : data.children) {
+      page.putInt(child);
+    }
+    pageManager.write(id / 2, page);
+  }
+
+  @Override
+  public void writeLeaf(Integer id, LeafNodeData<K, V> data) {
+    ByteBuffer page = newPage(data.keys);
+    for (V value : data.values) {
+      valueCodec.encode(page, value);
+    }
+    pageManager.write(id / 2, page);
+  }
+
+  /**
+   * Returns a new page with the given keys written into it.
+   */
+  private ByteBuffer newPage(List<K> keys) {
+    ByteBuffer page = ByteBuffer.allocate(pageManager.getPageSizeInBytes());
+    page.putInt(keys.size());
+    for (K key : keys) {
+      keyCodec.encode(page, key);
+    }
+    return page;
+  }
+
+  private List<K> readKeys(ByteBuffer page, int count) {
+    List<K> keys = new ArrayList<K>(count);
+    for (int i = 0; i < count; i++) {
+      keys.add(keyCodec.decode(page));
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the page of the node with the given identifier, positioned at its start. The page is
+   * shared with the [PageManager], so it is duplicated to keep its position independent.
+   */
+  private ByteBuffer readPage(Integer id) {
+    ByteBuffer page = pageManager.read(id / 2).duplicate();
+    page.clear();
+    return page;
+  }
+}
@@ -522,16 +522,12 @@ public class DeclarationMatcher extends RecursiveAstVisitor<Void> {
     if (element == null && enclosingUnit != null) {
       element = findIdentifier(enclosingUnit.getTopLevelVariables(), variableName);
     }
+    processElement(element);
     Expression initializer = node.getInitializer();
     if (initializer != null) {
       ExecutableElement outerExecutable = enclosingExecutable;
       try {
-        if (element == null) {
-          // TODO(brianwilkerson) Report this internal error.
-        } else {
-          enclosingExecutable = element.getInitializer();
-        }
-        processElement(element);
+        enclosingExecutable = element.getInitializer();
         processElement(enclosingExecutable);
         return super.visitVariableDeclaration(node);
       } finally {
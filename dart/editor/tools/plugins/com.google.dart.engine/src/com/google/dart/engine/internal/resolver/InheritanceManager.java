@@ -25,6 +25,7 @@ import com.google.dart.engine.error.AnalysisError;
 import com.google.dart.engine.error.ErrorCode;
 import com.google.dart.engine.error.StaticTypeWarningCode;
 import com.google.dart.engine.error.StaticWarningCode;
+import com.google.dart.engine.internal.element.ClassElementImpl;
 import com.google.dart.engine.internal.element.ExecutableElementImpl;
 import com.google.dart.engine.internal.element.MultiplyInheritedMethodElementImpl;
 import com.google.dart.engine.internal.element.MultiplyInheritedPropertyAccessorElementImpl;
@@ -467,9 +468,16 @@ public class InheritanceManager {
     MemberMap resultMap = classLookup.get(classElt);
     if (resultMap != null) {
       return resultMap;
-    } else {
-      resultMap = new MemberMap();
     }
+    SharedMemberMaps sharedMaps = getSharedMemberMaps(classElt);
+    if (sharedMaps != null) {
+      resultMap = sharedMaps.getClassMap();
+      if (resultMap != null) {
+        classLookup.put(classElt, resultMap);
+        return resultMap;
+      }
+    }
+    resultMap = new MemberMap();
     ClassElement superclassElt = null;
     InterfaceType supertype = classElt.getSupertype();
     if (supertype != null) {
@@ -554,6 +562,9 @@ public class InheritanceManager {
     }
 
     classLookup.put(classElt, resultMap);
+    if (sharedMaps != null) {
+      sharedMaps.setClassMap(resultMap);
+    }
     return resultMap;
   }
 
@@ -642,6 +653,14 @@ public class InheritanceManager {
     if (resultMap != null) {
       return resultMap;
     }
+    SharedMemberMaps sharedMaps = getSharedMemberMaps(classElt);
+    if (sharedMaps != null) {
+      resultMap = sharedMaps.getInterfaceMap();
+      if (resultMap != null) {
+        interfaceLookup.put(classElt, resultMap);
+        return resultMap;
+      }
+    }
     ArrayList<MemberMap> lookupMaps = gatherInterfaceLookupMaps(classElt, visitedInterfaces);
     if (lookupMaps == null) {
       resultMap = new MemberMap();
@@ -650,6 +669,9 @@ public class InheritanceManager {
       resultMap = resolveInheritanceLookup(classElt, unionMap);
     }
     interfaceLookup.put(classElt, resultMap);
+    if (sharedMaps != null) {
+      sharedMaps.setInterfaceMap(resultMap);
+    }
     return resultMap;
   }
 
@@ -789,6 +811,32 @@ public class InheritanceManager {
     return lookupMaps;
   }
 
+  /**
+   * Return the member maps for the given class that are shared with the inheritance managers of
+   * other libraries, or {@code null} if the maps computed by this manager cannot be shared. The maps
+   * of the classes defined in the library of this manager are never shared, so that the errors
+   * found while computing them are always reported to this manager.
+   * 
+   * @param classElt the class element whose maps are to be returned
+   * @return the shared member maps for the given class
+   */
+  private SharedMemberMaps getSharedMemberMaps(ClassElement classElt) {
+    if (!(classElt instanceof ClassElementImpl) || library == null
+        || library.equals(classElt.getLibrary())) {
+      return null;
+    }
+    ClassElementImpl classElement = (ClassElementImpl) classElt;
+    SharedMemberMaps sharedMaps = classElement.getSharedMemberMaps();
+    if (sharedMaps == null) {
+      sharedMaps = SharedMemberMaps.create(classElement);
+      if (sharedMaps == null) {
+        return null;
+      }
+      classElement.setSharedMemberMaps(sharedMaps);
+    }
+    return sharedMaps.isValidIn(library) ? sharedMaps : null;
+  }
+
   /**
    * Given some {@link ClassElement}, this method finds and returns the {@link ExecutableElement} of
    * the passed name in the class element. Static members, members in super types and members not
@@ -71,6 +71,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Instances of the class {@code LibraryResolver} are used to resolve one or more mutually dependent
@@ -581,11 +582,13 @@ public class LibraryResolver {
    * @throws AnalysisException if any of the element models cannot be built
    */
   private void buildElementModels() throws AnalysisException {
+    AtomicInteger hierarchyVersion = new AtomicInteger();
     for (Library library : librariesInCycles) {
       LibraryElementBuilder builder = new LibraryElementBuilder(
           getAnalysisContext(),
           getErrorListener());
       LibraryElementImpl libraryElement = builder.buildLibrary(library);
+      libraryElement.setHierarchyVersion(hierarchyVersion);
       library.setLibraryElement(libraryElement);
     }
   }
@@ -70,6 +70,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Instances of the class {@code LibraryResolver} are used to resolve one or more mutually dependent
@@ -446,11 +447,13 @@ public class LibraryResolver2 {
    * @throws AnalysisException if any of the element models cannot be built
    */
   private void buildElementModels() throws AnalysisException {
+    AtomicInteger hierarchyVersion = new AtomicInteger();
     for (ResolvableLibrary library : librariesInCycle) {
       LibraryElementBuilder builder = new LibraryElementBuilder(
           getAnalysisContext(),
           getErrorListener());
       LibraryElementImpl libraryElement = builder.buildLibrary(library);
+      libraryElement.setHierarchyVersion(hierarchyVersion);
       library.setLibraryElement(libraryElement);
     }
   }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.resolver;
+
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.element.ClassElement;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.type.InterfaceType;
+
+import java.util.HashSet;
+
+/**
+ * Instances of the class {@code SharedMemberMaps} hold the member maps computed by an
+ * {@link InheritanceManager} for a class whose hierarchy is defined entirely in libraries that have
+ * already been resolved, so that they can be reused by the inheritance managers of other libraries,
+ * including libraries in other contexts.
+ * <p>
+ * The maps are stored on the class element and are therefore discarded along with it when one of
+ * the libraries defining the hierarchy is changed and the class is re-resolved.
+ * 
+ * @coverage dart.engine.resolver
+ */
+public class SharedMemberMaps {
+  /**
+   * Return the shared member maps for the given class, or {@code null} if the maps computed for the
+   * class cannot be shared, either because its hierarchy contains a cycle or because part of the
+   * hierarchy is defined in a library that has not yet been resolved.
+   * 
+   * @param classElement the class whose inherited members are to be shared
+   * @return the shared member maps for the given class
+   */
+  public static SharedMemberMaps create(ClassElement classElement) {
+    HashSet<LibraryElement> libraries = new HashSet<LibraryElement>();
+    if (!addLibraries(
+        classElement,
+        libraries,
+        new HashSet<ClassElement>(),
+        new HashSet<ClassElement>())) {
+      return null;
+    }
+    return new SharedMemberMaps(libraries);
+  }
+
+  /**
+   * Add the libraries defining the given class and all of its superclasses, mixins and interfaces
+   * to the given set of libraries.
+   * 
+   * @param classElement the class whose hierarchy is being visited
+   * @param libraries the libraries that have been found so far
+   * @param visitingClasses the classes whose hierarchy is currently being visited
+   * @param visitedClasses the classes whose hierarchy has already been visited
+   * @return {@code true} if the hierarchy is acyclic and every library in it has been resolved
+   */
+  private static boolean addLibraries(ClassElement classElement, HashSet<LibraryElement> libraries,
+      HashSet<ClassElement> visitingClasses, HashSet<ClassElement> visitedClasses) {
+    if (visitedClasses.contains(classElement)) {
+      return true;
+    }
+    if (!visitingClasses.add(classElement)) {
+      return false;
+    }
+    LibraryElement library = classElement.getLibrary();
+    if (library == null) {
+      return false;
+    }
+    if (!libraries.contains(library)) {
+      if (!isResolved(library)) {
+        return false;
+      }
+      libraries.add(library);
+    }
+    if (!addLibraries(classElement.getSupertype(), libraries, visitingClasses, visitedClasses)) {
+      return false;
+    }
+    for (InterfaceType mixin : classElement.getMixins()) {
+      if (!addLibraries(mixin, libraries, visitingClasses, visitedClasses)) {
+        return false;
+      }
+    }
+    for (InterfaceType interfaceType : classElement.getInterfaces()) {
+      if (!addLibraries(interfaceType, libraries, visitingClasses, visitedClasses)) {
+        return false;
+      }
+    }
+    visitingClasses.remove(classElement);
+    visitedClasses.add(classElement);
+    return true;
+  }
+
+  /**
+   * Add the libraries defining the hierarchy of the class of the given type to the given set of
+   * libraries.
+   * 
+   * @param type the type whose hierarchy is being visited
+   * @param libraries the libraries that have been found so far
+   * @param visitingClasses the classes whose hierarchy is currently being visited
+   * @param visitedClasses the classes whose hierarchy has already been visited
+   * @return {@code true} if the hierarchy is acyclic and every library in it has been resolved
+   */
+  private static boolean addLibraries(InterfaceType type, HashSet<LibraryElement> libraries,
+      HashSet<ClassElement> visitingClasses, HashSet<ClassElement> visitedClasses) {
+    if (type == null) {
+      return true;
+    }
+    ClassElement classElement = type.getElement();
+    if (classElement == null) {
+      return true;
+    }
+    return addLibraries(classElement, libraries, visitingClasses, visitedClasses);
+  }
+
+  /**
+   * Return {@code true} if the given library is the library element that is currently recorded as
+   * the result of resolving its source, which implies that its classes will no longer be modified.
+   * 
+   * @param library the library being tested
+   * @return {@code true} if the given library has been resolved
+   */
+  private static boolean isResolved(LibraryElement library) {
+    AnalysisContext context = library.getContext();
+    Source source = library.getSource();
+    if (context == null || source == null) {
+      return false;
+    }
+    return context.getLibraryElement(source) == library;
+  }
+
+  /**
+   * The libraries defining the class and the classes in its hierarchy. The members computed for the
+   * class do not depend on the library asking for them, as long as it is not one of these libraries,
+   * because then none of the private members in the hierarchy are accessible to it.
+   */
+  private final HashSet<LibraryElement> libraries;
+
+  /**
+   * The members inherited from the superclasses and mixins of the class, or {@code null} if they
+   * have not yet been computed.
+   */
+  private volatile MemberMap classMap;
+
+  /**
+   * The members inherited from the interfaces of the class, or {@code null} if they have not yet
+   * been computed.
+   */
+  private volatile MemberMap interfaceMap;
+
+  /**
+   * Initialize a newly created holder for the member maps of a class.
+   * 
+   * @param libraries the libraries defining the class and the classes in its hierarchy
+   */
+  private SharedMemberMaps(HashSet<LibraryElement> libraries) {
+    this.libraries = libraries;
+  }
+
+  /**
+   * Return the members inherited from the superclasses and mixins of the class, or {@code null} if
+   * they have not yet been computed. The returned map must not be modified.
+   * 
+   * @return the members inherited from the superclasses and mixins of the class
+   */
+  public MemberMap getClassMap() {
+    return classMap;
+  }
+
+  /**
+   * Return the members inherited from the interfaces of the class, or {@code null} if they have not
+   * yet been computed. The returned map must not be modified.
+   * 
+   * @return the members inherited from the interfaces of the class
+   */
+  public MemberMap getInterfaceMap() {
+    return interfaceMap;
+  }
+
+  /**
+   * Return {@code true} if the maps can be used by an inheritance manager for the given library.
+   * 
+   * @param library the library of the inheritance manager that would use the maps
+   * @return {@code true} if the maps can be used for the given library
+   */
+  public boolean isValidIn(LibraryElement library) {
+    return library != null && !libraries.contains(library);
+  }
+
+  /**
+   * Set the members inherited from the superclasses and mixins of the class to the given map.
+   * 
+   * @param classMap the members inherited from the superclasses and mixins of the class
+   */
+  public void setClassMap(MemberMap classMap) {
+    this.classMap = classMap;
+  }
+
+  /**
+   * Set the members inherited from the interfaces of the class to the given map.
+   * 
+   * @param interfaceMap the members inherited from the interfaces of the class
+   */
+  public void setInterfaceMap(MemberMap interfaceMap) {
+    this.interfaceMap = interfaceMap;
+  }
+}
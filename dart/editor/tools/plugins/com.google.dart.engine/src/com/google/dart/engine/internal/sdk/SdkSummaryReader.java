@@ -0,0 +1,1123 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.sdk;
+
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.element.ClassElement;
+import com.google.dart.engine.element.CompilationUnitElement;
+import com.google.dart.engine.element.ConstructorElement;
+import com.google.dart.engine.element.Element;
+import com.google.dart.engine.element.ElementAnnotation;
+import com.google.dart.engine.element.FieldElement;
+import com.google.dart.engine.element.FunctionElement;
+import com.google.dart.engine.element.FunctionTypeAliasElement;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.element.NamespaceCombinator;
+import com.google.dart.engine.element.ParameterElement;
+import com.google.dart.engine.element.PropertyAccessorElement;
+import com.google.dart.engine.element.TypeParameterElement;
+import com.google.dart.engine.internal.constant.EvaluationResultImpl;
+import com.google.dart.engine.internal.element.ClassElementImpl;
+import com.google.dart.engine.internal.element.CompilationUnitElementImpl;
+import com.google.dart.engine.internal.element.ConstFieldElementImpl;
+import com.google.dart.engine.internal.element.ConstTopLevelVariableElementImpl;
+import com.google.dart.engine.internal.element.ConstructorElementImpl;
+import com.google.dart.engine.internal.element.DefaultFieldFormalParameterElementImpl;
+import com.google.dart.engine.internal.element.DefaultParameterElementImpl;
+import com.google.dart.engine.internal.element.ElementAnnotationImpl;
+import com.google.dart.engine.internal.element.ElementImpl;
+import com.google.dart.engine.internal.element.ExecutableElementImpl;
+import com.google.dart.engine.internal.element.ExportElementImpl;
+import com.google.dart.engine.internal.element.FieldElementImpl;
+import com.google.dart.engine.internal.element.FieldFormalParameterElementImpl;
+import com.google.dart.engine.internal.element.FunctionElementImpl;
+import com.google.dart.engine.internal.element.FunctionTypeAliasElementImpl;
+import com.google.dart.engine.internal.element.HideElementCombinatorImpl;
+import com.google.dart.engine.internal.element.ImportElementImpl;
+import com.google.dart.engine.internal.element.LibraryElementImpl;
+import com.google.dart.engine.internal.element.MethodElementImpl;
+import com.google.dart.engine.internal.element.ParameterElementImpl;
+import com.google.dart.engine.internal.element.PrefixElementImpl;
+import com.google.dart.engine.internal.element.PropertyAccessorElementImpl;
+import com.google.dart.engine.internal.element.PropertyInducingElementImpl;
+import com.google.dart.engine.internal.element.ShowElementCombinatorImpl;
+import com.google.dart.engine.internal.element.TopLevelVariableElementImpl;
+import com.google.dart.engine.internal.element.TypeParameterElementImpl;
+import com.google.dart.engine.internal.element.member.ConstructorMember;
+import com.google.dart.engine.internal.object.BoolState;
+import com.google.dart.engine.internal.object.DartObjectImpl;
+import com.google.dart.engine.internal.object.DoubleState;
+import com.google.dart.engine.internal.object.GenericState;
+import com.google.dart.engine.internal.object.IntState;
+import com.google.dart.engine.internal.object.NullState;
+import com.google.dart.engine.internal.object.StringState;
+import com.google.dart.engine.internal.type.BottomTypeImpl;
+import com.google.dart.engine.internal.type.DynamicTypeImpl;
+import com.google.dart.engine.internal.type.FunctionTypeImpl;
+import com.google.dart.engine.internal.type.InterfaceTypeImpl;
+import com.google.dart.engine.internal.type.TypeParameterTypeImpl;
+import com.google.dart.engine.internal.type.VoidTypeImpl;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.type.InterfaceType;
+import com.google.dart.engine.type.Type;
+import com.google.dart.engine.utilities.dart.ParameterKind;
+
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.COMBINATOR_SHOW;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_ABSTRACT;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_ASYNCHRONOUS;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_CONST;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_DEFERRED;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_ENUM;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_FACTORY;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_FINAL;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_GENERATOR;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_GETTER;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_HAS_EXT_URI;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_MIXIN;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_REFERENCES_SUPER;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_SETTER;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_STATIC;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_SYNTHETIC;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.FLAG_TYPEDEF;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.PARAMETER_DEFAULT;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.PARAMETER_DEFAULT_FIELD_FORMAL;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.PARAMETER_FIELD_FORMAL;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.REFERENCE_CLASS;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.REFERENCE_CLASS_ACCESSOR;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.REFERENCE_CONSTRUCTOR;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.REFERENCE_FUNCTION;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.REFERENCE_TOP_LEVEL_ACCESSOR;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.REFERENCE_TYPE_ALIAS;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.RESULT_ERROR;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.RESULT_NONE;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_BOTTOM;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_DYNAMIC;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_FUNCTION;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_INTERFACE;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_NULL;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_PARAMETER;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_SYNTHETIC_FUNCTION;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.TYPE_VOID;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VALUE_BOOL;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VALUE_DOUBLE;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VALUE_INT;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VALUE_NULL;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VALUE_OBJECT;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VALUE_STRING;
+import static com.google.dart.engine.internal.sdk.SdkSummaryWriter.VERSION;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Instances of the class {@code SdkSummaryReader} re-create the element models of SDK libraries
+ * from a summary that was written by an {@link SdkSummaryWriter}.
+ * <p>
+ * Libraries are read lazily: the first time a library is requested, that library and any libraries
+ * it references that have not yet been read (and do not already have an element model in the
+ * context) are created from the summary. The element models that are created are equivalent to
+ * the element models that would have been produced by resolving the libraries, except that
+ * constant constructors do not have any initializers, so instances created by invoking them have
+ * an unknown value.
+ * 
+ * @coverage dart.engine.sdk
+ */
+public class SdkSummaryReader {
+  /**
+   * Instances of the class {@code Reference} represent a reference to an element that was read
+   * from the summary but that cannot be resolved until all of the libraries being read have been
+   * created.
+   */
+  private static class Reference {
+    /**
+     * The tag indicating the kind of element being referenced.
+     */
+    private int kind;
+
+    /**
+     * The index of the library containing the referenced element.
+     */
+    private int library;
+
+    /**
+     * The name of the referenced element, or of the class containing the referenced element.
+     */
+    private String name;
+
+    /**
+     * The name of the referenced member, or {@code null} if the referenced element is not a member
+     * of a class.
+     */
+    private String memberName;
+  }
+
+  /**
+   * The context in which the element models are to be created.
+   */
+  private AnalysisContext context;
+
+  /**
+   * The contents of the summary file.
+   */
+  private byte[] bytes;
+
+  /**
+   * The offset of the next byte to be read from the summary.
+   */
+  private int position;
+
+  /**
+   * The encodings of the sources of the libraries in the summary.
+   */
+  private String[] libraryEncodings;
+
+  /**
+   * A table mapping the encodings of the sources of the libraries in the summary to the index of
+   * the library.
+   */
+  private HashMap<String, Integer> libraryIndices = new HashMap<String, Integer>();
+
+  /**
+   * The offsets of the sections describing each of the libraries.
+   */
+  private int[] sectionOffsets;
+
+  /**
+   * The offsets of the bodies of each of the libraries, or {@code -1} if the library has not yet
+   * been created.
+   */
+  private int[] bodyOffsets;
+
+  /**
+   * The elements representing the libraries in the summary, or {@code null} for libraries that have
+   * not yet been created.
+   */
+  private LibraryElement[] libraries;
+
+  /**
+   * The table of strings referenced by the summary.
+   */
+  private String[] strings;
+
+  /**
+   * The indices of the libraries whose bodies have not yet been read.
+   */
+  private LinkedList<Integer> pendingBodies = new LinkedList<Integer>();
+
+  /**
+   * The libraries that have been created since the last request for a library.
+   */
+  private ArrayList<LibraryElement> createdLibraries = new ArrayList<LibraryElement>();
+
+  /**
+   * A table mapping elements to the references to the annotations associated with them.
+   */
+  private IdentityHashMap<ElementImpl, Reference[]> pendingMetadata = new IdentityHashMap<ElementImpl, Reference[]>();
+
+  /**
+   * A table mapping constructors to the references to the constructors to which they redirect.
+   */
+  private IdentityHashMap<ConstructorElementImpl, Reference> pendingRedirections = new IdentityHashMap<ConstructorElementImpl, Reference>();
+
+  /**
+   * A table mapping constructors to the type defining the constructors to which they redirect.
+   */
+  private IdentityHashMap<ConstructorElementImpl, InterfaceType> pendingRedirectionTypes = new IdentityHashMap<ConstructorElementImpl, InterfaceType>();
+
+  /**
+   * The compilation unit whose body is currently being read.
+   */
+  private CompilationUnitElement currentUnit;
+
+  /**
+   * The fields of the class whose body is currently being read, or {@code null} if the body of a
+   * class is not being read.
+   */
+  private FieldElement[] currentFields;
+
+  /**
+   * The type parameters that are in scope for the types that are currently being read.
+   */
+  private TypeParameterElement[] typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
+
+  /**
+   * Initialize a newly created reader to read the summary in the given file.
+   * 
+   * @param context the context in which the element models are to be created
+   * @param file the file containing the summary
+   * @param sdkVersion the version of the SDK for which the summary is expected to have been written
+   * @throws IOException if the file could not be read, or if it does not contain a summary for the
+   *           given version of the SDK
+   */
+  public SdkSummaryReader(AnalysisContext context, File file, String sdkVersion) throws IOException {
+    this.context = context;
+    bytes = readBytes(file);
+    ByteArrayInputStream byteStream = new ByteArrayInputStream(bytes);
+    DataInputStream input = new DataInputStream(byteStream);
+    int version = input.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported summary version " + version + " in " + file);
+    }
+    String summaryVersion = input.readUTF();
+    if (!summaryVersion.equals(sdkVersion)) {
+      throw new IOException("Summary of SDK " + summaryVersion + " cannot be used for SDK "
+          + sdkVersion);
+    }
+    int libraryCount = input.readInt();
+    libraryEncodings = new String[libraryCount];
+    sectionOffsets = new int[libraryCount];
+    bodyOffsets = new int[libraryCount];
+    libraries = new LibraryElement[libraryCount];
+    int[] sectionLengths = new int[libraryCount];
+    for (int i = 0; i < libraryCount; i++) {
+      libraryEncodings[i] = input.readUTF();
+      sectionLengths[i] = input.readInt();
+      libraryIndices.put(libraryEncodings[i], i);
+      bodyOffsets[i] = -1;
+    }
+    int stringCount = input.readInt();
+    strings = new String[stringCount];
+    for (int i = 0; i < stringCount; i++) {
+      strings[i] = input.readUTF();
+    }
+    int offset = bytes.length - byteStream.available();
+    for (int i = 0; i < libraryCount; i++) {
+      sectionOffsets[i] = offset;
+      offset += sectionLengths[i];
+    }
+    if (offset != bytes.length) {
+      throw new IOException("Corrupt summary file " + file);
+    }
+  }
+
+  /**
+   * Return {@code true} if the summary contains the library with the given source.
+   * 
+   * @param source the source of the library being tested
+   * @return {@code true} if the summary contains the given library
+   */
+  public boolean containsLibrary(Source source) {
+    return libraryIndices.containsKey(source.getEncoding());
+  }
+
+  /**
+   * Create the element model for the library with the given source, together with the element
+   * models of any libraries it references that have not yet been created. Return the library
+   * elements that were created, which will be empty if the library has already been read, or
+   * {@code null} if the summary does not contain the library.
+   * 
+   * @param source the source of the library to be read
+   * @return the library elements that were created
+   * @throws IOException if the summary could not be read
+   */
+  public LibraryElement[] readLibrary(Source source) throws IOException {
+    Integer index = libraryIndices.get(source.getEncoding());
+    if (index == null) {
+      return null;
+    }
+    try {
+      getLibrary(index.intValue());
+      while (!pendingBodies.isEmpty()) {
+        readLibraryBody(pendingBodies.removeFirst().intValue());
+      }
+      resolvePendingReferences();
+      return createdLibraries.toArray(new LibraryElement[createdLibraries.size()]);
+    } catch (RuntimeException exception) {
+      throw new IOException("Corrupt summary file: " + exception.getMessage(), exception);
+    } finally {
+      createdLibraries.clear();
+      pendingBodies.clear();
+      pendingMetadata.clear();
+      pendingRedirections.clear();
+      pendingRedirectionTypes.clear();
+    }
+  }
+
+  /**
+   * Create the shell of the library with the given index: the library element, its compilation
+   * units and the classes and function type aliases declared in them. The rest of the library is
+   * created later, when all of the types it might reference are available.
+   * 
+   * @param index the index of the library to be created
+   * @return the library element that was created
+   */
+  private LibraryElementImpl createLibrary(int index) throws IOException {
+    position = sectionOffsets[index];
+    String name = readString();
+    int nameOffset = readInt();
+    LibraryElementImpl library = new LibraryElementImpl(context, name, nameOffset);
+    library.setHasExtUri((readInt() & FLAG_HAS_EXT_URI) != 0);
+    int unitCount = readInt();
+    CompilationUnitElementImpl[] units = new CompilationUnitElementImpl[unitCount];
+    for (int i = 0; i < unitCount; i++) {
+      Source source = getSource(readString());
+      CompilationUnitElementImpl unit = new CompilationUnitElementImpl(source.getShortName());
+      unit.setSource(source);
+      unit.setUri(readString());
+      unit.setUriOffset(readInt());
+      unit.setUriEnd(readInt());
+      units[i] = unit;
+    }
+    library.setDefiningCompilationUnit(units[0]);
+    CompilationUnitElementImpl[] parts = new CompilationUnitElementImpl[unitCount - 1];
+    System.arraycopy(units, 1, parts, 0, parts.length);
+    library.setParts(parts);
+    for (CompilationUnitElementImpl unit : units) {
+      unit.setTypes(readClassDeclarations());
+      unit.setEnums(readClassDeclarations());
+      int aliasCount = readInt();
+      FunctionTypeAliasElementImpl[] aliases = new FunctionTypeAliasElementImpl[aliasCount];
+      for (int i = 0; i < aliasCount; i++) {
+        FunctionTypeAliasElementImpl alias = new FunctionTypeAliasElementImpl(
+            readString(),
+            readInt());
+        TypeParameterElement[] parameters = readTypeParameterDeclarations();
+        alias.setTypeParameters(parameters);
+        FunctionTypeImpl type = new FunctionTypeImpl(alias);
+        type.setTypeArguments(getTypes(parameters));
+        alias.setType(type);
+        aliases[i] = alias;
+      }
+      unit.setTypeAliases(aliases);
+    }
+    bodyOffsets[index] = position;
+    return library;
+  }
+
+  /**
+   * Return the element referenced by the given reference.
+   * 
+   * @param reference the reference to be resolved
+   * @return the element referenced by the given reference
+   * @throws IOException if the referenced element does not exist
+   */
+  private Element getElement(Reference reference) throws IOException {
+    LibraryElement library = getLibrary(reference.library);
+    switch (reference.kind) {
+      case REFERENCE_CLASS:
+        return getClass(library, reference.name);
+      case REFERENCE_TYPE_ALIAS:
+        for (CompilationUnitElement unit : library.getUnits()) {
+          for (FunctionTypeAliasElement alias : unit.getFunctionTypeAliases()) {
+            if (alias.getName().equals(reference.name)) {
+              return alias;
+            }
+          }
+        }
+        break;
+      case REFERENCE_CONSTRUCTOR:
+        for (ConstructorElement constructor : getClass(library, reference.name).getConstructors()) {
+          if (constructor.getName().equals(reference.memberName)) {
+            return constructor;
+          }
+        }
+        break;
+      case REFERENCE_CLASS_ACCESSOR:
+        for (PropertyAccessorElement accessor : getClass(library, reference.name).getAccessors()) {
+          if (accessor.getName().equals(reference.memberName)) {
+            return accessor;
+          }
+        }
+        break;
+      case REFERENCE_TOP_LEVEL_ACCESSOR:
+        for (CompilationUnitElement unit : library.getUnits()) {
+          for (PropertyAccessorElement accessor : unit.getAccessors()) {
+            if (accessor.getName().equals(reference.name)) {
+              return accessor;
+            }
+          }
+        }
+        break;
+      case REFERENCE_FUNCTION:
+        for (CompilationUnitElement unit : library.getUnits()) {
+          for (FunctionElement function : unit.getFunctions()) {
+            if (function.getName().equals(reference.name)) {
+              return function;
+            }
+          }
+        }
+        break;
+    }
+    throw new IOException("Could not find " + reference.name + "."
+        + reference.memberName + " in " + library.getSource().getFullName());
+  }
+
+  /**
+   * Return the class with the given name that is declared in the given library.
+   * 
+   * @param library the library in which the class is declared
+   * @param name the name of the class
+   * @return the class with the given name
+   * @throws IOException if the library does not declare a class with the given name
+   */
+  private ClassElement getClass(LibraryElement library, String name) throws IOException {
+    for (CompilationUnitElement unit : library.getUnits()) {
+      for (ClassElement type : unit.getTypes()) {
+        if (type.getName().equals(name)) {
+          return type;
+        }
+      }
+      for (ClassElement type : unit.getEnums()) {
+        if (type.getName().equals(name)) {
+          return type;
+        }
+      }
+    }
+    throw new IOException("Could not find class " + name + " in "
+        + library.getSource().getFullName());
+  }
+
+  /**
+   * Return the element representing the library with the given index, creating the shell of the
+   * library if it has not yet been created and the context does not already have an element model
+   * for it.
+   * 
+   * @param index the index of the library to be returned
+   * @return the element representing the library with the given index
+   */
+  private LibraryElement getLibrary(int index) throws IOException {
+    LibraryElement library = libraries[index];
+    if (library == null) {
+      library = context.getLibraryElement(getSource(libraryEncodings[index]));
+      if (library == null) {
+        int savedPosition = position;
+        library = createLibrary(index);
+        position = savedPosition;
+        pendingBodies.add(Integer.valueOf(index));
+        createdLibraries.add(library);
+      }
+      libraries[index] = library;
+    }
+    return library;
+  }
+
+  /**
+   * Return the source with the given encoding.
+   * 
+   * @param encoding the encoding of the source to be returned
+   * @return the source with the given encoding
+   * @throws IOException if there is no such source
+   */
+  private Source getSource(String encoding) throws IOException {
+    Source source = context.getSourceFactory().forUri(encoding);
+    if (source == null) {
+      throw new IOException("Could not create a source for " + encoding);
+    }
+    return source;
+  }
+
+  /**
+   * Return the types defined by the given type parameters.
+   * 
+   * @param parameters the type parameters whose types are to be returned
+   * @return the types defined by the given type parameters
+   */
+  private Type[] getTypes(TypeParameterElement[] parameters) {
+    int count = parameters.length;
+    Type[] types = new Type[count];
+    for (int i = 0; i < count; i++) {
+      types[i] = parameters[i].getType();
+    }
+    return types;
+  }
+
+  private PropertyAccessorElementImpl readAccessor(PropertyInducingElementImpl[] variables)
+      throws IOException {
+    PropertyAccessorElementImpl accessor = new PropertyAccessorElementImpl(readString(), readInt());
+    int flags = readExecutableFlags(accessor);
+    accessor.setAbstract((flags & FLAG_ABSTRACT) != 0);
+    accessor.setGetter((flags & FLAG_GETTER) != 0);
+    accessor.setSetter((flags & FLAG_SETTER) != 0);
+    accessor.setStatic((flags & FLAG_STATIC) != 0);
+    readMetadata(accessor);
+    int variableIndex = readInt();
+    if (variableIndex >= 0) {
+      PropertyInducingElementImpl variable = variables[variableIndex];
+      accessor.setVariable(variable);
+      if (accessor.isGetter()) {
+        variable.setGetter(accessor);
+      } else {
+        variable.setSetter(accessor);
+      }
+    }
+    readExecutable(accessor);
+    return accessor;
+  }
+
+  /**
+   * Return the contents of the given file.
+   * 
+   * @param file the file to be read
+   * @return the contents of the given file
+   * @throws IOException if the file could not be read
+   */
+  private byte[] readBytes(File file) throws IOException {
+    DataInputStream input = new DataInputStream(new FileInputStream(file));
+    try {
+      byte[] contents = new byte[(int) file.length()];
+      input.readFully(contents);
+      return contents;
+    } finally {
+      input.close();
+    }
+  }
+
+  private boolean readBoolean() {
+    return bytes[position++] != 0;
+  }
+
+  private void readClass(ClassElementImpl element) throws IOException {
+    typeParameters = element.getTypeParameters();
+    int flags = readInt();
+    element.setSynthetic((flags & FLAG_SYNTHETIC) != 0);
+    element.setAbstract((flags & FLAG_ABSTRACT) != 0);
+    element.setEnum((flags & FLAG_ENUM) != 0);
+    element.setTypedef((flags & FLAG_TYPEDEF) != 0);
+    element.setValidMixin((flags & FLAG_MIXIN) != 0);
+    element.setHasReferenceToSuper((flags & FLAG_REFERENCES_SUPER) != 0);
+    readMetadata(element);
+    readTypeParameterBounds(typeParameters);
+    element.setSupertype((InterfaceType) readType(null));
+    element.setMixins(readInterfaceTypes());
+    element.setInterfaces(readInterfaceTypes());
+    int fieldCount = readInt();
+    FieldElementImpl[] fields = new FieldElementImpl[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      fields[i] = (FieldElementImpl) readVariable(true);
+    }
+    element.setFields(fields);
+    currentFields = fields;
+    int accessorCount = readInt();
+    PropertyAccessorElementImpl[] accessors = new PropertyAccessorElementImpl[accessorCount];
+    for (int i = 0; i < accessorCount; i++) {
+      accessors[i] = readAccessor(fields);
+    }
+    element.setAccessors(accessors);
+    int constructorCount = readInt();
+    ConstructorElementImpl[] constructors = new ConstructorElementImpl[constructorCount];
+    for (int i = 0; i < constructorCount; i++) {
+      constructors[i] = readConstructor();
+    }
+    element.setConstructors(constructors);
+    int methodCount = readInt();
+    MethodElementImpl[] methods = new MethodElementImpl[methodCount];
+    for (int i = 0; i < methodCount; i++) {
+      MethodElementImpl method = new MethodElementImpl(readString(), readInt());
+      int methodFlags = readExecutableFlags(method);
+      method.setAbstract((methodFlags & FLAG_ABSTRACT) != 0);
+      method.setStatic((methodFlags & FLAG_STATIC) != 0);
+      readMetadata(method);
+      readExecutable(method);
+      methods[i] = method;
+    }
+    element.setMethods(methods);
+    currentFields = null;
+    typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
+  }
+
+  private ClassElementImpl[] readClassDeclarations() throws IOException {
+    int count = readInt();
+    ClassElementImpl[] classes = new ClassElementImpl[count];
+    for (int i = 0; i < count; i++) {
+      ClassElementImpl element = new ClassElementImpl(readString(), readInt());
+      TypeParameterElement[] parameters = readTypeParameterDeclarations();
+      element.setTypeParameters(parameters);
+      InterfaceTypeImpl type = new InterfaceTypeImpl(element);
+      type.setTypeArguments(getTypes(parameters));
+      element.setType(type);
+      classes[i] = element;
+    }
+    return classes;
+  }
+
+  private NamespaceCombinator[] readCombinators() throws IOException {
+    int count = readInt();
+    NamespaceCombinator[] combinators = new NamespaceCombinator[count];
+    for (int i = 0; i < count; i++) {
+      if (readInt() == COMBINATOR_SHOW) {
+        ShowElementCombinatorImpl show = new ShowElementCombinatorImpl();
+        show.setShownNames(readStrings());
+        show.setOffset(readInt());
+        show.setEnd(readInt());
+        combinators[i] = show;
+      } else {
+        HideElementCombinatorImpl hide = new HideElementCombinatorImpl();
+        hide.setHiddenNames(readStrings());
+        combinators[i] = hide;
+      }
+    }
+    return combinators;
+  }
+
+  private ConstructorElementImpl readConstructor() throws IOException {
+    ConstructorElementImpl constructor = new ConstructorElementImpl(readString(), readInt());
+    int flags = readExecutableFlags(constructor);
+    constructor.setConst((flags & FLAG_CONST) != 0);
+    constructor.setFactory((flags & FLAG_FACTORY) != 0);
+    readMetadata(constructor);
+    readExecutable(constructor);
+    if (readBoolean()) {
+      pendingRedirections.put(constructor, readReference());
+      InterfaceType definingType = (InterfaceType) readType(null);
+      if (definingType != null) {
+        pendingRedirectionTypes.put(constructor, definingType);
+      }
+    }
+    return constructor;
+  }
+
+  private double readDouble() {
+    long bits = 0L;
+    for (int i = 0; i < 8; i++) {
+      bits = (bits << 8) | (bytes[position++] & 0xFF);
+    }
+    return Double.longBitsToDouble(bits);
+  }
+
+  private EvaluationResultImpl readEvaluationResult() throws IOException {
+    int tag = readInt();
+    if (tag == RESULT_NONE) {
+      return null;
+    } else if (tag == RESULT_ERROR) {
+      return new EvaluationResultImpl(null);
+    }
+    return new EvaluationResultImpl(readValue());
+  }
+
+  private void readExecutable(ExecutableElementImpl element) throws IOException {
+    element.setReturnType(readType(null));
+    element.setParameters(readParameters());
+    if (readBoolean()) {
+      FunctionTypeImpl type = new FunctionTypeImpl(element);
+      type.setTypeArguments(readTypes());
+      element.setType(type);
+    }
+  }
+
+  private int readExecutableFlags(ExecutableElementImpl element) {
+    int flags = readInt();
+    element.setSynthetic((flags & FLAG_SYNTHETIC) != 0);
+    element.setAsynchronous((flags & FLAG_ASYNCHRONOUS) != 0);
+    element.setGenerator((flags & FLAG_GENERATOR) != 0);
+    return flags;
+  }
+
+  private int readInt() {
+    int encoded = 0;
+    int shift = 0;
+    int next;
+    do {
+      next = bytes[position++];
+      encoded |= (next & 0x7F) << shift;
+      shift += 7;
+    } while ((next & 0x80) != 0);
+    return (encoded >>> 1) ^ -(encoded & 1);
+  }
+
+  private InterfaceType[] readInterfaceTypes() throws IOException {
+    int count = readInt();
+    InterfaceType[] types = new InterfaceType[count];
+    for (int i = 0; i < count; i++) {
+      types[i] = (InterfaceType) readType(null);
+    }
+    return types;
+  }
+
+  /**
+   * Read the body of the library with the given index, whose shell has already been created.
+   * 
+   * @param index the index of the library whose body is to be read
+   */
+  private void readLibraryBody(int index) throws IOException {
+    LibraryElementImpl library = (LibraryElementImpl) libraries[index];
+    position = bodyOffsets[index];
+    for (CompilationUnitElement unit : library.getUnits()) {
+      CompilationUnitElementImpl unitImpl = (CompilationUnitElementImpl) unit;
+      currentUnit = unit;
+      for (ClassElement type : unit.getTypes()) {
+        readClass((ClassElementImpl) type);
+      }
+      for (ClassElement type : unit.getEnums()) {
+        readClass((ClassElementImpl) type);
+      }
+      for (FunctionTypeAliasElement alias : unit.getFunctionTypeAliases()) {
+        FunctionTypeAliasElementImpl aliasImpl = (FunctionTypeAliasElementImpl) alias;
+        typeParameters = alias.getTypeParameters();
+        aliasImpl.setSynthetic((readInt() & FLAG_SYNTHETIC) != 0);
+        readMetadata(aliasImpl);
+        readTypeParameterBounds(typeParameters);
+        aliasImpl.setReturnType(readType(null));
+        aliasImpl.setParameters(readParameters());
+        typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
+      }
+      int variableCount = readInt();
+      TopLevelVariableElementImpl[] variables = new TopLevelVariableElementImpl[variableCount];
+      for (int i = 0; i < variableCount; i++) {
+        variables[i] = (TopLevelVariableElementImpl) readVariable(false);
+      }
+      unitImpl.setTopLevelVariables(variables);
+      int accessorCount = readInt();
+      PropertyAccessorElementImpl[] accessors = new PropertyAccessorElementImpl[accessorCount];
+      for (int i = 0; i < accessorCount; i++) {
+        accessors[i] = readAccessor(variables);
+      }
+      unitImpl.setAccessors(accessors);
+      int functionCount = readInt();
+      FunctionElementImpl[] functions = new FunctionElementImpl[functionCount];
+      for (int i = 0; i < functionCount; i++) {
+        FunctionElementImpl function = new FunctionElementImpl(readString(), readInt());
+        readExecutableFlags(function);
+        readMetadata(function);
+        readExecutable(function);
+        functions[i] = function;
+      }
+      unitImpl.setFunctions(functions);
+    }
+    currentUnit = null;
+    readMetadata(library);
+    int importCount = readInt();
+    ImportElementImpl[] imports = new ImportElementImpl[importCount];
+    HashMap<String, PrefixElementImpl> prefixes = new HashMap<String, PrefixElementImpl>();
+    for (int i = 0; i < importCount; i++) {
+      int flags = readInt();
+      ImportElementImpl importElement = new ImportElementImpl(readInt());
+      importElement.setSynthetic((flags & FLAG_SYNTHETIC) != 0);
+      importElement.setDeferred((flags & FLAG_DEFERRED) != 0);
+      importElement.setUri(readString());
+      importElement.setUriOffset(readInt());
+      importElement.setUriEnd(readInt());
+      importElement.setImportedLibrary(getLibrary(readInt()));
+      String prefixName = readString();
+      if (prefixName != null) {
+        int prefixNameOffset = readInt();
+        PrefixElementImpl prefix = prefixes.get(prefixName);
+        if (prefix == null) {
+          prefix = new PrefixElementImpl(prefixName, prefixNameOffset);
+          prefixes.put(prefixName, prefix);
+        }
+        importElement.setPrefix(prefix);
+        importElement.setPrefixOffset(readInt());
+      }
+      importElement.setCombinators(readCombinators());
+      imports[i] = importElement;
+    }
+    library.setImports(imports);
+    int exportCount = readInt();
+    ExportElementImpl[] exports = new ExportElementImpl[exportCount];
+    for (int i = 0; i < exportCount; i++) {
+      ExportElementImpl exportElement = new ExportElementImpl();
+      exportElement.setUri(readString());
+      exportElement.setUriOffset(readInt());
+      exportElement.setUriEnd(readInt());
+      exportElement.setExportedLibrary(getLibrary(readInt()));
+      exportElement.setCombinators(readCombinators());
+      exports[i] = exportElement;
+    }
+    library.setExports(exports);
+    String entryPointName = readString();
+    if (entryPointName != null) {
+      library.setEntryPoint((FunctionElement) getElement(createReference(
+          REFERENCE_FUNCTION,
+          index,
+          entryPointName,
+          null)));
+    }
+  }
+
+  private void readMetadata(ElementImpl element) throws IOException {
+    int count = readInt();
+    if (count > 0) {
+      Reference[] references = new Reference[count];
+      for (int i = 0; i < count; i++) {
+        references[i] = readReference();
+      }
+      pendingMetadata.put(element, references);
+    }
+  }
+
+  private ParameterElement[] readParameters() throws IOException {
+    int count = readInt();
+    if (count == 0) {
+      return ParameterElementImpl.EMPTY_ARRAY;
+    }
+    ParameterElement[] parameters = new ParameterElement[count];
+    for (int i = 0; i < count; i++) {
+      String name = readString();
+      int nameOffset = readInt();
+      int flags = readInt();
+      ParameterKind kind = ParameterKind.values()[readInt()];
+      int implementation = readInt();
+      ParameterElementImpl parameter;
+      if (implementation == PARAMETER_DEFAULT) {
+        parameter = new DefaultParameterElementImpl(name, nameOffset);
+      } else if (implementation == PARAMETER_FIELD_FORMAL) {
+        parameter = new FieldFormalParameterElementImpl(name, nameOffset);
+      } else if (implementation == PARAMETER_DEFAULT_FIELD_FORMAL) {
+        parameter = new DefaultFieldFormalParameterElementImpl(name, nameOffset);
+      } else {
+        parameter = new ParameterElementImpl(name, nameOffset);
+      }
+      parameter.setSynthetic((flags & FLAG_SYNTHETIC) != 0);
+      parameter.setConst((flags & FLAG_CONST) != 0);
+      parameter.setFinal((flags & FLAG_FINAL) != 0);
+      parameter.setParameterKind(kind);
+      readMetadata(parameter);
+      ParameterElement[] ownParameters = readParameters();
+      parameter.setParameters(ownParameters);
+      parameter.setType(readType(ownParameters));
+      parameter.setDefaultValueCode(readString());
+      if (implementation == PARAMETER_DEFAULT || implementation == PARAMETER_DEFAULT_FIELD_FORMAL) {
+        parameter.setEvaluationResult(readEvaluationResult());
+      }
+      if (implementation == PARAMETER_FIELD_FORMAL
+          || implementation == PARAMETER_DEFAULT_FIELD_FORMAL) {
+        String fieldName = readString();
+        if (fieldName != null && currentFields != null) {
+          for (FieldElement field : currentFields) {
+            if (field.getName().equals(fieldName)) {
+              ((FieldFormalParameterElementImpl) parameter).setField(field);
+              break;
+            }
+          }
+        }
+      }
+      parameters[i] = parameter;
+    }
+    return parameters;
+  }
+
+  private Reference readReference() {
+    int kind = readInt();
+    int library = readInt();
+    String name = readString();
+    String memberName = null;
+    if (kind == REFERENCE_CONSTRUCTOR || kind == REFERENCE_CLASS_ACCESSOR) {
+      memberName = readString();
+    }
+    return createReference(kind, library, name, memberName);
+  }
+
+  private String readString() {
+    int index = readInt();
+    return index < 0 ? null : strings[index];
+  }
+
+  private String[] readStrings() {
+    int count = readInt();
+    String[] result = new String[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = readString();
+    }
+    return result;
+  }
+
+  /**
+   * Read a type.
+   * 
+   * @param ownParameters the parameters of the parameter whose type is being read, or {@code null}
+   *          if the type is not the type of a parameter
+   * @return the type that was read
+   */
+  private Type readType(ParameterElement[] ownParameters) throws IOException {
+    switch (readInt()) {
+      case TYPE_NULL:
+        return null;
+      case TYPE_DYNAMIC:
+        return DynamicTypeImpl.getInstance();
+      case TYPE_VOID:
+        return VoidTypeImpl.getInstance();
+      case TYPE_BOTTOM:
+        return BottomTypeImpl.getInstance();
+      case TYPE_INTERFACE: {
+        ClassElement element = (ClassElement) getElement(readReference());
+        Type[] typeArguments = readTypes();
+        if (typeArguments.length == 0 && element.getTypeParameters().length == 0) {
+          return element.getType();
+        }
+        InterfaceTypeImpl type = new InterfaceTypeImpl(element);
+        type.setTypeArguments(typeArguments);
+        return type;
+      }
+      case TYPE_PARAMETER:
+        return typeParameters[readInt()].getType();
+      case TYPE_FUNCTION: {
+        FunctionTypeImpl type = new FunctionTypeImpl(
+            (FunctionTypeAliasElement) getElement(readReference()));
+        type.setTypeArguments(readTypes());
+        return type;
+      }
+      case TYPE_SYNTHETIC_FUNCTION: {
+        ParameterElement[] parameters = readBoolean() ? ownParameters : readParameters();
+        FunctionTypeAliasElementImpl alias = new FunctionTypeAliasElementImpl("", -1);
+        alias.setSynthetic(true);
+        alias.shareParameters(parameters);
+        alias.setReturnType(readType(null));
+        alias.setEnclosingElement(currentUnit);
+        if (readBoolean()) {
+          alias.shareTypeParameters(typeParameters);
+        }
+        FunctionTypeImpl type = new FunctionTypeImpl(alias);
+        type.setTypeArguments(readTypes());
+        return type;
+      }
+    }
+    throw new IOException("Invalid type tag at " + position);
+  }
+
+  private void readTypeParameterBounds(TypeParameterElement[] parameters) throws IOException {
+    for (TypeParameterElement parameter : parameters) {
+      ((TypeParameterElementImpl) parameter).setBound(readType(null));
+    }
+  }
+
+  private TypeParameterElement[] readTypeParameterDeclarations() {
+    int count = readInt();
+    if (count == 0) {
+      return TypeParameterElementImpl.EMPTY_ARRAY;
+    }
+    TypeParameterElement[] parameters = new TypeParameterElement[count];
+    for (int i = 0; i < count; i++) {
+      TypeParameterElementImpl parameter = new TypeParameterElementImpl(readString(), readInt());
+      parameter.setType(new TypeParameterTypeImpl(parameter));
+      parameters[i] = parameter;
+    }
+    return parameters;
+  }
+
+  private Type[] readTypes() throws IOException {
+    int count = readInt();
+    Type[] types = new Type[count];
+    for (int i = 0; i < count; i++) {
+      types[i] = readType(null);
+    }
+    return types;
+  }
+
+  /**
+   * Read a constant value. This mirrors the way in which values are written by
+   * {@link SdkSummaryWriter}: values that could not be written are re-created as unknown values of
+   * the same type.
+   * 
+   * @return the value that was read
+   */
+  private DartObjectImpl readValue() throws IOException {
+    InterfaceType type = (InterfaceType) readType(null);
+    switch (readInt()) {
+      case VALUE_NULL:
+        return new DartObjectImpl(type, NullState.NULL_STATE);
+      case VALUE_BOOL:
+        return new DartObjectImpl(type, readBoolean() ? BoolState.TRUE_STATE
+            : BoolState.FALSE_STATE);
+      case VALUE_INT:
+        return new DartObjectImpl(type, new IntState(new BigInteger(readString())));
+      case VALUE_DOUBLE:
+        return new DartObjectImpl(type, new DoubleState(readDouble()));
+      case VALUE_STRING:
+        return new DartObjectImpl(type, new StringState(readString()));
+      case VALUE_OBJECT: {
+        int count = readInt();
+        HashMap<String, DartObjectImpl> fields = new HashMap<String, DartObjectImpl>();
+        for (int i = 0; i < count; i++) {
+          String name = readString();
+          fields.put(name, readValue());
+        }
+        return new DartObjectImpl(type, new GenericState(fields));
+      }
+    }
+    if (type.getElement().getLibrary().isDartCore()) {
+      String typeName = type.getName();
+      if (typeName.equals("bool")) {
+        return new DartObjectImpl(type, BoolState.UNKNOWN_VALUE);
+      } else if (typeName.equals("double")) {
+        return new DartObjectImpl(type, DoubleState.UNKNOWN_VALUE);
+      } else if (typeName.equals("int")) {
+        return new DartObjectImpl(type, IntState.UNKNOWN_VALUE);
+      } else if (typeName.equals("String")) {
+        return new DartObjectImpl(type, StringState.UNKNOWN_VALUE);
+      }
+    }
+    return new DartObjectImpl(type, GenericState.UNKNOWN_VALUE);
+  }
+
+  private PropertyInducingElementImpl readVariable(boolean isField) throws IOException {
+    String name = readString();
+    int nameOffset = readInt();
+    boolean isConstWithInitializer = readBoolean();
+    PropertyInducingElementImpl variable;
+    if (isField) {
+      FieldElementImpl field = isConstWithInitializer ? new ConstFieldElementImpl(name, nameOffset)
+          : new FieldElementImpl(name, nameOffset);
+      variable = field;
+    } else {
+      variable = isConstWithInitializer ? new ConstTopLevelVariableElementImpl(name, nameOffset)
+          : new TopLevelVariableElementImpl(name, nameOffset);
+    }
+    int flags = readInt();
+    variable.setSynthetic((flags & FLAG_SYNTHETIC) != 0);
+    variable.setConst((flags & FLAG_CONST) != 0);
+    variable.setFinal((flags & FLAG_FINAL) != 0);
+    if (isField) {
+      ((FieldElementImpl) variable).setStatic((flags & FLAG_STATIC) != 0);
+    }
+    readMetadata(variable);
+    variable.setType(readType(null));
+    variable.setPropagatedType(readType(null));
+    if (isConstWithInitializer) {
+      variable.setEvaluationResult(readEvaluationResult());
+    }
+    return variable;
+  }
+
+  /**
+   * Resolve the references to annotations and redirected constructors that were recorded while
+   * reading the bodies of the libraries.
+   */
+  private void resolvePendingReferences() throws IOException {
+    for (Map.Entry<ElementImpl, Reference[]> entry : pendingMetadata.entrySet()) {
+      Reference[] references = entry.getValue();
+      ElementAnnotation[] annotations = new ElementAnnotation[references.length];
+      for (int i = 0; i < references.length; i++) {
+        annotations[i] = new ElementAnnotationImpl(getElement(references[i]));
+      }
+      entry.getKey().setMetadata(annotations);
+    }
+    for (Map.Entry<ConstructorElementImpl, Reference> entry : pendingRedirections.entrySet()) {
+      ConstructorElementImpl constructor = entry.getKey();
+      ConstructorElement redirectedConstructor = (ConstructorElement) getElement(entry.getValue());
+      InterfaceType definingType = pendingRedirectionTypes.get(constructor);
+      if (definingType != null) {
+        redirectedConstructor = ConstructorMember.from(redirectedConstructor, definingType);
+      }
+      constructor.setRedirectedConstructor(redirectedConstructor);
+    }
+  }
+
+  private Reference createReference(int kind, int library, String name, String memberName) {
+    Reference reference = new Reference();
+    reference.kind = kind;
+    reference.library = library;
+    reference.name = name;
+    reference.memberName = memberName;
+    return reference;
+  }
+}
@@ -0,0 +1,966 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.sdk;
+
+import com.google.dart.engine.element.ClassElement;
+import com.google.dart.engine.element.CompilationUnitElement;
+import com.google.dart.engine.element.ConstructorElement;
+import com.google.dart.engine.element.Element;
+import com.google.dart.engine.element.ElementAnnotation;
+import com.google.dart.engine.element.ExecutableElement;
+import com.google.dart.engine.element.ExportElement;
+import com.google.dart.engine.element.FieldElement;
+import com.google.dart.engine.element.FieldFormalParameterElement;
+import com.google.dart.engine.element.FunctionElement;
+import com.google.dart.engine.element.FunctionTypeAliasElement;
+import com.google.dart.engine.element.HideElementCombinator;
+import com.google.dart.engine.element.ImportElement;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.element.MethodElement;
+import com.google.dart.engine.element.NamespaceCombinator;
+import com.google.dart.engine.element.ParameterElement;
+import com.google.dart.engine.element.PrefixElement;
+import com.google.dart.engine.element.PropertyAccessorElement;
+import com.google.dart.engine.element.PropertyInducingElement;
+import com.google.dart.engine.element.ShowElementCombinator;
+import com.google.dart.engine.element.TopLevelVariableElement;
+import com.google.dart.engine.element.TypeParameterElement;
+import com.google.dart.engine.element.VariableElement;
+import com.google.dart.engine.internal.constant.EvaluationResultImpl;
+import com.google.dart.engine.internal.element.ConstFieldElementImpl;
+import com.google.dart.engine.internal.element.ConstTopLevelVariableElementImpl;
+import com.google.dart.engine.internal.element.DefaultFieldFormalParameterElementImpl;
+import com.google.dart.engine.internal.element.DefaultParameterElementImpl;
+import com.google.dart.engine.internal.element.TypeParameterElementImpl;
+import com.google.dart.engine.internal.element.VariableElementImpl;
+import com.google.dart.engine.internal.element.member.ConstructorMember;
+import com.google.dart.engine.internal.object.DartObjectImpl;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.type.FunctionType;
+import com.google.dart.engine.type.InterfaceType;
+import com.google.dart.engine.type.Type;
+import com.google.dart.engine.type.TypeParameterType;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Instances of the class {@code SdkSummaryWriter} write a compact binary summary of the element
+ * models of a set of resolved SDK libraries so that they can later be re-created by an
+ * {@link SdkSummaryReader} without scanning, parsing or resolving the sources of those libraries.
+ * <p>
+ * The summary contains everything that is visible to code outside the SDK: the declarations of all
+ * top-level and class members together with their signatures, modifiers and metadata, the values
+ * of constant variables and default parameter values, and the import and export directives. It
+ * does not contain anything that is only needed in order to analyze the SDK itself, such as local
+ * variables, function bodies or the initializers of constant constructors.
+ * 
+ * @coverage dart.engine.sdk
+ */
+public class SdkSummaryWriter {
+  /**
+   * The version of the format of the summary file. This must be incremented whenever the format of
+   * the file changes in an incompatible way.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The flags used to encode the boolean properties of elements.
+   */
+  static final int FLAG_ABSTRACT = 1 << 0;
+
+  static final int FLAG_ASYNCHRONOUS = 1 << 1;
+
+  static final int FLAG_CONST = 1 << 2;
+
+  static final int FLAG_DEFERRED = 1 << 3;
+
+  static final int FLAG_ENUM = 1 << 4;
+
+  static final int FLAG_FACTORY = 1 << 5;
+
+  static final int FLAG_FINAL = 1 << 6;
+
+  static final int FLAG_GENERATOR = 1 << 7;
+
+  static final int FLAG_GETTER = 1 << 8;
+
+  static final int FLAG_HAS_EXT_URI = 1 << 9;
+
+  static final int FLAG_MIXIN = 1 << 10;
+
+  static final int FLAG_REFERENCES_SUPER = 1 << 11;
+
+  static final int FLAG_SETTER = 1 << 12;
+
+  static final int FLAG_STATIC = 1 << 13;
+
+  static final int FLAG_SYNTHETIC = 1 << 14;
+
+  static final int FLAG_TYPEDEF = 1 << 15;
+
+  /**
+   * The tags used to encode the different kinds of types.
+   */
+  static final int TYPE_NULL = 0;
+
+  static final int TYPE_DYNAMIC = 1;
+
+  static final int TYPE_VOID = 2;
+
+  static final int TYPE_BOTTOM = 3;
+
+  static final int TYPE_INTERFACE = 4;
+
+  static final int TYPE_PARAMETER = 5;
+
+  static final int TYPE_FUNCTION = 6;
+
+  static final int TYPE_SYNTHETIC_FUNCTION = 7;
+
+  /**
+   * The tags used to encode references to elements.
+   */
+  static final int REFERENCE_CLASS = 0;
+
+  static final int REFERENCE_TYPE_ALIAS = 1;
+
+  static final int REFERENCE_CONSTRUCTOR = 2;
+
+  static final int REFERENCE_TOP_LEVEL_ACCESSOR = 3;
+
+  static final int REFERENCE_CLASS_ACCESSOR = 4;
+
+  static final int REFERENCE_FUNCTION = 5;
+
+  /**
+   * The tags used to encode the different kinds of parameter elements.
+   */
+  static final int PARAMETER_SIMPLE = 0;
+
+  static final int PARAMETER_DEFAULT = 1;
+
+  static final int PARAMETER_FIELD_FORMAL = 2;
+
+  static final int PARAMETER_DEFAULT_FIELD_FORMAL = 3;
+
+  /**
+   * The tags used to encode the different kinds of namespace combinators.
+   */
+  static final int COMBINATOR_SHOW = 0;
+
+  static final int COMBINATOR_HIDE = 1;
+
+  /**
+   * The tags used to encode the results of evaluating constant expressions.
+   */
+  static final int RESULT_NONE = 0;
+
+  static final int RESULT_ERROR = 1;
+
+  static final int RESULT_VALUE = 2;
+
+  /**
+   * The tags used to encode the values of constant expressions.
+   */
+  static final int VALUE_UNKNOWN = 0;
+
+  static final int VALUE_NULL = 1;
+
+  static final int VALUE_BOOL = 2;
+
+  static final int VALUE_INT = 3;
+
+  static final int VALUE_DOUBLE = 4;
+
+  static final int VALUE_STRING = 5;
+
+  static final int VALUE_OBJECT = 6;
+
+  /**
+   * Write the given integer to the given stream using a variable length encoding in which small
+   * non-negative values (and -1) take a single byte.
+   * 
+   * @param output the stream to which the value is to be written
+   * @param value the value to be written
+   * @throws IOException if the value could not be written
+   */
+  static void writeInt(DataOutputStream output, int value) throws IOException {
+    int encoded = (value << 1) ^ (value >> 31);
+    while ((encoded & ~0x7F) != 0) {
+      output.writeByte((encoded & 0x7F) | 0x80);
+      encoded >>>= 7;
+    }
+    output.writeByte(encoded);
+  }
+
+  /**
+   * A table mapping the sources of the libraries being written to their index in the summary.
+   */
+  private LinkedHashMap<Source, Integer> libraryIndices = new LinkedHashMap<Source, Integer>();
+
+  /**
+   * A table mapping the strings that have been written to their index in the string table.
+   */
+  private HashMap<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+  /**
+   * A list containing the strings that have been written, in the order in which they were first
+   * written.
+   */
+  private ArrayList<String> strings = new ArrayList<String>();
+
+  /**
+   * The type parameters that are in scope for the types that are currently being written.
+   */
+  private TypeParameterElement[] typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
+
+  /**
+   * The stream to which the library that is currently being written is being written.
+   */
+  private DataOutputStream output;
+
+  /**
+   * Initialize a newly created writer.
+   */
+  public SdkSummaryWriter() {
+    super();
+  }
+
+  /**
+   * Write a summary of the given libraries, and of all of the libraries that they import or export,
+   * directly or indirectly, to the given file.
+   * 
+   * @param file the file to which the summary is to be written
+   * @param sdkVersion the version of the SDK containing the libraries
+   * @param libraries the libraries to be summarized
+   * @throws IOException if the summary could not be written, or if one of the libraries contains an
+   *           element that cannot be summarized
+   */
+  public void write(File file, String sdkVersion, LibraryElement[] libraries) throws IOException {
+    ArrayList<LibraryElement> librariesToWrite = computeLibrariesToWrite(libraries);
+    int libraryCount = librariesToWrite.size();
+    byte[][] sections = new byte[libraryCount][];
+    for (int i = 0; i < libraryCount; i++) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      output = new DataOutputStream(bytes);
+      writeLibrary(librariesToWrite.get(i));
+      output.flush();
+      sections[i] = bytes.toByteArray();
+    }
+    output = null;
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    DataOutputStream fileOutput = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(file)));
+    try {
+      fileOutput.writeInt(VERSION);
+      fileOutput.writeUTF(sdkVersion);
+      fileOutput.writeInt(libraryCount);
+      for (int i = 0; i < libraryCount; i++) {
+        fileOutput.writeUTF(librariesToWrite.get(i).getSource().getEncoding());
+        fileOutput.writeInt(sections[i].length);
+      }
+      int stringCount = strings.size();
+      fileOutput.writeInt(stringCount);
+      for (int i = 0; i < stringCount; i++) {
+        fileOutput.writeUTF(strings.get(i));
+      }
+      for (int i = 0; i < libraryCount; i++) {
+        fileOutput.write(sections[i]);
+      }
+    } finally {
+      fileOutput.close();
+    }
+  }
+
+  /**
+   * Return {@code true} if the given type can be written in the current scope.
+   * 
+   * @param type the type being tested
+   * @return {@code true} if the given type can be written
+   */
+  private boolean canWriteType(Type type) {
+    if (type == null || type.isDynamic() || type.isVoid() || type.isBottom()) {
+      return true;
+    } else if (type instanceof InterfaceType) {
+      if (!libraryIndices.containsKey(type.getElement().getLibrary().getSource())) {
+        return false;
+      }
+      for (Type argument : ((InterfaceType) type).getTypeArguments()) {
+        if (!canWriteType(argument)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (type instanceof TypeParameterType) {
+      return indexOf(typeParameters, type.getElement()) >= 0;
+    }
+    return false;
+  }
+
+  /**
+   * Compute the list of libraries that need to be written in order to summarize the given
+   * libraries. This includes every library that is imported or exported, directly or indirectly,
+   * by one of the given libraries.
+   * 
+   * @param libraries the libraries to be summarized
+   * @return the libraries that need to be written
+   */
+  private ArrayList<LibraryElement> computeLibrariesToWrite(LibraryElement[] libraries) {
+    ArrayList<LibraryElement> librariesToWrite = new ArrayList<LibraryElement>();
+    for (LibraryElement library : libraries) {
+      addLibrary(librariesToWrite, library);
+    }
+    for (int i = 0; i < librariesToWrite.size(); i++) {
+      LibraryElement library = librariesToWrite.get(i);
+      for (LibraryElement importedLibrary : library.getImportedLibraries()) {
+        addLibrary(librariesToWrite, importedLibrary);
+      }
+      for (LibraryElement exportedLibrary : library.getExportedLibraries()) {
+        addLibrary(librariesToWrite, exportedLibrary);
+      }
+    }
+    return librariesToWrite;
+  }
+
+  /**
+   * Add the given library to the list of libraries to be written if it has not already been added.
+   * 
+   * @param librariesToWrite the list of libraries to be written
+   * @param library the library to be added
+   */
+  private void addLibrary(ArrayList<LibraryElement> librariesToWrite, LibraryElement library) {
+    Source source = library.getSource();
+    if (!libraryIndices.containsKey(source)) {
+      libraryIndices.put(source, librariesToWrite.size());
+      librariesToWrite.add(library);
+    }
+  }
+
+  /**
+   * Return the flags encoding the boolean properties of the given executable element.
+   * 
+   * @param element the element whose properties are to be encoded
+   * @return the flags encoding the properties of the element
+   */
+  private int getExecutableFlags(ExecutableElement element) {
+    int flags = getFlags(element);
+    if (element.isAsynchronous()) {
+      flags |= FLAG_ASYNCHRONOUS;
+    }
+    if (element.isGenerator()) {
+      flags |= FLAG_GENERATOR;
+    }
+    if (element.isStatic()) {
+      flags |= FLAG_STATIC;
+    }
+    return flags;
+  }
+
+  /**
+   * Return the flags encoding the boolean properties common to all elements.
+   * 
+   * @param element the element whose properties are to be encoded
+   * @return the flags encoding the properties of the element
+   */
+  private int getFlags(Element element) {
+    return element.isSynthetic() ? FLAG_SYNTHETIC : 0;
+  }
+
+  /**
+   * Return the flags encoding the boolean properties of the given variable element.
+   * 
+   * @param element the element whose properties are to be encoded
+   * @return the flags encoding the properties of the element
+   */
+  private int getVariableFlags(VariableElement element) {
+    int flags = getFlags(element);
+    if (element.isConst()) {
+      flags |= FLAG_CONST;
+    }
+    if (element.isFinal()) {
+      flags |= FLAG_FINAL;
+    }
+    return flags;
+  }
+
+  /**
+   * Return the index of the given element in the given array, or {@code -1} if the array does not
+   * contain the element.
+   * 
+   * @param elements the array to be searched
+   * @param element the element being searched for
+   * @return the index of the given element in the given array
+   */
+  private int indexOf(Element[] elements, Element element) {
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i] == element) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return {@code true} if the given parameters are the same as the given parameters of a function
+   * typed parameter.
+   * 
+   * @param parameters the parameters of the function type
+   * @param ownParameters the parameters of the parameter whose type is the function type
+   * @return {@code true} if the parameters are identical
+   */
+  private boolean isShared(ParameterElement[] parameters, ParameterElement[] ownParameters) {
+    if (ownParameters == null || parameters.length != ownParameters.length) {
+      return false;
+    }
+    for (int i = 0; i < parameters.length; i++) {
+      if (parameters[i] != ownParameters[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void writeAccessor(PropertyAccessorElement accessor, Element[] variables)
+      throws IOException {
+    writeString(accessor.getDisplayName());
+    writeInt(accessor.getNameOffset());
+    int flags = getExecutableFlags(accessor);
+    if (accessor.isAbstract()) {
+      flags |= FLAG_ABSTRACT;
+    }
+    if (accessor.isGetter()) {
+      flags |= FLAG_GETTER;
+    }
+    if (accessor.isSetter()) {
+      flags |= FLAG_SETTER;
+    }
+    writeInt(flags);
+    writeMetadata(accessor);
+    writeInt(indexOf(variables, accessor.getVariable()));
+    writeExecutable(accessor);
+  }
+
+  private void writeClass(ClassElement element) throws IOException {
+    typeParameters = element.getTypeParameters();
+    int flags = getFlags(element);
+    if (element.isAbstract()) {
+      flags |= FLAG_ABSTRACT;
+    }
+    if (element.isEnum()) {
+      flags |= FLAG_ENUM;
+    }
+    if (element.isTypedef()) {
+      flags |= FLAG_TYPEDEF;
+    }
+    if (element.isValidMixin()) {
+      flags |= FLAG_MIXIN;
+    }
+    if (element.hasReferenceToSuper()) {
+      flags |= FLAG_REFERENCES_SUPER;
+    }
+    writeInt(flags);
+    writeMetadata(element);
+    writeTypeParameterBounds(typeParameters);
+    writeType(element.getSupertype());
+    writeTypes(element.getMixins());
+    writeTypes(element.getInterfaces());
+    FieldElement[] fields = element.getFields();
+    writeInt(fields.length);
+    for (FieldElement field : fields) {
+      writeVariable(field, field instanceof ConstFieldElementImpl);
+    }
+    PropertyAccessorElement[] accessors = element.getAccessors();
+    writeInt(accessors.length);
+    for (PropertyAccessorElement accessor : accessors) {
+      writeAccessor(accessor, fields);
+    }
+    ConstructorElement[] constructors = element.getConstructors();
+    writeInt(constructors.length);
+    for (ConstructorElement constructor : constructors) {
+      writeConstructor(constructor);
+    }
+    MethodElement[] methods = element.getMethods();
+    writeInt(methods.length);
+    for (MethodElement method : methods) {
+      writeString(method.getDisplayName());
+      writeInt(method.getNameOffset());
+      int methodFlags = getExecutableFlags(method);
+      if (method.isAbstract()) {
+        methodFlags |= FLAG_ABSTRACT;
+      }
+      writeInt(methodFlags);
+      writeMetadata(method);
+      writeExecutable(method);
+    }
+    typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
+  }
+
+  private void writeCombinators(NamespaceCombinator[] combinators) throws IOException {
+    writeInt(combinators.length);
+    for (NamespaceCombinator combinator : combinators) {
+      if (combinator instanceof ShowElementCombinator) {
+        ShowElementCombinator show = (ShowElementCombinator) combinator;
+        writeInt(COMBINATOR_SHOW);
+        writeStrings(show.getShownNames());
+        writeInt(show.getOffset());
+        writeInt(show.getEnd());
+      } else {
+        writeInt(COMBINATOR_HIDE);
+        writeStrings(((HideElementCombinator) combinator).getHiddenNames());
+      }
+    }
+  }
+
+  private void writeConstructor(ConstructorElement constructor) throws IOException {
+    writeString(constructor.getName());
+    writeInt(constructor.getNameOffset());
+    int flags = getExecutableFlags(constructor);
+    if (constructor.isConst()) {
+      flags |= FLAG_CONST;
+    }
+    if (constructor.isFactory()) {
+      flags |= FLAG_FACTORY;
+    }
+    writeInt(flags);
+    writeMetadata(constructor);
+    writeExecutable(constructor);
+    ConstructorElement redirectedConstructor = constructor.getRedirectedConstructor();
+    if (redirectedConstructor instanceof ConstructorMember) {
+      output.writeBoolean(true);
+      writeReference(((ConstructorMember) redirectedConstructor).getBaseElement());
+      writeType(redirectedConstructor.getReturnType());
+    } else if (redirectedConstructor != null) {
+      output.writeBoolean(true);
+      writeReference(redirectedConstructor);
+      writeType(null);
+    } else {
+      output.writeBoolean(false);
+    }
+  }
+
+  private void writeDeclaration(Element element) throws IOException {
+    writeString(element.getName());
+    writeInt(element.getNameOffset());
+  }
+
+  private void writeEvaluationResult(EvaluationResultImpl result) throws IOException {
+    if (result == null) {
+      writeInt(RESULT_NONE);
+    } else if (result.getValue() == null) {
+      writeInt(RESULT_ERROR);
+    } else {
+      writeInt(RESULT_VALUE);
+      writeValue(result.getValue());
+    }
+  }
+
+  private void writeExecutable(ExecutableElement element) throws IOException {
+    writeType(element.getReturnType());
+    writeParameters(element.getParameters());
+    FunctionType type = element.getType();
+    if (type == null) {
+      output.writeBoolean(false);
+    } else {
+      output.writeBoolean(true);
+      writeTypes(type.getTypeArguments());
+    }
+  }
+
+  private void writeInt(int value) throws IOException {
+    writeInt(output, value);
+  }
+
+  private void writeLibrary(LibraryElement library) throws IOException {
+    writeString(library.getName());
+    writeInt(library.getNameOffset());
+    writeInt(library.hasExtUri() ? FLAG_HAS_EXT_URI : 0);
+    CompilationUnitElement[] units = library.getUnits();
+    writeInt(units.length);
+    for (CompilationUnitElement unit : units) {
+      writeString(unit.getSource().getEncoding());
+      writeString(unit.getUri());
+      writeInt(unit.getUriOffset());
+      writeInt(unit.getUriEnd());
+    }
+    //
+    // Write the declarations of the types first so that they can be created before any of the
+    // types are used.
+    //
+    for (CompilationUnitElement unit : units) {
+      writeTypeDeclarations(unit.getTypes());
+      writeTypeDeclarations(unit.getEnums());
+      FunctionTypeAliasElement[] aliases = unit.getFunctionTypeAliases();
+      writeInt(aliases.length);
+      for (FunctionTypeAliasElement alias : aliases) {
+        writeDeclaration(alias);
+        writeTypeParameterDeclarations(alias.getTypeParameters());
+      }
+    }
+    for (CompilationUnitElement unit : units) {
+      for (ClassElement type : unit.getTypes()) {
+        writeClass(type);
+      }
+      for (ClassElement type : unit.getEnums()) {
+        writeClass(type);
+      }
+      for (FunctionTypeAliasElement alias : unit.getFunctionTypeAliases()) {
+        typeParameters = alias.getTypeParameters();
+        writeInt(getFlags(alias));
+        writeMetadata(alias);
+        writeTypeParameterBounds(typeParameters);
+        writeType(alias.getReturnType());
+        writeParameters(alias.getParameters());
+        typeParameters = TypeParameterElementImpl.EMPTY_ARRAY;
+      }
+      TopLevelVariableElement[] variables = unit.getTopLevelVariables();
+      writeInt(variables.length);
+      for (TopLevelVariableElement variable : variables) {
+        writeVariable(variable, variable instanceof ConstTopLevelVariableElementImpl);
+      }
+      PropertyAccessorElement[] accessors = unit.getAccessors();
+      writeInt(accessors.length);
+      for (PropertyAccessorElement accessor : accessors) {
+        writeAccessor(accessor, variables);
+      }
+      FunctionElement[] functions = unit.getFunctions();
+      writeInt(functions.length);
+      for (FunctionElement function : functions) {
+        writeDeclaration(function);
+        writeInt(getExecutableFlags(function));
+        writeMetadata(function);
+        writeExecutable(function);
+      }
+    }
+    writeMetadata(library);
+    ImportElement[] imports = library.getImports();
+    writeInt(imports.length);
+    for (ImportElement importElement : imports) {
+      int flags = getFlags(importElement);
+      if (importElement.isDeferred()) {
+        flags |= FLAG_DEFERRED;
+      }
+      writeInt(flags);
+      writeInt(importElement.getNameOffset());
+      writeString(importElement.getUri());
+      writeInt(importElement.getUriOffset());
+      writeInt(importElement.getUriEnd());
+      writeLibraryReference(importElement.getImportedLibrary());
+      PrefixElement prefix = importElement.getPrefix();
+      if (prefix == null) {
+        writeString(null);
+      } else {
+        writeString(prefix.getName());
+        writeInt(prefix.getNameOffset());
+        writeInt(importElement.getPrefixOffset());
+      }
+      writeCombinators(importElement.getCombinators());
+    }
+    ExportElement[] exports = library.getExports();
+    writeInt(exports.length);
+    for (ExportElement exportElement : exports) {
+      writeString(exportElement.getUri());
+      writeInt(exportElement.getUriOffset());
+      writeInt(exportElement.getUriEnd());
+      writeLibraryReference(exportElement.getExportedLibrary());
+      writeCombinators(exportElement.getCombinators());
+    }
+    FunctionElement entryPoint = library.getEntryPoint();
+    writeString(entryPoint != null && entryPoint.getLibrary() == library ? entryPoint.getName()
+        : null);
+  }
+
+  private void writeLibraryReference(LibraryElement library) throws IOException {
+    Integer index = library == null ? null : libraryIndices.get(library.getSource());
+    if (index == null) {
+      throw new IOException("Reference to a library that is not being summarized: "
+          + (library == null ? "null" : library.getSource().getFullName()));
+    }
+    writeInt(index.intValue());
+  }
+
+  /**
+   * Write the metadata associated with the given element. Annotations whose element cannot be
+   * referenced from a summary are not written.
+   */
+  private void writeMetadata(Element element) throws IOException {
+    ArrayList<Element> annotations = new ArrayList<Element>();
+    for (ElementAnnotation annotation : element.getMetadata()) {
+      Element annotationElement = annotation.getElement();
+      if (annotationElement instanceof ConstructorMember) {
+        annotationElement = ((ConstructorMember) annotationElement).getBaseElement();
+      }
+      if (annotationElement instanceof ConstructorElement
+          || annotationElement instanceof PropertyAccessorElement) {
+        if (libraryIndices.containsKey(annotationElement.getLibrary().getSource())) {
+          annotations.add(annotationElement);
+        }
+      }
+    }
+    writeInt(annotations.size());
+    for (Element annotationElement : annotations) {
+      writeReference(annotationElement);
+    }
+  }
+
+  private void writeParameters(ParameterElement[] parameters) throws IOException {
+    writeInt(parameters.length);
+    for (ParameterElement parameter : parameters) {
+      writeDeclaration(parameter);
+      writeInt(getVariableFlags(parameter));
+      writeInt(parameter.getParameterKind().ordinal());
+      if (parameter instanceof DefaultFieldFormalParameterElementImpl) {
+        writeInt(PARAMETER_DEFAULT_FIELD_FORMAL);
+      } else if (parameter instanceof DefaultParameterElementImpl) {
+        writeInt(PARAMETER_DEFAULT);
+      } else if (parameter instanceof FieldFormalParameterElement) {
+        writeInt(PARAMETER_FIELD_FORMAL);
+      } else {
+        writeInt(PARAMETER_SIMPLE);
+      }
+      writeMetadata(parameter);
+      ParameterElement[] ownParameters = parameter.getParameters();
+      writeParameters(ownParameters);
+      Type type = parameter.getType();
+      if (type instanceof FunctionType
+          && type.getElement() instanceof FunctionTypeAliasElement
+          && type.getElement().isSynthetic()
+          && isShared(((FunctionTypeAliasElement) type.getElement()).getParameters(), ownParameters)) {
+        //
+        // The type was created from the parameters of the parameter, so there is no need to write
+        // them a second time.
+        //
+        writeInt(TYPE_SYNTHETIC_FUNCTION);
+        output.writeBoolean(true);
+        writeSyntheticFunctionType((FunctionType) type);
+      } else {
+        writeType(type);
+      }
+      writeString(parameter.getDefaultValueCode());
+      if (parameter instanceof DefaultParameterElementImpl) {
+        writeEvaluationResult(((DefaultParameterElementImpl) parameter).getEvaluationResult());
+      } else if (parameter instanceof DefaultFieldFormalParameterElementImpl) {
+        writeEvaluationResult(((DefaultFieldFormalParameterElementImpl) parameter).getEvaluationResult());
+      }
+      if (parameter instanceof FieldFormalParameterElement) {
+        FieldElement field = ((FieldFormalParameterElement) parameter).getField();
+        writeString(field == null ? null : field.getName());
+      }
+    }
+  }
+
+  /**
+   * Write a reference to the given element. The element must be a class, a function type alias, a
+   * constructor, a top-level function or a property accessor.
+   */
+  private void writeReference(Element element) throws IOException {
+    if (element instanceof ClassElement) {
+      writeInt(REFERENCE_CLASS);
+      writeLibraryReference(element.getLibrary());
+      writeString(element.getName());
+    } else if (element instanceof FunctionTypeAliasElement && !element.isSynthetic()) {
+      writeInt(REFERENCE_TYPE_ALIAS);
+      writeLibraryReference(element.getLibrary());
+      writeString(element.getName());
+    } else if (element instanceof ConstructorElement) {
+      writeInt(REFERENCE_CONSTRUCTOR);
+      writeLibraryReference(element.getLibrary());
+      writeString(element.getEnclosingElement().getName());
+      writeString(element.getName());
+    } else if (element instanceof PropertyAccessorElement
+        && element.getEnclosingElement() instanceof ClassElement) {
+      writeInt(REFERENCE_CLASS_ACCESSOR);
+      writeLibraryReference(element.getLibrary());
+      writeString(element.getEnclosingElement().getName());
+      writeString(element.getName());
+    } else if (element instanceof PropertyAccessorElement) {
+      writeInt(REFERENCE_TOP_LEVEL_ACCESSOR);
+      writeLibraryReference(element.getLibrary());
+      writeString(element.getName());
+    } else if (element instanceof FunctionElement
+        && element.getEnclosingElement() instanceof CompilationUnitElement) {
+      writeInt(REFERENCE_FUNCTION);
+      writeLibraryReference(element.getLibrary());
+      writeString(element.getName());
+    } else {
+      throw new IOException("Cannot write a reference to " + element);
+    }
+  }
+
+  private void writeString(String string) throws IOException {
+    if (string == null) {
+      writeInt(-1);
+      return;
+    }
+    Integer index = stringIndices.get(string);
+    if (index == null) {
+      index = strings.size();
+      strings.add(string);
+      stringIndices.put(string, index);
+    }
+    writeInt(index.intValue());
+  }
+
+  private void writeStrings(String[] strings) throws IOException {
+    writeInt(strings.length);
+    for (String string : strings) {
+      writeString(string);
+    }
+  }
+
+  private void writeSyntheticFunctionType(FunctionType type) throws IOException {
+    FunctionTypeAliasElement alias = (FunctionTypeAliasElement) type.getElement();
+    writeType(alias.getReturnType());
+    output.writeBoolean(alias.getTypeParameters().length > 0);
+    writeTypes(type.getTypeArguments());
+  }
+
+  private void writeType(Type type) throws IOException {
+    if (type == null) {
+      writeInt(TYPE_NULL);
+    } else if (type.isDynamic()) {
+      writeInt(TYPE_DYNAMIC);
+    } else if (type.isVoid()) {
+      writeInt(TYPE_VOID);
+    } else if (type.isBottom()) {
+      writeInt(TYPE_BOTTOM);
+    } else if (type instanceof InterfaceType) {
+      writeInt(TYPE_INTERFACE);
+      writeReference(type.getElement());
+      writeTypes(((InterfaceType) type).getTypeArguments());
+    } else if (type instanceof TypeParameterType) {
+      int index = indexOf(typeParameters, type.getElement());
+      if (index < 0) {
+        throw new IOException("Reference to a type parameter that is not in scope: " + type);
+      }
+      writeInt(TYPE_PARAMETER);
+      writeInt(index);
+    } else if (type instanceof FunctionType && type.getElement() instanceof FunctionTypeAliasElement) {
+      FunctionTypeAliasElement alias = (FunctionTypeAliasElement) type.getElement();
+      if (alias.isSynthetic()) {
+        writeInt(TYPE_SYNTHETIC_FUNCTION);
+        output.writeBoolean(false);
+        writeParameters(alias.getParameters());
+        writeSyntheticFunctionType((FunctionType) type);
+      } else {
+        writeInt(TYPE_FUNCTION);
+        writeReference(alias);
+        writeTypes(((FunctionType) type).getTypeArguments());
+      }
+    } else {
+      throw new IOException("Cannot write the type " + type);
+    }
+  }
+
+  private void writeTypeDeclarations(ClassElement[] types) throws IOException {
+    writeInt(types.length);
+    for (ClassElement type : types) {
+      writeDeclaration(type);
+      writeTypeParameterDeclarations(type.getTypeParameters());
+    }
+  }
+
+  private void writeTypeParameterBounds(TypeParameterElement[] parameters) throws IOException {
+    for (TypeParameterElement parameter : parameters) {
+      writeType(parameter.getBound());
+    }
+  }
+
+  private void writeTypeParameterDeclarations(TypeParameterElement[] parameters)
+      throws IOException {
+    writeInt(parameters.length);
+    for (TypeParameterElement parameter : parameters) {
+      writeDeclaration(parameter);
+    }
+  }
+
+  private void writeTypes(Type[] types) throws IOException {
+    writeInt(types.length);
+    for (Type type : types) {
+      writeType(type);
+    }
+  }
+
+  /**
+   * Write the given constant value. Values that are not primitive values or instances of classes
+   * are written as unknown values of the same type.
+   */
+  private void writeValue(DartObjectImpl value) throws IOException {
+    InterfaceType type = value.getType();
+    if (canWriteType(type)) {
+      writeType(type);
+    } else {
+      writeInt(TYPE_INTERFACE);
+      writeReference(type.getElement());
+      writeInt(0);
+    }
+    if (value.isNull()) {
+      writeInt(VALUE_NULL);
+      return;
+    }
+    String typeName = type.getElement().getLibrary().isDartCore() ? type.getName() : null;
+    if ("bool".equals(typeName) && value.getBoolValue() != null) {
+      writeInt(VALUE_BOOL);
+      output.writeBoolean(value.getBoolValue().booleanValue());
+    } else if ("int".equals(typeName) && value.getIntValue() != null) {
+      writeInt(VALUE_INT);
+      writeString(value.getIntValue().toString());
+    } else if ("double".equals(typeName) && value.getDoubleValue() != null) {
+      writeInt(VALUE_DOUBLE);
+      output.writeDouble(value.getDoubleValue().doubleValue());
+    } else if ("String".equals(typeName) && value.getStringValue() != null) {
+      writeInt(VALUE_STRING);
+      writeString(value.getStringValue());
+    } else if (value.isUserDefinedObject() && !value.isUnknown()) {
+      writeInt(VALUE_OBJECT);
+      HashMap<String, DartObjectImpl> fields = value.getFields();
+      writeInt(fields.size());
+      for (Map.Entry<String, DartObjectImpl> entry : fields.entrySet()) {
+        writeString(entry.getKey());
+        writeValue(entry.getValue());
+      }
+    } else {
+      writeInt(VALUE_UNKNOWN);
+    }
+  }
+
+  private void writeVariable(PropertyInducingElement variable, boolean isConstWithInitializer)
+      throws IOException {
+    writeDeclaration(variable);
+    output.writeBoolean(isConstWithInitializer);
+    int flags = getVariableFlags(variable);
+    if (variable.isStatic()) {
+      flags |= FLAG_STATIC;
+    }
+    writeInt(flags);
+    writeMetadata(variable);
+    writeType(variable.getType());
+    Type propagatedType = variable.getPropagatedType();
+    writeType(canWriteType(propagatedType) ? propagatedType : null);
+    if (isConstWithInitializer) {
+      writeEvaluationResult(((VariableElementImpl) variable).getEvaluationResult());
+    }
+  }
+}
@@ -13,7 +13,12 @@
  */
 package com.google.dart.engine.internal.task;
 
+import com.google.dart.engine.ast.AstNode;
+import com.google.dart.engine.ast.Block;
+import com.google.dart.engine.ast.BlockFunctionBody;
 import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.ast.FunctionBody;
+import com.google.dart.engine.ast.visitor.NodeLocator;
 import com.google.dart.engine.context.AnalysisException;
 import com.google.dart.engine.element.CompilationUnitElement;
 import com.google.dart.engine.element.LibraryElement;
@@ -21,6 +26,7 @@ import com.google.dart.engine.error.AnalysisErrorListener;
 import com.google.dart.engine.error.BooleanErrorListener;
 import com.google.dart.engine.internal.context.IncrementalAnalysisCache;
 import com.google.dart.engine.internal.context.InternalAnalysisContext;
+import com.google.dart.engine.internal.context.PerformanceStatistics;
 import com.google.dart.engine.internal.resolver.IncrementalResolver;
 import com.google.dart.engine.internal.resolver.TypeProvider;
 import com.google.dart.engine.parser.IncrementalParser;
@@ -28,9 +34,13 @@ import com.google.dart.engine.scanner.CharSequenceReader;
 import com.google.dart.engine.scanner.CharacterReader;
 import com.google.dart.engine.scanner.IncrementalScanner;
 import com.google.dart.engine.source.Source;
+import com.google.dart.engine.utilities.general.TimeCounter.TimeCounterHandle;
 
 /**
  * Instances of the class {@code IncrementalAnalysisTask} incrementally update existing analysis.
+ * Modifications that are confined to a single function body are handled by re-parsing and
+ * re-resolving only that body; all other modifications fall back to a full analysis of the unit,
+ * which is recorded in {@link PerformanceStatistics}.
  */
 public class IncrementalAnalysisTask extends AnalysisTask {
 
@@ -99,10 +109,86 @@ public class IncrementalAnalysisTask extends AnalysisTask {
     if (cache == null) {
       return;
     }
+    TimeCounterHandle timeCounter = PerformanceStatistics.incremental.start();
+    try {
+      updatedUnit = updateUnit();
+    } finally {
+      timeCounter.stop();
+      if (updatedUnit == null) {
+        PerformanceStatistics.recordIncrementalFallback();
+      }
+    }
+  }
 
-    // Only handle small changes
-    if (cache.getOldLength() > 0 || cache.getNewLength() > 30) {
-      return;
+  /**
+   * Return the block function body that most closely encloses the modified range of characters in
+   * the given compilation unit, or {@code null} if the modification is not confined to the
+   * statements of a single function body.
+   * 
+   * @param unit the compilation unit containing the modified range of characters
+   * @return the function body enclosing the modification
+   */
+  private BlockFunctionBody findEnclosingBody(CompilationUnit unit) {
+    int start = cache.getOffset();
+    int end = start + cache.getOldLength();
+    AstNode node = new NodeLocator(start, end).searchWithin(unit);
+    while (node != null) {
+      if (node instanceof BlockFunctionBody) {
+        Block block = ((BlockFunctionBody) node).getBlock();
+        if (block.getLeftBracket().getEnd() <= start && end <= block.getRightBracket().getOffset()) {
+          return (BlockFunctionBody) node;
+        }
+      }
+      node = node.getParent();
+    }
+    return null;
+  }
+
+  /**
+   * Return the outermost function body containing the given node, or {@code null} if the node is
+   * not contained in a function body.
+   * 
+   * @param node the node whose enclosing function body is to be returned
+   * @return the outermost function body containing the given node
+   */
+  private FunctionBody findOutermostBody(AstNode node) {
+    FunctionBody body = null;
+    while (node != null) {
+      if (node instanceof FunctionBody) {
+        body = (FunctionBody) node;
+      }
+      node = node.getParent();
+    }
+    return body;
+  }
+
+  /**
+   * Return the type provider used for incremental resolution.
+   * 
+   * @return the type provider (or {@code null} if an exception occurs)
+   */
+  private TypeProvider getTypeProvider() {
+    try {
+      return getContext().getTypeProvider();
+    } catch (AnalysisException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Incrementally update the resolved compilation unit in the cache to reflect the modification
+   * described by the cache. Only modifications that are confined to a single function body are
+   * handled: the tokens are re-scanned, the smallest enclosing node within the body is re-parsed and
+   * the body is re-resolved. Return the updated compilation unit, or {@code null} if the
+   * modification cannot be handled incrementally.
+   * 
+   * @return the updated compilation unit
+   * @throws AnalysisException if the updated function body could not be resolved
+   */
+  private CompilationUnit updateUnit() throws AnalysisException {
+    CompilationUnit resolvedUnit = cache.getResolvedUnit();
+    if (findEnclosingBody(resolvedUnit) == null) {
+      return null;
     }
 
     // Produce an updated token stream
@@ -110,12 +196,12 @@ public class IncrementalAnalysisTask extends AnalysisTask {
     BooleanErrorListener errorListener = new BooleanErrorListener();
     IncrementalScanner scanner = new IncrementalScanner(cache.getSource(), reader, errorListener);
     scanner.rescan(
-        cache.getResolvedUnit().getBeginToken(),
+        resolvedUnit.getBeginToken(),
         cache.getOffset(),
         cache.getOldLength(),
         cache.getNewLength());
     if (errorListener.getErrorReported()) {
-      return;
+      return null;
     }
 
     // Produce an updated AST
@@ -123,17 +209,26 @@ public class IncrementalAnalysisTask extends AnalysisTask {
         cache.getSource(),
         scanner.getTokenMap(),
         AnalysisErrorListener.NULL_LISTENER);
-    updatedUnit = parser.reparse(
-        cache.getResolvedUnit(),
+    CompilationUnit unit = parser.reparse(
+        resolvedUnit,
         scanner.getLeftToken(),
         scanner.getRightToken(),
         cache.getOffset(),
         cache.getOffset() + cache.getOldLength());
+    if (unit == null) {
+      return null;
+    }
+    // If the re-parse had to extend beyond the function body, then the declarations might have
+    // changed and the whole unit needs to be analyzed.
+    FunctionBody body = findOutermostBody(parser.getUpdatedNode());
+    if (body == null) {
+      return null;
+    }
 
-    // Update the resolution 
+    // Update the resolution of the function body
     TypeProvider typeProvider = getTypeProvider();
-    if (updatedUnit != null && typeProvider != null) {
-      CompilationUnitElement element = updatedUnit.getElement();
+    if (typeProvider != null) {
+      CompilationUnitElement element = unit.getElement();
       if (element != null) {
         LibraryElement library = element.getLibrary();
         if (library != null) {
@@ -142,22 +237,10 @@ public class IncrementalAnalysisTask extends AnalysisTask {
               cache.getSource(),
               typeProvider,
               errorListener);
-          resolver.resolve(parser.getUpdatedNode());
+          resolver.resolve(body);
         }
       }
     }
-  }
-
-  /**
-   * Return the type provider used for incremental resolution.
-   * 
-   * @return the type provider (or {@code null} if an exception occurs)
-   */
-  private TypeProvider getTypeProvider() {
-    try {
-      return getContext().getTypeProvider();
-    } catch (AnalysisException exception) {
-      return null;
-    }
+    return unit;
   }
 }
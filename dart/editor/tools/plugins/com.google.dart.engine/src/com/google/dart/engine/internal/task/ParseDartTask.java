@@ -28,6 +28,7 @@ import com.google.dart.engine.context.AnalysisOptions;
 import com.google.dart.engine.error.AnalysisError;
 import com.google.dart.engine.error.AnalysisErrorListener;
 import com.google.dart.engine.error.CompileTimeErrorCode;
+import com.google.dart.engine.internal.cache.SharedUnitCache;
 import com.google.dart.engine.internal.context.InternalAnalysisContext;
 import com.google.dart.engine.internal.context.PerformanceStatistics;
 import com.google.dart.engine.internal.context.RecordingErrorListener;
@@ -113,6 +114,11 @@ public class ParseDartTask extends AnalysisTask {
    */
   private LineInfo lineInfo;
 
+  /**
+   * A flag indicating whether the contents of function bodies are to be replaced by empty blocks.
+   */
+  private boolean declarationsOnly;
+
   /**
    * The compilation unit that was produced by parsing the source.
    */
@@ -159,11 +165,28 @@ public class ParseDartTask extends AnalysisTask {
    */
   public ParseDartTask(InternalAnalysisContext context, Source source, long modificationTime,
       Token tokenStream, LineInfo lineInfo) {
+    this(context, source, modificationTime, tokenStream, lineInfo, false);
+  }
+
+  /**
+   * Initialize a newly created task to perform analysis within the given context.
+   * 
+   * @param context the context in which the task is to be performed
+   * @param source the source to be parsed
+   * @param modificationTime the time at which the contents of the source were last modified
+   * @param tokenStream the head of the token stream used for parsing
+   * @param lineInfo the line information associated with the source
+   * @param declarationsOnly {@code true} if the contents of function bodies are to be replaced by
+   *          empty blocks
+   */
+  public ParseDartTask(InternalAnalysisContext context, Source source, long modificationTime,
+      Token tokenStream, LineInfo lineInfo, boolean declarationsOnly) {
     super(context);
     this.source = source;
     this.modificationTime = modificationTime;
     this.tokenStream = tokenStream;
     this.lineInfo = lineInfo;
+    this.declarationsOnly = declarationsOnly;
   }
 
   @Override
@@ -269,6 +292,16 @@ public class ParseDartTask extends AnalysisTask {
     return containsPartOfDirective;
   }
 
+  /**
+   * Return {@code true} if the contents of function bodies were replaced by empty blocks, so that
+   * the compilation unit only contains the declarations.
+   * 
+   * @return {@code true} if the contents of function bodies were replaced by empty blocks
+   */
+  public boolean isDeclarationsOnly() {
+    return declarationsOnly;
+  }
+
   @Override
   protected String getTaskDescription() {
     if (source == null) {
@@ -285,14 +318,27 @@ public class ParseDartTask extends AnalysisTask {
     TimeCounterHandle timeCounterParse = PerformanceStatistics.parse.start();
     try {
       final RecordingErrorListener errorListener = new RecordingErrorListener();
-      Parser parser = new Parser(source, errorListener);
       AnalysisOptions options = getContext().getAnalysisOptions();
-      parser.setParseFunctionBodies(options.getAnalyzeFunctionBodies());
-      parser.setParseAsync(options.getEnableAsync());
-      parser.setParseDeferredLibraries(options.getEnableDeferredLoading());
-      parser.setParseEnum(options.getEnableEnum());
-      unit = parser.parseCompilationUnit(tokenStream);
-      unit.setLineInfo(lineInfo);
+      if (options.getShareParsedUnits()) {
+        SharedUnitCache sharedCache = SharedUnitCache.getInstance();
+        int optionBits = SharedUnitCache.getOptionBits(options, declarationsOnly);
+        unit = sharedCache.getUnit(tokenStream, optionBits);
+        if (unit == null) {
+          if (sharedCache.isShared(tokenStream)) {
+            //
+            // The parser can modify the tokens, so a shared stream that was parsed with different
+            // options needs to be copied.
+            //
+            tokenStream = SharedUnitCache.copyTokenStream(tokenStream);
+          }
+          unit = parse(options, errorListener);
+          if (errorListener.getErrors().length == 0) {
+            sharedCache.parsed(tokenStream, lineInfo, optionBits, unit);
+          }
+        }
+      } else {
+        unit = parse(options, errorListener);
+      }
       AnalysisContext analysisContext = getContext();
       for (Directive directive : unit.getDirectives()) {
         if (directive instanceof PartOfDirective) {
@@ -328,6 +374,25 @@ public class ParseDartTask extends AnalysisTask {
     }
   }
 
+  /**
+   * Parse the token stream.
+   * 
+   * @param options the options controlling how the token stream is to be parsed
+   * @param errorListener the error listener to which errors should be reported
+   * @return the compilation unit that was produced
+   */
+  private CompilationUnit parse(AnalysisOptions options, AnalysisErrorListener errorListener) {
+    Parser parser = new Parser(source, errorListener);
+    parser.setParseFunctionBodies(options.getAnalyzeFunctionBodies());
+    parser.setParseDeclarationsOnly(declarationsOnly);
+    parser.setParseAsync(options.getEnableAsync());
+    parser.setParseDeferredLibraries(options.getEnableDeferredLoading());
+    parser.setParseEnum(options.getEnableEnum());
+    CompilationUnit unit = parser.parseCompilationUnit(tokenStream);
+    unit.setLineInfo(lineInfo);
+    return unit;
+  }
+
   /**
    * Efficiently convert the given set of sources to an array.
    * 
@@ -15,13 +15,18 @@ package com.google.dart.engine.internal.task;
 
 import com.google.dart.engine.context.AnalysisException;
 import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.internal.cache.SharedUnitCache;
+import com.google.dart.engine.internal.cache.SharedUnitCache.SharedUnit;
+import com.google.dart.engine.internal.cache.SharedUnitCache.UnitKey;
 import com.google.dart.engine.internal.context.InternalAnalysisContext;
 import com.google.dart.engine.internal.context.PerformanceStatistics;
 import com.google.dart.engine.internal.context.RecordingErrorListener;
 import com.google.dart.engine.scanner.CharSequenceReader;
+import com.google.dart.engine.scanner.CharacterReader;
 import com.google.dart.engine.scanner.Scanner;
 import com.google.dart.engine.scanner.Token;
 import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.Utf8FileContents;
 import com.google.dart.engine.utilities.general.TimeCounter.TimeCounterHandle;
 import com.google.dart.engine.utilities.source.LineInfo;
 
@@ -44,6 +49,12 @@ public class ScanDartTask extends AnalysisTask {
    */
   private CharSequence content;
 
+  /**
+   * A flag indicating whether the token stream will be parsed with the contents of function bodies
+   * being replaced by empty blocks.
+   */
+  private boolean declarationsOnly;
+
   /**
    * The token stream that was produced by scanning the source.
    */
@@ -69,10 +80,26 @@ public class ScanDartTask extends AnalysisTask {
    */
   public ScanDartTask(InternalAnalysisContext context, Source source, long modificationTime,
       CharSequence content) {
+    this(context, source, modificationTime, content, false);
+  }
+
+  /**
+   * Initialize a newly created task to perform analysis within the given context.
+   * 
+   * @param context the context in which the task is to be performed
+   * @param source the source to be parsed
+   * @param modificationTime the time at which the contents of the source were last modified
+   * @param content the contents of the source
+   * @param declarationsOnly {@code true} if the token stream will be parsed with the contents of
+   *          function bodies being replaced by empty blocks
+   */
+  public ScanDartTask(InternalAnalysisContext context, Source source, long modificationTime,
+      CharSequence content, boolean declarationsOnly) {
     super(context);
     this.source = source;
     this.modificationTime = modificationTime;
     this.content = content;
+    this.declarationsOnly = declarationsOnly;
   }
 
   @Override
@@ -142,11 +169,42 @@ public class ScanDartTask extends AnalysisTask {
     final RecordingErrorListener errorListener = new RecordingErrorListener();
     TimeCounterHandle timeCounterScan = PerformanceStatistics.scan.start();
     try {
-      Scanner scanner = new Scanner(source, new CharSequenceReader(content), errorListener);
+      //
+      // Contents that are decoded as they are scanned are not shared because computing the key
+      // would require all of the contents to be decoded.
+      //
+      SharedUnitCache sharedCache = null;
+      UnitKey key = null;
+      if (getContext().getAnalysisOptions().getShareParsedUnits()
+          && !(content instanceof Utf8FileContents)) {
+        sharedCache = SharedUnitCache.getInstance();
+        key = SharedUnitCache.createKey(
+            content,
+            getContext().getAnalysisOptions(),
+            declarationsOnly);
+        if (key != null) {
+          SharedUnit sharedUnit = sharedCache.get(key);
+          if (sharedUnit != null) {
+            tokenStream = sharedUnit.getTokenStream();
+            lineInfo = sharedUnit.getLineInfo();
+            return;
+          }
+        }
+      }
+      CharacterReader reader;
+      if (content instanceof Utf8FileContents) {
+        reader = ((Utf8FileContents) content).createReader();
+      } else {
+        reader = new CharSequenceReader(content);
+      }
+      Scanner scanner = new Scanner(source, reader, errorListener);
       scanner.setPreserveComments(getContext().getAnalysisOptions().getPreserveComments());
       tokenStream = scanner.tokenize();
       lineInfo = new LineInfo(scanner.getLineStarts());
       errors = errorListener.getErrorsForSource(source);
+      if (key != null && errors.length == 0) {
+        sharedCache.scanned(key, tokenStream);
+      }
     } catch (Exception exception) {
       throw new AnalysisException("Exception", exception);
     } finally {
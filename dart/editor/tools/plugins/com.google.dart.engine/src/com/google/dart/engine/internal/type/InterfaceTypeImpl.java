@@ -435,6 +435,15 @@ public class InterfaceTypeImpl extends TypeImpl implements InterfaceType {
     return element.hashCode();
   }
 
+  @Override
+  public boolean isAssignableTo(Type type) {
+    if (type instanceof InterfaceTypeImpl) {
+      // Each direction can be answered by the subtype cache of the corresponding class.
+      return isSubtypeOf(type) || type.isSubtypeOf(this);
+    }
+    return super.isAssignableTo(type);
+  }
+
   @Override
   public boolean isDartCoreFunction() {
     ClassElement element = getElement();
@@ -491,11 +500,43 @@ public class InterfaceTypeImpl extends TypeImpl implements InterfaceType {
     return false;
   }
 
+  @Override
+  public boolean isMoreSpecificThan(Type type) {
+    SubtypeCache cache = getSubtypeCache(type);
+    if (cache == null) {
+      return super.isMoreSpecificThan(type);
+    }
+    InterfaceType interfaceType = (InterfaceType) type;
+    Boolean answer = cache.isMoreSpecificThan(this, interfaceType);
+    if (answer == null) {
+      boolean result = super.isMoreSpecificThan(type);
+      cache.recordMoreSpecificThan(this, interfaceType, result);
+      return result;
+    }
+    return answer.booleanValue();
+  }
+
   @Override
   public boolean isObject() {
     return getElement().getSupertype() == null;
   }
 
+  @Override
+  public boolean isSubtypeOf(Type type) {
+    SubtypeCache cache = getSubtypeCache(type);
+    if (cache == null) {
+      return super.isSubtypeOf(type);
+    }
+    InterfaceType interfaceType = (InterfaceType) type;
+    Boolean answer = cache.isSubtypeOf(this, interfaceType);
+    if (answer == null) {
+      boolean result = super.isSubtypeOf(type);
+      cache.recordSubtypeOf(this, interfaceType, result);
+      return result;
+    }
+    return answer.booleanValue();
+  }
+
   @Override
   public ConstructorElement lookUpConstructor(String constructorName, LibraryElement library) {
     // prepare base ConstructorElement
@@ -783,6 +824,24 @@ public class InterfaceTypeImpl extends TypeImpl implements InterfaceType {
     return isSubtypeOf((InterfaceType) type, new HashSet<ClassElement>(), visitedTypePairs);
   }
 
+  /**
+   * Return the cache that can be used to answer subtype questions about this type and the given
+   * type, or {@code null} if the answers cannot be cached.
+   * 
+   * @param type the type with which this type is being compared
+   * @return the cache used to answer subtype questions about this type
+   */
+  private SubtypeCache getSubtypeCache(Type type) {
+    if (!(type instanceof InterfaceType)) {
+      return null;
+    }
+    ClassElement element = getElement();
+    if (element instanceof ClassElementImpl) {
+      return ((ClassElementImpl) element).getSubtypeCache();
+    }
+    return null;
+  }
+
   // TODO(jwren) Remove "visitedClasses" parameter, as the logic for "visitedTypePairs" should
   // prevent a larger set of infinite loops
   private boolean isMoreSpecificThan(InterfaceType s, HashSet<ClassElement> visitedClasses,
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.type;
+
+import com.google.dart.engine.element.Element;
+import com.google.dart.engine.internal.context.PerformanceStatistics;
+import com.google.dart.engine.type.InterfaceType;
+import com.google.dart.engine.type.Type;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Instances of the class {@code SubtypeCache} remember, for the instantiations of a single class,
+ * whether they are subtypes of, or more specific than, other interface types, so that the supertype
+ * graph does not need to be walked every time the same question is asked.
+ * <p>
+ * The answers depend on the type hierarchy, which is only modified while the element model of a
+ * library cycle is being built. Every such modification increments the version number shared by the
+ * libraries in the cycle, and a cache discards all of its answers when it finds that the version has
+ * changed since they were recorded. The libraries in other cycles that a class can depend on have
+ * already been built, and when a library is re-resolved new elements, with new caches, are created
+ * for it and for every library that depends on it.
+ * 
+ * @coverage dart.engine.type
+ */
+public class SubtypeCache {
+  /**
+   * Instances of the class {@code TypePairKey} are used as the keys in the tables of answers.
+   */
+  private static final class TypePairKey {
+    /**
+     * The type that is being compared with the other type.
+     */
+    private final InterfaceType firstType;
+
+    /**
+     * The type with which the first type is being compared.
+     */
+    private final InterfaceType secondType;
+
+    /**
+     * Initialize a newly created key to represent the given pair of types.
+     * 
+     * @param firstType the type that is being compared with the other type
+     * @param secondType the type with which the first type is being compared
+     */
+    public TypePairKey(InterfaceType firstType, InterfaceType secondType) {
+      this.firstType = firstType;
+      this.secondType = secondType;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof TypePairKey)) {
+        return false;
+      }
+      TypePairKey other = (TypePairKey) object;
+      return firstType.equals(other.firstType) && secondType.equals(other.secondType);
+    }
+
+    @Override
+    public int hashCode() {
+      return firstType.hashCode() * 31 + getHashCode(secondType.getElement());
+    }
+
+    /**
+     * Return the hash code of the given element, or {@code 0} if there is no element.
+     */
+    private int getHashCode(Element element) {
+      return element == null ? 0 : element.hashCode();
+    }
+  }
+
+  /**
+   * The maximum number of answers of each kind that are remembered by a single cache. When the
+   * limit is reached the answers are discarded so that unusual code cannot cause the cache to grow
+   * without bound.
+   */
+  private static final int MAX_SIZE = 512;
+
+  /**
+   * The version of the type hierarchy defined by the library cycle containing the class, which is
+   * incremented every time any part of that hierarchy is modified.
+   */
+  private final AtomicInteger hierarchyVersion;
+
+  /**
+   * The version of the type hierarchy at the time the answers in this cache were recorded.
+   */
+  private int version;
+
+  /**
+   * A table mapping pairs of types to whether the first type is more specific than the second, or
+   * {@code null} if no such answers have been recorded.
+   */
+  private HashMap<TypePairKey, Boolean> moreSpecificAnswers;
+
+  /**
+   * A table mapping pairs of types to whether the first type is a subtype of the second, or
+   * {@code null} if no such answers have been recorded.
+   */
+  private HashMap<TypePairKey, Boolean> subtypeAnswers;
+
+  /**
+   * Initialize a newly created cache to record answers that are valid as long as the given version
+   * of the type hierarchy does not change.
+   * 
+   * @param hierarchyVersion the version of the type hierarchy defined by the library cycle
+   *          containing the class
+   */
+  public SubtypeCache(AtomicInteger hierarchyVersion) {
+    this.hierarchyVersion = hierarchyVersion;
+    this.version = hierarchyVersion.get();
+  }
+
+  /**
+   * Return whether the first type was found to be more specific than the second type, or
+   * {@code null} if the answer is not known.
+   * 
+   * @param firstType the type being compared with the other type
+   * @param secondType the type with which the first type is being compared
+   * @return whether the first type is more specific than the second type
+   */
+  public synchronized Boolean isMoreSpecificThan(InterfaceType firstType,
+      InterfaceType secondType) {
+    checkVersion();
+    return lookUp(moreSpecificAnswers, firstType, secondType);
+  }
+
+  /**
+   * Return whether the first type was found to be a subtype of the second type, or {@code null} if
+   * the answer is not known.
+   * 
+   * @param firstType the type being compared with the other type
+   * @param secondType the type with which the first type is being compared
+   * @return whether the first type is a subtype of the second type
+   */
+  public synchronized Boolean isSubtypeOf(InterfaceType firstType, InterfaceType secondType) {
+    checkVersion();
+    return lookUp(subtypeAnswers, firstType, secondType);
+  }
+
+  /**
+   * Record whether the first type is more specific than the second type.
+   * 
+   * @param firstType the type being compared with the other type
+   * @param secondType the type with which the first type is being compared
+   * @param answer {@code true} if the first type is more specific than the second type
+   */
+  public synchronized void recordMoreSpecificThan(InterfaceType firstType,
+      InterfaceType secondType, boolean answer) {
+    checkVersion();
+    moreSpecificAnswers = record(moreSpecificAnswers, firstType, secondType, answer);
+  }
+
+  /**
+   * Record whether the first type is a subtype of the second type.
+   * 
+   * @param firstType the type being compared with the other type
+   * @param secondType the type with which the first type is being compared
+   * @param answer {@code true} if the first type is a subtype of the second type
+   */
+  public synchronized void recordSubtypeOf(InterfaceType firstType, InterfaceType secondType,
+      boolean answer) {
+    checkVersion();
+    subtypeAnswers = record(subtypeAnswers, firstType, secondType, answer);
+  }
+
+  /**
+   * Discard all of the answers if the type hierarchy has been modified since they were recorded.
+   */
+  private void checkVersion() {
+    int currentVersion = hierarchyVersion.get();
+    if (version != currentVersion) {
+      moreSpecificAnswers = null;
+      subtypeAnswers = null;
+      version = currentVersion;
+    }
+  }
+
+  /**
+   * Return the answer recorded in the given table for the given pair of types, or {@code null} if
+   * the answer is not known.
+   */
+  private Boolean lookUp(HashMap<TypePairKey, Boolean> answers, InterfaceType firstType,
+      InterfaceType secondType) {
+    Boolean answer = answers == null ? null : answers.get(new TypePairKey(firstType, secondType));
+    if (answer == null) {
+      PerformanceStatistics.recordSubtypeCacheMiss();
+    } else {
+      PerformanceStatistics.recordSubtypeCacheHit();
+    }
+    return answer;
+  }
+
+  /**
+   * Record the answer for the given pair of types in the given table and return the table in which
+   * it was recorded.
+   */
+  private HashMap<TypePairKey, Boolean> record(HashMap<TypePairKey, Boolean> answers,
+      InterfaceType firstType, InterfaceType secondType, boolean answer) {
+    if (answers == null || answers.size() >= MAX_SIZE) {
+      answers = new HashMap<TypePairKey, Boolean>();
+    }
+    answers.put(new TypePairKey(firstType, secondType), Boolean.valueOf(answer));
+    return answers;
+  }
+}
@@ -229,7 +229,7 @@ public abstract class TypeImpl implements Type {
   }
 
   @Override
-  public final boolean isMoreSpecificThan(Type type) {
+  public boolean isMoreSpecificThan(Type type) {
     return isMoreSpecificThan(type, false, new HashSet<TypePair>());
   }
 
@@ -263,7 +263,7 @@ public abstract class TypeImpl implements Type {
   }
 
   @Override
-  public final boolean isSubtypeOf(Type type) {
+  public boolean isSubtypeOf(Type type) {
     return isSubtypeOf(type, new HashSet<TypePair>());
   }
 
@@ -96,6 +96,14 @@ public class Parser {
    */
   private boolean parseFunctionBodies = true;
 
+  /**
+   * A flag indicating whether the parser is to replace the contents of function bodies by empty
+   * blocks. Unlike skipped function bodies, the replaced bodies keep the 'async' and generator
+   * modifiers and do not make methods abstract, so the element model is the same as for the full
+   * unit.
+   */
+  private boolean parseDeclarationsOnly = false;
+
   /**
    * A flag indicating whether the parser is to parse the async support.
    */
@@ -259,6 +267,17 @@ public class Parser {
     this.parseAsync = parseAsync;
   }
 
+  /**
+   * Set whether the parser is to replace the contents of function bodies by empty blocks. This has
+   * no effect if function bodies are not parsed.
+   * 
+   * @param parseDeclarationsOnly {@code true} if the parser is to replace the contents of function
+   *          bodies by empty blocks
+   */
+  public void setParseDeclarationsOnly(boolean parseDeclarationsOnly) {
+    this.parseDeclarationsOnly = parseDeclarationsOnly;
+  }
+
   /**
    * Set whether the parser is to parse deferred libraries.
    * 
@@ -4127,6 +4146,12 @@ public class Parser {
         if (!parseFunctionBodies) {
           return new EmptyFunctionBody(createSyntheticToken(TokenType.SEMICOLON));
         }
+        if (parseDeclarationsOnly) {
+          return new BlockFunctionBody(keyword, null, new Block(
+              createSyntheticToken(TokenType.OPEN_CURLY_BRACKET),
+              new ArrayList<Statement>(),
+              createSyntheticToken(TokenType.CLOSE_CURLY_BRACKET)));
+        }
         return new ExpressionFunctionBody(keyword, functionDefinition, expression, semicolon);
       } else if (matches(TokenType.OPEN_CURLY_BRACKET)) {
         if (keyword != null) {
@@ -4138,6 +4163,18 @@ public class Parser {
           skipBlock();
           return new EmptyFunctionBody(createSyntheticToken(TokenType.SEMICOLON));
         }
+        if (parseDeclarationsOnly) {
+          Token leftBracket = currentToken;
+          Token rightBracket = ((BeginToken) leftBracket).getEndToken();
+          skipBlock();
+          if (rightBracket == null) {
+            rightBracket = createSyntheticToken(TokenType.CLOSE_CURLY_BRACKET);
+          }
+          return new BlockFunctionBody(keyword, star, new Block(
+              leftBracket,
+              new ArrayList<Statement>(),
+              rightBracket));
+        }
         return new BlockFunctionBody(keyword, star, parseBlock());
       } else {
         // Invalid function body
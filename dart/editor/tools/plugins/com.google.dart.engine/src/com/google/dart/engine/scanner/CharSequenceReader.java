@@ -52,6 +52,11 @@ public class CharSequenceReader implements CharacterReader {
     return sequence.charAt(++charOffset);
   }
 
+  @Override
+  public String getInternedString(int start, int endDelta, SymbolTable symbols) {
+    return symbols.intern(sequence, start, charOffset + 1 + endDelta);
+  }
+
   @Override
   public int getOffset() {
     return charOffset;
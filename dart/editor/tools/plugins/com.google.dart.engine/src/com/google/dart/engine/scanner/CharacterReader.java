@@ -24,6 +24,20 @@ public interface CharacterReader {
    */
   public int advance();
 
+  /**
+   * Return the canonical string, as returned by the given symbol table, containing the characters
+   * of the source code between the start offset and the modified current position. The current
+   * position is modified by adding the end delta.
+   * 
+   * @param start the offset to the beginning of the string, relative to the start of the file
+   * @param endDelta the number of characters after the current location to be included in the
+   *          string, or the number of characters before the current location to be excluded if the
+   *          offset is negative
+   * @param symbols the symbol table used to find the canonical string
+   * @return the canonical string containing the specified characters of the source code
+   */
+  public String getInternedString(int start, int endDelta, SymbolTable symbols);
+
   /**
    * Return the current offset relative to the beginning of the source. Return the initial offset if
    * the scanner has not yet scanned the source code, and one (1) past the end of the source code if
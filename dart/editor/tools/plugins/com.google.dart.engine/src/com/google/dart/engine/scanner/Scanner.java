@@ -80,6 +80,11 @@ public class Scanner {
    */
   private int tokenStart;
 
+  /**
+   * The symbol table used to find the canonical lexemes of the string tokens.
+   */
+  private final SymbolTable symbols = new SymbolTable();
+
   /**
    * A list containing the offsets of the first character of each line in the source code.
    */
@@ -481,9 +486,9 @@ public class Scanner {
 
   private void appendStringToken(TokenType type, String value) {
     if (firstComment == null) {
-      tail = tail.setNext(new StringToken(type, value, tokenStart));
+      tail = tail.setNext(new StringToken(type, value, tokenStart, true));
     } else {
-      tail = tail.setNext(new StringTokenWithComment(type, value, tokenStart, firstComment));
+      tail = tail.setNext(new StringTokenWithComment(type, value, tokenStart, firstComment, true));
       firstComment = null;
       lastComment = null;
     }
@@ -491,9 +496,14 @@ public class Scanner {
 
   private void appendStringTokenWithOffset(TokenType type, String value, int offset) {
     if (firstComment == null) {
-      tail = tail.setNext(new StringToken(type, value, tokenStart + offset));
+      tail = tail.setNext(new StringToken(type, value, tokenStart + offset, true));
     } else {
-      tail = tail.setNext(new StringTokenWithComment(type, value, tokenStart + offset, firstComment));
+      tail = tail.setNext(new StringTokenWithComment(
+          type,
+          value,
+          tokenStart + offset,
+          firstComment,
+          true));
       firstComment = null;
       lastComment = null;
     }
@@ -702,7 +712,7 @@ public class Scanner {
       next = reader.advance();
     }
     if (!hasDigit) {
-      appendStringToken(TokenType.INT, reader.getString(start, -2));
+      appendStringToken(TokenType.INT, reader.getInternedString(start, -2, symbols));
       if ('.' == next) {
         return selectWithOffset(
             '.',
@@ -713,7 +723,9 @@ public class Scanner {
       appendTokenOfTypeWithOffset(TokenType.PERIOD, reader.getOffset() - 1);
       return bigSwitch(next);
     }
-    appendStringToken(TokenType.DOUBLE, reader.getString(start, next < 0 ? 0 : -1));
+    appendStringToken(
+        TokenType.DOUBLE,
+        reader.getInternedString(start, next < 0 ? 0 : -1, symbols));
     return next;
   }
 
@@ -750,7 +762,9 @@ public class Scanner {
         if (!hasDigits) {
           reportError(ScannerErrorCode.MISSING_HEX_DIGIT);
         }
-        appendStringToken(TokenType.HEXADECIMAL, reader.getString(start, next < 0 ? 0 : -1));
+        appendStringToken(
+            TokenType.HEXADECIMAL,
+            reader.getInternedString(start, next < 0 ? 0 : -1, symbols));
         return next;
       }
     }
@@ -770,7 +784,9 @@ public class Scanner {
         || ('0' <= next && next <= '9') || next == '_' || (next == '$' && allowDollar)) {
       next = reader.advance();
     }
-    appendStringToken(TokenType.IDENTIFIER, reader.getString(start, next < 0 ? 0 : -1));
+    appendStringToken(
+        TokenType.IDENTIFIER,
+        reader.getInternedString(start, next < 0 ? 0 : -1, symbols));
     return next;
   }
 
@@ -806,7 +822,7 @@ public class Scanner {
   }
 
   private int tokenizeInterpolatedIdentifier(int next, int start) {
-    appendStringTokenWithOffset(TokenType.STRING_INTERPOLATION_IDENTIFIER, "$", 0);
+    appendStringTokenWithOffset(TokenType.STRING_INTERPOLATION_IDENTIFIER, symbols.intern("$"), 0);
     if ((('A' <= next && next <= 'Z') || ('a' <= next && next <= 'z') || next == '_')) {
       beginToken();
       next = tokenizeKeywordOrIdentifier(next, false);
@@ -926,13 +942,13 @@ public class Scanner {
       if (next == quoteChar) {
         next = reader.advance();
         if (next == quoteChar) {
-          appendStringToken(TokenType.STRING, reader.getString(start, 0));
+          appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
           return reader.advance();
         }
       }
     }
     reportError(ScannerErrorCode.UNTERMINATED_STRING_LITERAL);
-    appendStringToken(TokenType.STRING, reader.getString(start, 0));
+    appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
     return reader.advance();
   }
 
@@ -943,7 +959,7 @@ public class Scanner {
     int next = reader.advance();
     while (next != -1) {
       if (next == '$') {
-        appendStringToken(TokenType.STRING, reader.getString(start, -1));
+        appendStringToken(TokenType.STRING, reader.getInternedString(start, -1, symbols));
         next = tokenizeStringInterpolation(start);
         beginToken();
         start = reader.getOffset();
@@ -954,7 +970,7 @@ public class Scanner {
         if (next == quoteChar) {
           next = reader.advance();
           if (next == quoteChar) {
-            appendStringToken(TokenType.STRING, reader.getString(start, 0));
+            appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
             return reader.advance();
           }
         }
@@ -992,9 +1008,9 @@ public class Scanner {
     }
     reportError(ScannerErrorCode.UNTERMINATED_STRING_LITERAL);
     if (start == reader.getOffset()) {
-      appendStringTokenWithOffset(TokenType.STRING, "", 1);
+      appendStringTokenWithOffset(TokenType.STRING, symbols.intern(""), 1);
     } else {
-      appendStringToken(TokenType.STRING, reader.getString(start, 0));
+      appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
     }
     return reader.advance();
   }
@@ -1015,7 +1031,9 @@ public class Scanner {
       } else if (next == 'e' || next == 'E') {
         return tokenizeFractionPart(next, start);
       } else {
-        appendStringToken(TokenType.INT, reader.getString(start, next < 0 ? 0 : -1));
+        appendStringToken(
+            TokenType.INT,
+            reader.getInternedString(start, next < 0 ? 0 : -1, symbols));
         return next;
       }
     }
@@ -1069,17 +1087,17 @@ public class Scanner {
     next = reader.advance();
     while (next != -1) {
       if (next == quoteChar) {
-        appendStringToken(TokenType.STRING, reader.getString(start, 0));
+        appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
         return reader.advance();
       } else if (next == '\r' || next == '\n') {
         reportError(ScannerErrorCode.UNTERMINATED_STRING_LITERAL);
-        appendStringToken(TokenType.STRING, reader.getString(start, -1));
+        appendStringToken(TokenType.STRING, reader.getInternedString(start, -1, symbols));
         return reader.advance();
       }
       next = reader.advance();
     }
     reportError(ScannerErrorCode.UNTERMINATED_STRING_LITERAL);
-    appendStringToken(TokenType.STRING, reader.getString(start, 0));
+    appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
     return reader.advance();
   }
 
@@ -1088,7 +1106,7 @@ public class Scanner {
       if (next == '\\') {
         next = reader.advance();
       } else if (next == '$') {
-        appendStringToken(TokenType.STRING, reader.getString(start, -1));
+        appendStringToken(TokenType.STRING, reader.getInternedString(start, -1, symbols));
         next = tokenizeStringInterpolation(start);
         beginToken();
         start = reader.getOffset();
@@ -1097,17 +1115,17 @@ public class Scanner {
       if (next <= '\r' && (next == '\n' || next == '\r' || next == -1)) {
         reportError(ScannerErrorCode.UNTERMINATED_STRING_LITERAL);
         if (start == reader.getOffset()) {
-          appendStringTokenWithOffset(TokenType.STRING, "", 1);
+          appendStringTokenWithOffset(TokenType.STRING, symbols.intern(""), 1);
         } else if (next == -1) {
-          appendStringToken(TokenType.STRING, reader.getString(start, 0));
+          appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
         } else {
-          appendStringToken(TokenType.STRING, reader.getString(start, -1));
+          appendStringToken(TokenType.STRING, reader.getInternedString(start, -1, symbols));
         }
         return reader.advance();
       }
       next = reader.advance();
     }
-    appendStringToken(TokenType.STRING, reader.getString(start, 0));
+    appendStringToken(TokenType.STRING, reader.getInternedString(start, 0, symbols));
     return reader.advance();
   }
 
@@ -1136,7 +1154,7 @@ public class Scanner {
         return tokenizeMultiLineString(quoteChar, start, raw);
       } else {
         // Empty string.
-        appendStringToken(TokenType.STRING, reader.getString(start, -1));
+        appendStringToken(TokenType.STRING, reader.getInternedString(start, -1, symbols));
         return next;
       }
     }
@@ -1164,7 +1182,7 @@ public class Scanner {
         do {
           next = reader.advance();
         } while (next != '\n' && next != '\r' && next > 0);
-        appendStringToken(TokenType.SCRIPT_TAG, reader.getString(tokenStart, 0));
+        appendStringToken(TokenType.SCRIPT_TAG, reader.getInternedString(tokenStart, 0, symbols));
         return next;
       }
     }
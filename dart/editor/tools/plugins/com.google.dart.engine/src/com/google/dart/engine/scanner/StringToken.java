@@ -35,13 +35,26 @@ public class StringToken extends Token {
    * @param offset the offset from the beginning of the file to the first character in the token
    */
   public StringToken(TokenType type, String value, int offset) {
+    this(type, value, offset, false);
+  }
+
+  /**
+   * Initialize a newly created token to represent a token of the given type with the given value.
+   * 
+   * @param type the type of the token
+   * @param value the lexeme represented by this token
+   * @param offset the offset from the beginning of the file to the first character in the token
+   * @param isInterned {@code true} if the value is already the string returned by
+   *          {@link StringUtilities#intern(String)}
+   */
+  StringToken(TokenType type, String value, int offset, boolean isInterned) {
     super(type, offset);
-    this.value = StringUtilities.intern(value);
+    this.value = isInterned ? value : StringUtilities.intern(value);
   }
 
   @Override
   public Token copy() {
-    return new StringToken(getType(), value, getOffset());
+    return new StringToken(getType(), value, getOffset(), true);
   }
 
   @Override
@@ -13,6 +13,8 @@
  */
 package com.google.dart.engine.scanner;
 
+import com.google.dart.engine.utilities.general.StringUtilities;
+
 /**
  * Instances of the class {@code TokenWithComment} represent a string token that is preceded by
  * comments.
@@ -34,7 +36,22 @@ public class StringTokenWithComment extends StringToken {
    * @param precedingComment the first comment in the list of comments that precede this token
    */
   public StringTokenWithComment(TokenType type, String value, int offset, Token precedingComment) {
-    super(type, value, offset);
+    this(type, value, offset, precedingComment, false);
+  }
+
+  /**
+   * Initialize a newly created token to have the given type and offset and to be preceded by the
+   * comments reachable from the given comment.
+   * 
+   * @param type the type of the token
+   * @param offset the offset from the beginning of the file to the first character in the token
+   * @param precedingComment the first comment in the list of comments that precede this token
+   * @param isInterned {@code true} if the value is already the string returned by
+   *          {@link StringUtilities#intern(String)}
+   */
+  StringTokenWithComment(TokenType type, String value, int offset, Token precedingComment,
+      boolean isInterned) {
+    super(type, value, offset, isInterned);
     this.precedingComment = precedingComment;
   }
 
@@ -44,7 +61,8 @@ public class StringTokenWithComment extends StringToken {
         getType(),
         getLexeme(),
         getOffset(),
-        copyComments(precedingComment));
+        copyComments(precedingComment),
+        true);
   }
 
   @Override
@@ -36,6 +36,11 @@ public class SubSequenceReader extends CharSequenceReader {
     this.offsetDelta = offsetDelta;
   }
 
+  @Override
+  public String getInternedString(int start, int endDelta, SymbolTable symbols) {
+    return super.getInternedString(start - offsetDelta, endDelta, symbols);
+  }
+
   @Override
   public int getOffset() {
     return offsetDelta + super.getOffset();
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.scanner;
+
+import com.google.dart.engine.utilities.general.StringUtilities;
+
+/**
+ * Instances of the class {@code SymbolTable} map ranges of characters to the canonical strings
+ * containing those characters. Each scanner owns a symbol table so that the lexemes of tokens that
+ * occur more than once in a source can be found by hashing the characters in place, without first
+ * creating a substring and then looking it up in the process-wide interner.
+ * <p>
+ * Every string returned by a symbol table is the instance returned by
+ * {@link StringUtilities#intern(String)}, so strings from different symbol tables can be compared
+ * by identity.
+ * 
+ * @coverage dart.engine.parser
+ */
+public class SymbolTable {
+  /**
+   * The initial number of slots in the table. Must be a power of two.
+   */
+  private static final int INITIAL_CAPACITY = 256;
+
+  /**
+   * The number of symbols in the table.
+   */
+  private int count = 0;
+
+  /**
+   * The hash codes of the symbols in the table, indexed in the same way as {@link #symbols}.
+   */
+  private int[] hashCodes = new int[INITIAL_CAPACITY];
+
+  /**
+   * The symbols in the table, using open addressing with linear probing. Slots that are not in use
+   * are {@code null}.
+   */
+  private String[] symbols = new String[INITIAL_CAPACITY];
+
+  /**
+   * Return the canonical string containing the characters in the given range of the given
+   * sequence. A string is only created the first time a range with the given characters is seen.
+   * 
+   * @param sequence the sequence containing the characters
+   * @param start the index of the first character in the range
+   * @param end the index one past the last character in the range
+   * @return the canonical string containing the characters in the range
+   */
+  public String intern(CharSequence sequence, int start, int end) {
+    int hashCode = 0;
+    for (int i = start; i < end; i++) {
+      hashCode = 31 * hashCode + sequence.charAt(i);
+    }
+    int mask = symbols.length - 1;
+    int index = getIndex(hashCode, mask);
+    String symbol = symbols[index];
+    while (symbol != null) {
+      if (hashCodes[index] == hashCode && matches(symbol, sequence, start, end)) {
+        return symbol;
+      }
+      index = (index + 1) & mask;
+      symbol = symbols[index];
+    }
+    symbol = StringUtilities.intern(sequence.subSequence(start, end).toString());
+    symbols[index] = symbol;
+    hashCodes[index] = hashCode;
+    count++;
+    if (count * 2 > symbols.length) {
+      grow();
+    }
+    return symbol;
+  }
+
+  /**
+   * Return the canonical string containing the same characters as the given string.
+   * 
+   * @param string the string containing the characters
+   * @return the canonical string containing the same characters
+   */
+  public String intern(String string) {
+    return intern(string, 0, string.length());
+  }
+
+  /**
+   * Return the number of symbols in this table.
+   * 
+   * @return the number of symbols in this table
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Return the index of the first slot to be probed for a symbol with the given hash code.
+   * 
+   * @param hashCode the hash code of the symbol
+   * @param mask the mask used to limit the index to the size of the table
+   * @return the index of the first slot to be probed
+   */
+  private int getIndex(int hashCode, int mask) {
+    return (hashCode ^ (hashCode >>> 16)) & mask;
+  }
+
+  /**
+   * Double the number of slots in the table.
+   */
+  private void grow() {
+    String[] oldSymbols = symbols;
+    int[] oldHashCodes = hashCodes;
+    int newLength = oldSymbols.length * 2;
+    int mask = newLength - 1;
+    symbols = new String[newLength];
+    hashCodes = new int[newLength];
+    for (int i = 0; i < oldSymbols.length; i++) {
+      String symbol = oldSymbols[i];
+      if (symbol != null) {
+        int hashCode = oldHashCodes[i];
+        int index = getIndex(hashCode, mask);
+        while (symbols[index] != null) {
+          index = (index + 1) & mask;
+        }
+        symbols[index] = symbol;
+        hashCodes[index] = hashCode;
+      }
+    }
+  }
+
+  /**
+   * Return {@code true} if the given symbol contains the same characters as the given range of the
+   * given sequence.
+   * 
+   * @param symbol the symbol being compared
+   * @param sequence the sequence containing the characters
+   * @param start the index of the first character in the range
+   * @param end the index one past the last character in the range
+   * @return {@code true} if the symbol contains the characters in the range
+   */
+  private boolean matches(String symbol, CharSequence sequence, int start, int end) {
+    int length = end - start;
+    if (symbol.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (symbol.charAt(i) != sequence.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.scanner;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Instances of the class {@code Utf8CharacterReader} implement a {@link CharacterReader} that
+ * decodes characters from a buffer of UTF-8 encoded bytes as they are read, rather than decoding
+ * the whole buffer before scanning begins. A leading byte order mark is skipped, and malformed
+ * input is decoded as the replacement character {@code U+FFFD}.
+ * <p>
+ * Because characters are not kept once they have been read, re-reading characters (as happens when
+ * a lexeme is extracted or the offset is moved backward) requires the bytes to be decoded again.
+ * The reader remembers the byte position of every {@link #CHECKPOINT_INTERVAL}th character so that
+ * this never requires decoding more than a few characters, and it maps offsets directly onto bytes
+ * for as long as the content is pure ASCII.
+ */
+public class Utf8CharacterReader implements CharacterReader {
+  /**
+   * The number of characters between the offsets whose byte positions are remembered.
+   */
+  private static final int CHECKPOINT_INTERVAL = 64;
+
+  /**
+   * The character used in place of a malformed sequence of bytes.
+   */
+  private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+  /**
+   * The buffer from which bytes will be read.
+   */
+  private final ByteBuffer bytes;
+
+  /**
+   * The index of the byte at which the first character begins.
+   */
+  private final int start;
+
+  /**
+   * The index of the first byte that is not part of the content.
+   */
+  private final int limit;
+
+  /**
+   * The index of the next byte to be decoded.
+   */
+  private int position;
+
+  /**
+   * The index, relative to the decoded characters, of the last character that was read.
+   */
+  private int charOffset = -1;
+
+  /**
+   * The second half of a surrogate pair whose first half was the last character read, or zero if
+   * the last character read was not the first half of a surrogate pair.
+   */
+  private char lowSurrogate = 0;
+
+  /**
+   * The offset of the first character that was decoded from something other than a single ASCII
+   * byte. Every character before this offset is at byte {@code start + offset}.
+   */
+  private int nonAsciiOffset = Integer.MAX_VALUE;
+
+  /**
+   * The offsets of the characters whose byte positions are remembered.
+   */
+  private int[] checkpointOffsets = new int[16];
+
+  /**
+   * The byte positions of the characters whose offsets are in {@link #checkpointOffsets}.
+   */
+  private int[] checkpointPositions = new int[16];
+
+  /**
+   * The number of checkpoints that have been recorded.
+   */
+  private int checkpointCount = 0;
+
+  /**
+   * The buffer used to build the strings that are returned.
+   */
+  private final StringBuilder buffer = new StringBuilder();
+
+  /**
+   * Initialize a newly created reader to read the characters encoded by the bytes between the
+   * position and the limit of the given buffer. The position of the buffer is not changed.
+   * 
+   * @param bytes the buffer containing the UTF-8 encoded characters to be read
+   */
+  public Utf8CharacterReader(ByteBuffer bytes) {
+    this.bytes = bytes;
+    int start = bytes.position();
+    limit = bytes.limit();
+    if (limit - start >= 3 && bytes.get(start) == (byte) 0xEF
+        && bytes.get(start + 1) == (byte) 0xBB && bytes.get(start + 2) == (byte) 0xBF) {
+      start += 3;
+    }
+    this.start = start;
+    position = start;
+    recordCheckpoint(0);
+  }
+
+  @Override
+  public int advance() {
+    if (lowSurrogate != 0) {
+      int next = lowSurrogate;
+      lowSurrogate = 0;
+      charOffset++;
+      return next;
+    }
+    if (position >= limit) {
+      return -1;
+    }
+    int nextOffset = charOffset + 1;
+    if (nextOffset >= checkpointCount * CHECKPOINT_INTERVAL) {
+      recordCheckpoint(nextOffset);
+    }
+    int codePoint = decode();
+    if (codePoint > 0x7F && nextOffset < nonAsciiOffset) {
+      nonAsciiOffset = nextOffset;
+    }
+    charOffset = nextOffset;
+    if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      char[] chars = Character.toChars(codePoint);
+      lowSurrogate = chars[1];
+      return chars[0];
+    }
+    return codePoint;
+  }
+
+  @Override
+  public String getInternedString(int start, int endDelta, SymbolTable symbols) {
+    fillBuffer(start, charOffset + 1 + endDelta);
+    return symbols.intern(buffer, 0, buffer.length());
+  }
+
+  @Override
+  public int getOffset() {
+    return charOffset;
+  }
+
+  @Override
+  public String getString(int start, int endDelta) {
+    fillBuffer(start, charOffset + 1 + endDelta);
+    return buffer.toString();
+  }
+
+  @Override
+  public int peek() {
+    if (lowSurrogate != 0) {
+      return lowSurrogate;
+    }
+    if (position >= limit) {
+      return -1;
+    }
+    int savedPosition = position;
+    int codePoint = decode();
+    position = savedPosition;
+    if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      return Character.toChars(codePoint)[0];
+    }
+    return codePoint;
+  }
+
+  @Override
+  public void setOffset(int offset) {
+    moveTo(offset + 1);
+    charOffset = offset;
+  }
+
+  /**
+   * Decode the character, or the surrogate pair, whose encoding begins at the current position and
+   * advance the position past it. Return the code point that was decoded.
+   * 
+   * @return the code point that was decoded
+   */
+  private int decode() {
+    int first = bytes.get(position++) & 0xFF;
+    if (first <= 0x7F) {
+      return first;
+    }
+    int count;
+    int codePoint;
+    int minimum;
+    if ((first & 0xE0) == 0xC0) {
+      count = 1;
+      codePoint = first & 0x1F;
+      minimum = 0x80;
+    } else if ((first & 0xF0) == 0xE0) {
+      count = 2;
+      codePoint = first & 0x0F;
+      minimum = 0x800;
+    } else if ((first & 0xF8) == 0xF0) {
+      count = 3;
+      codePoint = first & 0x07;
+      minimum = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+    } else {
+      return REPLACEMENT_CHARACTER;
+    }
+    for (int i = 0; i < count; i++) {
+      if (position >= limit) {
+        return REPLACEMENT_CHARACTER;
+      }
+      int next = bytes.get(position) & 0xFF;
+      if ((next & 0xC0) != 0x80) {
+        return REPLACEMENT_CHARACTER;
+      }
+      codePoint = (codePoint << 6) | (next & 0x3F);
+      position++;
+    }
+    if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+        || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+      return REPLACEMENT_CHARACTER;
+    }
+    return codePoint;
+  }
+
+  /**
+   * Fill the buffer with the characters between the given offsets.
+   * 
+   * @param startOffset the offset of the first character to be included
+   * @param endOffset the offset of the character after the last character to be included
+   */
+  private void fillBuffer(int startOffset, int endOffset) {
+    buffer.setLength(0);
+    if (endOffset <= nonAsciiOffset) {
+      for (int i = start + startOffset; i < start + endOffset; i++) {
+        buffer.append((char) bytes.get(i));
+      }
+      return;
+    }
+    int savedPosition = position;
+    int savedOffset = charOffset;
+    char savedSurrogate = lowSurrogate;
+    moveTo(startOffset);
+    while (charOffset + 1 < endOffset) {
+      int next = advance();
+      if (next < 0) {
+        break;
+      }
+      buffer.append((char) next);
+    }
+    position = savedPosition;
+    charOffset = savedOffset;
+    lowSurrogate = savedSurrogate;
+  }
+
+  /**
+   * Move to the given offset, so that the character at that offset is the next character to be
+   * read.
+   * 
+   * @param offset the offset of the next character to be read
+   */
+  private void moveTo(int offset) {
+    if (offset < charOffset + 1) {
+      int index = Math.min(offset / CHECKPOINT_INTERVAL, checkpointCount - 1);
+      if (checkpointOffsets[index] > offset) {
+        index--;
+      }
+      position = checkpointPositions[index];
+      charOffset = checkpointOffsets[index] - 1;
+      lowSurrogate = 0;
+    }
+    while (charOffset + 1 < offset) {
+      if (advance() < 0) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Record the current position as the byte position of the character at the given offset.
+   * 
+   * @param offset the offset of the character that begins at the current position
+   */
+  private void recordCheckpoint(int offset) {
+    if (checkpointCount == checkpointOffsets.length) {
+      int newLength = checkpointCount * 2;
+      int[] newOffsets = new int[newLength];
+      int[] newPositions = new int[newLength];
+      System.arraycopy(checkpointOffsets, 0, newOffsets, 0, checkpointCount);
+      System.arraycopy(checkpointPositions, 0, newPositions, 0, checkpointCount);
+      checkpointOffsets = newOffsets;
+      checkpointPositions = newPositions;
+    }
+    checkpointOffsets[checkpointCount] = offset;
+    checkpointPositions[checkpointCount] = position;
+    checkpointCount++;
+  }
+}
@@ -101,6 +101,12 @@ public class DirectoryBasedDartSdk implements DartSdk {
    */
   private LibraryMap libraryMap;
 
+  /**
+   * The directory containing summaries of the element models of the libraries in this SDK, or
+   * {@code null} if summaries are not to be used.
+   */
+  private File summaryDirectory;
+
   /**
    * The default SDK, or {@code null} if the default SDK either has not yet been created or cannot
    * be created for some reason.
@@ -307,11 +313,13 @@ public class DirectoryBasedDartSdk implements DartSdk {
   }
 
   @Override
-  public AnalysisContext getContext() {
+  public synchronized AnalysisContext getContext() {
     if (analysisContext == null) {
-      analysisContext = new SdkAnalysisContext();
+      SdkAnalysisContext sdkContext = new SdkAnalysisContext();
+      analysisContext = sdkContext;
       SourceFactory factory = new SourceFactory(new DartUriResolver(this));
       analysisContext.setSourceFactory(factory);
+      sdkContext.setSummaryFile(getSummaryFile());
       String[] uris = getUris();
       ChangeSet changeSet = new ChangeSet();
       for (String uri : uris) {
@@ -493,6 +501,21 @@ public class DirectoryBasedDartSdk implements DartSdk {
     return sdkVersion;
   }
 
+  /**
+   * Return the file containing the summary of the element models of the libraries in this SDK, or
+   * {@code null} if summaries are not being used. The file is specific to the version of this SDK
+   * and might not exist.
+   * 
+   * @return the file containing the summary of the element models of the libraries in this SDK
+   */
+  public synchronized File getSummaryFile() {
+    if (summaryDirectory == null) {
+      return null;
+    }
+    String fileName = "sdk-" + getSdkVersion().replaceAll("[^A-Za-z0-9._-]", "_") + ".summary"; //$NON-NLS-1$ //$NON-NLS-2$
+    return new File(summaryDirectory, fileName);
+  }
+
   /**
    * Return an array containing the library URI's for the libraries defined in this SDK.
    * 
@@ -565,6 +588,37 @@ public class DirectoryBasedDartSdk implements DartSdk {
     }
   }
 
+  /**
+   * Set the directory containing summaries of the element models of the libraries in this SDK to
+   * the given directory. If the directory contains a summary for this version of the SDK, then the
+   * element models of the SDK libraries will be created from the summary rather than by parsing and
+   * resolving the libraries. A summary can be created by invoking {@link #writeSummary()}.
+   * 
+   * @param summaryDirectory the directory containing summaries, or {@code null} if summaries are
+   *          not to be used
+   */
+  public synchronized void setSummaryDirectory(File summaryDirectory) {
+    this.summaryDirectory = summaryDirectory;
+    if (analysisContext instanceof SdkAnalysisContext) {
+      ((SdkAnalysisContext) analysisContext).setSummaryFile(getSummaryFile());
+    }
+  }
+
+  /**
+   * Write a summary of the element models of the libraries in this SDK to the file returned by
+   * {@link #getSummaryFile()}, resolving the libraries if necessary. Return {@code true} if the
+   * summary was written.
+   * 
+   * @return {@code true} if the summary was written
+   */
+  public boolean writeSummary() {
+    File summaryFile = getSummaryFile();
+    if (summaryFile == null) {
+      return false;
+    }
+    return ((SdkAnalysisContext) getContext()).writeSummary(summaryFile);
+  }
+
   /**
    * Read all of the configuration files to initialize the library maps.
    * 
@@ -14,6 +14,7 @@
 package com.google.dart.engine.source;
 
 import com.google.dart.engine.sdk.DartSdk;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
 
 import java.net.URI;
 
@@ -77,6 +78,19 @@ public class DartUriResolver extends UriResolver {
     return sdk;
   }
 
+  @Override
+  public String getSignature() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(super.getSignature());
+    if (sdk instanceof DirectoryBasedDartSdk) {
+      builder.append(':');
+      builder.append(((DirectoryBasedDartSdk) sdk).getDirectory().getAbsolutePath());
+    }
+    builder.append(':');
+    builder.append(sdk.getSdkVersion());
+    return builder.toString();
+  }
+
   @Override
   public Source resolveAbsolute(URI uri) {
     if (!isDartUri(uri)) {
@@ -60,6 +60,11 @@ public class ExplicitPackageUriResolver extends UriResolver {
 
   protected static final String PUB_LIST_COMMAND = "list-package-dirs";
 
+  /**
+   * The name of the file in which pub records the versions of the packages that are used.
+   */
+  private static final String PUBSPEC_LOCK_NAME = "pubspec.lock";
+
   /**
    * Return {@code true} if the given URI is a {@code package} URI.
    * 
@@ -101,6 +106,16 @@ public class ExplicitPackageUriResolver extends UriResolver {
     return rootDir;
   }
 
+  /**
+   * Return a signature that includes the modification time of the lock file from which pub computes
+   * the package map, so that it changes when the packages are upgraded.
+   */
+  @Override
+  public String getSignature() {
+    File lockFile = new File(rootDir, PUBSPEC_LOCK_NAME);
+    return super.getSignature() + ":" + rootDir.getAbsolutePath() + ":" + lockFile.lastModified();
+  }
+
   @Override
   public Source resolveAbsolute(URI uri) {
     if (!isPackageUri(uri)) {
@@ -63,6 +63,13 @@ public class FileBasedSource implements Source {
   @DartOmit
   private static final Charset UTF_8_CHARSET = Charset.forName("UTF-8");
 
+  /**
+   * The size, in bytes, at or above which the contents of a file are kept as UTF-8 encoded bytes and
+   * decoded as they are scanned rather than being decoded as a whole when they are read.
+   */
+  @DartOmit
+  private static final int UNDECODED_CONTENTS_THRESHOLD = 1024 * 1024;
+
   /**
    * Initialize a newly created source object.
    * 
@@ -250,7 +257,12 @@ public class FileBasedSource implements Source {
         }
       }
       if (byteBuffer != null) {
-        byteBuffer.rewind();
+        byteBuffer.flip();
+        if (byteBuffer.limit() >= UNDECODED_CONTENTS_THRESHOLD) {
+          return new TimestampedData<CharSequence>(
+              modificationTime,
+              new Utf8FileContents(byteBuffer));
+        }
         skipOptionalBOM(byteBuffer);
         return new TimestampedData<CharSequence>(modificationTime, UTF_8_CHARSET.decode(byteBuffer));
       }
@@ -314,7 +326,11 @@ public class FileBasedSource implements Source {
         }
       }
       if (byteBuffer != null) {
-        byteBuffer.rewind();
+        byteBuffer.flip();
+        if (byteBuffer.limit() >= UNDECODED_CONTENTS_THRESHOLD) {
+          receiver.accept(new Utf8FileContents(byteBuffer), modificationTime);
+          return;
+        }
         skipOptionalBOM(byteBuffer);
         receiver.accept(UTF_8_CHARSET.decode(byteBuffer), modificationTime);
         return;
@@ -48,6 +48,17 @@ public class JavaUriResolver extends UriResolver {
     this.roots = roots;
   }
 
+  @Override
+  public String getSignature() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(super.getSignature());
+    for (File root : roots) {
+      builder.append(':');
+      builder.append(root.getAbsolutePath());
+    }
+    return builder.toString();
+  }
+
   @Override
   public Source resolveAbsolute(URI uri) {
     if (!isJavaUri(uri)) {
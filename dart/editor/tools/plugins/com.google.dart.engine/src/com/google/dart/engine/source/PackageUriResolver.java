@@ -18,6 +18,7 @@ import com.google.dart.engine.AnalysisEngine;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
 
 /**
  * Instances of the class {@code PackageUriResolver} resolve {@code package} URI's in the context of
@@ -70,6 +71,35 @@ public class PackageUriResolver extends UriResolver {
     this.packagesDirectories = packagesDirectories;
   }
 
+  /**
+   * Return a signature that includes the directory to which each package is currently linked, so
+   * that it changes when the packages are upgraded.
+   */
+  @Override
+  public String getSignature() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(super.getSignature());
+    for (File packagesDirectory : packagesDirectories) {
+      builder.append(':');
+      builder.append(packagesDirectory.getAbsolutePath());
+      File[] pkgFolders = packagesDirectory.listFiles();
+      if (pkgFolders != null) {
+        Arrays.sort(pkgFolders);
+        for (File pkgFolder : pkgFolders) {
+          builder.append(',');
+          builder.append(pkgFolder.getName());
+          builder.append('=');
+          try {
+            builder.append(pkgFolder.getCanonicalPath());
+          } catch (IOException exception) {
+            builder.append(pkgFolder.getAbsolutePath());
+          }
+        }
+      }
+    }
+    return builder.toString();
+  }
+
   @Override
   public Source resolveAbsolute(URI uri) {
     if (!isPackageUri(uri)) {
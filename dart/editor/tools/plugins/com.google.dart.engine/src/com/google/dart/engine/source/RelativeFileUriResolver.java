@@ -58,6 +58,19 @@ public class RelativeFileUriResolver extends UriResolver {
     this.relativeDirectories = relativeDirectories;
   }
 
+  @Override
+  public String getSignature() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(super.getSignature());
+    builder.append(':');
+    builder.append(rootDirectory.getAbsolutePath());
+    for (File relativeDirectory : relativeDirectories) {
+      builder.append(',');
+      builder.append(relativeDirectory.getPath());
+    }
+    return builder.toString();
+  }
+
   @Override
   public Source resolveAbsolute(URI uri) {
     String rootPath = rootDirectory.toURI().getPath();
@@ -135,6 +135,23 @@ public class SourceFactory {
     return null;
   }
 
+  /**
+   * Return a string describing the configuration of the resolvers used by this factory. Two
+   * factories with the same signature are expected to resolve every URI to the same source.
+   * 
+   * @return a string describing the configuration of the resolvers used by this factory
+   */
+  public String getSignature() {
+    StringBuilder builder = new StringBuilder();
+    for (UriResolver resolver : resolvers) {
+      if (builder.length() > 0) {
+        builder.append(';');
+      }
+      builder.append(resolver.getSignature());
+    }
+    return builder.toString();
+  }
+
   /**
    * Determines if the given {@link Source} is local.
    * 
@@ -30,6 +30,17 @@ public abstract class UriResolver {
     super();
   }
 
+  /**
+   * Return a string describing the configuration of this resolver. Two resolvers with the same
+   * signature are expected to resolve every URI to the same source. The signature is used to decide
+   * whether analysis results that were computed in an earlier session can be reused.
+   * 
+   * @return a string describing the configuration of this resolver
+   */
+  public String getSignature() {
+    return getClass().getName();
+  }
+
   /**
    * Resolve the given absolute URI. Return a {@link Source source} representing the file to which
    * it was resolved, whether or not the resulting source exists, or {@code null} if it could not be
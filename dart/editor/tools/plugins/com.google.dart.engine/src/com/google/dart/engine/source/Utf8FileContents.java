@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.source;
+
+import com.google.dart.engine.scanner.Utf8CharacterReader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Instances of the class {@code Utf8FileContents} represent the contents of a file as the UTF-8
+ * encoded bytes of the file, so that the scanner can decode the characters as it reads them using a
+ * {@link Utf8CharacterReader}. The characters are only decoded as a whole, and then retained, if
+ * the contents are accessed as a {@link CharSequence}.
+ * 
+ * @coverage dart.engine.source
+ */
+public class Utf8FileContents implements CharSequence {
+  /**
+   * The bytes of the file, possibly including a byte order mark.
+   */
+  private final ByteBuffer bytes;
+
+  /**
+   * The decoded contents of the file, or {@code null} if the contents have not yet been accessed
+   * as a sequence of characters.
+   */
+  private String decodedContents;
+
+  /**
+   * Initialize newly created contents to represent the UTF-8 encoded characters in the given
+   * buffer.
+   * 
+   * @param bytes the bytes of the file, possibly including a byte order mark
+   */
+  public Utf8FileContents(ByteBuffer bytes) {
+    this.bytes = bytes;
+  }
+
+  @Override
+  public char charAt(int index) {
+    return getDecodedContents().charAt(index);
+  }
+
+  /**
+   * Return a reader that will decode the characters in the file as they are read.
+   * 
+   * @return a reader that will decode the characters in the file
+   */
+  public Utf8CharacterReader createReader() {
+    return new Utf8CharacterReader(bytes.duplicate());
+  }
+
+  @Override
+  public int length() {
+    return getDecodedContents().length();
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return getDecodedContents().subSequence(start, end);
+  }
+
+  @Override
+  public String toString() {
+    return getDecodedContents();
+  }
+
+  /**
+   * Return the decoded contents of the file, decoding them if they have not already been decoded.
+   * The same reader is used as for scanning so that offsets are consistent even when the file is
+   * not well formed.
+   * 
+   * @return the decoded contents of the file
+   */
+  private synchronized String getDecodedContents() {
+    if (decodedContents == null) {
+      Utf8CharacterReader reader = createReader();
+      StringBuilder builder = new StringBuilder(bytes.remaining());
+      int next = reader.advance();
+      while (next >= 0) {
+        builder.append((char) next);
+        next = reader.advance();
+      }
+      decodedContents = builder.toString();
+    }
+    return decodedContents;
+  }
+}
@@ -86,6 +86,16 @@ public class LineInfo {
     this.lineStarts = lineStarts;
   }
 
+  /**
+   * Return an array containing the offsets of the first character of each line in the source code.
+   * The array must not be modified.
+   * 
+   * @return the offsets of the first character of each line in the source code
+   */
+  public int[] getLineStarts() {
+    return lineStarts;
+  }
+
   /**
    * Return the location information for the character at the given offset.
    * 
@@ -93,12 +103,67 @@ public class LineInfo {
    * @return the location information for the character at the given offset
    */
   public Location getLocation(int offset) {
+    return createLocation(offset, getLineNumber(offset, 1));
+  }
+
+  /**
+   * Return the location information for the characters at the given offsets. The offsets are
+   * expected to be sorted in ascending order, as they are for the errors reported against a single
+   * source, in which case the lines are searched in a single forward pass. Offsets that are out of
+   * order are still handled correctly, but less efficiently.
+   * 
+   * @param offsets the offsets of the characters for which location information is to be returned
+   * @return the location information for the characters at the given offsets
+   */
+  public Location[] getLocations(int[] offsets) {
+    int offsetCount = offsets.length;
+    Location[] locations = new Location[offsetCount];
     int lineCount = lineStarts.length;
-    for (int i = 1; i < lineCount; i++) {
-      if (offset < lineStarts[i]) {
-        return new Location(i, offset - lineStarts[i - 1] + 1);
+    int lineNumber = 1;
+    int previousOffset = Integer.MIN_VALUE;
+    for (int i = 0; i < offsetCount; i++) {
+      int offset = offsets[i];
+      if (offset < previousOffset) {
+        lineNumber = getLineNumber(offset, 1);
+      } else if (lineNumber < lineCount && lineStarts[lineNumber] <= offset) {
+        lineNumber = getLineNumber(offset, lineNumber + 1);
+      }
+      locations[i] = createLocation(offset, lineNumber);
+      previousOffset = offset;
+    }
+    return locations;
+  }
+
+  /**
+   * Return the location of the character at the given offset, which is on the line with the given
+   * number.
+   * 
+   * @param offset the offset of the character
+   * @param lineNumber the one-based index of the line containing the character
+   * @return the location of the character at the given offset
+   */
+  private Location createLocation(int offset, int lineNumber) {
+    return new Location(lineNumber, offset - lineStarts[lineNumber - 1] + 1);
+  }
+
+  /**
+   * Return the one-based index of the line containing the character at the given offset, which is
+   * known not to be on a line before the line with the given number.
+   * 
+   * @param offset the offset of the character
+   * @param low the smallest line number that could be returned
+   * @return the one-based index of the line containing the character
+   */
+  private int getLineNumber(int offset, int low) {
+    int high = lineStarts.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (offset < lineStarts[middle]) {
+        high = middle;
+      } else {
+        low = middle + 1;
       }
     }
-    return new Location(lineCount, offset - lineStarts[lineCount - 1] + 1);
+    return low;
   }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.ast;
+
+import com.google.dart.engine.EngineTestCase;
+
+import static com.google.dart.engine.ast.AstFactory.booleanLiteral;
+
+public class AstNodeTest extends EngineTestCase {
+  public void test_getProperty_none() {
+    AstNode node = booleanLiteral(true);
+    assertNull(node.getProperty("a"));
+  }
+
+  public void test_setProperty() {
+    AstNode node = booleanLiteral(true);
+    node.setProperty("a", "1");
+    node.setProperty("b", "2");
+    assertEquals("1", node.getProperty("a"));
+    assertEquals("2", node.getProperty("b"));
+    node.setProperty("a", "3");
+    assertEquals("3", node.getProperty("a"));
+    assertEquals("2", node.getProperty("b"));
+  }
+
+  public void test_setProperty_remove() {
+    AstNode node = booleanLiteral(true);
+    node.setProperty("a", "1");
+    node.setProperty("b", "2");
+    node.setProperty("c", "3");
+    node.setProperty("b", null);
+    assertEquals("1", node.getProperty("a"));
+    assertNull(node.getProperty("b"));
+    assertEquals("3", node.getProperty("c"));
+    node.setProperty("a", null);
+    node.setProperty("c", null);
+    assertNull(node.getProperty("a"));
+    assertNull(node.getProperty("c"));
+    node.setProperty("b", "4");
+    assertEquals("4", node.getProperty("b"));
+  }
+}
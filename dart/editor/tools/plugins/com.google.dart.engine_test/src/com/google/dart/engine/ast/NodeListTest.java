@@ -107,6 +107,30 @@ public class NodeListTest extends EngineTestCase {
     assertSame(owner, list.getOwner());
   }
 
+  public void test_create_empty() {
+    NodeList<AstNode> list = NodeList.create(argumentList(), new ArrayList<AstNode>());
+    assertSizeOfList(0, list);
+    assertSame(list, NodeList.create(argumentList(), null));
+    try {
+      list.add(booleanLiteral(true));
+      fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException exception) {
+      // Expected
+    }
+    assertSizeOfList(0, list);
+  }
+
+  public void test_create_nonEmpty() {
+    AstNode owner = argumentList();
+    AstNode node = booleanLiteral(true);
+    ArrayList<AstNode> nodes = new ArrayList<AstNode>();
+    nodes.add(node);
+    NodeList<AstNode> list = NodeList.create(owner, nodes);
+    assertSizeOfList(1, list);
+    assertSame(owner, list.getOwner());
+    assertSame(owner, node.getParent());
+  }
+
   public void test_creation() {
     AstNode owner = argumentList();
     NodeList<AstNode> list = new NodeList<AstNode>(owner);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.ast.visitor;
+
+import com.google.dart.engine.ast.AstNode;
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.ast.IntegerLiteral;
+import com.google.dart.engine.ast.SimpleIdentifier;
+import com.google.dart.engine.parser.ParserTestCase;
+
+import java.util.ArrayList;
+
+public class DelegatingAstVisitorTest extends ParserTestCase {
+  /**
+   * Instances of the class {@code RecordingVisitor} record the nodes passed to them, tagged with a
+   * name, in a shared list.
+   */
+  private static class RecordingVisitor extends SimpleAstVisitor<Void> {
+    private final String name;
+
+    private final ArrayList<String> visits;
+
+    public RecordingVisitor(String name, ArrayList<String> visits) {
+      this.name = name;
+      this.visits = visits;
+    }
+
+    @Override
+    public Void visitIntegerLiteral(IntegerLiteral node) {
+      visits.add(name + " " + node.getLiteral().getLexeme());
+      return null;
+    }
+
+    @Override
+    public Void visitSimpleIdentifier(SimpleIdentifier node) {
+      visits.add(name + " " + node.getName());
+      return null;
+    }
+  }
+
+  public void test_visitNode_allNodes() throws Exception {
+    CompilationUnit unit = parseCompilationUnit(createSource(//
+        "class A {",
+        "  int f() => 3;",
+        "}"));
+    final ArrayList<AstNode> recursiveNodes = new ArrayList<AstNode>();
+    unit.accept(new GeneralizingAstVisitor<Void>() {
+      @Override
+      public Void visitNode(AstNode node) {
+        recursiveNodes.add(node);
+        return super.visitNode(node);
+      }
+    });
+    final ArrayList<AstNode> delegatedNodes = new ArrayList<AstNode>();
+    unit.accept(new DelegatingAstVisitor<Void>(new GeneralizingAstVisitor<Void>() {
+      @Override
+      public Void visitNode(AstNode node) {
+        delegatedNodes.add(node);
+        return null;
+      }
+    }));
+    assertEquals(recursiveNodes, delegatedNodes);
+  }
+
+  public void test_visitNode_order() throws Exception {
+    CompilationUnit unit = parseCompilationUnit(createSource(//
+        "f() {",
+        "  g(1, x);",
+        "}"));
+    ArrayList<String> visits = new ArrayList<String>();
+    unit.accept(new DelegatingAstVisitor<Void>(
+        new RecordingVisitor("a", visits),
+        new RecordingVisitor("b", visits)));
+    assertEquals("[a f, b f, a g, b g, a 1, b 1, a x, b x]", visits.toString());
+  }
+}
@@ -22,6 +22,7 @@ public class TestAll {
   public static Test suite() {
     TestSuite suite = new ExtendedTestSuite("Tests in " + TestAll.class.getPackage().getName());
     suite.addTestSuite(ConstantEvaluatorTest.class);
+    suite.addTestSuite(DelegatingAstVisitorTest.class);
     suite.addTestSuite(ElementLocatorTest.class);
     suite.addTestSuite(NodeLocatorTest.class);
     suite.addTestSuite(ToSourceVisitorTest.class);
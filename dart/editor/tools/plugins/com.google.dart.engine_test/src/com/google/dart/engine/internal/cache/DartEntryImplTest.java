@@ -23,12 +23,16 @@ import com.google.dart.engine.ast.PartDirective;
 import com.google.dart.engine.context.AnalysisException;
 import com.google.dart.engine.element.Element;
 import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.error.AnalysisErrorListener;
 import com.google.dart.engine.error.CompileTimeErrorCode;
 import com.google.dart.engine.error.HintCode;
 import com.google.dart.engine.error.StaticWarningCode;
 import com.google.dart.engine.internal.element.LibraryElementImpl;
 import com.google.dart.engine.internal.scope.Namespace;
+import com.google.dart.engine.parser.ParserTestCase;
 import com.google.dart.engine.parser.ParserErrorCode;
+import com.google.dart.engine.scanner.CharSequenceReader;
+import com.google.dart.engine.scanner.Scanner;
 import com.google.dart.engine.scanner.ScannerErrorCode;
 import com.google.dart.engine.scanner.Token;
 import com.google.dart.engine.scanner.TokenType;
@@ -101,6 +105,33 @@ public class DartEntryImplTest extends EngineTestCase {
     assertLength(5, entry.getAllErrors());
   }
 
+  public void test_getEstimatedAstSize() throws Exception {
+    DartEntryImpl entry = new DartEntryImpl();
+    assertEquals(0L, entry.getEstimatedAstSize());
+    CompilationUnit unit = ParserTestCase.parseCompilationUnit("class A {}");
+    entry.setValue(DartEntry.TOKEN_STREAM, unit.getBeginToken());
+    entry.setValue(DartEntry.PARSED_UNIT, unit);
+    long parsedSize = entry.getEstimatedAstSize();
+    assertTrue(parsedSize > 0L);
+    // The same structure is only counted once.
+    Source librarySource = new TestSource();
+    entry.setValueInLibrary(DartEntry.RESOLVED_UNIT, librarySource, unit);
+    assertEquals(parsedSize, entry.getEstimatedAstSize());
+    // A larger structure is estimated to retain more memory.
+    CompilationUnit resolvedUnit = ParserTestCase.parseCompilationUnit("class A {} class B {}");
+    entry.setValueInLibrary(DartEntry.RESOLVED_UNIT, librarySource, resolvedUnit);
+    assertTrue(entry.getEstimatedAstSize() > 2 * parsedSize);
+    entry.flushAstStructures();
+    assertEquals(0L, entry.getEstimatedAstSize());
+  }
+
+  public void test_getEstimatedAstSize_tokenStream() throws Exception {
+    // The whole token stream is counted, including the characters on the last line.
+    DartEntryImpl shortEntry = createEntryWithTokens("class A {}\nclass B {}");
+    DartEntryImpl longEntry = createEntryWithTokens("class A {}\nclass LongerName {}");
+    assertTrue(longEntry.getEstimatedAstSize() > shortEntry.getEstimatedAstSize());
+  }
+
   public void test_getResolvableCompilationUnit_none() {
     DartEntryImpl entry = new DartEntryImpl();
     assertNull(entry.getResolvableCompilationUnit());
@@ -907,6 +938,17 @@ public class DartEntryImplTest extends EngineTestCase {
         StaticWarningCode.CASE_BLOCK_NOT_TERMINATED)});
   }
 
+  private DartEntryImpl createEntryWithTokens(String contents) {
+    Scanner scanner = new Scanner(
+        null,
+        new CharSequenceReader(contents),
+        AnalysisErrorListener.NULL_LISTENER);
+    DartEntryImpl entry = new DartEntryImpl();
+    entry.setValue(DartEntry.TOKEN_STREAM, scanner.tokenize());
+    entry.setValue(SourceEntry.LINE_INFO, new LineInfo(scanner.getLineStarts()));
+    return entry;
+  }
+
   private DartEntryImpl entryWithValidState() {
     DartEntryImpl entry = new DartEntryImpl();
     entry.setValue(DartEntry.ELEMENT, null);
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.cache;
+
+import com.google.common.io.Files;
+import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.context.AnalysisResult;
+import com.google.dart.engine.context.ChangeSet;
+import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.internal.context.AnalysisContextImpl;
+import com.google.dart.engine.internal.context.AnalysisOptionsImpl;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.source.DartUriResolver;
+import com.google.dart.engine.source.FileBasedSource;
+import com.google.dart.engine.source.FileUriResolver;
+import com.google.dart.engine.source.PackageUriResolver;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.SourceFactory;
+import com.google.dart.engine.source.SourceKind;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+
+import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
+
+import java.io.File;
+
+public class PersistentAnalysisCacheTest extends EngineTestCase {
+  private static final String LIB_CONTENTS = createSource(//
+      "library lib;",
+      "part 'part.dart';",
+      "class A {}");
+
+  private static final String PART_CONTENTS = createSource(//
+      "part of lib;",
+      "class B extends A {}");
+
+  private static final String MAIN_CONTENTS = createSource(//
+      "import 'lib.dart';",
+      "main() {",
+      "  new B();",
+      "  new C();",
+      "}");
+
+  private File tempDir;
+
+  private PersistentAnalysisCache persistentCache;
+
+  public void test_computeHash() {
+    String hash = PersistentAnalysisCache.computeHash("class A {}");
+    assertEquals(hash, PersistentAnalysisCache.computeHash(new StringBuilder("class A {}")));
+    assertFalse(hash.equals(PersistentAnalysisCache.computeHash("class B {}")));
+  }
+
+  public void test_restore_changedDependency() throws Exception {
+    AnalysisContextImpl context = createContext();
+    addSources(context, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    analyze(context);
+    assertEquals(3, context.saveAnalysisResults(persistentCache));
+
+    AnalysisContextImpl newContext = createContext();
+    addSources(newContext, LIB_CONTENTS, createSource(//
+        "part of lib;",
+        "class B {}"), MAIN_CONTENTS);
+    // The part changed, so neither the library containing it nor the importing library can reuse
+    // their results.
+    assertEquals(0, newContext.restoreAnalysisResults(persistentCache));
+  }
+
+  public void test_restore_differentGenerateSdkErrors() throws Exception {
+    AnalysisContextImpl context = createContext();
+    addSources(context, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    analyze(context);
+    assertEquals(3, context.saveAnalysisResults(persistentCache));
+
+    AnalysisContextImpl newContext = createContext();
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl(newContext.getAnalysisOptions());
+    options.setGenerateSdkErrors(!options.getGenerateSdkErrors());
+    newContext.setAnalysisOptions(options);
+    addSources(newContext, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    assertEquals(0, newContext.restoreAnalysisResults(persistentCache));
+  }
+
+  public void test_restore_differentSignature() throws Exception {
+    AnalysisContextImpl context = createContext();
+    addSources(context, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    analyze(context);
+    assertEquals(3, context.saveAnalysisResults(persistentCache));
+
+    AnalysisContextImpl newContext = createContext();
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl(newContext.getAnalysisOptions());
+    options.setHint(!options.getHint());
+    newContext.setAnalysisOptions(options);
+    addSources(newContext, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    assertEquals(0, newContext.restoreAnalysisResults(persistentCache));
+  }
+
+  public void test_restore_differentSourceFactory() throws Exception {
+    AnalysisContextImpl context = createContext();
+    addSources(context, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    analyze(context);
+    assertEquals(3, context.saveAnalysisResults(persistentCache));
+
+    AnalysisContextImpl newContext = createContext();
+    newContext.setSourceFactory(new SourceFactory(
+        new DartUriResolver(DirectoryBasedDartSdk.getDefaultSdk()),
+        new FileUriResolver(),
+        new PackageUriResolver(new File(tempDir, "packages"))));
+    addSources(newContext, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    assertEquals(0, newContext.restoreAnalysisResults(persistentCache));
+  }
+
+  public void test_restore_unchanged() throws Exception {
+    AnalysisContextImpl context = createContext();
+    Source[] sources = addSources(context, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    analyze(context);
+    assertEquals(3, context.saveAnalysisResults(persistentCache));
+
+    AnalysisContextImpl newContext = createContext();
+    Source[] newSources = addSources(newContext, LIB_CONTENTS, PART_CONTENTS, MAIN_CONTENTS);
+    assertEquals(3, newContext.restoreAnalysisResults(persistentCache));
+    for (int i = 0; i < sources.length; i++) {
+      assertEquals(
+          context.getKindOf(sources[i]),
+          newContext.getKindOf(newSources[i]));
+      assertErrors(
+          context.getErrors(sources[i]).getErrors(),
+          newContext.getErrors(newSources[i]).getErrors());
+    }
+    assertEquals(SourceKind.PART, newContext.getKindOf(newSources[1]));
+    assertLength(1, newContext.getErrors(newSources[2]).getErrors());
+    // None of the libraries should need to be resolved again.
+    analyze(newContext);
+    assertNull(newContext.getLibraryElement(newSources[0]));
+    assertNull(newContext.getLibraryElement(newSources[2]));
+    // The element model is recomputed when it is requested.
+    assertNotNull(newContext.computeLibraryElement(newSources[2]));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    tempDir = Files.createTempDir();
+    persistentCache = new PersistentAnalysisCache(tempDir);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtilities2.deleteDirectory(tempDir);
+    tempDir = null;
+    persistentCache = null;
+    super.tearDown();
+  }
+
+  private Source[] addSources(AnalysisContextImpl context, String libContents,
+      String partContents, String mainContents) {
+    Source libSource = new FileBasedSource(createFile("/lib.dart"));
+    Source partSource = new FileBasedSource(createFile("/part.dart"));
+    Source mainSource = new FileBasedSource(createFile("/main.dart"));
+    ChangeSet changeSet = new ChangeSet();
+    changeSet.addedSource(libSource);
+    changeSet.addedSource(partSource);
+    changeSet.addedSource(mainSource);
+    context.applyChanges(changeSet);
+    context.setContents(libSource, libContents);
+    context.setContents(partSource, partContents);
+    context.setContents(mainSource, mainContents);
+    return new Source[] {libSource, partSource, mainSource};
+  }
+
+  private void analyze(AnalysisContextImpl context) {
+    AnalysisResult result = context.performAnalysisTask();
+    while (result.getChangeNotices() != null) {
+      result = context.performAnalysisTask();
+    }
+  }
+
+  private void assertErrors(AnalysisError[] expectedErrors, AnalysisError[] actualErrors) {
+    assertLength(expectedErrors.length, actualErrors);
+    for (int i = 0; i < expectedErrors.length; i++) {
+      AnalysisError expectedError = expectedErrors[i];
+      AnalysisError actualError = actualErrors[i];
+      assertSame(expectedError.getErrorCode(), actualError.getErrorCode());
+      assertEquals(expectedError.getOffset(), actualError.getOffset());
+      assertEquals(expectedError.getLength(), actualError.getLength());
+      assertEquals(expectedError.getMessage(), actualError.getMessage());
+      assertEquals(expectedError.getCorrection(), actualError.getCorrection());
+    }
+  }
+
+  private AnalysisContextImpl createContext() {
+    AnalysisContextImpl context = new AnalysisContextImpl();
+    context.setSourceFactory(new SourceFactory(
+        new DartUriResolver(DirectoryBasedDartSdk.getDefaultSdk()),
+        new FileUriResolver()));
+    return context;
+  }
+}
@@ -14,11 +14,16 @@
 package com.google.dart.engine.internal.cache;
 
 import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.error.AnalysisError;
 import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
 import com.google.dart.engine.source.DartUriResolver;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.SourceFactory;
+import com.google.dart.engine.source.SourceKind;
 import com.google.dart.engine.source.TestSource;
+import com.google.dart.engine.utilities.source.LineInfo;
+
+import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
 
 public class SdkCachePartitionTest extends EngineTestCase {
   public void test_contains_false() {
@@ -38,4 +43,67 @@ public class SdkCachePartitionTest extends EngineTestCase {
   public void test_creation() {
     assertNotNull(new SdkCachePartition(null, 8));
   }
+
+  public void test_put_concurrentResolution() {
+    SdkCachePartition partition = new SdkCachePartition(null, 8);
+    Source source = new TestSource();
+    Source firstLibrary = new TestSource(createFile("/first.dart"), "");
+    Source secondLibrary = new TestSource(createFile("/second.dart"), "");
+    DartEntryImpl entry = new DartEntryImpl();
+    partition.put(source, entry);
+    DartEntryImpl first = entry.getWritableCopy();
+    first.setValueInLibrary(DartEntry.RESOLUTION_ERRORS, firstLibrary, AnalysisError.NO_ERRORS);
+    DartEntryImpl second = entry.getWritableCopy();
+    second.setValueInLibrary(DartEntry.RESOLUTION_ERRORS, secondLibrary, AnalysisError.NO_ERRORS);
+    partition.put(source, first);
+    partition.put(source, second);
+    DartEntry result = (DartEntry) partition.get(source);
+    assertSame(
+        CacheState.VALID,
+        result.getStateInLibrary(DartEntry.RESOLUTION_ERRORS, firstLibrary));
+    assertSame(
+        CacheState.VALID,
+        result.getStateInLibrary(DartEntry.RESOLUTION_ERRORS, secondLibrary));
+  }
+
+  public void test_put_concurrentValues() {
+    SdkCachePartition partition = new SdkCachePartition(null, 8);
+    Source source = new TestSource();
+    DartEntryImpl entry = new DartEntryImpl();
+    partition.put(source, entry);
+    DartEntryImpl first = entry.getWritableCopy();
+    first.setValue(DartEntry.SOURCE_KIND, SourceKind.LIBRARY);
+    DartEntryImpl second = entry.getWritableCopy();
+    LineInfo lineInfo = new LineInfo(new int[] {0});
+    second.setValue(SourceEntry.LINE_INFO, lineInfo);
+    partition.put(source, first);
+    partition.put(source, second);
+    DartEntry result = (DartEntry) partition.get(source);
+    assertSame(SourceKind.LIBRARY, result.getValue(DartEntry.SOURCE_KIND));
+    assertSame(lineInfo, result.getValue(SourceEntry.LINE_INFO));
+  }
+
+  public void test_put_firstValidValueKept() {
+    SdkCachePartition partition = new SdkCachePartition(null, 8);
+    Source source = new TestSource();
+    DartEntryImpl entry = new DartEntryImpl();
+    partition.put(source, entry);
+    DartEntryImpl first = entry.getWritableCopy();
+    first.setValue(DartEntry.SOURCE_KIND, SourceKind.LIBRARY);
+    DartEntryImpl second = entry.getWritableCopy();
+    second.setValue(DartEntry.SOURCE_KIND, SourceKind.PART);
+    partition.put(source, first);
+    partition.put(source, second);
+    assertSame(SourceKind.LIBRARY, partition.get(source).getValue(DartEntry.SOURCE_KIND));
+  }
+
+  public void test_put_newEntryNotMerged() {
+    SdkCachePartition partition = new SdkCachePartition(null, 8);
+    Source source = new TestSource();
+    DartEntryImpl entry = new DartEntryImpl();
+    entry.setValue(DartEntry.SOURCE_KIND, SourceKind.LIBRARY);
+    partition.put(source, entry);
+    partition.put(source, new DartEntryImpl());
+    assertSame(CacheState.INVALID, partition.get(source).getState(DartEntry.SOURCE_KIND));
+  }
 }
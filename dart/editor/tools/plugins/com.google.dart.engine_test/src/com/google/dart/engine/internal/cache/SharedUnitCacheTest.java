@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.cache;
+
+import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.ast.ClassDeclaration;
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.error.AnalysisErrorListener;
+import com.google.dart.engine.internal.cache.SharedUnitCache.SharedUnit;
+import com.google.dart.engine.internal.cache.SharedUnitCache.UnitKey;
+import com.google.dart.engine.internal.context.AnalysisOptionsImpl;
+import com.google.dart.engine.parser.Parser;
+import com.google.dart.engine.scanner.BeginToken;
+import com.google.dart.engine.scanner.CharSequenceReader;
+import com.google.dart.engine.scanner.Scanner;
+import com.google.dart.engine.scanner.Token;
+import com.google.dart.engine.scanner.TokenType;
+import com.google.dart.engine.utilities.source.LineInfo;
+
+public class SharedUnitCacheTest extends EngineTestCase {
+  private static final String CONTENTS = "class A { m() { return [1, 2]; } }";
+
+  private AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+
+  public void test_copyTokenStream() {
+    Token tokenStream = scan(CONTENTS);
+    Token copy = SharedUnitCache.copyTokenStream(tokenStream);
+    Token original = tokenStream;
+    while (original.getType() != TokenType.EOF) {
+      assertNotSame(original, copy);
+      assertSame(original.getType(), copy.getType());
+      assertEquals(original.getLexeme(), copy.getLexeme());
+      assertEquals(original.getOffset(), copy.getOffset());
+      if (original instanceof BeginToken) {
+        assertEquals(
+            ((BeginToken) original).getEndToken().getOffset(),
+            ((BeginToken) copy).getEndToken().getOffset());
+        assertNotSame(((BeginToken) original).getEndToken(), ((BeginToken) copy).getEndToken());
+      }
+      original = original.getNext();
+      copy = copy.getNext();
+    }
+    assertSame(TokenType.EOF, copy.getType());
+    assertSame(copy, copy.getNext());
+  }
+
+  public void test_createKey() {
+    UnitKey key = SharedUnitCache.createKey(CONTENTS, options, false);
+    assertEquals(key, SharedUnitCache.createKey(new StringBuilder(CONTENTS), options, false));
+    assertEquals(key.hashCode(), SharedUnitCache.createKey(CONTENTS, options, false).hashCode());
+    assertFalse(key.equals(SharedUnitCache.createKey(CONTENTS + " ", options, false)));
+    assertFalse(key.equals(SharedUnitCache.createKey(CONTENTS, options, true)));
+    AnalysisOptionsImpl otherOptions = new AnalysisOptionsImpl(options);
+    otherOptions.setPreserveComments(!options.getPreserveComments());
+    assertFalse(key.equals(SharedUnitCache.createKey(CONTENTS, otherOptions, false)));
+  }
+
+  public void test_get_miss() {
+    SharedUnitCache cache = new SharedUnitCache(8);
+    assertNull(cache.get(SharedUnitCache.createKey(CONTENTS, options, false)));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  public void test_getUnit() {
+    SharedUnitCache cache = new SharedUnitCache(8);
+    UnitKey key = SharedUnitCache.createKey(CONTENTS, options, false);
+    Token tokenStream = scan(CONTENTS);
+    CompilationUnit unit = parse(tokenStream);
+    int optionBits = SharedUnitCache.getOptionBits(options, false);
+    cache.scanned(key, tokenStream);
+    cache.parsed(tokenStream, null, optionBits, unit);
+
+    SharedUnit sharedUnit = cache.get(key);
+    assertNotNull(sharedUnit);
+    assertSame(tokenStream, sharedUnit.getTokenStream());
+    assertTrue(cache.isShared(tokenStream));
+    CompilationUnit first = cache.getUnit(tokenStream, optionBits);
+    CompilationUnit second = cache.getUnit(tokenStream, optionBits);
+    assertNotNull(first);
+    assertNotSame(unit, first);
+    assertNotSame(first, second);
+    assertSame(tokenStream, first.getBeginToken());
+    assertEquals(
+        "A",
+        ((ClassDeclaration) first.getDeclarations().get(0)).getName().getName());
+    assertNull(cache.getUnit(tokenStream, SharedUnitCache.getOptionBits(options, true)));
+    assertEquals(1, cache.getHitCount());
+  }
+
+  public void test_maxSize() {
+    SharedUnitCache cache = new SharedUnitCache(2);
+    int optionBits = SharedUnitCache.getOptionBits(options, false);
+    Token[] tokenStreams = new Token[3];
+    for (int i = 0; i < tokenStreams.length; i++) {
+      String contents = "class A" + i + " {}";
+      tokenStreams[i] = scan(contents);
+      cache.scanned(SharedUnitCache.createKey(contents, options, false), tokenStreams[i]);
+      cache.parsed(tokenStreams[i], null, optionBits, parse(tokenStreams[i]));
+    }
+    assertEquals(2, cache.getSize());
+    assertFalse(cache.isShared(tokenStreams[0]));
+    assertTrue(cache.isShared(tokenStreams[1]));
+    assertTrue(cache.isShared(tokenStreams[2]));
+  }
+
+  public void test_parsed_differentOptions() {
+    SharedUnitCache cache = new SharedUnitCache(8);
+    Token tokenStream = scan(CONTENTS);
+    cache.scanned(SharedUnitCache.createKey(CONTENTS, options, false), tokenStream);
+    cache.parsed(
+        tokenStream,
+        new LineInfo(new int[] {0}),
+        SharedUnitCache.getOptionBits(options, true),
+        parse(tokenStream));
+    assertEquals(0, cache.getSize());
+    assertFalse(cache.isShared(tokenStream));
+  }
+
+  public void test_parsed_notScanned() {
+    SharedUnitCache cache = new SharedUnitCache(8);
+    Token tokenStream = scan(CONTENTS);
+    cache.parsed(
+        tokenStream,
+        new LineInfo(new int[] {0}),
+        SharedUnitCache.getOptionBits(options, false),
+        parse(tokenStream));
+    assertEquals(0, cache.getSize());
+    assertFalse(cache.isShared(tokenStream));
+  }
+
+  private CompilationUnit parse(Token tokenStream) {
+    return new Parser(null, AnalysisErrorListener.NULL_LISTENER).parseCompilationUnit(tokenStream);
+  }
+
+  private Token scan(String contents) {
+    return new Scanner(null, new CharSequenceReader(contents), AnalysisErrorListener.NULL_LISTENER).tokenize();
+  }
+}
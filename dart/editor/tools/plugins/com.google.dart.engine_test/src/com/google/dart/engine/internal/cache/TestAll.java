@@ -25,7 +25,9 @@ public class TestAll {
     suite.addTestSuite(DartEntryImplTest.class);
     suite.addTestSuite(HtmlEntryImplTest.class);
     suite.addTestSuite(PartitionManagerTest.class);
+    suite.addTestSuite(PersistentAnalysisCacheTest.class);
     suite.addTestSuite(SdkCachePartitionTest.class);
+    suite.addTestSuite(SharedUnitCacheTest.class);
     suite.addTestSuite(UniversalCachePartitionTest.class);
     return suite;
   }
@@ -14,6 +14,7 @@
 package com.google.dart.engine.internal.cache;
 
 import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.parser.ParserTestCase;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.TestSource;
 
@@ -71,6 +72,100 @@ public class UniversalCachePartitionTest extends EngineTestCase {
     assertNull(partition.get(source));
   }
 
+  public void test_accessedAst_flushesLeastRecentlyUsed() {
+    UniversalCachePartition partition = new UniversalCachePartition(
+        null,
+        2,
+        new CacheRetentionPolicy() {
+          @Override
+          public RetentionPriority getAstPriority(Source source, SourceEntry sourceEntry) {
+            return RetentionPriority.LOW;
+          }
+        });
+    Source[] sources = new Source[3];
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = new TestSource(createFile("/test" + i + ".dart"), "");
+      DartEntryImpl entry = new DartEntryImpl();
+      entry.setValue(DartEntry.PARSED_UNIT, null);
+      partition.put(sources[i], entry);
+    }
+    partition.accessedAst(sources[0]);
+    partition.accessedAst(sources[1]);
+    partition.accessedAst(sources[0]);
+    partition.accessedAst(sources[2]);
+    assertSame(CacheState.VALID, partition.get(sources[0]).getState(DartEntry.PARSED_UNIT));
+    assertSame(CacheState.FLUSHED, partition.get(sources[1]).getState(DartEntry.PARSED_UNIT));
+    assertSame(CacheState.VALID, partition.get(sources[2]).getState(DartEntry.PARSED_UNIT));
+  }
+
+  public void test_accessedAst_keepsMediumPriority() {
+    final Source[] sources = new Source[3];
+    UniversalCachePartition partition = new UniversalCachePartition(
+        null,
+        2,
+        new CacheRetentionPolicy() {
+          @Override
+          public RetentionPriority getAstPriority(Source source, SourceEntry sourceEntry) {
+            return source == sources[0] ? RetentionPriority.MEDIUM : RetentionPriority.LOW;
+          }
+        });
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = new TestSource(createFile("/test" + i + ".dart"), "");
+      DartEntryImpl entry = new DartEntryImpl();
+      entry.setValue(DartEntry.PARSED_UNIT, null);
+      partition.put(sources[i], entry);
+    }
+    partition.accessedAst(sources[0]);
+    partition.accessedAst(sources[1]);
+    partition.accessedAst(sources[2]);
+    assertSame(CacheState.VALID, partition.get(sources[0]).getState(DartEntry.PARSED_UNIT));
+    assertSame(CacheState.FLUSHED, partition.get(sources[1]).getState(DartEntry.PARSED_UNIT));
+    assertSame(CacheState.VALID, partition.get(sources[2]).getState(DartEntry.PARSED_UNIT));
+  }
+
+  public void test_setMaxAstSize() throws Exception {
+    UniversalCachePartition partition = new UniversalCachePartition(
+        null,
+        8,
+        new CacheRetentionPolicy() {
+          @Override
+          public RetentionPriority getAstPriority(Source source, SourceEntry sourceEntry) {
+            return RetentionPriority.LOW;
+          }
+        });
+    Source smallSource = new TestSource(createFile("/small.dart"), "");
+    DartEntryImpl smallEntry = new DartEntryImpl();
+    smallEntry.setValue(DartEntry.PARSED_UNIT, ParserTestCase.parseCompilationUnit("class A {}"));
+    partition.put(smallSource, smallEntry);
+    partition.storedAst(smallSource);
+    long smallSize = partition.getEstimatedAstSize();
+    assertEquals(smallEntry.getEstimatedAstSize(), smallSize);
+
+    Source largeSource = new TestSource(createFile("/large.dart"), "");
+    DartEntryImpl largeEntry = new DartEntryImpl();
+    largeEntry.setValue(
+        DartEntry.PARSED_UNIT,
+        ParserTestCase.parseCompilationUnit("class B {} class C {} class D {}"));
+    partition.put(largeSource, largeEntry);
+    partition.storedAst(largeSource);
+    long totalSize = partition.getEstimatedAstSize();
+    assertEquals(smallSize + largeEntry.getEstimatedAstSize(), totalSize);
+    // The least recently used structure is flushed to get under the budget.
+    partition.setMaxAstSize(totalSize - 1);
+    assertSame(CacheState.FLUSHED, partition.get(smallSource).getState(DartEntry.PARSED_UNIT));
+    assertSame(CacheState.VALID, partition.get(largeSource).getState(DartEntry.PARSED_UNIT));
+    assertEquals(totalSize - smallSize, partition.getEstimatedAstSize());
+    partition.setMaxAstSize(1);
+    assertSame(CacheState.FLUSHED, partition.get(largeSource).getState(DartEntry.PARSED_UNIT));
+    assertEquals(0L, partition.getEstimatedAstSize());
+    // The structure being stored is kept even if it exceeds the budget on its own.
+    partition.put(largeSource, largeEntry);
+    partition.storedAst(largeSource);
+    assertSame(CacheState.VALID, partition.get(largeSource).getState(DartEntry.PARSED_UNIT));
+    partition.removedAst(largeSource);
+    assertEquals(0L, partition.getEstimatedAstSize());
+  }
+
   public void test_setMaxCacheSize() {
     UniversalCachePartition partition = new UniversalCachePartition(
         null,
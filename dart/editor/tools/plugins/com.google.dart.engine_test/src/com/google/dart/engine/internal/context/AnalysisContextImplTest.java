@@ -14,8 +14,11 @@
 package com.google.dart.engine.internal.context;
 
 import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.ast.BlockFunctionBody;
+import com.google.dart.engine.ast.ClassDeclaration;
 import com.google.dart.engine.ast.CompilationUnit;
 import com.google.dart.engine.ast.ImportDirective;
+import com.google.dart.engine.ast.MethodDeclaration;
 import com.google.dart.engine.ast.SimpleIdentifier;
 import com.google.dart.engine.ast.TopLevelVariableDeclaration;
 import com.google.dart.engine.context.AnalysisContextFactory;
@@ -36,7 +39,11 @@ import com.google.dart.engine.element.HtmlElement;
 import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.element.PropertyAccessorElement;
 import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.error.CompileTimeErrorCode;
+import com.google.dart.engine.error.ErrorCode;
 import com.google.dart.engine.error.ErrorSeverity;
+import com.google.dart.engine.error.HintCode;
+import com.google.dart.engine.error.StaticWarningCode;
 import com.google.dart.engine.html.ast.HtmlScriptTagNode;
 import com.google.dart.engine.html.ast.HtmlUnit;
 import com.google.dart.engine.html.ast.XmlTagNode;
@@ -57,6 +64,7 @@ import com.google.dart.engine.utilities.source.LineInfo;
 import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
 
 import java.lang.reflect.Field;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -310,6 +318,52 @@ public class AnalysisContextImplTest extends EngineTestCase {
     assertEquals("/// line 1\n" + "/// line 2\n" + "/// line 3", actual);
   }
 
+  public void test_computeErrors_dart_declarationsOnly() throws Exception {
+    context = contextWithLazyDependencies();
+    Source source = addPackageSource("/pkg/lib.dart", createSource(//
+        "library lib;",
+        "class A {",
+        "  int m() {",
+        "    return undefinedName;",
+        "  }",
+        "}"));
+    LibraryElement libraryElement = context.computeLibraryElement(source);
+    assertFalse(libraryElement.getType("A").getMethods()[0].isAbstract());
+    CompilationUnit unit = context.resolveCompilationUnit(source, libraryElement);
+    assertSizeOfList(0, getMethodBody(unit).getBlock().getStatements());
+    // computing the errors requires the function bodies
+    AnalysisError[] errors = context.computeErrors(source);
+    assertLength(1, errors);
+    assertSame(StaticWarningCode.UNDEFINED_IDENTIFIER, errors[0].getErrorCode());
+    libraryElement = context.computeLibraryElement(source);
+    unit = context.resolveCompilationUnit(source, libraryElement);
+    assertSizeOfList(1, getMethodBody(unit).getBlock().getStatements());
+  }
+
+  public void test_computeErrors_dart_declarationsOnly_dependent() throws Exception {
+    context = contextWithLazyDependencies();
+    Source packageSource = addPackageSource("/pkg/lib.dart", createSource(//
+        "library lib;",
+        "class A {",
+        "  int m() {",
+        "    return undefinedName;",
+        "  }",
+        "}"));
+    Source source = addSource("/test.dart", createSource(//
+        "import 'pkg/lib.dart';",
+        "main() {",
+        "  new A().m();",
+        "}"));
+    analyzeAll_assertFinished();
+    LibraryElement libraryElement = context.getLibraryElement(source);
+    assertNotNull(libraryElement);
+    // the errors of a dependency parsed without function bodies are not generated
+    assertLength(0, context.getErrors(packageSource).getErrors());
+    // parsing the function bodies of a dependency does not invalidate the libraries depending on it
+    assertLength(1, context.computeErrors(packageSource));
+    assertSame(libraryElement, context.getLibraryElement(source));
+  }
+
   public void test_computeErrors_dart_none() throws Exception {
     Source source = addSource("/lib.dart", "library lib;");
     AnalysisError[] errors = context.computeErrors(source);
@@ -1255,6 +1309,108 @@ public class AnalysisContextImplTest extends EngineTestCase {
         context.getLibraryElement(source));
   }
 
+  public void test_performAnalysisTask_parallelParse() throws Exception {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    options.setParseThreadCount(4);
+    context = AnalysisContextFactory.contextWithCoreAndOptions(options);
+    Source[] sources = new Source[20];
+    ChangeSet changeSet = new ChangeSet();
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = new TestSource(createFile("/lib" + i + ".dart"), "library lib" + i + ";");
+      changeSet.addedSource(sources[i]);
+    }
+    context.applyChanges(changeSet);
+    // each task performs a single unit of work
+    assertNotNull(context.performAnalysisTask().getTaskClassName());
+    assertSame(SourceKind.UNKNOWN, context.getKindOf(sources[sources.length - 1]));
+    // the remaining work is performed by several workers
+    new ParallelAnalysisDriver(context, 4).performAllTasks();
+    for (Source source : sources) {
+      assertSame(SourceKind.LIBRARY, context.getKindOf(source));
+      assertNotNull(context.getResolvedCompilationUnit(source, source));
+    }
+    assertNull(context.performAnalysisTask().getChangeNotices());
+  }
+
+  public void test_performAnalysisTask_parallelResolution() throws Exception {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    options.setResolutionThreadCount(4);
+    context = AnalysisContextFactory.contextWithCoreAndOptions(options);
+    Source[] sources = new Source[20];
+    for (int i = 0; i < sources.length; i++) {
+      // each library imports the library at the root of its subtree
+      String directive = i == 0 ? "" : "import 'lib" + (i - 1) / 2 + ".dart';";
+      sources[i] = addSource("/lib" + i + ".dart", createSource(//
+          "library lib" + i + ";",
+          directive,
+          "class A" + i + " {}"));
+    }
+    // the independent cycles are resolved by several workers
+    new ParallelAnalysisDriver(context, 4).performAllTasks();
+    for (Source source : sources) {
+      assertNotNull(context.getLibraryElement(source));
+      assertNotNull(context.getResolvedCompilationUnit(source, source));
+    }
+    assertNull(context.performAnalysisTask().getChangeNotices());
+  }
+
+  public void test_performAnalysisTask_parallelVerification() throws Exception {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    options.setVerificationThreadCount(4);
+    context = AnalysisContextFactory.contextWithCoreAndOptions(options);
+    Source libSource = addSource("/lib.dart", createSource(//
+        "library lib;",
+        "import 'dart:math';",
+        "part 'a.dart';",
+        "part 'b.dart';"));
+    Source partA = addSource("/a.dart", createSource(//
+        "part of lib;",
+        "class A {",
+        "  int x;",
+        "  const A();",
+        "}"));
+    Source partB = addSource("/b.dart", createSource(//
+        "part of lib;",
+        "f() {",
+        "  return;",
+        "  f();",
+        "}"));
+    // the errors and hints are generated by their own tasks, performed by several workers
+    new ParallelAnalysisDriver(context, 4).performAllTasks();
+    assertNull(context.performAnalysisTask().getChangeNotices());
+    assertContains(getErrorCodes(libSource), HintCode.UNUSED_IMPORT);
+    assertContains(
+        getErrorCodes(partA),
+        CompileTimeErrorCode.CONST_CONSTRUCTOR_WITH_NON_FINAL_FIELD);
+    assertContains(getErrorCodes(partB), HintCode.DEAD_CODE);
+  }
+
+  public void test_performAnalysisTask_shareParsedUnits() throws Exception {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    options.setShareParsedUnits(true);
+    String contents = createSource(//
+        "library shared;",
+        "import 'dart:core';",
+        "class SharedByTwoContexts {}");
+    context = AnalysisContextFactory.contextWithCoreAndOptions(options);
+    Source source = addSource("/shared.dart", contents);
+    analyzeAll_assertFinished();
+    CompilationUnit unit = context.getResolvedCompilationUnit(source, source);
+    assertNotNull(unit);
+
+    context = AnalysisContextFactory.contextWithCoreAndOptions(options);
+    Source otherSource = addSource("/other/shared.dart", contents);
+    analyzeAll_assertFinished();
+    CompilationUnit otherUnit = context.getResolvedCompilationUnit(otherSource, otherSource);
+    assertNotNull(otherUnit);
+    // the tokens are shared, but each context resolves its own structure
+    assertSame(unit.getBeginToken(), otherUnit.getBeginToken());
+    assertNotSame(unit.getDeclarations().get(0), otherUnit.getDeclarations().get(0));
+    assertSame(source, unit.getElement().getSource());
+    assertSame(otherSource, otherUnit.getElement().getSource());
+    assertNotNull(((ImportDirective) otherUnit.getDirectives().get(1)).getSource());
+  }
+
   public void test_resolveCompilationUnit_import_relative() throws Exception {
     context = AnalysisContextFactory.contextWithCore();
     Source sourceA = addSource("/libA.dart", "library libA; import 'libB.dart'; class A{}");
@@ -1347,6 +1503,27 @@ public class AnalysisContextImplTest extends EngineTestCase {
     assertTrue(oldPriorityOrderSize > getPriorityOrder(context).length);
   }
 
+  public void test_setAnalysisPriorityOrder_declarationsOnly() throws Exception {
+    context = contextWithLazyDependencies();
+    Source source = addPackageSource("/pkg/lib.dart", createSource(//
+        "library lib;",
+        "class A {",
+        "  int m() {",
+        "    return 0;",
+        "  }",
+        "}"));
+    LibraryElement libraryElement = context.computeLibraryElement(source);
+    CompilationUnit unit = context.resolveCompilationUnit(source, libraryElement);
+    assertSizeOfList(0, getMethodBody(unit).getBlock().getStatements());
+    // a priority source is parsed with its function bodies
+    ArrayList<Source> sources = new ArrayList<Source>();
+    sources.add(source);
+    context.setAnalysisPriorityOrder(sources);
+    libraryElement = context.computeLibraryElement(source);
+    unit = context.resolveCompilationUnit(source, libraryElement);
+    assertSizeOfList(1, getMethodBody(unit).getBlock().getStatements());
+  }
+
   public void test_setAnalysisPriorityOrder_empty() {
     context.setAnalysisPriorityOrder(new ArrayList<Source>());
   }
@@ -1550,6 +1727,19 @@ public class AnalysisContextImplTest extends EngineTestCase {
     super.tearDown();
   }
 
+  private TestSource addPackageSource(final String fileName, String contents) {
+    TestSource source = new TestSource(createFile(fileName), contents) {
+      @Override
+      public URI getUri() {
+        return URI.create("package:" + fileName.substring(1));
+      }
+    };
+    ChangeSet changeSet = new ChangeSet();
+    changeSet.addedSource(source);
+    context.applyChanges(changeSet);
+    return source;
+  }
+
   private Source addSource(String fileName, String contents) {
     Source source = new FileBasedSource(createFile(fileName));
     ChangeSet changeSet = new ChangeSet();
@@ -1618,6 +1808,30 @@ public class AnalysisContextImplTest extends EngineTestCase {
     return null;
   }
 
+  /**
+   * Return a context with the core library whose options cause the function bodies of sources in
+   * the SDK and in packages to be parsed only when they are needed.
+   * 
+   * @return the context that was created
+   */
+  private AnalysisContextImpl contextWithLazyDependencies() {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    options.setAnalyzeDependencyFunctionBodies(false);
+    return AnalysisContextFactory.contextWithCoreAndOptions(options);
+  }
+
+  /**
+   * Return the codes of the errors that have been computed for the given source.
+   */
+  private ErrorCode[] getErrorCodes(Source source) {
+    AnalysisError[] errors = context.getErrors(source).getErrors();
+    ErrorCode[] codes = new ErrorCode[errors.length];
+    for (int i = 0; i < errors.length; i++) {
+      codes[i] = errors[i].getErrorCode();
+    }
+    return codes;
+  }
+
   private IncrementalAnalysisCache getIncrementalAnalysisCache(AnalysisContextImpl context2)
       throws Exception {
     Field field = AnalysisContextImpl.class.getDeclaredField("incrementalAnalysisCache");
@@ -1625,6 +1839,15 @@ public class AnalysisContextImplTest extends EngineTestCase {
     return (IncrementalAnalysisCache) field.get(context2);
   }
 
+  /**
+   * Return the body of the first member of the first class declared in the given unit.
+   */
+  private BlockFunctionBody getMethodBody(CompilationUnit unit) {
+    ClassDeclaration classDeclaration = (ClassDeclaration) unit.getDeclarations().get(0);
+    MethodDeclaration method = (MethodDeclaration) classDeclaration.getMembers().get(0);
+    return (BlockFunctionBody) method.getBody();
+  }
+
   private Source[] getPriorityOrder(AnalysisContextImpl context2) throws Exception {
     Field field = AnalysisContextImpl.class.getDeclaredField("priorityOrder");
     field.setAccessible(true);
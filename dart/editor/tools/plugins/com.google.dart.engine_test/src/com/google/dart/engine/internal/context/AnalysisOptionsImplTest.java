@@ -21,6 +21,7 @@ public class AnalysisOptionsImplTest extends EngineTestCase {
     for (int i = 0; i < 2; i++, booleanValue = !booleanValue) {
       AnalysisOptionsImpl options = new AnalysisOptionsImpl();
       options.setAnalyzeAngular(booleanValue);
+      options.setAnalyzeDependencyFunctionBodies(booleanValue);
       options.setAnalyzeFunctionBodies(booleanValue);
       options.setAnalyzePolymer(booleanValue);
       options.setCacheSize(i);
@@ -28,9 +29,16 @@ public class AnalysisOptionsImplTest extends EngineTestCase {
       options.setGenerateSdkErrors(booleanValue);
       options.setHint(booleanValue);
       options.setIncremental(booleanValue);
+      options.setParseThreadCount(i + 1);
       options.setPreserveComments(booleanValue);
+      options.setResolutionThreadCount(i + 2);
+      options.setShareParsedUnits(booleanValue);
+      options.setVerificationThreadCount(i + 3);
       AnalysisOptionsImpl copy = new AnalysisOptionsImpl(options);
       assertEquals(options.getAnalyzeAngular(), copy.getAnalyzeAngular());
+      assertEquals(
+          options.getAnalyzeDependencyFunctionBodies(),
+          copy.getAnalyzeDependencyFunctionBodies());
       assertEquals(options.getAnalyzeFunctionBodies(), copy.getAnalyzeFunctionBodies());
       assertEquals(options.getAnalyzePolymer(), copy.getAnalyzePolymer());
       assertEquals(options.getCacheSize(), copy.getCacheSize());
@@ -38,7 +46,11 @@ public class AnalysisOptionsImplTest extends EngineTestCase {
       assertEquals(options.getGenerateSdkErrors(), copy.getGenerateSdkErrors());
       assertEquals(options.getHint(), copy.getHint());
       assertEquals(options.getIncremental(), copy.getIncremental());
+      assertEquals(options.getParseThreadCount(), copy.getParseThreadCount());
       assertEquals(options.getPreserveComments(), copy.getPreserveComments());
+      assertEquals(options.getResolutionThreadCount(), copy.getResolutionThreadCount());
+      assertEquals(options.getShareParsedUnits(), copy.getShareParsedUnits());
+      assertEquals(options.getVerificationThreadCount(), copy.getVerificationThreadCount());
     }
   }
 
@@ -49,6 +61,13 @@ public class AnalysisOptionsImplTest extends EngineTestCase {
     assertEquals(value, options.getAnalyzeAngular());
   }
 
+  public void test_getAnalyzeDependencyFunctionBodies() {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    boolean value = !options.getAnalyzeDependencyFunctionBodies();
+    options.setAnalyzeDependencyFunctionBodies(value);
+    assertEquals(value, options.getAnalyzeDependencyFunctionBodies());
+  }
+
   public void test_getAnalyzeFunctionBodies() {
     AnalysisOptionsImpl options = new AnalysisOptionsImpl();
     boolean value = !options.getAnalyzeFunctionBodies();
@@ -99,10 +118,38 @@ public class AnalysisOptionsImplTest extends EngineTestCase {
     assertEquals(value, options.getIncremental());
   }
 
+  public void test_getParseThreadCount() {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    assertEquals(1, options.getParseThreadCount());
+    options.setParseThreadCount(4);
+    assertEquals(4, options.getParseThreadCount());
+  }
+
   public void test_getPreserveComments() {
     AnalysisOptionsImpl options = new AnalysisOptionsImpl();
     boolean value = !options.getPreserveComments();
     options.setPreserveComments(value);
     assertEquals(value, options.getPreserveComments());
   }
+
+  public void test_getResolutionThreadCount() {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    assertEquals(1, options.getResolutionThreadCount());
+    options.setResolutionThreadCount(4);
+    assertEquals(4, options.getResolutionThreadCount());
+  }
+
+  public void test_getShareParsedUnits() {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    boolean value = !options.getShareParsedUnits();
+    options.setShareParsedUnits(value);
+    assertEquals(value, options.getShareParsedUnits());
+  }
+
+  public void test_getVerificationThreadCount() {
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl();
+    assertEquals(1, options.getVerificationThreadCount());
+    options.setVerificationThreadCount(4);
+    assertEquals(4, options.getVerificationThreadCount());
+  }
 }
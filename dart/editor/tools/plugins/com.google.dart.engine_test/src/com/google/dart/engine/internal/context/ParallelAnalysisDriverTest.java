@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.context;
+
+import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.context.ChangeNotice;
+import com.google.dart.engine.context.ChangeSet;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.source.DartUriResolver;
+import com.google.dart.engine.source.FileBasedSource;
+import com.google.dart.engine.source.FileUriResolver;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.SourceFactory;
+
+import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
+
+public class ParallelAnalysisDriverTest extends EngineTestCase {
+  /**
+   * The analysis context in which analysis is performed.
+   */
+  private AnalysisContextImpl context;
+
+  @Override
+  public void setUp() {
+    context = new AnalysisContextImpl();
+    SourceFactory sourceFactory = new SourceFactory(
+        new DartUriResolver(DirectoryBasedDartSdk.getDefaultSdk()),
+        new FileUriResolver());
+    context.setSourceFactory(sourceFactory);
+    AnalysisOptionsImpl options = new AnalysisOptionsImpl(context.getAnalysisOptions());
+    options.setCacheSize(256);
+    context.setAnalysisOptions(options);
+  }
+
+  public void test_creation_invalidWorkerCount() {
+    try {
+      new ParallelAnalysisDriver(context, 0);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException exception) {
+      // Expected
+    }
+  }
+
+  public void test_performAllTasks_empty() throws Exception {
+    ParallelAnalysisDriver driver = new ParallelAnalysisDriver(context, 4);
+    assertLength(0, driver.performAllTasks());
+    assertEquals(0, driver.getTaskCount());
+  }
+
+  public void test_performAllTasks_independentLibraries() throws Exception {
+    int libraryCount = 20;
+    Source[] sources = new Source[libraryCount];
+    for (int i = 0; i < libraryCount; i++) {
+      sources[i] = addSource("/lib" + i + ".dart", createSource(//
+          "library lib" + i + ";",
+          "class A" + i + " {}"));
+    }
+    Source mainSource = addSource("/main.dart", createSource(//
+        "import 'lib0.dart';",
+        "import 'lib1.dart';",
+        "main() {",
+        "  new A0();",
+        "  new A1();",
+        "}"));
+    ParallelAnalysisDriver driver = new ParallelAnalysisDriver(context, 4);
+    driver.performAllTasks();
+    assertTrue(driver.getTaskCount() > 0);
+    for (int i = 0; i < libraryCount; i++) {
+      assertResolved(sources[i]);
+    }
+    assertResolved(mainSource);
+    assertNull(context.performAnalysisTask().getChangeNotices());
+  }
+
+  public void test_performAllTasks_libraryCycle() throws Exception {
+    Source sourceA = addSource("/a.dart", createSource(//
+        "library a;",
+        "import 'b.dart';",
+        "class A extends B {}"));
+    Source sourceB = addSource("/b.dart", createSource(//
+        "library b;",
+        "import 'a.dart';",
+        "class B {}",
+        "class C extends A {}"));
+    ParallelAnalysisDriver driver = new ParallelAnalysisDriver(context, 3);
+    driver.performAllTasks();
+    assertResolved(sourceA);
+    assertResolved(sourceB);
+    assertNull(context.performAnalysisTask().getChangeNotices());
+  }
+
+  public void test_takeChangeNotices() throws Exception {
+    Source source = addSource("/lib.dart", createSource(//
+        "library lib;",
+        "class A {}"));
+    ParallelAnalysisDriver driver = new ParallelAnalysisDriver(context, 2);
+    driver.start();
+    boolean noticedSource = false;
+    ChangeNotice[] notices = driver.takeChangeNotices(10L);
+    while (notices != null) {
+      for (ChangeNotice notice : notices) {
+        if (notice.getSource().equals(source)) {
+          noticedSource = true;
+        }
+      }
+      notices = driver.takeChangeNotices(10L);
+    }
+    assertTrue(noticedSource);
+    assertResolved(source);
+    assertNull(context.performAnalysisTask().getChangeNotices());
+  }
+
+  private Source addSource(String fileName, String contents) {
+    Source source = new FileBasedSource(createFile(fileName));
+    ChangeSet changeSet = new ChangeSet();
+    changeSet.addedSource(source);
+    context.applyChanges(changeSet);
+    context.setContents(source, contents);
+    return source;
+  }
+
+  private void assertResolved(Source source) {
+    LibraryElement library = context.getLibraryElement(source);
+    assertNotNull(library);
+    CompilationUnit unit = context.getResolvedCompilationUnit(source, library);
+    assertNotNull(unit);
+    assertLength(0, context.getErrors(source).getErrors());
+  }
+}
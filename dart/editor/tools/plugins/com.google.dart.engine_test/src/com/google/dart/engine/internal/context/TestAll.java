@@ -25,6 +25,7 @@ public class TestAll {
     suite.addTestSuite(AnalysisOptionsImplTest.class);
     suite.addTestSuite(IncrementalAnalysisCacheTest.class);
     suite.addTestSuite(InstrumentedAnalysisContextImplTest.class);
+    suite.addTestSuite(ParallelAnalysisDriverTest.class);
     suite.addTestSuite(WorkManagerTest.class);
     return suite;
   }
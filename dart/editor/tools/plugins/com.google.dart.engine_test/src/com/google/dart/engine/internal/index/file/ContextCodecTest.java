@@ -19,9 +19,23 @@ import junit.framework.TestCase;
 
 import static org.mockito.Mockito.mock;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 public class ContextCodecTest extends TestCase {
   private ContextCodec codec = new ContextCodec();
 
+  public void test_bind() throws Exception {
+    AnalysisContext context = mock(AnalysisContext.class);
+    assertFalse(codec.contains(context));
+    codec.bind(5, context);
+    assertTrue(codec.contains(context));
+    assertSame(context, codec.decode(5));
+    assertEquals(5, codec.encode(context));
+  }
+
   public void test_encode_decode() throws Exception {
     AnalysisContext contextA = mock(AnalysisContext.class);
     AnalysisContext contextB = mock(AnalysisContext.class);
@@ -52,4 +66,19 @@ public class ContextCodecTest extends TestCase {
       assertSame(context, codec.decode(id));
     }
   }
+
+  public void test_writeRead() throws Exception {
+    AnalysisContext contextA = mock(AnalysisContext.class);
+    AnalysisContext contextB = mock(AnalysisContext.class);
+    codec.encode(contextA);
+    codec.encode(contextB);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    codec.write(new DataOutputStream(outputStream));
+    // contexts are not restored, but their indices are not reused
+    ContextCodec newCodec = new ContextCodec();
+    newCodec.read(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+    assertNull(newCodec.decode(0));
+    assertNull(newCodec.decode(1));
+    assertEquals(2, newCodec.encode(contextA));
+  }
 }
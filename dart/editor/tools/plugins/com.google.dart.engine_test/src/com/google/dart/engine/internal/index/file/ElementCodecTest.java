@@ -27,6 +27,11 @@ import static org.fest.assertions.MapAssert.entry;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 public class ElementCodecTest extends TestCase {
   private static final String LIB = "file:/lib.dart";
   private static final String UNIT = "file:/unit.dart";
@@ -140,6 +145,28 @@ public class ElementCodecTest extends TestCase {
         entry("bar", 2));
   }
 
+  public void test_writeRead() throws Exception {
+    Element element = mock(Element.class);
+    ElementLocation location = new ElementLocationImpl(new String[] {LIB, UNIT, "bar"});
+    when(element.getLocation()).thenReturn(location);
+    when(context.getElement(location)).thenReturn(element);
+    int id = codec.encode(element, false);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(outputStream);
+    stringCodec.write(output);
+    codec.write(output);
+    // read into new codecs
+    StringCodec newStringCodec = new StringCodec();
+    ElementCodec newCodec = new ElementCodec(newStringCodec);
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(
+        outputStream.toByteArray()));
+    newStringCodec.read(input);
+    newCodec.read(input);
+    assertEquals(1, newCodec.size());
+    assertEquals(element, newCodec.decode(context, id));
+    assertEquals(id, newCodec.encode(element, false));
+  }
+
   @Override
   protected void tearDown() throws Exception {
     stringCodec = null;
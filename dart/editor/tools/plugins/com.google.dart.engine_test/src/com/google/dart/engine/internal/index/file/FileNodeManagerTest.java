@@ -180,6 +180,41 @@ public class FileNodeManagerTest extends TestCase {
     }
   }
 
+  public void test_putNode_getNode_locationEncoding() throws Exception {
+    String name = "42.index";
+    // prepare output stream
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    when(fileManager.openOutputStream(name)).thenReturn(outputStream);
+    // prepare elements
+    Element elementA = mockElement();
+    Element elementB = mockElement();
+    Element elementC = mockElement();
+    Relationship relationship = Relationship.getRelationship("my-relationship");
+    // put Node, with decreasing element ids and offsets, and large values
+    {
+      int relationshipId = relationshipCodec.encode(relationship);
+      RelationKeyData key = new RelationKeyData(0, relationshipId);
+      List<LocationData> locations = Lists.newArrayList(
+          new LocationData(2, 1000000, 10),
+          new LocationData(1, 5, 0),
+          new LocationData(2, Integer.MAX_VALUE, -1));
+      Map<RelationKeyData, List<LocationData>> relations = ImmutableMap.of(key, locations);
+      IndexNode node = new IndexNode(context, elementCodec, relationshipCodec);
+      node.setRelations(relations);
+      nodeManager.putNode(name, node);
+    }
+    // prepare input stream
+    InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+    when(fileManager.openInputStream(name)).thenReturn(inputStream);
+    // get Node
+    IndexNode node = nodeManager.getNode(name);
+    Location[] locations = node.getRelationships(elementA, relationship);
+    assertThat(locations).hasSize(3);
+    assertHasLocation(locations, elementC, 1000000, 10);
+    assertHasLocation(locations, elementB, 5, 0);
+    assertHasLocation(locations, elementC, Integer.MAX_VALUE, -1);
+  }
+
   public void test_putNode_streamException() throws Exception {
     String name = "42.index";
     when(fileManager.openOutputStream(name)).thenThrow(new Exception());
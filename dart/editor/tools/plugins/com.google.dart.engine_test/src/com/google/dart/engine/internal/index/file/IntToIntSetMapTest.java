@@ -17,6 +17,11 @@ import junit.framework.TestCase;
 
 import static org.fest.assertions.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 public class IntToIntSetMapTest extends TestCase {
   private static int HASH_32_KEY_1 = 0x60000;
   private static int HASH_32_KEY_2 = 0x90000;
@@ -100,4 +105,23 @@ public class IntToIntSetMapTest extends TestCase {
       assertThat(map.get(key)).containsOnly(i * 10, i * 100, i * 1000);
     }
   }
+
+  public void test_writeRead() throws Exception {
+    map = new IntToIntSetMap(33, 0.75f);
+    map.add(HASH_32_KEY_1, 10);
+    map.add(HASH_32_KEY_2, 20);
+    map.add(HASH_32_KEY_2, 21);
+    map.add(5, 50);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    map.write(new DataOutputStream(outputStream));
+    // read into a new map
+    IntToIntSetMap newMap = new IntToIntSetMap(16, 0.75f);
+    newMap.add(7, 70);
+    newMap.read(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+    assertEquals(3, newMap.size());
+    assertThat(newMap.get(HASH_32_KEY_1)).containsOnly(10);
+    assertThat(newMap.get(HASH_32_KEY_2)).containsOnly(20, 21);
+    assertThat(newMap.get(5)).containsOnly(50);
+    assertThat(newMap.get(7)).isEmpty();
+  }
 }
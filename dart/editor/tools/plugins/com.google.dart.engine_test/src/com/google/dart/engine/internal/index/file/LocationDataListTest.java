@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.file;
+
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.element.Element;
+import com.google.dart.engine.index.Location;
+
+import junit.framework.TestCase;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+public class LocationDataListTest extends TestCase {
+  private AnalysisContext context = mock(AnalysisContext.class);
+  private ElementCodec elementCodec = mock(ElementCodec.class);
+
+  public void test_add() throws Exception {
+    LocationDataList list = new LocationDataList(1);
+    assertEquals(0, list.size());
+    for (int i = 0; i < 100; i++) {
+      list.add(i, 10 * i, 2);
+    }
+    list.add(new LocationData(-1, 5, 6));
+    assertEquals(101, list.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, list.getElementId(i));
+      assertEquals(10 * i, list.getOffset(i));
+      assertEquals(2, list.getLength(i));
+    }
+    assertEquals(new LocationData(-1, 5, 6), list.get(100));
+  }
+
+  public void test_getLocations() throws Exception {
+    Element elementA = mock(Element.class);
+    Element elementC = mock(Element.class);
+    when(elementCodec.decode(context, 0)).thenReturn(elementA);
+    when(elementCodec.decode(context, 2)).thenReturn(elementC);
+    LocationDataList list = new LocationDataList();
+    list.add(0, 1, 10);
+    list.add(1, 2, 20);
+    list.add(2, 3, 30);
+    // the location with element 1 cannot be decoded
+    Location[] locations = list.getLocations(context, elementCodec);
+    assertEquals(2, locations.length);
+    assertSame(elementA, locations[0].getElement());
+    assertEquals(1, locations[0].getOffset());
+    assertEquals(10, locations[0].getLength());
+    assertSame(elementC, locations[1].getElement());
+    assertEquals(3, locations[1].getOffset());
+    assertEquals(30, locations[1].getLength());
+  }
+
+  public void test_toList() throws Exception {
+    LocationDataList list = new LocationDataList();
+    list.add(0, 1, 10);
+    list.add(1, 2, 20);
+    List<LocationData> locations = list.toList();
+    assertEquals(2, locations.size());
+    assertEquals(new LocationData(0, 1, 10), locations.get(0));
+    assertEquals(new LocationData(1, 2, 20), locations.get(1));
+  }
+
+  public void test_trimToSize() throws Exception {
+    LocationDataList list = new LocationDataList(10);
+    list.add(0, 1, 10);
+    list.trimToSize();
+    assertEquals(1, list.size());
+    list.add(1, 2, 20);
+    assertEquals(2, list.size());
+    assertEquals(new LocationData(0, 1, 10), list.get(0));
+    assertEquals(new LocationData(1, 2, 20), list.get(1));
+  }
+}
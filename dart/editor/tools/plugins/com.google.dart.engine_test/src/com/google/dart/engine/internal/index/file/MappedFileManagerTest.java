@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.file;
+
+import com.google.common.io.Files;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class MappedFileManagerTest extends TestCase {
+  private File tempDir;
+  private File file;
+  private MappedFileManager fileManager;
+
+  public void test_clear() throws Exception {
+    writeFile("1.index", 1, 2, 3);
+    writeFile("2.index", 4, 5);
+    // clear
+    fileManager.clear();
+    assertNull(fileManager.openInputStream("1.index"));
+    assertNull(fileManager.openInputStream("2.index"));
+    assertEquals(0, fileManager.getSize());
+    // a new manager for the same file has no files
+    fileManager.close();
+    fileManager = new MappedFileManager(file);
+    assertNull(fileManager.openInputStream("1.index"));
+    assertNull(fileManager.openInputStream("2.index"));
+  }
+
+  public void test_compact() throws Exception {
+    byte[] content = new byte[100000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    writeFile("keep.index", content);
+    for (int i = 0; i < 30; i++) {
+      writeFile("replace.index", content);
+    }
+    // the deleted records were removed
+    assertTrue(fileManager.getGarbageSize() < fileManager.getSize());
+    assertTrue(fileManager.getSize() < 1000000);
+    assertFileContent("keep.index", content);
+    assertFileContent("replace.index", content);
+    // a new manager for the same file has the same files
+    fileManager.close();
+    fileManager = new MappedFileManager(file);
+    assertFileContent("keep.index", content);
+    assertFileContent("replace.index", content);
+  }
+
+  public void test_delete() throws Exception {
+    writeFile("1.index", 1, 2, 3);
+    writeFile("2.index", 4, 5);
+    int size = fileManager.getSize();
+    fileManager.delete("1.index");
+    assertNull(fileManager.openInputStream("1.index"));
+    assertFileContent("2.index", 4, 5);
+    assertEquals(size, fileManager.getSize());
+    assertTrue(fileManager.getGarbageSize() > 0);
+    // a new manager for the same file does not have the deleted file
+    fileManager.close();
+    fileManager = new MappedFileManager(file);
+    assertNull(fileManager.openInputStream("1.index"));
+    assertFileContent("2.index", 4, 5);
+  }
+
+  public void test_delete_noFile() throws Exception {
+    fileManager.delete("1.index");
+    assertEquals(0, fileManager.getGarbageSize());
+  }
+
+  public void test_grow() throws Exception {
+    byte[] content = new byte[1500000];
+    content[0] = 1;
+    content[content.length - 1] = 2;
+    writeFile("1.index", 3);
+    writeFile("2.index", content);
+    assertFileContent("1.index", 3);
+    assertFileContent("2.index", content);
+  }
+
+  public void test_new_keepsFiles() throws Exception {
+    writeFile("1.index", 1, 2, 3);
+    writeFile("2.index", 4, 5);
+    writeFile("1.index", 6);
+    fileManager.close();
+    fileManager = new MappedFileManager(file);
+    assertFileContent("1.index", 6);
+    assertFileContent("2.index", 4, 5);
+  }
+
+  public void test_outputInput() throws Exception {
+    String name = "42.index";
+    // no file
+    assertNull(fileManager.openInputStream(name));
+    // create a file
+    writeFile(name, 1, 2, 3, 4);
+    assertFileContent(name, 1, 2, 3, 4);
+    // replace the file
+    writeFile(name, 5, 6);
+    assertFileContent(name, 5, 6);
+    // delete
+    fileManager.delete(name);
+    assertNull(fileManager.openInputStream(name));
+  }
+
+  public void test_outputStream_notClosed() throws Exception {
+    OutputStream stream = fileManager.openOutputStream("1.index");
+    stream.write(1);
+    assertNull(fileManager.openInputStream("1.index"));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    tempDir = Files.createTempDir();
+    file = new File(tempDir, "index.data");
+    fileManager = new MappedFileManager(file);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    fileManager.close();
+    FileUtilities2.deleteDirectory(tempDir);
+    super.tearDown();
+  }
+
+  private void assertFileContent(String name, byte[] expected) throws Exception {
+    InputStream stream = fileManager.openInputStream(name);
+    assertNotNull(stream);
+    try {
+      assertEquals(expected.length, stream.available());
+      byte[] actual = new byte[expected.length];
+      assertEquals(expected.length, stream.read(actual));
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i], actual[i]);
+      }
+      assertEquals(-1, stream.read());
+    } finally {
+      stream.close();
+    }
+  }
+
+  private void assertFileContent(String name, int... expected) throws Exception {
+    assertFileContent(name, toBytes(expected));
+  }
+
+  private byte[] toBytes(int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+    return bytes;
+  }
+
+  private void writeFile(String name, byte[] content) throws Exception {
+    OutputStream stream = fileManager.openOutputStream(name);
+    try {
+      stream.write(content);
+    } finally {
+      stream.close();
+    }
+  }
+
+  private void writeFile(String name, int... content) throws Exception {
+    writeFile(name, toBytes(content));
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.file;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.element.CompilationUnitElement;
+import com.google.dart.engine.element.Element;
+import com.google.dart.engine.element.ElementLocation;
+import com.google.dart.engine.element.HtmlElement;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.index.Location;
+import com.google.dart.engine.index.Relationship;
+import com.google.dart.engine.index.UniverseElement;
+import com.google.dart.engine.internal.element.ElementLocationImpl;
+import com.google.dart.engine.internal.index.structure.btree.FilePageManager;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.List;
+
+public class PagedIndexStoreImplTest extends EngineTestCase {
+  /**
+   * {@link Location} has no "equals" and "hasCode", so to compare locations by value we need to
+   * wrap them into such object.
+   */
+  private static class LocationEqualsWrapper {
+    private final Location location;
+
+    LocationEqualsWrapper(Location location) {
+      this.location = location;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof LocationEqualsWrapper)) {
+        return false;
+      }
+      LocationEqualsWrapper other = (LocationEqualsWrapper) obj;
+      return other.location.getOffset() == location.getOffset()
+          && other.location.getLength() == location.getLength()
+          && Objects.equal(other.location.getElement(), location.getElement());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(location.getElement(), location.getOffset(), location.getLength());
+    }
+  }
+
+  /**
+   * Asserts that the "actual" locations have all the "expected" locations and only them.
+   */
+  private static void assertLocations(Location[] actual, Location... expected) {
+    LocationEqualsWrapper[] actualWrappers = wrapLocations(actual);
+    LocationEqualsWrapper[] expectedWrappers = wrapLocations(expected);
+    assertThat(actualWrappers).containsOnly((Object[]) expectedWrappers);
+  }
+
+  /**
+   * @return the new {@link Location} mock.
+   */
+  private static Location mockLocation(Element element, int offset) {
+    Location location = mock(Location.class);
+    when(location.newClone()).thenReturn(location);
+    when(location.getElement()).thenReturn(element);
+    when(location.getOffset()).thenReturn(offset);
+    return location;
+  }
+
+  /**
+   * Wraps the given locations into {@link LocationEqualsWrapper}.
+   */
+  private static LocationEqualsWrapper[] wrapLocations(Location[] locations) {
+    List<LocationEqualsWrapper> wrappers = Lists.newArrayList();
+    for (Location location : locations) {
+      wrappers.add(new LocationEqualsWrapper(location));
+    }
+    return wrappers.toArray(new LocationEqualsWrapper[wrappers.size()]);
+  }
+
+  private File tempDir;
+  private FilePageManager pageManager;
+  private SeparateFileManager fileManager;
+  private PagedIndexStoreImpl store;
+
+  private AnalysisContext contextA = mock(AnalysisContext.class);
+  private AnalysisContext contextB = mock(AnalysisContext.class);
+  private ElementLocation elementLocationA = new ElementLocationImpl(new String[] {
+      "/home/user/sourceA.dart", "ClassA"});
+  private ElementLocation elementLocationB = new ElementLocationImpl(new String[] {
+      "/home/user/sourceB.dart", "ClassB"});
+  private Element elementA = mock(Element.class);
+  private Element elementB = mock(Element.class);
+  private Source librarySource = mock(Source.class);
+  private Source sourceA = mock(Source.class);
+  private Source sourceB = mock(Source.class);
+  private LibraryElement libraryElement = mock(LibraryElement.class);
+  private CompilationUnitElement libraryUnitElement = mock(CompilationUnitElement.class);
+  private CompilationUnitElement unitElementA = mock(CompilationUnitElement.class);
+  private CompilationUnitElement unitElementB = mock(CompilationUnitElement.class);
+  private HtmlElement htmlElementA = mock(HtmlElement.class);
+  private Relationship relationship = Relationship.getRelationship("test-relationship");
+
+  public void test_aboutToIndexDart_disposedContext() throws Exception {
+    when(contextA.isDisposed()).thenReturn(true);
+    assertEquals(false, store.aboutToIndexDart(contextA, unitElementA));
+  }
+
+  public void test_aboutToIndexDart_library_secondWithoutOneUnit() throws Exception {
+    Location locationA = mockLocation(elementA, 1);
+    Location locationB = mockLocation(elementA, 2);
+    when(libraryElement.getParts()).thenReturn(
+        new CompilationUnitElement[] {unitElementA, unitElementB});
+    store.aboutToIndexDart(contextA, libraryUnitElement);
+    store.doneIndex();
+    {
+      store.aboutToIndexDart(contextA, unitElementA);
+      store.recordRelationship(elementA, relationship, locationA);
+      store.doneIndex();
+    }
+    {
+      store.aboutToIndexDart(contextA, unitElementB);
+      store.recordRelationship(elementA, relationship, locationB);
+      store.doneIndex();
+    }
+    assertLocations(store.getRelationships(elementA, relationship), locationA, locationB);
+    // "unitElementA" is not a part of the library anymore
+    when(libraryElement.getParts()).thenReturn(new CompilationUnitElement[] {unitElementB});
+    store.aboutToIndexDart(contextA, libraryUnitElement);
+    store.doneIndex();
+    assertLocations(store.getRelationships(elementA, relationship), locationB);
+  }
+
+  public void test_aboutToIndexDart_reindex() throws Exception {
+    Location locationA = mockLocation(elementA, 1);
+    Location locationB = mockLocation(elementA, 2);
+    {
+      store.aboutToIndexDart(contextA, unitElementA);
+      store.recordRelationship(elementA, relationship, locationA);
+      store.doneIndex();
+    }
+    // the old location is replaced
+    {
+      store.aboutToIndexDart(contextA, unitElementA);
+      store.recordRelationship(elementA, relationship, locationB);
+      store.doneIndex();
+    }
+    assertLocations(store.getRelationships(elementA, relationship), locationB);
+  }
+
+  public void test_aboutToIndexHtml() throws Exception {
+    Location locationA = mockLocation(elementA, 1);
+    store.aboutToIndexHtml(contextA, htmlElementA);
+    store.recordRelationship(elementA, relationship, locationA);
+    store.doneIndex();
+    assertLocations(store.getRelationships(elementA, relationship), locationA);
+  }
+
+  public void test_clear() throws Exception {
+    Location locationA = mockLocation(elementA, 1);
+    store.aboutToIndexDart(contextA, unitElementA);
+    store.recordRelationship(elementA, relationship, locationA);
+    store.doneIndex();
+    // clear
+    store.clear();
+    assertLocations(store.getRelationships(elementA, relationship));
+    assertThat(store.getStatistics()).contains("0 locations");
+  }
+
+  public void test_getRelationships_empty() throws Exception {
+    Location[] locations = store.getRelationships(elementA, relationship);
+    assertThat(locations).isEmpty();
+  }
+
+  public void test_getStatistics() throws Exception {
+    // empty initially
+    assertThat(store.getStatistics()).contains("0 locations").contains("0 sources");
+    // add 2 locations
+    {
+      store.aboutToIndexDart(contextA, unitElementA);
+      store.recordRelationship(elementA, relationship, mockLocation(elementA, 1));
+      store.doneIndex();
+    }
+    {
+      store.aboutToIndexDart(contextA, unitElementB);
+      store.recordRelationship(elementA, relationship, mockLocation(elementB, 2));
+      store.doneIndex();
+    }
+    assertThat(store.getStatistics()).contains("2 locations").contains("3 sources");
+  }
+
+  public void test_recordRelationship_manyLocations() throws Exception {
+    int count = 2000;
+    Location[] locations = new Location[count];
+    store.aboutToIndexDart(contextA, unitElementA);
+    for (int i = 0; i < count; i++) {
+      locations[i] = mockLocation(elementB, i);
+      store.recordRelationship(elementA, relationship, locations[i]);
+      store.recordRelationship(elementB, relationship, mockLocation(elementA, i));
+    }
+    store.doneIndex();
+    assertLocations(store.getRelationships(elementA, relationship), locations);
+    // the tree does not fit into the cached pages
+    assertTrue(pageManager.getPageCount() > 16);
+  }
+
+  public void test_removeContext() throws Exception {
+    when(contextB.getElement(elementLocationB)).thenReturn(elementB);
+    Location locationA = mockLocation(elementA, 1);
+    Location locationB = mockLocation(elementB, 2);
+    {
+      store.aboutToIndexDart(contextA, unitElementA);
+      store.recordRelationship(elementA, relationship, locationA);
+      store.doneIndex();
+    }
+    {
+      store.aboutToIndexDart(contextB, unitElementB);
+      store.recordRelationship(elementA, relationship, locationB);
+      store.doneIndex();
+    }
+    assertLocations(store.getRelationships(elementA, relationship), locationA, locationB);
+    // remove "contextA"
+    store.removeContext(contextA);
+    assertLocations(store.getRelationships(elementA, relationship), locationB);
+  }
+
+  public void test_removeSource_unit() throws Exception {
+    Location locationA = mockLocation(elementA, 1);
+    Location locationB = mockLocation(elementA, 2);
+    {
+      store.aboutToIndexDart(contextA, unitElementA);
+      store.recordRelationship(elementA, relationship, locationA);
+      store.doneIndex();
+    }
+    {
+      store.aboutToIndexDart(contextA, unitElementB);
+      store.recordRelationship(elementA, relationship, locationB);
+      store.doneIndex();
+    }
+    store.removeSource(contextA, sourceA);
+    assertLocations(store.getRelationships(elementA, relationship), locationB);
+  }
+
+  public void test_universe() throws Exception {
+    Location locationA = mockLocation(elementA, 1);
+    store.aboutToIndexDart(contextA, unitElementA);
+    store.recordRelationship(UniverseElement.INSTANCE, relationship, locationA);
+    store.doneIndex();
+    assertLocations(store.getRelationships(UniverseElement.INSTANCE, relationship), locationA);
+    assertLocations(store.getRelationships(elementA, relationship));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    tempDir = Files.createTempDir();
+    pageManager = new FilePageManager(new File(tempDir, "index.pages"), 256, 16);
+    fileManager = new SeparateFileManager(tempDir);
+    StringCodec stringCodec = new StringCodec();
+    store = new PagedIndexStoreImpl(
+        pageManager,
+        fileManager,
+        stringCodec,
+        new ContextCodec(),
+        new ElementCodec(stringCodec),
+        new RelationshipCodec(stringCodec));
+    when(contextA.getElement(elementLocationA)).thenReturn(elementA);
+    when(contextA.getElement(elementLocationB)).thenReturn(elementB);
+    when(librarySource.getFullName()).thenReturn("/home/user/librarySource.dart");
+    when(sourceA.getFullName()).thenReturn("/home/user/sourceA.dart");
+    when(sourceB.getFullName()).thenReturn("/home/user/sourceB.dart");
+    when(elementA.getContext()).thenReturn(contextA);
+    when(elementB.getContext()).thenReturn(contextA);
+    when(elementA.getLocation()).thenReturn(elementLocationA);
+    when(elementB.getLocation()).thenReturn(elementLocationB);
+    when(unitElementA.getSource()).thenReturn(sourceA);
+    when(unitElementB.getSource()).thenReturn(sourceB);
+    when(unitElementA.getLibrary()).thenReturn(libraryElement);
+    when(unitElementB.getLibrary()).thenReturn(libraryElement);
+    when(htmlElementA.getSource()).thenReturn(sourceA);
+    // library
+    when(libraryUnitElement.getLibrary()).thenReturn(libraryElement);
+    when(libraryUnitElement.getSource()).thenReturn(librarySource);
+    when(libraryElement.getSource()).thenReturn(librarySource);
+    when(libraryElement.getDefiningCompilationUnit()).thenReturn(libraryUnitElement);
+    when(libraryElement.getParts()).thenReturn(new CompilationUnitElement[0]);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    pageManager.close();
+    FileUtilities2.deleteDirectory(tempDir);
+    pageManager = null;
+    fileManager = null;
+    store = null;
+    super.tearDown();
+  }
+}
@@ -37,6 +37,16 @@ public class SeparateFileManagerTest extends TestCase {
     assertFalse(new File(tempDir, name).isFile());
   }
 
+  public void test_new_keepsFiles() throws Exception {
+    String name = "42.index";
+    fileManager.openOutputStream(name).close();
+    // a new manager for the same directory still has the file
+    fileManager = new SeparateFileManager(tempDir);
+    InputStream stream = fileManager.openInputStream(name);
+    assertNotNull(stream);
+    stream.close();
+  }
+
   public void test_outputInput() throws Exception {
     String name = "42.index";
     // create a file
@@ -15,6 +15,7 @@ package com.google.dart.engine.internal.index.file;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 import com.google.dart.engine.EngineTestCase;
 import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.element.CompilationUnitElement;
@@ -30,11 +31,17 @@ import com.google.dart.engine.internal.context.InstrumentedAnalysisContextImpl;
 import com.google.dart.engine.internal.element.ElementLocationImpl;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.SourceContainer;
+import com.google.dart.engine.source.SourceFactory;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+import com.google.dart.engine.utilities.logging.Logger;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 public class SplitIndexStoreImplTest extends EngineTestCase {
@@ -492,6 +499,119 @@ public class SplitIndexStoreImplTest extends EngineTestCase {
     }
   }
 
+  public void test_restore_dirtyNode() throws Exception {
+    File tempDir = Files.createTempDir();
+    try {
+      mockPersistentSources();
+      Location locationA = mockLocation(elementA);
+      Location locationB = mockLocation(elementB);
+      SeparateFileManager fileManager = new SeparateFileManager(tempDir);
+      store = createFileStore(fileManager);
+      {
+        store.aboutToIndexDart(contextA, unitElementA);
+        store.recordRelationship(elementA, relationship, locationA);
+        store.doneIndex();
+      }
+      assertTrue(store.save());
+      // not saved, so cannot be trusted in the next session
+      {
+        store.aboutToIndexDart(contextA, unitElementB);
+        store.recordRelationship(elementA, relationship, locationB);
+        store.doneIndex();
+      }
+      // new session
+      store = createFileStore(fileManager);
+      assertTrue(store.restore());
+      when(elementA.getContext()).thenReturn(contextB);
+      Location[] locations = store.getRelationships(elementA, relationship);
+      assertLocations(locations, locationA);
+    } finally {
+      FileUtilities2.deleteDirectory(tempDir);
+    }
+  }
+
+  public void test_restore_modifiedSource() throws Exception {
+    File tempDir = Files.createTempDir();
+    try {
+      mockPersistentSources();
+      Location locationA = mockLocation(elementA);
+      SeparateFileManager fileManager = new SeparateFileManager(tempDir);
+      store = createFileStore(fileManager);
+      {
+        store.aboutToIndexDart(contextA, unitElementA);
+        store.recordRelationship(elementA, relationship, locationA);
+        store.doneIndex();
+      }
+      assertTrue(store.save());
+      // new session, "sourceA" was modified
+      store = createFileStore(fileManager);
+      assertTrue(store.restore());
+      when(contextB.getModificationStamp(sourceA)).thenReturn(2L);
+      when(elementA.getContext()).thenReturn(contextB);
+      Location[] locations = store.getRelationships(elementA, relationship);
+      assertLocations(locations);
+    } finally {
+      FileUtilities2.deleteDirectory(tempDir);
+    }
+  }
+
+  public void test_restore_noState() throws Exception {
+    File tempDir = Files.createTempDir();
+    try {
+      SeparateFileManager fileManager = new SeparateFileManager(tempDir);
+      fileManager.openOutputStream("0_1.index").close();
+      store = createFileStore(fileManager);
+      assertFalse(store.restore());
+      // unknown files are removed
+      assertNull(fileManager.openInputStream("0_1.index"));
+    } finally {
+      FileUtilities2.deleteDirectory(tempDir);
+    }
+  }
+
+  public void test_save_failure() throws Exception {
+    FileManager fileManager = mock(FileManager.class);
+    when(fileManager.openOutputStream(SplitIndexStoreImpl.STATE_NAME)).thenThrow(
+        new IOException());
+    store = createFileStore(fileManager);
+    assertFalse(store.save());
+    // the partially written state is removed
+    verify(fileManager).delete(SplitIndexStoreImpl.STATE_NAME);
+  }
+
+  public void test_save_restore() throws Exception {
+    File tempDir = Files.createTempDir();
+    try {
+      mockPersistentSources();
+      when(contextB.getElement(elementLocationB)).thenReturn(elementB);
+      Location locationA = mockLocation(elementA);
+      Location locationB = mockLocation(elementB);
+      SeparateFileManager fileManager = new SeparateFileManager(tempDir);
+      store = createFileStore(fileManager);
+      {
+        store.aboutToIndexDart(contextA, unitElementA);
+        store.recordRelationship(elementA, relationship, locationA);
+        store.recordRelationship(UniverseElement.INSTANCE, relationship, locationB);
+        store.doneIndex();
+      }
+      assertTrue(store.save());
+      // new session
+      store = createFileStore(fileManager);
+      assertTrue(store.restore());
+      // the old context is not bound yet
+      assertLocations(store.getRelationships(UniverseElement.INSTANCE, relationship));
+      // bound using the unit of "elementA"
+      when(elementA.getContext()).thenReturn(contextB);
+      assertLocations(store.getRelationships(elementA, relationship), locationA);
+      assertLocations(store.getRelationships(UniverseElement.INSTANCE, relationship), locationB);
+      // the restored library/unit relations are used to remove sources
+      store.removeSource(contextB, sourceA);
+      assertLocations(store.getRelationships(elementA, relationship));
+    } finally {
+      FileUtilities2.deleteDirectory(tempDir);
+    }
+  }
+
   public void test_universe_aboutToIndex() throws Exception {
     when(contextA.getElement(elementLocationA)).thenReturn(elementA);
     when(contextB.getElement(elementLocationB)).thenReturn(elementB);
@@ -615,4 +735,36 @@ public class SplitIndexStoreImplTest extends EngineTestCase {
     store = null;
     super.tearDown();
   }
+
+  private SplitIndexStoreImpl createFileStore(FileManager fileManager) {
+    StringCodec stringCodec = new StringCodec();
+    FileNodeManager fileNodeManager = new FileNodeManager(
+        fileManager,
+        mock(Logger.class),
+        stringCodec,
+        new ContextCodec(),
+        new ElementCodec(stringCodec),
+        new RelationshipCodec(stringCodec));
+    return new SplitIndexStoreImpl(fileNodeManager, fileManager);
+  }
+
+  /**
+   * Mocks the encodings and the modification stamps of the sources, so that they can be found in
+   * {@link #contextA} and {@link #contextB}.
+   */
+  private void mockPersistentSources() {
+    SourceFactory sourceFactory = mock(SourceFactory.class);
+    Source[] sources = {librarySource, sourceA, sourceB};
+    for (int i = 0; i < sources.length; i++) {
+      Source source = sources[i];
+      String encoding = "file:/source" + i + ".dart";
+      when(source.getEncoding()).thenReturn(encoding);
+      when(sourceFactory.forUri(encoding)).thenReturn(source);
+      when(contextA.getModificationStamp(source)).thenReturn(1L);
+      when(contextB.getModificationStamp(source)).thenReturn(1L);
+    }
+    when(contextA.getSourceFactory()).thenReturn(sourceFactory);
+    when(contextB.getSourceFactory()).thenReturn(sourceFactory);
+    when(contextB.getElement(elementLocationA)).thenReturn(elementA);
+  }
 }
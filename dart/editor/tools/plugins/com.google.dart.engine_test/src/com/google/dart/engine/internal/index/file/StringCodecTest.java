@@ -15,6 +15,11 @@ package com.google.dart.engine.internal.index.file;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 public class StringCodecTest extends TestCase {
   private StringCodec codec = new StringCodec();
 
@@ -25,6 +30,35 @@ public class StringCodecTest extends TestCase {
     assertEquals("bbb", codec.decode(idB));
   }
 
+  public void test_writeRead() throws Exception {
+    int idA = codec.encode("aaa");
+    int idB = codec.encode("bbb");
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    codec.write(new DataOutputStream(outputStream));
+    // read into a new codec
+    StringCodec newCodec = new StringCodec();
+    newCodec.encode("ccc");
+    newCodec.read(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+    assertEquals(2, newCodec.size());
+    assertEquals("aaa", newCodec.decode(idA));
+    assertEquals("bbb", newCodec.decode(idB));
+    assertEquals(idB, newCodec.encode("bbb"));
+  }
+
+  public void test_writeRead_null() throws Exception {
+    int idA = codec.encode("aaa");
+    int idNull = codec.encode(null);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    codec.write(new DataOutputStream(outputStream));
+    // read into a new codec
+    StringCodec newCodec = new StringCodec();
+    newCodec.read(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+    assertEquals(2, newCodec.size());
+    assertEquals("aaa", newCodec.decode(idA));
+    assertNull(newCodec.decode(idNull));
+    assertEquals(idNull, newCodec.encode(null));
+  }
+
   @Override
   protected void tearDown() throws Exception {
     codec = null;
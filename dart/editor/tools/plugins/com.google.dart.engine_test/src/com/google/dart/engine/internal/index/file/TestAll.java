@@ -27,7 +27,10 @@ public class TestAll {
     suite.addTestSuite(IndexNodeTest.class);
     suite.addTestSuite(IntArrayToIntMapTest.class);
     suite.addTestSuite(IntToIntSetMapTest.class);
+    suite.addTestSuite(LocationDataListTest.class);
     suite.addTestSuite(LocationDataTest.class);
+    suite.addTestSuite(MappedFileManagerTest.class);
+    suite.addTestSuite(PagedIndexStoreImplTest.class);
     suite.addTestSuite(RelationKeyDataTest.class);
     suite.addTestSuite(RelationshipCodecTest.class);
     suite.addTestSuite(SeparateFileManagerTest.class);
@@ -15,6 +15,8 @@ package com.google.dart.engine.internal.index.structure;
 
 import com.google.dart.engine.ExtendedTestSuite;
 import com.google.dart.engine.internal.index.structure.btree.BPlusTreeTest;
+import com.google.dart.engine.internal.index.structure.btree.FilePageManagerTest;
+import com.google.dart.engine.internal.index.structure.btree.PageNodeManagerTest;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -23,6 +25,8 @@ public class TestAll {
   public static Test suite() {
     TestSuite suite = new ExtendedTestSuite("Tests in " + TestAll.class.getPackage().getName());
     suite.addTestSuite(BPlusTreeTest.class);
+    suite.addTestSuite(FilePageManagerTest.class);
+    suite.addTestSuite(PageNodeManagerTest.class);
     return suite;
   }
 }
@@ -19,6 +19,8 @@ import junit.framework.TestCase;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Set;
 
@@ -42,6 +44,22 @@ public class BPlusTreeTest extends TestCase {
     }
   }
 
+  public void test_findRange() throws Exception {
+    insertValues(30);
+    assertEquals(
+        Arrays.asList("V5", "V6", "V7", "V8", "V9", "V10", "V11", "V12"),
+        tree.findRange(5, 12));
+    assertEquals(Arrays.asList("V0", "V1"), tree.findRange(-10, 1));
+    assertEquals(Arrays.asList("V28", "V29"), tree.findRange(28, 100));
+    assertEquals(Collections.emptyList(), tree.findRange(100, 200));
+  }
+
+  public void test_findRange_leafRoot() throws Exception {
+    insertValues(3);
+    assertEquals(Arrays.asList("V1"), tree.findRange(1, 1));
+    assertEquals(Collections.emptyList(), tree.findRange(2, 1));
+  }
+
   public void test_insert_01() throws Exception {
     tree.insert(0, "V0");
     assertTreeDump("LNode {0: V0}");
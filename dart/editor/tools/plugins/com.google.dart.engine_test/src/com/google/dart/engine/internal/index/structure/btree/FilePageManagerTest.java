@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.structure.btree;
+
+import com.google.common.io.Files;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+public class FilePageManagerTest extends TestCase {
+  private File tempDir;
+  private FilePageManager pageManager;
+
+  public void test_alloc() throws Exception {
+    assertEquals(0, pageManager.alloc());
+    assertEquals(1, pageManager.alloc());
+    assertEquals(2, pageManager.alloc());
+    assertEquals(3, pageManager.getPageCount());
+  }
+
+  public void test_free() throws Exception {
+    int idA = pageManager.alloc();
+    int idB = pageManager.alloc();
+    pageManager.free(idA);
+    // the freed page is reused
+    assertEquals(idA, pageManager.alloc());
+    assertEquals(idB + 1, pageManager.alloc());
+  }
+
+  public void test_getPageSizeInBytes() throws Exception {
+    assertEquals(16, pageManager.getPageSizeInBytes());
+  }
+
+  public void test_read_cached() throws Exception {
+    int id = pageManager.alloc();
+    pageManager.write(id, newPage(42));
+    assertEquals(42, pageManager.read(id).getInt(0));
+    assertEquals(1, pageManager.getCacheHitCount());
+    assertEquals(0, pageManager.getCacheMissCount());
+  }
+
+  public void test_read_evicted() throws Exception {
+    int[] ids = new int[5];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = pageManager.alloc();
+      pageManager.write(ids[i], newPage(100 + i));
+    }
+    // only two pages are cached, other pages are read from the file
+    for (int i = 0; i < ids.length; i++) {
+      assertEquals(100 + i, pageManager.read(ids[i]).getInt(0));
+    }
+    assertEquals(ids.length, pageManager.getCacheMissCount());
+  }
+
+  public void test_read_flushed() throws Exception {
+    File file = new File(tempDir, "flushed.pages");
+    FilePageManager manager = new FilePageManager(file, 16, 2);
+    try {
+      int id = manager.alloc();
+      manager.write(id, newPage(42));
+      manager.flush();
+      assertEquals(16, file.length());
+    } finally {
+      manager.close();
+    }
+  }
+
+  public void test_read_notWritten() throws Exception {
+    int id = pageManager.alloc();
+    ByteBuffer page = pageManager.read(id);
+    assertEquals(16, page.capacity());
+    assertEquals(0, page.getInt(0));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    tempDir = Files.createTempDir();
+    pageManager = new FilePageManager(new File(tempDir, "test.pages"), 16, 2);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    pageManager.close();
+    pageManager = null;
+    FileUtilities2.deleteDirectory(tempDir);
+    super.tearDown();
+  }
+
+  private ByteBuffer newPage(int value) {
+    ByteBuffer page = ByteBuffer.allocate(16);
+    page.putInt(value);
+    return page;
+  }
+}
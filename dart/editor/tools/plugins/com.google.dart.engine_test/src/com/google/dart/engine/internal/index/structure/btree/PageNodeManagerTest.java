@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.index.structure.btree;
+
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+public class PageNodeManagerTest extends TestCase {
+  private static final Comparator<int[]> KEY_COMPARATOR = new Comparator<int[]>() {
+    @Override
+    public int compare(int[] a, int[] b) {
+      return a[0] - b[0];
+    }
+  };
+
+  private File tempDir;
+  private FilePageManager pageManager;
+  private PageNodeManager<int[], int[]> nodeManager;
+
+  public void test_isInternal() throws Exception {
+    assertTrue(nodeManager.isInternal(nodeManager.createInternal()));
+    assertFalse(nodeManager.isInternal(nodeManager.createLeaf()));
+  }
+
+  public void test_maxKeys() throws Exception {
+    // 64 byte pages, 4 byte count, 4 byte keys, 8 byte values or 4 byte children
+    assertEquals(7, nodeManager.getMaxInternalKeys());
+    assertEquals(5, nodeManager.getMaxLeafKeys());
+  }
+
+  public void test_stress_tree() throws Exception {
+    BPlusTree<int[], int[], Integer> tree = new BPlusTree<int[], int[], Integer>(
+        KEY_COMPARATOR,
+        nodeManager);
+    int maxKey = 1000000;
+    int tryCount = 2000;
+    Set<Integer> keys = Sets.newHashSet();
+    for (int i = 0; i < tryCount; i++) {
+      int key = (int) (Math.random() * maxKey);
+      keys.add(key);
+      tree.insert(new int[] {key}, new int[] {key, -key});
+    }
+    // find every
+    for (int key : keys) {
+      assertEquals(-key, tree.find(new int[] {key})[1]);
+    }
+    // remove random keys
+    for (int key : Sets.newHashSet(keys)) {
+      if (Math.random() > 0.5) {
+        keys.remove(key);
+        assertEquals(key, tree.remove(new int[] {key})[0]);
+      }
+    }
+    // find every remaining key, in order
+    List<int[]> values = tree.findRange(new int[] {0}, new int[] {maxKey});
+    assertEquals(keys.size(), values.size());
+    for (int[] value : values) {
+      assertTrue(keys.contains(value[0]));
+    }
+  }
+
+  public void test_writeReadInternal() throws Exception {
+    int id = nodeManager.createInternal();
+    nodeManager.writeInternal(id, new InternalNodeData<int[], Integer>(
+        Arrays.asList(new int[] {10}, new int[] {20}),
+        Arrays.asList(1, 3, 5)));
+    InternalNodeData<int[], Integer> data = nodeManager.readInternal(id);
+    assertEquals(2, data.keys.size());
+    assertEquals(10, data.keys.get(0)[0]);
+    assertEquals(20, data.keys.get(1)[0]);
+    assertEquals(Arrays.asList(1, 3, 5), data.children);
+  }
+
+  public void test_writeReadLeaf() throws Exception {
+    int id = nodeManager.createLeaf();
+    nodeManager.writeLeaf(id, new LeafNodeData<int[], int[]>(
+        Arrays.asList(new int[] {10}),
+        Arrays.asList(new int[] {1, 2})));
+    LeafNodeData<int[], int[]> data = nodeManager.readLeaf(id);
+    assertEquals(1, data.keys.size());
+    assertEquals(10, data.keys.get(0)[0]);
+    assertTrue(Arrays.equals(new int[] {1, 2}, data.values.get(0)));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    tempDir = Files.createTempDir();
+    pageManager = new FilePageManager(new File(tempDir, "test.pages"), 64, 8);
+    nodeManager = new PageNodeManager<int[], int[]>(
+        pageManager,
+        new IntArrayCodec(1),
+        new IntArrayCodec(2));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    pageManager.close();
+    pageManager = null;
+    nodeManager = null;
+    FileUtilities2.deleteDirectory(tempDir);
+    super.tearDown();
+  }
+}
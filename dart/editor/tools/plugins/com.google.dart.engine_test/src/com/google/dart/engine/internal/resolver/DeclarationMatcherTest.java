@@ -105,6 +105,22 @@ public class DeclarationMatcherTest extends ResolverTestCase {
         "}"));
   }
 
+  public void test_methodDeclarationMatches_true_localVariable() throws Exception {
+    assertMethodMatches(true, createSource(//
+        "class C {",
+        "  int m(int p) {",
+        "    int product;",
+        "    return p + p;",
+        "  }",
+        "}"), createSource(//
+        "class C {",
+        "  int m(int p) {",
+        "    int product;",
+        "    return p * p;",
+        "  }",
+        "}"));
+  }
+
   public void test_methodDeclarationMatches_true_same() throws Exception {
     String content = createSource(//
         "class C {",
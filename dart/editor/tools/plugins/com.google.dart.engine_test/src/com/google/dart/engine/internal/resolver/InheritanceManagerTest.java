@@ -14,9 +14,11 @@
 package com.google.dart.engine.internal.resolver;
 
 import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.context.AnalysisContextFactory;
 import com.google.dart.engine.element.ClassElement;
 import com.google.dart.engine.element.ExecutableElement;
+import com.google.dart.engine.element.LibraryElement;
 import com.google.dart.engine.element.MethodElement;
 import com.google.dart.engine.element.ParameterElement;
 import com.google.dart.engine.element.PropertyAccessorElement;
@@ -32,6 +34,7 @@ import com.google.dart.engine.internal.element.LibraryElementImpl;
 import com.google.dart.engine.internal.element.MethodElementImpl;
 import com.google.dart.engine.internal.element.ParameterElementImpl;
 import com.google.dart.engine.internal.element.PropertyAccessorElementImpl;
+import com.google.dart.engine.sdk.DartSdk;
 import com.google.dart.engine.source.FileBasedSource;
 import com.google.dart.engine.type.InterfaceType;
 import com.google.dart.engine.utilities.dart.ParameterKind;
@@ -210,6 +213,32 @@ public class InheritanceManagerTest extends EngineTestCase {
     assertNoErrors(classB);
   }
 
+  public void test_getMapOfMembersInheritedFromClasses_shared() throws Exception {
+    ClassElement listElement = getCoreLibrary().getType("List");
+    InheritanceManager otherManager = createInheritanceManager();
+
+    MemberMap map = inheritanceManager.getMapOfMembersInheritedFromClasses(listElement);
+    assertSame(map, otherManager.getMapOfMembersInheritedFromClasses(listElement));
+  }
+
+  public void test_getMapOfMembersInheritedFromClasses_shared_sameLibrary() throws Exception {
+    LibraryElement coreLibrary = getCoreLibrary();
+    ClassElement listElement = coreLibrary.getType("List");
+    InheritanceManager coreManager = new InheritanceManager(coreLibrary);
+
+    MemberMap map = inheritanceManager.getMapOfMembersInheritedFromClasses(listElement);
+    assertNotSame(map, coreManager.getMapOfMembersInheritedFromClasses(listElement));
+  }
+
+  public void test_getMapOfMembersInheritedFromClasses_shared_unresolved() throws Exception {
+    ClassElementImpl classA = classElement("A");
+    ClassElementImpl classB = classElement("B", classA.getType());
+    InheritanceManager otherManager = createInheritanceManager();
+
+    MemberMap map = inheritanceManager.getMapOfMembersInheritedFromClasses(classB);
+    assertNotSame(map, otherManager.getMapOfMembersInheritedFromClasses(classB));
+  }
+
   public void test_getMapOfMembersInheritedFromInterfaces_accessor_extends() throws Exception {
     // class A { int get g; }
     // class B extends A {}
@@ -475,6 +504,14 @@ public class InheritanceManagerTest extends EngineTestCase {
     assertNoErrors(classB);
   }
 
+  public void test_getMapOfMembersInheritedFromInterfaces_shared() throws Exception {
+    ClassElement listElement = getCoreLibrary().getType("List");
+    InheritanceManager otherManager = createInheritanceManager();
+
+    MemberMap map = inheritanceManager.getMapOfMembersInheritedFromInterfaces(listElement);
+    assertSame(map, otherManager.getMapOfMembersInheritedFromInterfaces(listElement));
+  }
+
   public void test_getMapOfMembersInheritedFromInterfaces_union_differentNames() throws Exception {
     // class I1 { int m1(); }
     // class I2 { int m2(); }
@@ -1184,6 +1221,16 @@ public class InheritanceManagerTest extends EngineTestCase {
     assertErrors(classElt);
   }
 
+  /**
+   * Return the core library of the context used by the tests.
+   * 
+   * @return the core library of the context used by the tests
+   */
+  private LibraryElement getCoreLibrary() {
+    AnalysisContext context = definingLibrary.getContext();
+    return context.getLibraryElement(context.getSourceFactory().forUri(DartSdk.DART_CORE));
+  }
+
   /**
    * Create the inheritance manager used by the tests.
    * 
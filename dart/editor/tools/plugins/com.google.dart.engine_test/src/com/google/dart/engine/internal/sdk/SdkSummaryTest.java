@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.internal.sdk;
+
+import com.google.common.io.Files;
+import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.context.AnalysisResult;
+import com.google.dart.engine.context.ChangeSet;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.error.AnalysisError;
+import com.google.dart.engine.internal.constant.EvaluationResultImpl;
+import com.google.dart.engine.internal.context.AnalysisContextImpl;
+import com.google.dart.engine.internal.element.VariableElementImpl;
+import com.google.dart.engine.sdk.DartSdk;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.source.DartUriResolver;
+import com.google.dart.engine.source.FileBasedSource;
+import com.google.dart.engine.source.FileUriResolver;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.SourceFactory;
+import com.google.dart.engine.utilities.io.FileUtilities2;
+
+import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class SdkSummaryTest extends EngineTestCase {
+  private static final String CONTENTS = createSource(//
+      "import 'dart:async';",
+      "import 'dart:collection';",
+      "import 'dart:math' as math;",
+      "abstract class A extends ListBase<int> {",
+      "  int get length => 'a';",
+      "  void add(String element) {}",
+      "}",
+      "const double TWO_PI = math.PI * 2;",
+      "main() {",
+      "  String s = 'a';",
+      "  s.foo();",
+      "  int n = s.length + double.INFINITY;",
+      "  const Duration d = const Duration(seconds: 1);",
+      "  Future<int> f = new Future.value(n);",
+      "  f.then((x) => x.bar());",
+      "  List<int> list = new List<int>.filled(3, 0);",
+      "  list.add('x');",
+      "  Map<String, int> map = new HashMap<String, int>();",
+      "  map.putIfAbsent('a', () => 1);",
+      "  print(new DateTime.now().year + math.max(1, 2));",
+      "}");
+
+  private File tempDir;
+
+  public void test_readLibrary() throws Exception {
+    DirectoryBasedDartSdk sdk = createSdk();
+    AnalysisContextImpl context = createContext(sdk);
+    Source source = addSource(context);
+    analyze(context);
+    AnalysisError[] expectedErrors = context.getErrors(source).getErrors();
+    assertTrue(expectedErrors.length > 0);
+    assertTrue(sdk.writeSummary());
+    assertTrue(sdk.getSummaryFile().exists());
+
+    DirectoryBasedDartSdk summarizedSdk = createSdk();
+    AnalysisContextImpl newContext = createContext(summarizedSdk);
+    Source newSource = addSource(newContext);
+    analyze(newContext);
+    assertErrors(expectedErrors, newContext.getErrors(newSource).getErrors());
+
+    AnalysisContext sdkContext = summarizedSdk.getContext();
+    Source coreSource = sdkContext.getSourceFactory().forUri(DartSdk.DART_CORE);
+    LibraryElement coreLibrary = sdkContext.getLibraryElement(coreSource);
+    assertNotNull(coreLibrary);
+    assertSame(sdkContext, coreLibrary.getContext());
+    // The library was created from the summary, not by resolving it.
+    assertNull(sdkContext.getResolvedCompilationUnit(coreSource, coreSource));
+    EvaluationResultImpl result = ((VariableElementImpl) coreLibrary.getType("double").getField(
+        "INFINITY")).getEvaluationResult();
+    assertTrue(Double.isInfinite(result.getValue().getDoubleValue()));
+  }
+
+  public void test_readLibrary_invalidSummary() throws Exception {
+    DirectoryBasedDartSdk sdk = createSdk();
+    File summaryFile = sdk.getSummaryFile();
+    DataOutputStream output = new DataOutputStream(new FileOutputStream(summaryFile));
+    try {
+      output.writeInt(SdkSummaryWriter.VERSION);
+      output.writeUTF(sdk.getSdkVersion());
+      output.writeInt(1);
+      output.writeUTF(DartSdk.DART_CORE);
+      output.writeInt(4);
+      output.writeInt(0);
+      output.writeInt(-1);
+    } finally {
+      output.close();
+    }
+    AnalysisContextImpl context = createContext(sdk);
+    Source source = addSource(context);
+    analyze(context);
+    // The summary could not be used, so the SDK is resolved instead.
+    assertTrue(context.getErrors(source).getErrors().length > 0);
+    Source coreSource = sdk.getContext().getSourceFactory().forUri(DartSdk.DART_CORE);
+    assertNotNull(sdk.getContext().getLibraryElement(coreSource));
+  }
+
+  public void test_reader_differentVersion() throws Exception {
+    DirectoryBasedDartSdk sdk = createSdk();
+    File summaryFile = sdk.getSummaryFile();
+    DataOutputStream output = new DataOutputStream(new FileOutputStream(summaryFile));
+    try {
+      output.writeInt(SdkSummaryWriter.VERSION);
+      output.writeUTF("0.0.0");
+      output.writeInt(0);
+      output.writeInt(0);
+    } finally {
+      output.close();
+    }
+    try {
+      new SdkSummaryReader(sdk.getContext(), summaryFile, "1.0.0");
+      fail("Expected IOException");
+    } catch (IOException exception) {
+      // Expected
+    }
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    tempDir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtilities2.deleteDirectory(tempDir);
+    tempDir = null;
+    super.tearDown();
+  }
+
+  private Source addSource(AnalysisContextImpl context) {
+    Source source = new FileBasedSource(createFile("/test.dart"));
+    ChangeSet changeSet = new ChangeSet();
+    changeSet.addedSource(source);
+    context.applyChanges(changeSet);
+    context.setContents(source, CONTENTS);
+    return source;
+  }
+
+  private void analyze(AnalysisContextImpl context) {
+    AnalysisResult result = context.performAnalysisTask();
+    while (result.getChangeNotices() != null) {
+      result = context.performAnalysisTask();
+    }
+  }
+
+  private void assertErrors(AnalysisError[] expectedErrors, AnalysisError[] actualErrors) {
+    assertLength(expectedErrors.length, actualErrors);
+    for (int i = 0; i < expectedErrors.length; i++) {
+      AnalysisError expectedError = expectedErrors[i];
+      AnalysisError actualError = actualErrors[i];
+      assertSame(expectedError.getErrorCode(), actualError.getErrorCode());
+      assertEquals(expectedError.getOffset(), actualError.getOffset());
+      assertEquals(expectedError.getLength(), actualError.getLength());
+      assertEquals(expectedError.getMessage(), actualError.getMessage());
+    }
+  }
+
+  private AnalysisContextImpl createContext(DartSdk sdk) {
+    AnalysisContextImpl context = new AnalysisContextImpl();
+    context.setSourceFactory(new SourceFactory(new DartUriResolver(sdk), new FileUriResolver()));
+    return context;
+  }
+
+  private DirectoryBasedDartSdk createSdk() {
+    File sdkDirectory = DirectoryBasedDartSdk.getDefaultSdkDirectory();
+    assertNotNull(
+        "No SDK configured; set the property 'com.google.dart.sdk' on the command line",
+        sdkDirectory);
+    DirectoryBasedDartSdk sdk = new DirectoryBasedDartSdk(sdkDirectory);
+    sdk.setSummaryDirectory(tempDir);
+    return sdk;
+  }
+}
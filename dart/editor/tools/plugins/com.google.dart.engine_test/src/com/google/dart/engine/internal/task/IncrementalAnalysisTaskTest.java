@@ -14,6 +14,7 @@
 package com.google.dart.engine.internal.task;
 
 import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.ast.BinaryExpression;
 import com.google.dart.engine.ast.BlockFunctionBody;
 import com.google.dart.engine.ast.CompilationUnit;
 import com.google.dart.engine.ast.CompilationUnitMember;
@@ -24,10 +25,12 @@ import com.google.dart.engine.ast.SimpleIdentifier;
 import com.google.dart.engine.ast.TopLevelVariableDeclaration;
 import com.google.dart.engine.context.AnalysisContextFactory;
 import com.google.dart.engine.context.AnalysisException;
+import com.google.dart.engine.element.LocalVariableElement;
 import com.google.dart.engine.internal.cache.DartEntry;
 import com.google.dart.engine.internal.cache.DartEntryImpl;
 import com.google.dart.engine.internal.context.IncrementalAnalysisCache;
 import com.google.dart.engine.internal.context.InternalAnalysisContext;
+import com.google.dart.engine.internal.context.PerformanceStatistics;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.source.TestSource;
 
@@ -72,8 +75,56 @@ public class IncrementalAnalysisTaskTest extends EngineTestCase {
     assertNotNull(fooName.getStaticElement()); // assert element reference is preserved
   }
 
+  public void test_perform_deleteInBody() throws Exception {
+    // main() {String s; s.length;}
+    // main() {String s; s;}
+    CompilationUnit newUnit = assertTask("main() {String s; s", ".length", "", ";}");
+
+    FunctionDeclaration main = (FunctionDeclaration) newUnit.getDeclarations().get(0);
+    BlockFunctionBody body = (BlockFunctionBody) main.getFunctionExpression().getBody();
+    ExpressionStatement statement = (ExpressionStatement) body.getBlock().getStatements().get(1);
+    assertEquals("s;", statement.toSource());
+    SimpleIdentifier identifier = (SimpleIdentifier) statement.getExpression();
+    assertInstanceOf(LocalVariableElement.class, identifier.getStaticElement());
+  }
+
+  public void test_perform_outsideBody() throws Exception {
+    // main() {} String foo;
+    // main() {} String foo; int bar;
+    int fallbackCount = PerformanceStatistics.getIncrementalFallbackCount();
+    assertNull(performTask("main() {} String foo;", "", " int bar;", ""));
+    assertEquals(fallbackCount + 1, PerformanceStatistics.getIncrementalFallbackCount());
+  }
+
+  public void test_perform_replaceInBody() throws Exception {
+    // main() {int count = 0; count;}
+    // main() {int count = 0; count + count * count + count;}
+    int fallbackCount = PerformanceStatistics.getIncrementalFallbackCount();
+    CompilationUnit newUnit = assertTask(
+        "main() {int count = 0; ",
+        "count",
+        "count + count * count + count",
+        ";}");
+    assertEquals(fallbackCount, PerformanceStatistics.getIncrementalFallbackCount());
+
+    FunctionDeclaration main = (FunctionDeclaration) newUnit.getDeclarations().get(0);
+    BlockFunctionBody body = (BlockFunctionBody) main.getFunctionExpression().getBody();
+    ExpressionStatement statement = (ExpressionStatement) body.getBlock().getStatements().get(1);
+    assertEquals("count + count * count + count;", statement.toSource());
+    BinaryExpression expression = (BinaryExpression) statement.getExpression();
+    SimpleIdentifier identifier = (SimpleIdentifier) expression.getRightOperand();
+    assertInstanceOf(LocalVariableElement.class, identifier.getStaticElement());
+  }
+
   private CompilationUnit assertTask(String prefix, String removed, String added, String suffix)
       throws AnalysisException {
+    CompilationUnit newUnit = performTask(prefix, removed, added, suffix);
+    assertNotNull(newUnit);
+    return newUnit;
+  }
+
+  private CompilationUnit performTask(String prefix, String removed, String added, String suffix)
+      throws AnalysisException {
     String oldCode = createSource(prefix + removed + suffix);
     String newCode = createSource(prefix + added + suffix);
 
@@ -105,7 +156,6 @@ public class IncrementalAnalysisTaskTest extends EngineTestCase {
         return task.getCompilationUnit();
       }
     });
-    assertNotNull(newUnit);
     return newUnit;
   }
 }
@@ -19,6 +19,7 @@ import com.google.dart.engine.element.CompilationUnitElement;
 import com.google.dart.engine.element.ElementFactory;
 import com.google.dart.engine.element.MethodElement;
 import com.google.dart.engine.element.PropertyAccessorElement;
+import com.google.dart.engine.internal.context.PerformanceStatistics;
 import com.google.dart.engine.internal.element.ClassElementImpl;
 import com.google.dart.engine.internal.element.CompilationUnitElementImpl;
 import com.google.dart.engine.internal.element.FunctionElementImpl;
@@ -995,6 +996,17 @@ public class InterfaceTypeImplTest extends EngineTestCase {
     assertTrue(typeA.isDirectSupertypeOf(typeB));
   }
 
+  public void test_isMoreSpecificThan_afterInterfacesChanged() {
+    ClassElement classA = classElement("A");
+    ClassElementImpl classB = classElement("B");
+    InterfaceType typeA = classA.getType();
+    InterfaceType typeB = classB.getType();
+
+    assertFalse(typeB.isMoreSpecificThan(typeA));
+    classB.setInterfaces(new InterfaceType[] {typeA});
+    assertTrue(typeB.isMoreSpecificThan(typeA));
+  }
+
   public void test_isMoreSpecificThan_bottom() {
     Type type = classElement("A").getType();
 
@@ -1141,6 +1153,44 @@ public class InterfaceTypeImplTest extends EngineTestCase {
     assertTrue(parameterAEType.isMoreSpecificThan(typeA));
   }
 
+  public void test_isSubtypeOf_afterSupertypeChanged() {
+    ClassElement classA = classElement("A");
+    ClassElementImpl classB = classElement("B");
+    LibraryElementImpl library = library(createAnalysisContext(), "lib");
+    CompilationUnitElement unit = library.getDefiningCompilationUnit();
+    ((CompilationUnitElementImpl) unit).setTypes(new ClassElement[] {classA, classB});
+    InterfaceType typeA = classA.getType();
+    InterfaceType typeB = classB.getType();
+
+    assertFalse(typeB.isSubtypeOf(typeA));
+    classB.setSupertype(typeA);
+    assertTrue(typeB.isSubtypeOf(typeA));
+  }
+
+  public void test_isSubtypeOf_cached() {
+    ClassElement classA = classElement("A");
+    ClassElementImpl classB = classElement("B", classA.getType());
+    LibraryElementImpl library = library(createAnalysisContext(), "lib");
+    CompilationUnitElement unit = library.getDefiningCompilationUnit();
+    ((CompilationUnitElementImpl) unit).setTypes(new ClassElement[] {classA, classB});
+    InterfaceType typeA = classA.getType();
+    InterfaceType typeB = classB.getType();
+    PerformanceStatistics.reset();
+
+    assertTrue(typeB.isSubtypeOf(typeA));
+    assertEquals(0, PerformanceStatistics.getSubtypeCacheHitCount());
+    assertTrue(typeB.isSubtypeOf(typeA));
+    assertEquals(1, PerformanceStatistics.getSubtypeCacheHitCount());
+    //
+    // Changes to the methods of a class and to the hierarchy of other libraries do not invalidate
+    // the answers.
+    //
+    classB.setMethods(new MethodElement[] {methodElement("m", typeA)});
+    library(createAnalysisContext(), "other").hierarchyChanged();
+    assertTrue(typeB.isSubtypeOf(typeA));
+    assertEquals(2, PerformanceStatistics.getSubtypeCacheHitCount());
+  }
+
   public void test_isSubtypeOf_directSubtype() {
     ClassElement classA = classElement("A");
     ClassElement classB = classElement("B", classA.getType());
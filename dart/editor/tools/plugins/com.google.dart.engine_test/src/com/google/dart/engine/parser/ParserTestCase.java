@@ -46,6 +46,11 @@ public class ParserTestCase extends EngineTestCase {
    */
   protected static boolean parseFunctionBodies = true;
 
+  /**
+   * A flag indicating whether parser is to replace the contents of function bodies by empty blocks.
+   */
+  protected static boolean parseDeclarationsOnly = false;
+
   /**
    * Create a parser.
    * 
@@ -267,6 +272,7 @@ public class ParserTestCase extends EngineTestCase {
     //
     Parser parser = createParser(listener);
     parser.setParseFunctionBodies(parseFunctionBodies);
+    parser.setParseDeclarationsOnly(parseDeclarationsOnly);
     parser.setParseDeferredLibraries(true);
     parser.setParseAsync(true);
     Object result = invokeParserMethodImpl(parser, methodName, objects, tokenStream);
@@ -355,5 +361,6 @@ public class ParserTestCase extends EngineTestCase {
   protected void setUp() throws Exception {
     super.setUp();
     parseFunctionBodies = true;
+    parseDeclarationsOnly = false;
   }
 }
@@ -3087,6 +3087,40 @@ public class SimpleParserTest extends ParserTestCase {
     assertTrue(functionBody.isSynchronous());
   }
 
+  public void test_parseFunctionBody_declarationsOnly_async() throws Exception {
+    ParserTestCase.parseDeclarationsOnly = true;
+    BlockFunctionBody functionBody = parse(
+        "parseFunctionBody",
+        new Object[] {false, null, false},
+        "async* { yield 0; }");
+    assertNotNull(functionBody.getKeyword());
+    assertNotNull(functionBody.getStar());
+    assertSizeOfList(0, functionBody.getBlock().getStatements());
+  }
+
+  public void test_parseFunctionBody_declarationsOnly_block() throws Exception {
+    ParserTestCase.parseDeclarationsOnly = true;
+    BlockFunctionBody functionBody = parse(
+        "parseFunctionBody",
+        new Object[] {false, null, false},
+        "{ var x = 0; { return x; } }");
+    assertNull(functionBody.getKeyword());
+    Block block = functionBody.getBlock();
+    assertFalse(block.getLeftBracket().isSynthetic());
+    assertFalse(block.getRightBracket().isSynthetic());
+    assertSizeOfList(0, block.getStatements());
+  }
+
+  public void test_parseFunctionBody_declarationsOnly_expression() throws Exception {
+    ParserTestCase.parseDeclarationsOnly = true;
+    BlockFunctionBody functionBody = parse(
+        "parseFunctionBody",
+        new Object[] {false, null, false},
+        "async => y;");
+    assertNotNull(functionBody.getKeyword());
+    assertSizeOfList(0, functionBody.getBlock().getStatements());
+  }
+
   public void test_parseFunctionBody_empty() throws Exception {
     EmptyFunctionBody functionBody = parse(
         "parseFunctionBody",
@@ -27,6 +27,16 @@ public class CharSequenceReaderTest extends TestCase {
     assertNotNull(new CharSequenceReader("x"));
   }
 
+  public void test_getInternedString() {
+    CharSequenceReader reader = new CharSequenceReader("xyzzy yzz");
+    SymbolTable symbols = new SymbolTable();
+    reader.setOffset(3);
+    String string = reader.getInternedString(1, 0, symbols);
+    assertEquals("yzz", string);
+    reader.setOffset(8);
+    assertSame(string, reader.getInternedString(6, 0, symbols));
+  }
+
   public void test_getOffset() {
     CharSequenceReader reader = new CharSequenceReader("x");
     assertEquals(-1, reader.getOffset());
@@ -221,6 +221,11 @@ public class ScannerTest extends TestCase {
     assertToken(TokenType.IDENTIFIER, "result");
   }
 
+  public void test_identifier_interned() throws Exception {
+    Token token = scan("result + result");
+    assertSame(token.getLexeme(), token.getNext().getNext().getLexeme());
+  }
+
   public void test_illegalChar_cyrillicLetter_middle() throws Exception {
     assertError(ScannerErrorCode.ILLEGAL_CHARACTER, 5, "Shche\u0433lov");
   }
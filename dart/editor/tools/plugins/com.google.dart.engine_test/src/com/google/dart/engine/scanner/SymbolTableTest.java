@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.scanner;
+
+import com.google.dart.engine.utilities.general.StringUtilities;
+
+import junit.framework.TestCase;
+
+public class SymbolTableTest extends TestCase {
+  public void test_intern_canonical() {
+    SymbolTable symbols = new SymbolTable();
+    String string = symbols.intern("a" + "bc");
+    assertSame(StringUtilities.intern("abc"), string);
+    assertSame(string, new SymbolTable().intern("xabcx", 1, 4));
+  }
+
+  public void test_intern_differentRanges() {
+    SymbolTable symbols = new SymbolTable();
+    String first = symbols.intern("ab ab", 0, 2);
+    assertEquals("ab", first);
+    assertSame(first, symbols.intern("ab ab", 3, 5));
+    assertEquals("b", symbols.intern("ab ab", 1, 2));
+    assertEquals("", symbols.intern("ab ab", 2, 2));
+    assertEquals(3, symbols.size());
+  }
+
+  public void test_intern_grow() {
+    SymbolTable symbols = new SymbolTable();
+    String[] strings = new String[2000];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = symbols.intern("s" + i);
+    }
+    assertEquals(strings.length, symbols.size());
+    for (int i = 0; i < strings.length; i++) {
+      assertSame(strings[i], symbols.intern("s" + i));
+    }
+    assertEquals(strings.length, symbols.size());
+  }
+
+  public void test_intern_sameHashCode() {
+    SymbolTable symbols = new SymbolTable();
+    // "Aa" and "BB" have the same hash code
+    String first = symbols.intern("Aa");
+    String second = symbols.intern("BB");
+    assertEquals("Aa", first);
+    assertEquals("BB", second);
+    assertSame(first, symbols.intern("Aa"));
+    assertSame(second, symbols.intern("BB"));
+    assertEquals(2, symbols.size());
+  }
+}
@@ -25,7 +25,9 @@ public class TestAll {
     suite.addTestSuite(IncrementalScannerTest.class);
     suite.addTestSuite(KeywordStateTest.class);
     suite.addTestSuite(ScannerTest.class);
+    suite.addTestSuite(SymbolTableTest.class);
     suite.addTestSuite(TokenTypeTest.class);
+    suite.addTestSuite(Utf8CharacterReaderTest.class);
     return suite;
   }
 }
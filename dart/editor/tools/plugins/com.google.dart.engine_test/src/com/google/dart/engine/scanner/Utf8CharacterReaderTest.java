@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.scanner;
+
+import com.google.dart.engine.error.AnalysisErrorListener;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+
+public class Utf8CharacterReaderTest extends TestCase {
+  public void test_advance() throws Exception {
+    Utf8CharacterReader reader = createReader("x");
+    assertEquals('x', reader.advance());
+    assertEquals(-1, reader.advance());
+    assertEquals(-1, reader.advance());
+  }
+
+  public void test_advance_bom() throws Exception {
+    byte[] bytes = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'x'};
+    Utf8CharacterReader reader = new Utf8CharacterReader(ByteBuffer.wrap(bytes));
+    assertEquals('x', reader.advance());
+    assertEquals(0, reader.getOffset());
+    assertEquals(-1, reader.advance());
+  }
+
+  public void test_advance_malformed() throws Exception {
+    byte[] bytes = {'a', (byte) 0xC3, 'b', (byte) 0xFF, (byte) 0xE2, (byte) 0x82};
+    Utf8CharacterReader reader = new Utf8CharacterReader(ByteBuffer.wrap(bytes));
+    assertEquals('a', reader.advance());
+    assertEquals(0xFFFD, reader.advance());
+    assertEquals('b', reader.advance());
+    assertEquals(0xFFFD, reader.advance());
+    assertEquals(0xFFFD, reader.advance());
+    assertEquals(-1, reader.advance());
+  }
+
+  public void test_advance_multiByte() throws Exception {
+    String string = "a\u00E9\u20AC\uD83D\uDE00b";
+    Utf8CharacterReader reader = createReader(string);
+    for (int i = 0; i < string.length(); i++) {
+      assertEquals(string.charAt(i), reader.advance());
+      assertEquals(i, reader.getOffset());
+    }
+    assertEquals(-1, reader.advance());
+  }
+
+  public void test_creation() throws Exception {
+    assertNotNull(createReader("x"));
+  }
+
+  public void test_getInternedString() throws Exception {
+    Utf8CharacterReader reader = createReader("xyzzy yzz");
+    SymbolTable symbols = new SymbolTable();
+    reader.setOffset(3);
+    String string = reader.getInternedString(1, 0, symbols);
+    assertEquals("yzz", string);
+    reader.setOffset(8);
+    assertSame(string, reader.getInternedString(6, 0, symbols));
+  }
+
+  public void test_getOffset() throws Exception {
+    Utf8CharacterReader reader = createReader("x");
+    assertEquals(-1, reader.getOffset());
+    reader.advance();
+    assertEquals(0, reader.getOffset());
+    reader.advance();
+    assertEquals(0, reader.getOffset());
+  }
+
+  public void test_getString() throws Exception {
+    Utf8CharacterReader reader = createReader("xyzzy");
+    reader.setOffset(3);
+    assertEquals("yzz", reader.getString(1, 0));
+    assertEquals("zzy", reader.getString(2, 1));
+  }
+
+  public void test_getString_multiByte() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.append("\u00E9\uD83D\uDE00x");
+    }
+    String string = builder.toString();
+    Utf8CharacterReader reader = createReader(string);
+    while (reader.advance() >= 0) {
+      int offset = reader.getOffset();
+      int start = Math.max(0, offset - 70);
+      assertEquals(string.substring(start, offset + 1), reader.getString(start, 0));
+    }
+    assertEquals(string.length() - 1, reader.getOffset());
+  }
+
+  public void test_peek() throws Exception {
+    Utf8CharacterReader reader = createReader("x\uD83D\uDE00");
+    assertEquals('x', reader.peek());
+    assertEquals('x', reader.peek());
+    reader.advance();
+    assertEquals(0xD83D, reader.peek());
+    reader.advance();
+    assertEquals(0xDE00, reader.peek());
+    assertEquals(0xDE00, reader.peek());
+    reader.advance();
+    assertEquals(-1, reader.peek());
+    assertEquals(-1, reader.peek());
+  }
+
+  public void test_scan() throws Exception {
+    String string = "class A {\n  String s = '\u00E9\u20AC\uD83D\uDE00';\n  int n = s.length;\n}";
+    AnalysisErrorListener listener = AnalysisErrorListener.NULL_LISTENER;
+    Token expected = new Scanner(null, new CharSequenceReader(string), listener).tokenize();
+    Token actual = new Scanner(null, createReader(string), listener).tokenize();
+    while (expected.getType() != TokenType.EOF) {
+      assertEquals(expected.getType(), actual.getType());
+      assertEquals(expected.getOffset(), actual.getOffset());
+      assertEquals(expected.getLexeme(), actual.getLexeme());
+      expected = expected.getNext();
+      actual = actual.getNext();
+    }
+    assertEquals(TokenType.EOF, actual.getType());
+  }
+
+  public void test_setOffset() throws Exception {
+    Utf8CharacterReader reader = createReader("xyz");
+    reader.setOffset(2);
+    assertEquals(2, reader.getOffset());
+  }
+
+  public void test_setOffset_backward() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      builder.append(i % 2 == 0 ? 'a' : '\u00E9');
+    }
+    String string = builder.toString();
+    Utf8CharacterReader reader = createReader(string);
+    reader.setOffset(string.length() - 1);
+    for (int offset = string.length() - 2; offset >= -1; offset -= 7) {
+      reader.setOffset(offset);
+      assertEquals(string.charAt(offset + 1), reader.advance());
+    }
+  }
+
+  private Utf8CharacterReader createReader(String string) throws Exception {
+    return new Utf8CharacterReader(ByteBuffer.wrap(string.getBytes("UTF-8")));
+  }
+}
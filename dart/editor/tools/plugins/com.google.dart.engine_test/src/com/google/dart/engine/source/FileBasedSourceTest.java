@@ -22,6 +22,7 @@ import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
 import junit.framework.TestCase;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.net.URI;
 
 public class FileBasedSourceTest extends TestCase {
@@ -47,6 +48,29 @@ public class FileBasedSourceTest extends TestCase {
     assertTrue(source1.equals(source2));
   }
 
+  public void test_getContents_undecoded() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    while (builder.length() < 2 * 1024 * 1024) {
+      builder.append("var v = '\u00E9';\n");
+    }
+    String contents = builder.toString();
+    File file = File.createTempFile("large", ".dart");
+    try {
+      FileOutputStream output = new FileOutputStream(file);
+      try {
+        output.write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        output.write(contents.getBytes("UTF-8"));
+      } finally {
+        output.close();
+      }
+      CharSequence data = new FileBasedSource(file).getContents().getData();
+      assertTrue(data instanceof Utf8FileContents);
+      assertEquals(contents, data.toString());
+    } finally {
+      file.delete();
+    }
+  }
+
   public void test_getEncoding() {
     SourceFactory factory = new SourceFactory(new FileUriResolver());
     String fullPath = "/does/not/exist.dart";
@@ -38,6 +38,27 @@ public class PackageUriResolverTest extends TestCase {
     assertNotNull(new PackageUriResolver(directory));
   }
 
+  public void test_getSignature() throws Exception {
+    if (!FileUtilities2.isSymLinkSupported()) {
+      System.out.println("Skipping " + getClass().getSimpleName() + " test_getSignature");
+      return;
+    }
+
+    File args1Dir = FileUtilities2.createTempDir("args1").getCanonicalFile();
+    File args2Dir = FileUtilities2.createTempDir("args2").getCanonicalFile();
+    File packagesDir = FileUtilities2.createTempDir("packages");
+    File argsLink = new File(packagesDir, "args");
+    UriResolver resolver = new PackageUriResolver(packagesDir);
+
+    // The signature changes when a package is linked to a different directory
+    FileUtilities2.createSymLink(args1Dir, argsLink);
+    String signature = resolver.getSignature();
+    assertEquals(signature, resolver.getSignature());
+    assertTrue(argsLink.delete());
+    FileUtilities2.createSymLink(args2Dir, argsLink);
+    assertFalse(signature.equals(resolver.getSignature()));
+  }
+
   public void test_isPackageUri_null_scheme() throws Exception {
     URI uri = new URI("foo.dart");
     assertNull(uri.getScheme());
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.timing;
+
+import com.google.common.base.Predicate;
+import com.google.dart.engine.ast.AstNode;
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.ast.NodeList;
+import com.google.dart.engine.error.AnalysisErrorListener;
+import com.google.dart.engine.parser.Parser;
+import com.google.dart.engine.scanner.CharSequenceReader;
+import com.google.dart.engine.scanner.Scanner;
+import com.google.dart.engine.scanner.Token;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.utilities.general.MemoryUtilities;
+import com.google.dart.engine.utilities.general.MemoryUtilities.MemoryUsage;
+import com.google.dart.engine.utilities.io.FileUtilities;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+/**
+ * The class {@code AstMemoryTimings} defines a test that estimates the amount of heap used by the
+ * AST structures for the libraries in the SDK, excluding the tokens, so that the effect of changes
+ * to the layout of {@link AstNode} and {@link NodeList} can be measured.
+ */
+public class AstMemoryTimings extends TestCase {
+  /**
+   * A predicate that includes only the parts of the object graph that belong to the AST structure:
+   * the nodes, the lists of nodes and the arrays used to hold the contents of both.
+   */
+  private static final Predicate<Object> IS_AST = new Predicate<Object>() {
+    @Override
+    public boolean apply(Object object) {
+      return object instanceof AstNode || object instanceof NodeList
+          || object instanceof AstNode[] || object.getClass() == Object[].class;
+    }
+  };
+
+  public void test_sdk() throws Exception {
+    File sdkDirectory = DirectoryBasedDartSdk.getDefaultSdkDirectory();
+    assertNotNull(
+        "No SDK configured; set the property 'com.google.dart.sdk' on the command line",
+        sdkDirectory);
+    ArrayList<CompilationUnit> units = new ArrayList<CompilationUnit>();
+    parseSources(units, new DirectoryBasedDartSdk(sdkDirectory).getLibraryDirectory());
+    MemoryUsage usage = MemoryUtilities.measureMemoryUsage(units.toArray(), IS_AST);
+    System.out.println("Parsed " + units.size() + " files");
+    PrintWriter writer = new PrintWriter(System.out);
+    usage.writeSummary(writer);
+    writer.flush();
+  }
+
+  private void parseSources(ArrayList<CompilationUnit> units, File directory) throws IOException {
+    File[] children = directory.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        parseSources(units, child);
+      } else if (child.getName().endsWith(".dart")) {
+        AnalysisErrorListener listener = AnalysisErrorListener.NULL_LISTENER;
+        CharSequenceReader reader = new CharSequenceReader(FileUtilities.getContents(child));
+        Token token = new Scanner(null, reader, listener).tokenize();
+        units.add(new Parser(null, listener).parseCompilationUnit(token));
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.timing;
+
+import com.google.dart.engine.internal.cache.CacheRetentionPolicy;
+import com.google.dart.engine.internal.cache.DartEntryImpl;
+import com.google.dart.engine.internal.cache.RetentionPriority;
+import com.google.dart.engine.internal.cache.SourceEntry;
+import com.google.dart.engine.internal.cache.UniversalCachePartition;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.TestSource;
+
+import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * The class {@code CachePartitionTimings} defines a test that compares the time it takes to record
+ * an access to an AST in a {@link UniversalCachePartition} with the time it took when the recently
+ * used sources were kept in an {@link ArrayList}, for several cache sizes.
+ */
+public class CachePartitionTimings extends TestCase {
+  private static final int ACCESS_COUNT = 100000;
+
+  private static final int[] CACHE_SIZES = {256, 4096, 32768};
+
+  public void test_accessedAst() {
+    for (int cacheSize : CACHE_SIZES) {
+      Source[] sources = createSources(cacheSize);
+      int[] accessOrder = createAccessOrder(cacheSize);
+      //
+      // Measure the list based implementation.
+      //
+      // Warm-up
+      accessList(sources, accessOrder);
+      // Measured
+      long listTime = accessList(sources, accessOrder);
+      //
+      // Measure the partition.
+      //
+      // Warm-up
+      accessPartition(sources, accessOrder);
+      // Measured
+      long partitionTime = accessPartition(sources, accessOrder);
+      //
+      // Print the results.
+      //
+      System.out.print("Cache size = ");
+      System.out.println(cacheSize);
+      System.out.print("  List = ");
+      System.out.print(listTime / ACCESS_COUNT);
+      System.out.println(" ns/access");
+      System.out.print("  Partition = ");
+      System.out.print(partitionTime / ACCESS_COUNT);
+      System.out.println(" ns/access");
+    }
+  }
+
+  /**
+   * Record an access to each of the sources at the given indices, in order, using a list of the
+   * recently used sources in the way that {@code CachePartition} used to, and return the number of
+   * nanoseconds it took.
+   */
+  private long accessList(Source[] sources, int[] accessOrder) {
+    ArrayList<Source> recentlyUsed = new ArrayList<Source>(sources.length);
+    for (Source source : sources) {
+      recentlyUsed.add(source);
+    }
+    long start = System.nanoTime();
+    for (int index : accessOrder) {
+      Source source = sources[index];
+      if (recentlyUsed.remove(source)) {
+        recentlyUsed.add(source);
+      }
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Record an access to each of the sources at the given indices, in order, using a cache partition
+   * and return the number of nanoseconds it took.
+   */
+  private long accessPartition(Source[] sources, int[] accessOrder) {
+    UniversalCachePartition partition = new UniversalCachePartition(
+        null,
+        sources.length,
+        new CacheRetentionPolicy() {
+          @Override
+          public RetentionPriority getAstPriority(Source source, SourceEntry sourceEntry) {
+            return RetentionPriority.LOW;
+          }
+        });
+    for (Source source : sources) {
+      partition.put(source, new DartEntryImpl());
+      partition.storedAst(source);
+    }
+    long start = System.nanoTime();
+    for (int index : accessOrder) {
+      partition.accessedAst(sources[index]);
+    }
+    return System.nanoTime() - start;
+  }
+
+  private int[] createAccessOrder(int cacheSize) {
+    Random random = new Random(cacheSize);
+    int[] accessOrder = new int[ACCESS_COUNT];
+    for (int i = 0; i < ACCESS_COUNT; i++) {
+      accessOrder[i] = random.nextInt(cacheSize);
+    }
+    return accessOrder;
+  }
+
+  private Source[] createSources(int count) {
+    Source[] sources = new Source[count];
+    for (int i = 0; i < count; i++) {
+      sources[i] = new TestSource(createFile("/test" + i + ".dart"), "");
+    }
+    return sources;
+  }
+}
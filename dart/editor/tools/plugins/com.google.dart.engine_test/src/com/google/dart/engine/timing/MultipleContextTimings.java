@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.timing;
+
+import com.google.dart.engine.AnalysisEngine;
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.context.ChangeSet;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.source.DartUriResolver;
+import com.google.dart.engine.source.FileBasedSource;
+import com.google.dart.engine.source.FileUriResolver;
+import com.google.dart.engine.source.Source;
+import com.google.dart.engine.source.SourceFactory;
+
+import static com.google.dart.engine.utilities.io.FileUtilities2.createFile;
+
+import junit.framework.TestCase;
+
+/**
+ * The class {@code MultipleContextTimings} defines a stress test that measures how the throughput
+ * of analysis across many independent contexts (all sharing the same SDK) scales with the number
+ * of threads performing the analysis.
+ */
+public class MultipleContextTimings extends TestCase {
+  /**
+   * The number of contexts analyzed for each thread count.
+   */
+  private static final int CONTEXT_COUNT = 48;
+
+  /**
+   * The number of libraries in each context.
+   */
+  private static final int LIBRARY_COUNT = 20;
+
+  /**
+   * The thread counts for which throughput is measured.
+   */
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+  public void test_analyzeContexts() throws Exception {
+    DirectoryBasedDartSdk sdk = DirectoryBasedDartSdk.getDefaultSdk();
+    //
+    // Warm-up, which also populates the shared SDK partition.
+    //
+    analyzeAll(createContexts(sdk, "warmup", 4), 1);
+    //
+    // Measured
+    //
+    long baseline = 0L;
+    for (int threadCount : THREAD_COUNTS) {
+      AnalysisContext[] contexts = createContexts(sdk, "t" + threadCount, CONTEXT_COUNT);
+      long start = System.nanoTime();
+      analyzeAll(contexts, threadCount);
+      long elapsed = System.nanoTime() - start;
+      if (baseline == 0L) {
+        baseline = elapsed;
+      }
+      System.out.print(threadCount);
+      System.out.print(" thread(s): ");
+      System.out.print(elapsed / 1000000L);
+      System.out.print(" ms, ");
+      System.out.print((CONTEXT_COUNT * 1000000000L) / elapsed);
+      System.out.print(" contexts/s, speedup ");
+      System.out.println(((double) baseline) / elapsed);
+    }
+  }
+
+  /**
+   * Perform all of the analysis in the given contexts using the given number of threads. Each
+   * context is analyzed by exactly one thread.
+   */
+  private void analyzeAll(final AnalysisContext[] contexts, int threadCount) throws Exception {
+    Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      final int first = i;
+      final int stride = threadCount;
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int j = first; j < contexts.length; j += stride) {
+            while (contexts[j].performAnalysisTask().hasMoreWork()) {
+              // Keep performing tasks until there is no more work.
+            }
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (int i = 0; i < threadCount; i++) {
+      threads[i].join();
+    }
+  }
+
+  /**
+   * Create the given number of contexts, each containing {@link #LIBRARY_COUNT} libraries.
+   */
+  private AnalysisContext[] createContexts(DirectoryBasedDartSdk sdk, String prefix, int count) {
+    AnalysisContext[] contexts = new AnalysisContext[count];
+    for (int i = 0; i < count; i++) {
+      AnalysisContext context = AnalysisEngine.getInstance().createAnalysisContext();
+      context.setSourceFactory(new SourceFactory(new DartUriResolver(sdk), new FileUriResolver()));
+      ChangeSet changeSet = new ChangeSet();
+      Source[] sources = new Source[LIBRARY_COUNT];
+      for (int j = 0; j < LIBRARY_COUNT; j++) {
+        sources[j] = new FileBasedSource(createFile("/" + prefix + "/c" + i + "/lib" + j + ".dart"));
+        changeSet.addedSource(sources[j]);
+      }
+      context.applyChanges(changeSet);
+      for (int j = 0; j < LIBRARY_COUNT; j++) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("library lib");
+        builder.append(j);
+        builder.append(";\n");
+        if (j > 0) {
+          builder.append("import 'lib");
+          builder.append(j - 1);
+          builder.append(".dart';\n");
+        }
+        builder.append("class C");
+        builder.append(j);
+        builder.append(j > 0 ? " extends C" + (j - 1) : "");
+        builder.append(" {\n  List<String> names = <String>[];\n");
+        builder.append("  int count() => names.where((n) => n.isNotEmpty).length;\n}\n");
+        context.setContents(sources[j], builder.toString());
+      }
+      contexts[i] = context;
+    }
+    return contexts;
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.timing;
+
+import com.google.dart.engine.ast.AstNode;
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.ast.visitor.GeneralizingAstVisitor;
+import com.google.dart.engine.error.AnalysisErrorListener;
+import com.google.dart.engine.parser.Parser;
+import com.google.dart.engine.scanner.CharSequenceReader;
+import com.google.dart.engine.scanner.Scanner;
+import com.google.dart.engine.scanner.Token;
+import com.google.dart.engine.scanner.TokenType;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.utilities.general.MemoryUtilities;
+import com.google.dart.engine.utilities.io.FileUtilities;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The class {@code ParserTimings} defines a benchmark that measures the throughput of the
+ * {@link Scanner} and the {@link Parser}. It reports the number of tokens scanned and the number of
+ * nodes produced per second, together with the rate at which memory was allocated, so that the
+ * effect of a change to either of them can be validated before it is adopted.
+ * <p>
+ * The libraries in the SDK are always measured. When the property {@code svnRoot} is set, the large
+ * files that are checked in to the repository are measured as well. Everything is read from disk
+ * before the measurements begin, so no network access is required.
+ */
+public class ParserTimings extends TestCase {
+  /**
+   * The directories, relative to the root of the repository, containing the large files that are
+   * measured in addition to the SDK.
+   */
+  private static final String[] LARGE_FILE_DIRECTORIES = {"pkg/analyzer/lib/src/generated"};
+
+  /**
+   * The number of times the sources are scanned and parsed before the measured runs.
+   */
+  private static final int WARM_UP_COUNT = 5;
+
+  /**
+   * The number of times the sources are scanned and parsed in the measured runs.
+   */
+  private static final int REPETITION_COUNT = 10;
+
+  public void test_largeFiles() throws Exception {
+    String svnRootName = System.getProperty("svnRoot");
+    assertNotNull("Missing property value: set using -DsvnRoot=...", svnRootName);
+    ArrayList<String> contents = new ArrayList<String>();
+    for (String directoryName : LARGE_FILE_DIRECTORIES) {
+      readSources(contents, new File(svnRootName, directoryName));
+    }
+    measure("Large files", contents);
+  }
+
+  public void test_sdk() throws Exception {
+    File sdkDirectory = DirectoryBasedDartSdk.getDefaultSdkDirectory();
+    assertNotNull(
+        "No SDK configured; set the property 'com.google.dart.sdk' on the command line",
+        sdkDirectory);
+    ArrayList<String> contents = new ArrayList<String>();
+    readSources(contents, new DirectoryBasedDartSdk(sdkDirectory).getLibraryDirectory());
+    measure("SDK", contents);
+  }
+
+  /**
+   * Return the sum of the given byte counts, either of which can be {@code -1} if the number of
+   * allocated bytes could not be measured.
+   */
+  private long addBytes(long total, long bytes) {
+    return total < 0 || bytes < 0 ? -1L : total + bytes;
+  }
+
+  /**
+   * Return the number of nodes in the given compilation units.
+   */
+  private long countNodes(CompilationUnit[] units) {
+    final long[] nodeCount = {0L};
+    GeneralizingAstVisitor<Void> visitor = new GeneralizingAstVisitor<Void>() {
+      @Override
+      public Void visitNode(AstNode node) {
+        nodeCount[0]++;
+        return super.visitNode(node);
+      }
+    };
+    for (CompilationUnit unit : units) {
+      unit.accept(visitor);
+    }
+    return nodeCount[0];
+  }
+
+  /**
+   * Return the number of tokens in the given token streams.
+   */
+  private long countTokens(Token[] tokenStreams) {
+    long tokenCount = 0L;
+    for (Token token : tokenStreams) {
+      while (token.getType() != TokenType.EOF) {
+        tokenCount++;
+        token = token.getNext();
+      }
+    }
+    return tokenCount;
+  }
+
+  /**
+   * Scan and parse the given sources repeatedly and print the throughput of each phase.
+   */
+  private void measure(String label, ArrayList<String> contents) {
+    long characterCount = 0L;
+    for (String content : contents) {
+      characterCount += content.length();
+    }
+    for (int i = 0; i < WARM_UP_COUNT; i++) {
+      parse(scan(contents, null), null);
+    }
+    long[] scanTimes = new long[REPETITION_COUNT];
+    long[] parseTimes = new long[REPETITION_COUNT];
+    long scanBytes = 0L;
+    long parseBytes = 0L;
+    long tokenCount = 0L;
+    long nodeCount = 0L;
+    long[] measurement = new long[2];
+    for (int i = 0; i < REPETITION_COUNT; i++) {
+      Token[] tokenStreams = scan(contents, measurement);
+      scanTimes[i] = measurement[0];
+      scanBytes = addBytes(scanBytes, measurement[1]);
+      // The parser can modify the tokens, so they are counted before parsing.
+      tokenCount = countTokens(tokenStreams);
+      CompilationUnit[] units = parse(tokenStreams, measurement);
+      parseTimes[i] = measurement[0];
+      parseBytes = addBytes(parseBytes, measurement[1]);
+      nodeCount = countNodes(units);
+    }
+    System.out.println(label + ": " + contents.size() + " files, " + characterCount
+        + " characters, " + tokenCount + " tokens, " + nodeCount + " nodes; best and median of "
+        + REPETITION_COUNT + " runs");
+    print("  Scan", "tokens", tokenCount, scanTimes, scanBytes);
+    print("  Parse", "nodes", nodeCount, parseTimes, parseBytes);
+  }
+
+  /**
+   * Parse the given token streams. If a measurement is requested, store the number of nanoseconds
+   * it took and the number of bytes that were allocated in it.
+   */
+  private CompilationUnit[] parse(Token[] tokenStreams, long[] measurement) {
+    int count = tokenStreams.length;
+    CompilationUnit[] units = new CompilationUnit[count];
+    long startBytes = MemoryUtilities.getAllocatedBytes();
+    long startTime = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Parser parser = new Parser(null, AnalysisErrorListener.NULL_LISTENER);
+      units[i] = parser.parseCompilationUnit(tokenStreams[i]);
+    }
+    recordMeasurement(measurement, startTime, startBytes);
+    return units;
+  }
+
+  private void print(String label, String unitName, long count, long[] times, long totalBytes) {
+    long[] sortedTimes = times.clone();
+    Arrays.sort(sortedTimes);
+    long bestTime = Math.max(sortedTimes[0], 1L);
+    long medianTime = Math.max(sortedTimes[sortedTimes.length / 2], 1L);
+    System.out.print(label);
+    System.out.print(" = ");
+    System.out.print(count * 1000000000L / bestTime);
+    System.out.print(" / ");
+    System.out.print(count * 1000000000L / medianTime);
+    System.out.print(" ");
+    System.out.print(unitName);
+    System.out.print("/sec");
+    if (totalBytes < 0) {
+      System.out.println(", allocation not measured");
+    } else {
+      long totalTime = 0L;
+      for (long time : times) {
+        totalTime += time;
+      }
+      long bytesPerRun = totalBytes / times.length;
+      System.out.print(", ");
+      System.out.print(totalBytes * 1000L / Math.max(totalTime, 1L));
+      System.out.print(" MB/sec allocated, ");
+      System.out.print(count == 0 ? 0L : bytesPerRun / count);
+      System.out.print(" bytes/");
+      System.out.println(unitName.substring(0, unitName.length() - 1));
+    }
+  }
+
+  private void readSources(ArrayList<String> contents, File directory) throws IOException {
+    File[] children = directory.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        readSources(contents, child);
+      } else if (child.getName().endsWith(".dart")) {
+        contents.add(FileUtilities.getContents(child));
+      }
+    }
+  }
+
+  /**
+   * If a measurement is requested, store the time and the number of bytes allocated since the given
+   * starting values in it.
+   */
+  private void recordMeasurement(long[] measurement, long startTime, long startBytes) {
+    long time = System.nanoTime() - startTime;
+    long endBytes = MemoryUtilities.getAllocatedBytes();
+    if (measurement != null) {
+      measurement[0] = time;
+      measurement[1] = startBytes < 0 || endBytes < 0 ? -1L : endBytes - startBytes;
+    }
+  }
+
+  /**
+   * Scan the given sources. If a measurement is requested, store the number of nanoseconds it took
+   * and the number of bytes that were allocated in it.
+   */
+  private Token[] scan(ArrayList<String> contents, long[] measurement) {
+    int count = contents.size();
+    Token[] tokenStreams = new Token[count];
+    long startBytes = MemoryUtilities.getAllocatedBytes();
+    long startTime = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      CharSequenceReader reader = new CharSequenceReader(contents.get(i));
+      tokenStreams[i] = new Scanner(null, reader, AnalysisErrorListener.NULL_LISTENER).tokenize();
+    }
+    recordMeasurement(measurement, startTime, startBytes);
+    return tokenStreams;
+  }
+}
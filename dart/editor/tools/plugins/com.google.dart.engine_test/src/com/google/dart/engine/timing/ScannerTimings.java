@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.timing;
+
+import com.google.dart.engine.error.AnalysisErrorListener;
+import com.google.dart.engine.scanner.CharSequenceReader;
+import com.google.dart.engine.scanner.CharacterReader;
+import com.google.dart.engine.scanner.Scanner;
+import com.google.dart.engine.scanner.SymbolTable;
+import com.google.dart.engine.scanner.Token;
+import com.google.dart.engine.scanner.TokenType;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.utilities.general.MemoryUtilities;
+import com.google.dart.engine.utilities.general.StringUtilities;
+import com.google.dart.engine.utilities.io.FileUtilities;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * The class {@code ScannerTimings} defines a test that compares the time it takes to scan the
+ * libraries in the SDK, and the number of bytes allocated while doing so, when the lexemes are
+ * interned using the scanner's {@link SymbolTable} with the time it took when every lexeme was
+ * first copied out of the source and then interned.
+ */
+public class ScannerTimings extends TestCase {
+  /**
+   * The number of times the sources are scanned before the measured runs.
+   */
+  private static final int WARM_UP_COUNT = 5;
+
+  /**
+   * The number of times the sources are scanned in the measured runs.
+   */
+  private static final int REPETITION_COUNT = 10;
+
+  public void test_scan() throws Exception {
+    File sdkDirectory = DirectoryBasedDartSdk.getDefaultSdkDirectory();
+    assertNotNull(
+        "No SDK configured; set the property 'com.google.dart.sdk' on the command line",
+        sdkDirectory);
+    ArrayList<String> contents = new ArrayList<String>();
+    readSources(contents, new DirectoryBasedDartSdk(sdkDirectory).getLibraryDirectory());
+    for (int i = 0; i < WARM_UP_COUNT; i++) {
+      scan(contents, false);
+      scan(contents, true);
+    }
+    long[] substring = new long[3];
+    long[] symbolTable = new long[3];
+    for (int i = 0; i < REPETITION_COUNT; i++) {
+      addTo(substring, scan(contents, false));
+      addTo(symbolTable, scan(contents, true));
+    }
+    System.out.println("Scanned " + contents.size() + " files " + REPETITION_COUNT + " times");
+    print("  Substring", substring);
+    print("  Symbol table", symbolTable);
+  }
+
+  private void addTo(long[] total, long[] counts) {
+    for (int i = 0; i < total.length; i++) {
+      total[i] += counts[i];
+    }
+  }
+
+  private void print(String label, long[] counts) {
+    long nanoseconds = Math.max(counts[1], 1L);
+    System.out.print(label);
+    System.out.print(" = ");
+    System.out.print(counts[0] * 1000000000L / nanoseconds);
+    System.out.print(" tokens/sec, ");
+    System.out.print(counts[2] < 0 ? "?" : String.valueOf(counts[2] / REPETITION_COUNT));
+    System.out.println(" bytes allocated/run");
+  }
+
+  private void readSources(ArrayList<String> contents, File directory) throws IOException {
+    File[] children = directory.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        readSources(contents, child);
+      } else if (child.getName().endsWith(".dart")) {
+        contents.add(FileUtilities.getContents(child));
+      }
+    }
+  }
+
+  /**
+   * Scan each of the given sources and return the number of tokens that were produced, the number
+   * of nanoseconds it took and the number of bytes that were allocated.
+   * 
+   * @param contents the contents of the sources to be scanned
+   * @param useSymbolTable {@code true} if the lexemes are to be interned using the symbol table,
+   *          {@code false} if they are to be copied out of the source before being interned
+   */
+  private long[] scan(ArrayList<String> contents, boolean useSymbolTable) {
+    long tokenCount = 0L;
+    long startBytes = MemoryUtilities.getAllocatedBytes();
+    long startTime = System.nanoTime();
+    for (String content : contents) {
+      CharacterReader reader;
+      if (useSymbolTable) {
+        reader = new CharSequenceReader(content);
+      } else {
+        reader = new CharSequenceReader(content) {
+          @Override
+          public String getInternedString(int start, int endDelta, SymbolTable symbols) {
+            return StringUtilities.intern(getString(start, endDelta));
+          }
+        };
+      }
+      Token token = new Scanner(null, reader, AnalysisErrorListener.NULL_LISTENER).tokenize();
+      while (token.getType() != TokenType.EOF) {
+        tokenCount++;
+        token = token.getNext();
+      }
+    }
+    long time = System.nanoTime() - startTime;
+    long endBytes = MemoryUtilities.getAllocatedBytes();
+    long bytes = startBytes < 0 || endBytes < 0 ? -1L : endBytes - startBytes;
+    return new long[] {tokenCount, time, bytes};
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.timing;
+
+import com.google.dart.engine.ast.AstNode;
+import com.google.dart.engine.ast.AstVisitor;
+import com.google.dart.engine.ast.CompilationUnit;
+import com.google.dart.engine.ast.visitor.DelegatingAstVisitor;
+import com.google.dart.engine.ast.visitor.GeneralizingAstVisitor;
+import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.element.CompilationUnitElement;
+import com.google.dart.engine.element.LibraryElement;
+import com.google.dart.engine.error.AnalysisErrorListener;
+import com.google.dart.engine.internal.error.ErrorReporter;
+import com.google.dart.engine.internal.hint.BestPracticesVerifier;
+import com.google.dart.engine.internal.hint.Dart2JSVerifier;
+import com.google.dart.engine.internal.hint.HintGenerator;
+import com.google.dart.engine.internal.hint.OverrideVerifier;
+import com.google.dart.engine.internal.resolver.InheritanceManager;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
+import com.google.dart.engine.source.Source;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The class {@code VerifierTimings} defines a benchmark that compares the time it takes to run the
+ * verifiers that only look at one node at a time when each of them traverses the AST separately
+ * with the time it takes when they share a single traversal through a {@link DelegatingAstVisitor},
+ * as they do in the {@link HintGenerator}.
+ * <p>
+ * The libraries in the SDK are resolved before the measurements begin. In addition to the times,
+ * the number of full traversals of each compilation unit made by the whole error and hint pipeline
+ * is reported for both configurations.
+ */
+public class VerifierTimings extends TestCase {
+  /**
+   * The number of traversals of a compilation unit made to compute errors and hints by the
+   * verifiers that cannot share a traversal: the constant verifier, the error verifier, the imports
+   * verifier and the dead code verifier.
+   */
+  private static final int UNSHARED_TRAVERSAL_COUNT = 4;
+
+  /**
+   * The number of times the verifiers are run before the measured runs.
+   */
+  private static final int WARM_UP_COUNT = 5;
+
+  /**
+   * The number of times the verifiers are run in the measured runs.
+   */
+  private static final int REPETITION_COUNT = 10;
+
+  public void test_sdk() throws Exception {
+    File sdkDirectory = DirectoryBasedDartSdk.getDefaultSdkDirectory();
+    assertNotNull(
+        "No SDK configured; set the property 'com.google.dart.sdk' on the command line",
+        sdkDirectory);
+    DirectoryBasedDartSdk sdk = new DirectoryBasedDartSdk(sdkDirectory);
+    AnalysisContext context = sdk.getContext();
+    ArrayList<CompilationUnit> units = new ArrayList<CompilationUnit>();
+    for (String dartUri : sdk.getUris()) {
+      Source source = sdk.mapDartUri(dartUri);
+      LibraryElement library = context.computeLibraryElement(source);
+      if (library != null) {
+        addUnit(units, context, library, library.getDefiningCompilationUnit());
+        for (CompilationUnitElement part : library.getParts()) {
+          addUnit(units, context, library, part);
+        }
+      }
+    }
+    measure("SDK", units);
+  }
+
+  private void addUnit(ArrayList<CompilationUnit> units, AnalysisContext context,
+      LibraryElement library, CompilationUnitElement element) throws Exception {
+    CompilationUnit unit = context.resolveCompilationUnit(element.getSource(), library);
+    if (unit != null) {
+      units.add(unit);
+    }
+  }
+
+  /**
+   * Return the number of nodes in the given compilation units.
+   */
+  private long countNodes(ArrayList<CompilationUnit> units) {
+    final long[] nodeCount = {0L};
+    GeneralizingAstVisitor<Void> visitor = new GeneralizingAstVisitor<Void>() {
+      @Override
+      public Void visitNode(AstNode node) {
+        nodeCount[0]++;
+        return super.visitNode(node);
+      }
+    };
+    for (CompilationUnit unit : units) {
+      unit.accept(visitor);
+    }
+    return nodeCount[0];
+  }
+
+  /**
+   * Return the verifiers that will be run over the given compilation unit.
+   */
+  private AstVisitor<?>[] createVerifiers(CompilationUnit unit) {
+    CompilationUnitElement element = unit.getElement();
+    ErrorReporter errorReporter = new ErrorReporter(
+        AnalysisErrorListener.NULL_LISTENER,
+        element.getSource());
+    return new AstVisitor<?>[] {
+        new Dart2JSVerifier(errorReporter), new BestPracticesVerifier(errorReporter),
+        new OverrideVerifier(new InheritanceManager(element.getLibrary()), errorReporter)};
+  }
+
+  /**
+   * Run the verifiers over the given compilation units, either using a single traversal of each
+   * unit or one traversal per verifier, and return the number of nanoseconds it took.
+   */
+  private long verify(ArrayList<CompilationUnit> units, boolean fused) {
+    long startTime = System.nanoTime();
+    for (CompilationUnit unit : units) {
+      AstVisitor<?>[] verifiers = createVerifiers(unit);
+      if (fused) {
+        unit.accept(new DelegatingAstVisitor<Void>(verifiers));
+      } else {
+        for (AstVisitor<?> verifier : verifiers) {
+          unit.accept(new DelegatingAstVisitor<Void>(verifier));
+        }
+      }
+    }
+    return System.nanoTime() - startTime;
+  }
+
+  /**
+   * Run the verifiers over the given compilation units repeatedly in both configurations and print
+   * the results.
+   */
+  private void measure(String label, ArrayList<CompilationUnit> units) {
+    for (int i = 0; i < WARM_UP_COUNT; i++) {
+      verify(units, false);
+      verify(units, true);
+    }
+    long[] separateTimes = new long[REPETITION_COUNT];
+    long[] fusedTimes = new long[REPETITION_COUNT];
+    for (int i = 0; i < REPETITION_COUNT; i++) {
+      separateTimes[i] = verify(units, false);
+      fusedTimes[i] = verify(units, true);
+    }
+    int unitCount = units.size();
+    int verifierCount = createVerifiers(units.get(0)).length;
+    System.out.println(label + ": " + unitCount + " units, " + countNodes(units)
+        + " nodes; best and median of " + REPETITION_COUNT + " runs");
+    print("  Separate", unitCount, UNSHARED_TRAVERSAL_COUNT + verifierCount, separateTimes);
+    print("  Fused", unitCount, UNSHARED_TRAVERSAL_COUNT + 1, fusedTimes);
+  }
+
+  private void print(String label, int unitCount, int traversalsPerUnit, long[] times) {
+    long[] sortedTimes = times.clone();
+    Arrays.sort(sortedTimes);
+    System.out.print(label);
+    System.out.print(" = ");
+    System.out.print(sortedTimes[0] / 1000000L);
+    System.out.print(" / ");
+    System.out.print(sortedTimes[sortedTimes.length / 2] / 1000000L);
+    System.out.print(" ms, ");
+    System.out.print(traversalsPerUnit);
+    System.out.print(" traversals/unit in the error and hint pipeline (");
+    System.out.print(unitCount * traversalsPerUnit);
+    System.out.println(" in total)");
+  }
+}
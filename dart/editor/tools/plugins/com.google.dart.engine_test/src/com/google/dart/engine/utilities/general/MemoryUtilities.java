@@ -17,14 +17,19 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The class {@code MemoryUtilities} defines utility methods related to memory usage.
@@ -210,6 +215,24 @@ public final class MemoryUtilities {
    */
   private static final long[] ROUND_UP_AMOUNT = {0L, 3L, 2L, 1L};
 
+  /**
+   * Return the number of bytes that have been allocated by the current thread, or {@code -1} if the
+   * virtual machine does not support measuring it.
+   * 
+   * @return the number of bytes that have been allocated by the current thread
+   */
+  public static long getAllocatedBytes() {
+    try {
+      Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+      Method method = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+      return (Long) method.invoke(
+          ManagementFactory.getThreadMXBean(),
+          Thread.currentThread().getId());
+    } catch (Exception exception) {
+      return -1L;
+    }
+  }
+
   /**
    * Return an object representing the approximate size in bytes of the object graph containing the
    * given object and all objects reachable from it. The actual size of an individual object depends
@@ -246,12 +269,11 @@ public final class MemoryUtilities {
    */
   public static MemoryUsage measureMemoryUsage(Object object, Predicate<Object> isIncluded) {
     MemoryUsage usageData = new MemoryUsage();
-    HashSet<Object> visitedObjects = new HashSet<Object>();
-    HashSet<Object> objectsToVisit = new HashSet<Object>();
+    Set<Object> visitedObjects = createIdentitySet();
+    ArrayList<Object> objectsToVisit = new ArrayList<Object>();
     objectsToVisit.add(object);
     while (!objectsToVisit.isEmpty()) {
-      Object nextObject = objectsToVisit.iterator().next();
-      objectsToVisit.remove(nextObject);
+      Object nextObject = objectsToVisit.remove(objectsToVisit.size() - 1);
       if (isIncluded.apply(nextObject) && visitedObjects.add(nextObject)) {
         addObjectToGraph(nextObject, usageData, visitedObjects, objectsToVisit);
       }
@@ -295,12 +317,11 @@ public final class MemoryUtilities {
    */
   public static long sizeOfGraph(Object object, Predicate<Object> isIncluded) {
     long size = 0L;
-    HashSet<Object> visitedObjects = new HashSet<Object>();
-    HashSet<Object> objectsToVisit = new HashSet<Object>();
+    Set<Object> visitedObjects = createIdentitySet();
+    ArrayList<Object> objectsToVisit = new ArrayList<Object>();
     objectsToVisit.add(object);
     while (!objectsToVisit.isEmpty()) {
-      Object nextObject = objectsToVisit.iterator().next();
-      objectsToVisit.remove(nextObject);
+      Object nextObject = objectsToVisit.remove(objectsToVisit.size() - 1);
       if (isIncluded.apply(nextObject) && visitedObjects.add(nextObject)) {
         size += addObjectToGraph(nextObject, visitedObjects, objectsToVisit);
       }
@@ -317,8 +338,8 @@ public final class MemoryUtilities {
    * @param objectsToVisit the objects to be added to the object graph
    * @return the size of the given object
    */
-  private static long addObjectToGraph(Object object, HashSet<Object> visitedObjects,
-      HashSet<Object> objectsToVisit) {
+  private static long addObjectToGraph(Object object, Set<Object> visitedObjects,
+      ArrayList<Object> objectsToVisit) {
     Class<?> objectClass = object.getClass();
     if (objectClass.isArray()) {
       Class<?> componentType = objectClass.getComponentType();
@@ -374,7 +395,7 @@ public final class MemoryUtilities {
    * @return the size of the given object
    */
   private static void addObjectToGraph(Object object, MemoryUsage usageData,
-      HashSet<Object> visitedObjects, HashSet<Object> objectsToVisit) {
+      Set<Object> visitedObjects, ArrayList<Object> objectsToVisit) {
     Class<?> objectClass = object.getClass();
     if (objectClass.isArray()) {
       Class<?> componentType = objectClass.getComponentType();
@@ -422,6 +443,16 @@ public final class MemoryUtilities {
     }
   }
 
+  /**
+   * Return a set in which objects are compared by identity. Objects that are equal but distinct,
+   * such as two empty lists, each use their own memory and must each be counted.
+   * 
+   * @return a set in which objects are compared by identity
+   */
+  private static Set<Object> createIdentitySet() {
+    return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+  }
+
   /**
    * Return the approximate number of bytes required to store a value of the given type in an array.
    * 
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ * 
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.engine.utilities.general;
+
+import com.google.dart.engine.EngineTestCase;
+import com.google.dart.engine.utilities.general.TimeCounter.TimeCounterHandle;
+
+public class TimeCounterTest extends EngineTestCase {
+  public void test_concurrent() throws Exception {
+    final TimeCounter outer = new TimeCounter();
+    final TimeCounter inner = new TimeCounter();
+    final int iterationCount = 20;
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < iterationCount; j++) {
+            TimeCounterHandle outerHandle = outer.start();
+            TimeCounterHandle innerHandle = inner.start();
+            pause();
+            innerHandle.stop();
+            outerHandle.stop();
+          }
+        }
+      };
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(threads.length * iterationCount, outer.getCount());
+    assertEquals(threads.length * iterationCount, inner.getCount());
+    // the time spent in the inner counter is only subtracted from the outer counter once
+    assertTrue(inner.getResult() >= threads.length * iterationCount);
+    assertTrue(outer.getResult() >= 0);
+    assertTrue(outer.getResult() < inner.getResult());
+  }
+
+  public void test_nested() throws Exception {
+    TimeCounter outer = new TimeCounter();
+    TimeCounter inner = new TimeCounter();
+    TimeCounterHandle outerHandle = outer.start();
+    TimeCounterHandle innerHandle = inner.start();
+    Thread.sleep(20);
+    innerHandle.stop();
+    outerHandle.stop();
+    assertEquals(1, outer.getCount());
+    assertEquals(1, inner.getCount());
+    assertTrue(inner.getResult() >= 20);
+    assertTrue(outer.getResult() < inner.getResult());
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException exception) {
+      // Ignored
+    }
+  }
+}
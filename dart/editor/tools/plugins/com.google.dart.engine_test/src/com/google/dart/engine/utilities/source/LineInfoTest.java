@@ -45,6 +45,28 @@ public class LineInfoTest extends TestCase {
     assertEquals(5, location.getColumnNumber());
   }
 
+  public void test_getLocations_sorted() {
+    LineInfo info = new LineInfo(new int[] {0, 12, 34, 40});
+    LineInfo.Location[] locations = info.getLocations(new int[] {0, 4, 12, 13, 36, 45});
+    assertEquals(6, locations.length);
+    assertLocation(1, 1, locations[0]);
+    assertLocation(1, 5, locations[1]);
+    assertLocation(2, 1, locations[2]);
+    assertLocation(2, 2, locations[3]);
+    assertLocation(3, 3, locations[4]);
+    assertLocation(4, 6, locations[5]);
+  }
+
+  public void test_getLocations_unsorted() {
+    LineInfo info = new LineInfo(new int[] {0, 12, 34, 40});
+    LineInfo.Location[] locations = info.getLocations(new int[] {36, 4, 45, 12});
+    assertEquals(4, locations.length);
+    assertLocation(3, 3, locations[0]);
+    assertLocation(1, 5, locations[1]);
+    assertLocation(4, 6, locations[2]);
+    assertLocation(2, 1, locations[3]);
+  }
+
   public void test_lastLine() {
     LineInfo info = new LineInfo(new int[] {0, 12, 34});
     LineInfo.Location location = info.getLocation(36);
@@ -58,4 +80,9 @@ public class LineInfoTest extends TestCase {
     assertEquals(2, location.getLineNumber());
     assertEquals(1, location.getColumnNumber());
   }
+
+  private void assertLocation(int expectedLine, int expectedColumn, LineInfo.Location location) {
+    assertEquals(expectedLine, location.getLineNumber());
+    assertEquals(expectedColumn, location.getColumnNumber());
+  }
 }
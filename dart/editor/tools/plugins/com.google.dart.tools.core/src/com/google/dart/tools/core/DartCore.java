@@ -20,6 +20,7 @@ import com.google.dart.engine.error.ErrorCode;
 import com.google.dart.engine.index.Index;
 import com.google.dart.engine.index.IndexFactory;
 import com.google.dart.engine.index.IndexStore;
+import com.google.dart.engine.internal.cache.PersistentAnalysisCache;
 import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
 import com.google.dart.engine.utilities.instrumentation.Instrumentation;
 import com.google.dart.engine.utilities.instrumentation.InstrumentationBuilder;
@@ -906,12 +907,17 @@ public class DartCore extends Plugin implements DartSdkListener {
           thread.start();
         }
         // create ProjectManagerImpl
-        projectManager = new ProjectManagerImpl(
+        ProjectManagerImpl manager = new ProjectManagerImpl(
             ResourcesPlugin.getWorkspace().getRoot(),
             DartSdkManager.getManager().getSdk(),
             DartSdkManager.getManager().getSdkContextId(),
             index,
             DartIgnoreManager.getInstance());
+        if (DartCoreDebug.PERSISTENT_ANALYSIS_CACHE) {
+          File stateDir = getPlugin().getStateLocation().toFile();
+          manager.setPersistentCache(new PersistentAnalysisCache(new File(stateDir, "analysis")));
+        }
+        projectManager = manager;
       }
     }
     return projectManager;
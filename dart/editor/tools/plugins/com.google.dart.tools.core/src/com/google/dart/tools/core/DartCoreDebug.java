@@ -87,6 +87,13 @@ public class DartCoreDebug {
   public static final boolean ANALYSIS_SERVER_PRINT_TO_CONSOLE = isOptionTrue("experimental/analysisServer/printToConsole");
   public static final boolean ANALYSIS_SERVER_PROFILE = isOptionTrue("experimental/analysisServer/profile");
   public static final boolean NO_PUB_PACKAGES = isOptionTrue("experimental/noPubPackages");
+  public static final boolean LAZY_DEPENDENCY_BODIES = isOptionTrue("experimental/lazyDependencyBodies");
+  public static final boolean PARALLEL_PARSE = isOptionTrue("experimental/parallelParse");
+  public static final boolean PARALLEL_RESOLUTION = isOptionTrue("experimental/parallelResolution");
+  public static final boolean PARALLEL_VERIFICATION = isOptionTrue("experimental/parallelVerification");
+  public static final boolean PERSISTENT_ANALYSIS_CACHE = isOptionTrue("experimental/persistentAnalysisCache");
+  public static final boolean SDK_SUMMARY = isOptionTrue("experimental/sdkSummary");
+  public static final boolean SHARED_PARSED_UNITS = isOptionTrue("experimental/sharedParsedUnits");
   // The defaults are duplicated for tests in
   // editor/tools/plugins/com.google.dart.engine_test/src/com/google/dart/engine/resolver/ResolverTestCase.java
   public static final boolean ENABLE_UNION_TYPES = isOptionTrue("experimental/enableUnionTypes");
@@ -873,6 +873,17 @@ public class ProjectImpl extends ContextManagerImpl implements Project {
     options.setHint(DartCore.getPlugin().isHintsEnabled());
     options.setDart2jsHint(DartCore.getPlugin().isHintsDart2JSEnabled());
     options.setIncremental(DartCoreDebug.EXPERIMENTAL);
+    options.setAnalyzeDependencyFunctionBodies(!DartCoreDebug.LAZY_DEPENDENCY_BODIES);
+    if (DartCoreDebug.PARALLEL_PARSE) {
+      options.setParseThreadCount(Runtime.getRuntime().availableProcessors());
+    }
+    if (DartCoreDebug.PARALLEL_RESOLUTION) {
+      options.setResolutionThreadCount(Runtime.getRuntime().availableProcessors());
+    }
+    if (DartCoreDebug.PARALLEL_VERIFICATION) {
+      options.setVerificationThreadCount(Runtime.getRuntime().availableProcessors());
+    }
+    options.setShareParsedUnits(DartCoreDebug.SHARED_PARSED_UNITS);
 
     AnalysisEngine.getInstance().setEnableUnionTypes(DartCoreDebug.ENABLE_UNION_TYPES);
     AnalysisEngine.getInstance().setStrictUnionTypes(DartCoreDebug.STRICT_UNION_TYPES);
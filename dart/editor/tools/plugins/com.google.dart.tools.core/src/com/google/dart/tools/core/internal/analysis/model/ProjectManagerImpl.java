@@ -15,7 +15,11 @@ package com.google.dart.tools.core.internal.analysis.model;
 
 import com.google.dart.engine.context.AnalysisContext;
 import com.google.dart.engine.index.Index;
+import com.google.dart.engine.internal.cache.PersistentAnalysisCache;
+import com.google.dart.engine.internal.context.AnalysisContextImpl;
+import com.google.dart.engine.internal.context.InstrumentedAnalysisContextImpl;
 import com.google.dart.engine.sdk.DartSdk;
+import com.google.dart.engine.sdk.DirectoryBasedDartSdk;
 import com.google.dart.engine.search.SearchEngine;
 import com.google.dart.engine.search.SearchEngineFactory;
 import com.google.dart.engine.source.Source;
@@ -47,10 +51,16 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -91,6 +101,24 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
     }
   };
 
+  /**
+   * A listener that schedules a job to write a summary of the SDK the first time analysis is
+   * complete, by which time most of the SDK libraries have already been resolved.
+   */
+  private final AnalysisListener sdkSummaryNotifier = new AnalysisListener.Empty() {
+    @Override
+    public void complete(AnalysisEvent event) {
+      AnalysisWorker.removeListener(this);
+      scheduleSdkSummaryJob();
+    }
+  };
+
+  /**
+   * The job used to write a summary of the SDK, or {@code null} if the job has not been scheduled.
+   * Synchronize against {@link #sdkSummaryNotifier} before accessing this field.
+   */
+  private Job sdkSummaryJob;
+
   /**
    * A listener that updates the manager when a project is closed. In addition, this listener
    * processes changes in packages directory because Eclipse builders do not receive deltas for
@@ -100,6 +128,12 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
 
   private final DartIgnoreListener ignoreListener;
 
+  /**
+   * The cache in which analysis results are saved when this manager is stopped and from which they
+   * are restored when it is started, or {@code null} if results are not persisted.
+   */
+  private PersistentAnalysisCache persistentCache;
+
   public ProjectManagerImpl(IWorkspaceRoot resource, DartSdk sdk, String sdkContextId, Index index,
       DartIgnoreManager ignoreManager) {
     super(sdk, sdkContextId);
@@ -310,6 +344,9 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
     resource.getWorkspace().addResourceChangeListener(resourceChangeListener);
     ignoreManager.addListener(ignoreListener);
     AnalysisWorker.addListener(indexNotifier);
+    if (needsSdkSummary()) {
+      AnalysisWorker.addListener(sdkSummaryNotifier);
+    }
   }
 
   @Override
@@ -430,6 +467,16 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
     }
   }
 
+  /**
+   * Set the cache in which analysis results are saved when this manager is stopped and from which
+   * they are restored when it is started. This must be invoked before the manager is started.
+   * 
+   * @param persistentCache the cache in which analysis results are persisted
+   */
+  public void setPersistentCache(PersistentAnalysisCache persistentCache) {
+    this.persistentCache = persistentCache;
+  }
+
   @Override
   public void start() {
     new AnalysisWorker(this, getSdkContext()).performAnalysisInBackground();
@@ -441,8 +488,17 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
     resource.getWorkspace().removeResourceChangeListener(resourceChangeListener);
     ignoreManager.removeListener(ignoreListener);
     AnalysisWorker.removeListener(indexNotifier);
+    AnalysisWorker.removeListener(sdkSummaryNotifier);
     AnalysisManager.getInstance().stopBackgroundAnalysis();
     AnalysisMarkerManager.getInstance().stop();
+    if (persistentCache != null) {
+      saveAnalysisResults();
+    }
+    synchronized (sdkSummaryNotifier) {
+      if (sdkSummaryJob != null) {
+        sdkSummaryJob.cancel();
+      }
+    }
   }
 
   private void analyzeAllProjects() {
@@ -450,7 +506,8 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
       BuildEvent event = new BuildEvent(project.getResource(), null, new NullProgressMonitor());
       AnalysisEngineParticipant participant = new AnalysisEngineParticipant(
           this,
-          AnalysisMarkerManager.getInstance());
+          AnalysisMarkerManager.getInstance(),
+          persistentCache);
       try {
         participant.build(event, new NullProgressMonitor());
       } catch (CoreException e) {
@@ -458,4 +515,80 @@ public class ProjectManagerImpl extends ContextManagerImpl implements ProjectMan
       }
     }
   }
+
+  /**
+   * Return {@code true} if the SDK has been configured to use summaries and there is not yet a
+   * summary for this version of the SDK.
+   * 
+   * @return {@code true} if a summary of the SDK needs to be written
+   */
+  private boolean needsSdkSummary() {
+    DartSdk sdk = getSdk();
+    if (!(sdk instanceof DirectoryBasedDartSdk)) {
+      return false;
+    }
+    File summaryFile = ((DirectoryBasedDartSdk) sdk).getSummaryFile();
+    return summaryFile != null && !summaryFile.exists();
+  }
+
+  /**
+   * Save the results of analyzing the sources in each of the projects so that they can be restored
+   * when the manager is next started.
+   */
+  private void saveAnalysisResults() {
+    HashSet<AnalysisContext> contexts = new HashSet<AnalysisContext>();
+    for (Project project : getProjects()) {
+      contexts.add(project.getDefaultContext());
+      for (PubFolder pubFolder : project.getPubFolders()) {
+        contexts.add(pubFolder.getContext());
+      }
+    }
+    for (AnalysisContext context : contexts) {
+      if (context instanceof InstrumentedAnalysisContextImpl) {
+        context = ((InstrumentedAnalysisContextImpl) context).getBasis();
+      }
+      if (context instanceof AnalysisContextImpl) {
+        try {
+          ((AnalysisContextImpl) context).saveAnalysisResults(persistentCache);
+        } catch (Exception exception) {
+          DartCore.logError("Failed to save analysis results", exception);
+        }
+      }
+    }
+  }
+
+  /**
+   * Schedule a low priority job to write a summary of the SDK, unless one has already been
+   * scheduled.
+   */
+  private void scheduleSdkSummaryJob() {
+    synchronized (sdkSummaryNotifier) {
+      if (sdkSummaryJob != null) {
+        return;
+      }
+      sdkSummaryJob = new Job("Writing SDK summary") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+          if (!monitor.isCanceled()) {
+            writeSdkSummary();
+          }
+          return Status.OK_STATUS;
+        }
+      };
+      sdkSummaryJob.setPriority(Job.DECORATE);
+      sdkSummaryJob.setSystem(true);
+      sdkSummaryJob.schedule();
+    }
+  }
+
+  /**
+   * Write a summary of the element models of the SDK libraries, resolving any libraries that have
+   * not yet been resolved, if there is not yet a summary for this version of the SDK, so that the
+   * element models can be created from the summary when the manager is next started.
+   */
+  private void writeSdkSummary() {
+    if (needsSdkSummary()) {
+      ((DirectoryBasedDartSdk) getSdk()).writeSummary();
+    }
+  }
 }
@@ -14,6 +14,9 @@
 package com.google.dart.tools.core.internal.builder;
 
 import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.internal.cache.PersistentAnalysisCache;
+import com.google.dart.engine.internal.context.AnalysisContextImpl;
+import com.google.dart.engine.internal.context.InstrumentedAnalysisContextImpl;
 import com.google.dart.tools.core.DartCore;
 import com.google.dart.tools.core.DartCoreDebug;
 import com.google.dart.tools.core.analysis.model.Project;
@@ -44,6 +47,12 @@ public class AnalysisEngineParticipant implements BuildParticipant {
    */
   private final AnalysisMarkerManager markerManager;
 
+  /**
+   * The cache from which the results of an earlier session are restored before the contexts are
+   * analyzed, or {@code null} if results are not to be restored.
+   */
+  private final PersistentAnalysisCache persistentCache;
+
   /**
    * The project manager (not {@code null}) responsible for caching project information and from
    * which the receiver obtains the project to be analyzed.
@@ -62,11 +71,17 @@ public class AnalysisEngineParticipant implements BuildParticipant {
 
   public AnalysisEngineParticipant(ProjectManager projectManager,
       AnalysisMarkerManager markerManager) {
+    this(projectManager, markerManager, null);
+  }
+
+  public AnalysisEngineParticipant(ProjectManager projectManager,
+      AnalysisMarkerManager markerManager, PersistentAnalysisCache persistentCache) {
     if (projectManager == null) {
       throw new IllegalArgumentException();
     }
     this.projectManager = projectManager;
     this.markerManager = markerManager;
+    this.persistentCache = persistentCache;
   }
 
   /**
@@ -186,6 +201,7 @@ public class AnalysisEngineParticipant implements BuildParticipant {
    * @param monitor the progress monitor (not {@code null})
    */
   private void analyzeContext(AnalysisContext context, IProgressMonitor monitor) {
+    restoreAnalysisResults(context);
     performAnalysis(new AnalysisWorker(
         project,
         context,
@@ -193,4 +209,21 @@ public class AnalysisEngineParticipant implements BuildParticipant {
         projectManager.getResourceMap(context),
         markerManager));
   }
+
+  /**
+   * Restore the results of analyzing the sources in the specified context in an earlier session.
+   * 
+   * @param context the context whose results are to be restored (not {@code null})
+   */
+  private void restoreAnalysisResults(AnalysisContext context) {
+    if (persistentCache == null) {
+      return;
+    }
+    if (context instanceof InstrumentedAnalysisContextImpl) {
+      context = ((InstrumentedAnalysisContextImpl) context).getBasis();
+    }
+    if (context instanceof AnalysisContextImpl) {
+      ((AnalysisContextImpl) context).restoreAnalysisResults(persistentCache);
+    }
+  }
 }
@@ -15,11 +15,13 @@ package com.google.dart.tools.core.internal.builder;
 
 import com.google.dart.engine.ast.CompilationUnit;
 import com.google.dart.engine.context.AnalysisContext;
+import com.google.dart.engine.context.AnalysisOptions;
 import com.google.dart.engine.context.AnalysisResult;
 import com.google.dart.engine.context.ChangeNotice;
 import com.google.dart.engine.error.AnalysisError;
 import com.google.dart.engine.html.ast.HtmlUnit;
 import com.google.dart.engine.internal.context.AnalysisOptionsImpl;
+import com.google.dart.engine.internal.context.ParallelAnalysisDriver;
 import com.google.dart.engine.sdk.DartSdk;
 import com.google.dart.engine.source.Source;
 import com.google.dart.engine.utilities.source.LineInfo;
@@ -147,6 +149,12 @@ public class AnalysisWorker {
   private static final int WORKING_CACHE_512_MEMORY = 900 * 1024 * 1024;
   private static final int WORKING_CACHE_512_SIZE = 512;
 
+  /**
+   * The number of milliseconds to wait for change notices from the workers performing analysis in
+   * parallel before checking whether analysis should stop.
+   */
+  private static final long PARALLEL_NOTICE_WAIT_MILLIS = 100L;
+
   /**
    * Objects to be notified when each compilation unit has been resolved. Contents of this array
    * will not change, but the array itself may be replaced. Synchronize against
@@ -368,32 +376,37 @@ public class AnalysisWorker {
     setCacheSize(context, WORKING_CACHE_SIZE);
 
     boolean analysisComplete = false;
-    while (true) {
+    int workerCount = getWorkerCount(context.getAnalysisOptions());
+    if (workerCount > 1) {
+      analysisComplete = performParallelAnalysis(context, workerCount);
+    } else {
+      while (true) {
+
+        // Check if the context has been set to null indicating that analysis should stop
+        synchronized (lock) {
+          if (this.context == null) {
+            break;
+          }
+        }
 
-      // Check if the context has been set to null indicating that analysis should stop
-      synchronized (lock) {
-        if (this.context == null) {
+        // Exit if no more analysis to be performed (changes == null)
+        AnalysisResult result;
+        try {
+          result = context.performAnalysisTask();
+        } catch (RuntimeException e) {
+          DartCore.logError("Analysis Failed: " + contextManager, e);
+          break;
+        }
+        ChangeNotice[] changes = result.getChangeNotices();
+        if (changes == null) {
+          analysisComplete = true;
           break;
         }
-      }
 
-      // Exit if no more analysis to be performed (changes == null)
-      AnalysisResult result;
-      try {
-        result = context.performAnalysisTask();
-      } catch (RuntimeException e) {
-        DartCore.logError("Analysis Failed: " + contextManager, e);
-        break;
-      }
-      ChangeNotice[] changes = result.getChangeNotices();
-      if (changes == null) {
-        analysisComplete = true;
-        break;
+        // Process changes and allow subclasses to check results
+        processChanges(context, changes);
+        checkResults(context);
       }
-
-      // Process changes and allow subclasses to check results
-      processChanges(context, changes);
-      checkResults(context);
     }
 
     setCacheSize(context, IDLE_CACHE_SIZE);
@@ -434,6 +447,20 @@ public class AnalysisWorker {
   protected void checkResults(AnalysisContext context) {
   }
 
+  /**
+   * Return the number of threads that should be used to perform analysis in a context with the
+   * given options, which is the largest number of tasks of any one kind that the options allow to
+   * be performed concurrently.
+   * 
+   * @param options the options of the context being analyzed
+   * @return the number of threads that should be used to perform analysis
+   */
+  private int getWorkerCount(AnalysisOptions options) {
+    return Math.max(
+        options.getParseThreadCount(),
+        Math.max(options.getResolutionThreadCount(), options.getVerificationThreadCount()));
+  }
+
   /**
    * Notify those interested that the analysis is complete.
    */
@@ -526,6 +553,48 @@ public class AnalysisWorker {
    * @param context the analysis context containing the unit that was resolved (not {@code null})
    * @param changes the changes to be processed (not {@code null})
    */
+  /**
+   * Perform analysis using the given number of worker threads, processing the change notices they
+   * produce on the current thread, until there is no more analysis to be performed or analysis is
+   * stopped.
+   * 
+   * @param context the analysis context being processed (not {@code null})
+   * @param workerCount the number of worker threads used to perform analysis
+   * @return {@code true} if all of the analysis was performed
+   */
+  private boolean performParallelAnalysis(AnalysisContext context, int workerCount) {
+    ParallelAnalysisDriver driver = new ParallelAnalysisDriver(context, workerCount);
+    driver.start();
+    try {
+      while (true) {
+
+        // Check if the context has been set to null indicating that analysis should stop
+        synchronized (lock) {
+          if (this.context == null) {
+            return false;
+          }
+        }
+
+        // Exit if no more analysis to be performed (changes == null)
+        ChangeNotice[] changes = driver.takeChangeNotices(PARALLEL_NOTICE_WAIT_MILLIS);
+        if (changes == null) {
+          return true;
+        }
+
+        // Process changes and allow subclasses to check results
+        if (changes.length > 0) {
+          processChanges(context, changes);
+          checkResults(context);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      driver.stop();
+    }
+  }
+
   private void processChanges(AnalysisContext context, ChangeNotice[] changes) {
     for (ChangeNotice change : changes) {
       Source source = change.getSource();
@@ -398,6 +398,10 @@ public class DartSdkManager {
     }
     if (sdkDir != null) {
       sdk = new DirectoryBasedDartSdk(sdkDir);
+      if (DartCoreDebug.SDK_SUMMARY) {
+        File stateDir = DartCore.getPlugin().getStateLocation().toFile();
+        sdk.setSummaryDirectory(new File(stateDir, "sdk"));
+      }
       // create an artificial context for SDK
       if (DartCoreDebug.ENABLE_ANALYSIS_SERVER) {
         // TODO(scheglov) restore or remove for the new API